@@ -4,7 +4,7 @@ import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
 
-public class Detective implements Serializable {
+public class Detective implements Serializable, RoomOccupant {
   private static final long serialVersionUID = 1L; // For Serializable
 
   private final String playerId; // Changed from 'name' to 'playerId', made final
@@ -12,6 +12,8 @@ public class Detective implements Serializable {
   private int deduceCount;
   private int finalExamScore;
   private Room currentRoom;
+  // The session's occupancy index, kept in sync on every move. Not part of the detective's state.
+  private transient RoomOccupancy occupancy;
   private Set<String> deducedObjects; // Tracks deduced objects by their names
 
   private static final String DEFAULT_RANK = "Junior Investigator";
@@ -57,6 +59,11 @@ public class Detective implements Serializable {
     return deducedObjects.contains(objectName.toLowerCase());
   }
 
+  /** Names (lowercase) of the objects this detective has deduced. Read-only view. */
+  public Set<String> getDeducedObjects() {
+    return java.util.Collections.unmodifiableSet(deducedObjects);
+  }
+
   public int getDeduceCount() {
     return deduceCount;
   }
@@ -80,14 +87,29 @@ public class Detective implements Serializable {
     return finalExamScore;
   }
 
+  @Override
   public Room getCurrentRoom() {
     return currentRoom;
   }
 
   public void setCurrentRoom(Room room) {
+    if (occupancy != null) {
+      occupancy.moved(this, currentRoom, room);
+    }
     this.currentRoom = room;
   }
 
+  /** Starts (or, with null, stops) reporting this detective's moves to an occupancy index. */
+  public void setOccupancy(RoomOccupancy occupancy) {
+    if (this.occupancy != null) {
+      this.occupancy.moved(this, currentRoom, null);
+    }
+    this.occupancy = occupancy;
+    if (occupancy != null) {
+      occupancy.moved(this, null, currentRoom);
+    }
+  }
+
   public void setRank(Rank rank) {
     this.rank = rank;
 }
@@ -0,0 +1,49 @@
+package Core;
+
+/**
+ * Direction The six ways out of a room. The ordinal doubles as the index into a room's exit array
+ * (see {@link Room#getNeighbor(Direction)}), so don't reorder these.
+ */
+public enum Direction {
+  NORTH,
+  SOUTH,
+  EAST,
+  WEST,
+  UP,
+  DOWN;
+
+  /** Cached copy of values(); values() clones the array on every call. */
+  private static final Direction[] ALL = values();
+
+  public static final int COUNT = ALL.length;
+
+  private final String key = name().toLowerCase();
+
+  /** The lowercase name used in case files and move commands, e.g. "north". */
+  public String key() {
+    return key;
+  }
+
+  public static Direction byIndex(int index) {
+    return ALL[index];
+  }
+
+  /**
+   * Parses a direction the way players and case files write it (case-insensitive, surrounding
+   * spaces ignored).
+   *
+   * @return The direction, or null if it isn't one.
+   */
+  public static Direction fromString(String text) {
+    if (text == null) {
+      return null;
+    }
+    String trimmed = text.trim();
+    for (Direction direction : ALL) {
+      if (direction.key.equalsIgnoreCase(trimmed)) {
+        return direction;
+      }
+    }
+    return null;
+  }
+}
@@ -1,33 +1,46 @@
 package Core;
 
 import common.interfaces.GameContext;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
 import java.util.Random;
 
-public abstract class MovableCharacter {
+public abstract class MovableCharacter implements RoomOccupant {
   protected Room currentRoom;
   protected final Random random = new Random();
+  // The session's occupancy index, kept in sync on every move. Null when nobody's indexing rooms.
+  private RoomOccupancy occupancy;
 
+  @Override
   public Room getCurrentRoom() {
     return currentRoom;
   }
 
   public void setCurrentRoom(Room room) {
+    if (occupancy != null) {
+      occupancy.moved(this, currentRoom, room);
+    }
     this.currentRoom = room;
   }
 
+  /** Starts (or, with null, stops) reporting this character's moves to an occupancy index. */
+  public void setOccupancy(RoomOccupancy occupancy) {
+    if (this.occupancy != null) {
+      this.occupancy.moved(this, currentRoom, null);
+    }
+    this.occupancy = occupancy;
+    if (occupancy != null) {
+      occupancy.moved(this, null, currentRoom);
+    }
+  }
+
   /**
    * Moves the character to a random neighboring room.
    *
    * @param context The GameContext object providing access to game data.
    */
   public void randomMove(GameContext context) {
-    Map<String, Room> neighbors = currentRoom.getNeighbors();
-    List<Room> allowedRooms = new ArrayList<>(neighbors.values());
-    if (!allowedRooms.isEmpty()) {
-      currentRoom = allowedRooms.get(random.nextInt(allowedRooms.size()));
+    int exits = currentRoom.getExitCount();
+    if (exits > 0) {
+      setCurrentRoom(currentRoom.getExit(random.nextInt(exits)));
     }
   }
 }
@@ -1,10 +1,14 @@
 package Core;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 public class Room implements Serializable {
+  private static final Room[] NO_ROOMS = new Room[0];
+  private static final Direction[] NO_DIRECTIONS = new Direction[0];
+
   // Name is final, set once. Good. Description can change if needed.
   private final String name;
   private String description;
@@ -13,6 +17,22 @@ public class Room implements Serializable {
   protected Map<String, Room> neighbors = new HashMap<>(); // Direction (lowercase) -> Neighbor Room
   protected Map<String, GameObject> objects =
       new HashMap<>(); // Object Name (lowercase) -> GameObject
+  // Set once the room is part of a shared case world (see extractors.CaseWorld). After that every
+  // session on the server sees this same instance, so nothing may change it anymore.
+  private boolean sealed;
+
+  // The same exits as 'neighbors', indexed by Direction.ordinal() (null = no exit that way). The map
+  // stays for name lookups at the edges; movement and NPC ticks only touch these arrays.
+  private final Room[] neighborsByDirection = new Room[Direction.COUNT];
+  // Non-null exits packed densely in direction order, so picking a random exit is one array index.
+  private Room[] exits = NO_ROOMS;
+  private Direction[] exitDirections = NO_DIRECTIONS;
+  // Dense index in the RoomGraph this room was compiled into, -1 until then.
+  private int id = -1;
+
+  // Read-only views handed out by getNeighbors()/getObjects(); created once, never copied.
+  private final Map<String, Room> neighborsView = Collections.unmodifiableMap(neighbors);
+  private final Map<String, GameObject> objectsView = Collections.unmodifiableMap(objects);
 
   /**
    * My main constructor for a Room.
@@ -43,17 +63,42 @@ public class Room implements Serializable {
    * @param description The new description text.
    */
   public void setDescription(String description) {
+    checkNotSealed();
     this.description = description;
   }
 
+  /** Index of this room in its RoomGraph, or -1 if it hasn't been compiled into one. */
+  public int getId() {
+    return id;
+  }
+
+  void assignId(int id) {
+    this.id = id;
+  }
+
   /**
    * Gets a map of neighboring rooms.
    *
-   * @return A new Map instance to prevent external modification of my internal neighbors map.
+   * @return A read-only view of my neighbors map (direction -> room). It's a live view, not a copy,
+   *     so it costs nothing to call; anyone who wants to keep it around should copy it.
    */
   public Map<String, Room> getNeighbors() {
-    // Always return a copy. Don't want anyone messing with my internal map directly.
-    return new HashMap<>(neighbors);
+    return neighborsView;
+  }
+
+  /** Number of exits out of this room. Use with {@link #getExit(int)} to walk them allocation-free. */
+  public int getExitCount() {
+    return exits.length;
+  }
+
+  /** The {@code index}-th exit, in direction order (0 .. getExitCount() - 1). */
+  public Room getExit(int index) {
+    return exits[index];
+  }
+
+  /** Which way the {@code index}-th exit goes. */
+  public Direction getExitDirection(int index) {
+    return exitDirections[index];
   }
 
   /**
@@ -63,7 +108,8 @@ public class Room implements Serializable {
    * @param neighbor The Room object that is the neighbor.
    */
   public void setNeighbor(String direction, Room neighbor) {
-    if (direction == null || direction.trim().isEmpty() || neighbor == null) {
+    Direction parsed = Direction.fromString(direction);
+    if (parsed == null || neighbor == null) {
       // Basic check, probably log this error instead of just System.err if it was a bigger app.
       System.err.println(
           "ROOM_ERROR: Invalid direction or null neighbor for setNeighbor in room '"
@@ -71,7 +117,29 @@ public class Room implements Serializable {
               + "'.");
       return;
     }
-    neighbors.put(direction.trim().toLowerCase(), neighbor);
+    setNeighbor(parsed, neighbor);
+  }
+
+  /** Sets the neighbor in a direction, replacing whatever exit was there. */
+  public void setNeighbor(Direction direction, Room neighbor) {
+    checkNotSealed();
+    neighbors.put(direction.key(), neighbor);
+    neighborsByDirection[direction.ordinal()] = neighbor;
+    // Only happens while a case loads, so just rebuild the packed arrays.
+    int count = 0;
+    for (Room room : neighborsByDirection) {
+      if (room != null) count++;
+    }
+    Room[] packed = new Room[count];
+    Direction[] packedDirections = new Direction[count];
+    for (int i = 0, j = 0; i < neighborsByDirection.length; i++) {
+      if (neighborsByDirection[i] != null) {
+        packed[j] = neighborsByDirection[i];
+        packedDirections[j++] = Direction.byIndex(i);
+      }
+    }
+    exits = packed;
+    exitDirections = packedDirections;
   }
 
   /**
@@ -81,8 +149,13 @@ public class Room implements Serializable {
    * @return The neighboring Room, or null if no exit in that direction.
    */
   public Room getNeighbor(String direction) {
-    if (direction == null) return null;
-    return neighbors.get(direction.trim().toLowerCase());
+    Direction parsed = Direction.fromString(direction);
+    return parsed != null ? neighborsByDirection[parsed.ordinal()] : null;
+  }
+
+  /** Same as above, for callers that already have a Direction. No lookup at all. */
+  public Room getNeighbor(Direction direction) {
+    return neighborsByDirection[direction.ordinal()];
   }
 
   /**
@@ -109,6 +182,7 @@ public class Room implements Serializable {
               + "'.");
       return;
     }
+    checkNotSealed();
     // Store object by its name, lowercase, for easy lookup.
     objects.put(object.getName().trim().toLowerCase(), object);
   }
@@ -116,11 +190,29 @@ public class Room implements Serializable {
   /**
    * Gets all GameObjects present in this room.
    *
-   * @return A new Map instance to prevent external modification of my internal objects map.
+   * @return A read-only view of my objects map (lowercase name -> object). Live, not a copy.
    */
   public Map<String, GameObject> getObjects() {
-    // Defensive copy again. Good habit.
-    return new HashMap<>(objects);
+    return objectsView;
+  }
+
+  /**
+   * Freezes the room: from now on setDescription/setNeighbor/addObject throw. Called when the room
+   * goes into a shared, read-only case world.
+   */
+  public void seal() {
+    this.sealed = true;
+  }
+
+  public boolean isSealed() {
+    return sealed;
+  }
+
+  private void checkNotSealed() {
+    if (sealed) {
+      throw new IllegalStateException(
+          "Room '" + name + "' belongs to a shared case world and can't be changed.");
+    }
   }
 
   // Standard equals and hashCode based on the room's 'name'.
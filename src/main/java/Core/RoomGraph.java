@@ -0,0 +1,96 @@
+package Core;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * RoomGraph A loaded building compiled into a dense graph. Every room gets an int id (its index
+ * here), and the exits live in one flat int array indexed by {@code id * Direction.COUNT +
+ * direction}, -1 meaning no exit.
+ *
+ * <p>Names only matter at the edges (a case file, a player typing a room name), so the name map is
+ * here for that and nothing else. Anything that runs per move or per NPC tick should go by id or by
+ * the Room's own exit arrays, which never allocate. Per-session state can use plain int/boolean
+ * arrays sized {@link #size()} instead of maps keyed by room.
+ */
+public final class RoomGraph {
+
+  private final Room[] rooms;
+  private final int[] adjacency; // id * Direction.COUNT + direction.ordinal() -> neighbor id or -1
+  private final Map<String, Room> byName; // Lowercase name -> room, read-only
+
+  /**
+   * Numbers the rooms in iteration order and records their exits. The rooms should be fully linked
+   * by now; an exit to a room outside this collection is an error.
+   */
+  public RoomGraph(Collection<Room> roomsToCompile) {
+    this.rooms = roomsToCompile.toArray(new Room[0]);
+    Map<String, Room> names = new LinkedHashMap<>();
+    for (int id = 0; id < rooms.length; id++) {
+      rooms[id].assignId(id);
+      names.put(rooms[id].getName().toLowerCase(), rooms[id]);
+    }
+    this.byName = Collections.unmodifiableMap(names);
+
+    this.adjacency = new int[rooms.length * Direction.COUNT];
+    Arrays.fill(adjacency, -1);
+    for (Room room : rooms) {
+      for (int i = 0; i < room.getExitCount(); i++) {
+        Room neighbor = room.getExit(i);
+        if (neighbor.getId() < 0 || neighbor.getId() >= rooms.length || rooms[neighbor.getId()] != neighbor) {
+          throw new IllegalArgumentException(
+              "Room '" + room.getName() + "' has an exit to '" + neighbor.getName() + "', which isn't in this graph.");
+        }
+        adjacency[room.getId() * Direction.COUNT + room.getExitDirection(i).ordinal()] = neighbor.getId();
+      }
+    }
+  }
+
+  public int size() {
+    return rooms.length;
+  }
+
+  public Room room(int id) {
+    return rooms[id];
+  }
+
+  /** Resolves a room name (case-insensitive). For the edges only; see the class doc. */
+  public Room byName(String name) {
+    return name != null ? byName.get(name.trim().toLowerCase()) : null;
+  }
+
+  /** Every room by lowercase name. Unmodifiable. */
+  public Map<String, Room> asMap() {
+    return byName;
+  }
+
+  /** Id of the room {@code direction} leads to from room {@code id}, or -1 if there's no exit. */
+  public int neighborId(int id, Direction direction) {
+    return adjacency[id * Direction.COUNT + direction.ordinal()];
+  }
+
+  /** Ids of the rooms that can be reached from {@code startId}, start included. */
+  public BitSet reachableFrom(int startId) {
+    BitSet visited = new BitSet(rooms.length);
+    int[] queue = new int[rooms.length];
+    int head = 0;
+    int tail = 0;
+    visited.set(startId);
+    queue[tail++] = startId;
+    while (head < tail) {
+      int base = queue[head++] * Direction.COUNT;
+      for (int d = 0; d < Direction.COUNT; d++) {
+        int next = adjacency[base + d];
+        if (next >= 0 && !visited.get(next)) {
+          visited.set(next);
+          queue[tail++] = next;
+        }
+      }
+    }
+    return visited;
+  }
+}
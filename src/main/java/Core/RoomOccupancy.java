@@ -0,0 +1,76 @@
+package Core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RoomOccupancy Who is in which room, for one game session. Kept up to date incrementally: every
+ * tracked occupant calls {@link #moved} from its setCurrentRoom, so "who's here?" is a lookup of the
+ * room's own list instead of a scan over every character comparing room names.
+ *
+ * <p>Indexed by room id (see {@link RoomGraph}), so it only works with the rooms of the graph it was
+ * made for. Occupants appear in the order they arrived. Not thread-safe; a session's state is only
+ * touched from its mailbox.
+ */
+public final class RoomOccupancy {
+
+  private final RoomGraph graph;
+  // Indexed by room id; a room's entry stays null until someone first walks in.
+  private final List<List<RoomOccupant>> occupantsByRoom;
+  private final List<List<RoomOccupant>> views; // Read-only views of the lists above, made on demand.
+
+  public RoomOccupancy(RoomGraph graph) {
+    this.graph = graph;
+    this.occupantsByRoom = new ArrayList<>(Collections.nCopies(graph.size(), null));
+    this.views = new ArrayList<>(Collections.nCopies(graph.size(), null));
+  }
+
+  /** Records that {@code occupant} went from one room to another. Either side may be null. */
+  public void moved(RoomOccupant occupant, Room from, Room to) {
+    if (from == to) {
+      return;
+    }
+    if (from != null) {
+      List<RoomOccupant> occupants = occupantsByRoom.get(idOf(from));
+      if (occupants != null) {
+        occupants.remove(occupant);
+      }
+    }
+    if (to != null) {
+      int id = idOf(to);
+      List<RoomOccupant> occupants = occupantsByRoom.get(id);
+      if (occupants == null) {
+        occupants = new ArrayList<>(4);
+        occupantsByRoom.set(id, occupants);
+      }
+      occupants.add(occupant);
+    }
+  }
+
+  /** Everyone in {@code room}, in arrival order. A live, read-only view. */
+  public List<RoomOccupant> occupantsOf(Room room) {
+    if (room == null) {
+      return Collections.emptyList();
+    }
+    int id = idOf(room);
+    List<RoomOccupant> occupants = occupantsByRoom.get(id);
+    if (occupants == null) {
+      return Collections.emptyList();
+    }
+    List<RoomOccupant> view = views.get(id);
+    if (view == null) {
+      view = Collections.unmodifiableList(occupants);
+      views.set(id, view);
+    }
+    return view;
+  }
+
+  private int idOf(Room room) {
+    int id = room.getId();
+    if (id < 0 || id >= graph.size() || graph.room(id) != room) {
+      throw new IllegalArgumentException("Room '" + room.getName() + "' isn't part of this session's building.");
+    }
+    return id;
+  }
+}
@@ -0,0 +1,11 @@
+package Core;
+
+/**
+ * RoomOccupant Anything that stands in a room and shows up in its occupant list: detectives,
+ * suspects and Watson. Implementations report every move to their {@link RoomOccupancy}, if they
+ * have one.
+ */
+public interface RoomOccupant {
+
+  Room getCurrentRoom();
+}
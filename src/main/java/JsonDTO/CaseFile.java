@@ -2,9 +2,11 @@
 
 package JsonDTO;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import common.dto.FinalExamDTO;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -15,12 +17,30 @@ public class CaseFile {
   private String startingRoom;
   private List<RoomData> rooms;
   private Map<String, LocalizedData> localizations;
+  // Set by whoever loaded the case (see extractors.CaseLoader#contentHash); never part of the JSON.
+  @JsonIgnore
+  private volatile String contentHash;
+
+  public CaseFile() {
+  }
+
+  /** A case assembled in code rather than parsed, e.g. from a compiled bundle. */
+  public CaseFile(String universalTitle, String startingRoom, List<RoomData> rooms, Map<String, LocalizedData> localizations) {
+    this.universalTitle = universalTitle;
+    this.startingRoom = startingRoom;
+    this.rooms = rooms;
+    this.localizations = localizations;
+  }
 
   // Getters
   public String getUniversalTitle() { return universalTitle; }
   public String getStartingRoom() { return startingRoom; }
   public List<RoomData> getRooms() { return rooms; }
   public Map<String, LocalizedData> getLocalizations() { return localizations; }
+  @JsonIgnore
+  public String getContentHash() { return contentHash; }
+  @JsonIgnore
+  public void setContentHash(String contentHash) { this.contentHash = contentHash; }
 
   // --- NESTED CLASSES ---
   // Made classes PUBLIC to be accessible from LocalizedCaseFile
@@ -79,6 +99,42 @@ public class CaseFile {
     public List<String> getWatsonHints() { return watsonHints; }
     public List<RankTierData> getRankingTiers() { return rankingTiers; }
     public String getWinningMessage() { return winningMessage; }
+
+    // Name lookups for LocalizedCaseFile, built on first use (the first detail of a name wins).
+    @JsonIgnore
+    private volatile Map<String, RoomDetailData> roomDetailsByName;
+    @JsonIgnore
+    private volatile Map<String, ObjectDetailData> objectDetailsByName;
+
+    /** The room detail named {@code name}, or null. Overridden where details are read on demand. */
+    public RoomDetailData roomDetail(String name) {
+      Map<String, RoomDetailData> byName = roomDetailsByName;
+      if (byName == null) {
+        byName = new HashMap<>();
+        if (getRoomDetails() != null) {
+          for (RoomDetailData detail : getRoomDetails()) {
+            byName.putIfAbsent(detail.getName(), detail);
+          }
+        }
+        roomDetailsByName = byName;
+      }
+      return byName.get(name);
+    }
+
+    /** The object detail named {@code name}, or null. Overridden where details are read on demand. */
+    public ObjectDetailData objectDetail(String name) {
+      Map<String, ObjectDetailData> byName = objectDetailsByName;
+      if (byName == null) {
+        byName = new HashMap<>();
+        if (getObjectDetails() != null) {
+          for (ObjectDetailData detail : getObjectDetails()) {
+            byName.putIfAbsent(detail.getName(), detail);
+          }
+        }
+        objectDetailsByName = byName;
+      }
+      return byName.get(name);
+    }
   }
 
   public static class SuspectData {
@@ -2,30 +2,28 @@ package JsonDTO;
 
 import common.dto.FinalExamDTO;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * An adapter class that represents a single-language version of a CaseFile.
  * It's constructed from a multilingual CaseFile DTO and a specific language code.
  * It provides the exact same getters as the OLD CaseFile DTO, so the rest of the
  * game engine (Extractors, Contexts) doesn't need to be changed.
+ *
+ * Nothing is copied up front: the rooms only carry their names, exits and object names,
+ * and their text is looked up in the chosen language each time it's read. For a case
+ * backed by an extractors.CaseIndex that means text stays in the file until a player
+ * actually sees it.
  */
 public class LocalizedCaseFile implements CaseData {
 
-    // These fields mirror the OLD CaseFile structure
-    private String title;
-    private String invitation;
-    private String description;
-    private String startingRoom;
-    private List<CaseFile.SuspectData> suspects;
-    private List<CaseFile.RoomData> rooms;
-    private FinalExamDTO finalExam;
-    private List<String> tasks;
-    private List<String> watsonHints;
-    private List<CaseFile.RankTierData> rankingTiers;
-    private String winningMessage;
+    private static final String DEFAULT_ROOM_DESCRIPTION = "A non-descript room.";
+
+    private final CaseFile.LocalizedData locData;
+    private final String startingRoom;
+    private final List<CaseFile.RoomData> rooms;
 
     /**
      * Constructs a single-language case file from a multilingual source.
@@ -40,67 +38,79 @@ public class LocalizedCaseFile implements CaseData {
             locData = multiLingualCase.getLocalizations().get(fallbackCode);
             System.err.println("Warning: Language '" + languageCode + "' not found. Falling back to '" + fallbackCode + "'.");
         }
-
-        // 1. Populate simple text fields
-        this.title = locData.getTitle();
-        this.invitation = locData.getInvitation();
-        this.description = locData.getDescription();
-        this.finalExam = locData.getFinalExam();
-        this.tasks = locData.getTasks();
-        this.watsonHints = locData.getWatsonHints();
-        this.rankingTiers = locData.getRankingTiers();
-        this.winningMessage = locData.getWinningMessage();
-
-        // 2. Populate fields from the top-level structure
+        this.locData = locData;
         this.startingRoom = multiLingualCase.getStartingRoom();
-        this.suspects = locData.getSuspects(); // Suspects are fully defined in localized data
-
-        // 3. Merge logical room structure with localized text details
-        Map<String, String> roomDescriptions = locData.getRoomDetails().stream()
-                .collect(Collectors.toMap(CaseFile.RoomDetailData::getName, CaseFile.RoomDetailData::getDescription));
-
-        Map<String, CaseFile.ObjectDetailData> objectDetails = locData.getObjectDetails().stream()
-                .collect(Collectors.toMap(CaseFile.ObjectDetailData::getName, detail -> detail));
-
-        this.rooms = multiLingualCase.getRooms().stream()
-                .map(logicalRoom -> {
-                    // Create a new RoomData that will hold the merged info
-                    CaseFile.RoomData localizedRoom = new CaseFile.RoomData();
-                    localizedRoom.name = logicalRoom.getName();
-                    localizedRoom.neighbors = logicalRoom.getNeighbors();
-                    // Get the description from our localized map
-                    localizedRoom.description = roomDescriptions.getOrDefault(logicalRoom.getName(), "A non-descript room.");
-
-                    // Now merge the object details
-                    if (logicalRoom.getObjects() != null) {
-                        localizedRoom.objects = logicalRoom.getObjects().stream()
-                                .map(objectStub -> {
-                                    CaseFile.ObjectDetailData details = objectDetails.get(objectStub.getName());
-                                    // Create the full object data DTO the extractors expect
-                                    CaseFile.GameObjectData fullObject = new CaseFile.GameObjectData();
-                                    fullObject.name = objectStub.getName();
-                                    if (details != null) {
-                                        fullObject.description = details.getDescription();
-                                        fullObject.examine = details.getExamine();
-                                        fullObject.deduce = details.getDeduce();
-                                    }
-                                    return fullObject;
-                                }).collect(Collectors.toList());
-                    }
-                    return localizedRoom;
-                }).collect(Collectors.toList());
+
+        // Merge logical room structure with (lazily looked up) localized text details
+        List<CaseFile.RoomData> merged = new ArrayList<>(multiLingualCase.getRooms().size());
+        for (CaseFile.RoomData logicalRoom : multiLingualCase.getRooms()) {
+            merged.add(new LocalizedRoom(logicalRoom, locData));
+        }
+        this.rooms = Collections.unmodifiableList(merged);
+    }
+
+    /** A logical room whose description comes from the localized room details when read. */
+    private static final class LocalizedRoom extends CaseFile.RoomData {
+        private final CaseFile.LocalizedData locData;
+
+        LocalizedRoom(CaseFile.RoomData logicalRoom, CaseFile.LocalizedData locData) {
+            this.locData = locData;
+            this.name = logicalRoom.getName();
+            this.neighbors = logicalRoom.getNeighbors();
+            if (logicalRoom.getObjects() != null) {
+                List<CaseFile.GameObjectData> merged = new ArrayList<>(logicalRoom.getObjects().size());
+                for (CaseFile.GameObjectData objectStub : logicalRoom.getObjects()) {
+                    merged.add(new LocalizedObject(objectStub.getName(), locData));
+                }
+                this.objects = merged;
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            CaseFile.RoomDetailData details = locData.roomDetail(name);
+            return details != null && details.getDescription() != null ? details.getDescription() : DEFAULT_ROOM_DESCRIPTION;
+        }
+    }
+
+    /** An object stub whose texts come from the localized object details when read. */
+    private static final class LocalizedObject extends CaseFile.GameObjectData {
+        private final CaseFile.LocalizedData locData;
+
+        LocalizedObject(String name, CaseFile.LocalizedData locData) {
+            this.locData = locData;
+            this.name = name;
+        }
+
+        @Override
+        public String getDescription() {
+            CaseFile.ObjectDetailData details = locData.objectDetail(name);
+            return details != null ? details.getDescription() : null;
+        }
+
+        @Override
+        public String getExamine() {
+            CaseFile.ObjectDetailData details = locData.objectDetail(name);
+            return details != null ? details.getExamine() : null;
+        }
+
+        @Override
+        public String getDeduce() {
+            CaseFile.ObjectDetailData details = locData.objectDetail(name);
+            return details != null ? details.getDeduce() : null;
+        }
     }
 
     // GETTERS (These must match the getters from your OLD CaseFile DTO)
-    public String getTitle() { return title; }
-    public String getInvitation() { return invitation; }
-    public String getDescription() { return description; }
+    public String getTitle() { return locData.getTitle(); }
+    public String getInvitation() { return locData.getInvitation(); }
+    public String getDescription() { return locData.getDescription(); }
     public String getStartingRoom() { return startingRoom; }
-    public List<CaseFile.SuspectData> getSuspects() { return suspects; }
+    public List<CaseFile.SuspectData> getSuspects() { return locData.getSuspects(); } // Suspects are fully defined in localized data
     public List<CaseFile.RoomData> getRooms() { return rooms; }
-    public FinalExamDTO getFinalExam() { return finalExam; }
-    public List<String> getTasks() { return tasks; }
-    public List<String> getWatsonHints() { return watsonHints; }
-    public List<CaseFile.RankTierData> getRankingTiers() { return rankingTiers; }
-    public String getWinningMessage() { return winningMessage; }
-}
\ No newline at end of file
+    public FinalExamDTO getFinalExam() { return locData.getFinalExam(); }
+    public List<String> getTasks() { return locData.getTasks(); }
+    public List<String> getWatsonHints() { return locData.getWatsonHints(); }
+    public List<CaseFile.RankTierData> getRankingTiers() { return locData.getRankingTiers(); }
+    public String getWinningMessage() { return locData.getWinningMessage(); }
+}
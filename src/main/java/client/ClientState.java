@@ -5,6 +5,7 @@ public enum ClientState {
   DISCONNECTED(true), // User can type 'connect' or 'quit'
   CONNECTING(false), // Waits for connection
   RECONNECTING(false), // Waits for reconnection
+  RESUMING_SESSION(false), // Reconnected; waits for the server to put us back in our game
 
   // Lobby / Main Menu States
   CONNECTED_IDLE(true), // Main menu, interactive
@@ -25,6 +26,11 @@ public enum ClientState {
   ENTERING_PRIVATE_CODE(true), // Interactive (typing code or 'cancel')
   SENDING_JOIN_PRIVATE_REQUEST(false), // Waits for server response
 
+  // Spectating Flow
+  ENTERING_SPECTATE_TARGET(true), // Interactive (typing code / session ID or 'cancel')
+  SENDING_SPECTATE_REQUEST(false), // Waits for server response
+  SPECTATING(true), // Read-only view of someone else's game ('exit' to stop watching)
+
   // In-Session / In-Game States
   SHOWING_INVITATION(true), // Special state for showing the invitation screen
   IN_LOBBY_AWAITING_START(true), // Interactive (host: 'start case', guest: 'request...', chat)
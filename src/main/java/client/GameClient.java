@@ -10,6 +10,11 @@ import common.commands.pinboard.*;
 import common.dto.*;
 import common.dto.pinboard.PinboardStateDTO;
 import common.dto.pinboard.PinboardUpdateDTO;
+import common.wire.ChunkReassembler;
+import common.wire.FrameCompressor;
+import common.wire.WireCodec;
+import common.wire.WireCodecs;
+import common.wire.WireFormat;
 import java.io.IOException;
 import java.io.Serializable;
 import java.net.ConnectException;
@@ -19,11 +24,12 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,6 +62,9 @@ public class GameClient implements Runnable {
 
   // Session-specific data
   private String playerId;
+  // Codec + compression for frames we send. Every connection starts on plain JSON until
+  // negotiation picks something better.
+  private volatile WireFormat outboundFormat = WireFormat.JSON;
   private String playerDisplayId;
   private String currentSessionId;
   private String hostPlayerIdInSession;
@@ -67,8 +76,32 @@ public class GameClient implements Runnable {
   private static final int MAX_RECONNECT_ATTEMPTS = 2;
   private static final long RECONNECT_DELAY_MS = 5000;
 
+  // Resuming a game after the connection drops (see ResumeSessionRequestDTO).
+  private volatile String resumeToken; // The seat we hold, from the server's ID assignment.
+  private final AtomicLong framesReceived = new AtomicLong(); // Every frame read, numbered like the server does.
+  // Large server messages (e.g. case data) arrive as chunked streams; this collects them. Kept across
+  // a resume, since a stream that was cut off carries on on the new connection.
+  private ChunkReassembler chunkReassembler;
+  private ResumeCandidate resumeCandidate; // Set when we dropped out of a game; cleared once answered.
+
+  /** What we need to get back into a game we dropped out of. */
+  private record ResumeCandidate(String token, long framesReceived, ClientState state) {}
+
   // Caches and temporary state
-  private List<JsonDTO.CaseFile> availableCasesCache;
+  // The server's case catalog as last received, and its hash; kept across visits to the host menu
+  // so the server only resends it when it changed.
+  private List<CaseSummaryDTO> availableCasesCache;
+  private String availableCasesHash;
+  // Full cases fetched by content hash. A hash names one exact version, so entries never go stale.
+  private final Map<String, JsonDTO.CaseFile> caseFileCache =
+      Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JsonDTO.CaseFile> eldest) {
+          return size() > NetworkConstants.CLIENT_CASE_CACHE_ENTRIES;
+        }
+      });
+  // Hashes asked for and not answered yet, so a redrawn menu doesn't ask again.
+  private final Set<String> caseFilesRequested = ConcurrentHashMap.newKeySet();
   private List<PublicGameInfoDTO> publicGamesCache;
   private List<String> currentTasks;
     private Map<Integer, Boolean> taskStates = new HashMap<>();
@@ -240,7 +273,9 @@ public class GameClient implements Runnable {
             listener.onCaseSelection(availableCasesCache);
             break;
           case SELECTING_HOST_LANGUAGE:
-            listener.onLanguageSelection(availableCasesCache.get(caseIndexForLanguageSelection));
+            CaseSummaryDTO caseSummary = availableCasesCache.get(caseIndexForLanguageSelection);
+            listener.onLanguageSelection(caseSummary);
+            showCaseDetails(caseSummary); // After the GUI has redrawn the menu, not before.
             break;
           case HOSTING_LOBBY_WAITING:
             listener.onHostingLobby(null);
@@ -254,6 +289,12 @@ public class GameClient implements Runnable {
           case ENTERING_PRIVATE_CODE:
             listener.onPrivateGameEntry();
             break;
+          case ENTERING_SPECTATE_TARGET:
+            printToConsole("Enter the game code or session ID to watch (or 'cancel'):");
+            break;
+          case SPECTATING:
+            printToConsole("You are spectating. Type 'exit' to stop watching.");
+            break;
           case IN_LOBBY_AWAITING_START:
             listener.onLobby();
             break;
@@ -357,6 +398,18 @@ public class GameClient implements Runnable {
         handlePrivateCodeEntry(input);
         break;
 
+      case ENTERING_SPECTATE_TARGET:
+        handleSpectateTargetEntry(input);
+        break;
+
+      case SPECTATING:
+        if (input.equalsIgnoreCase("exit") || input.equalsIgnoreCase("leave")) {
+          sendToServer(new ExitCommand());
+        } else if (!input.isEmpty()) {
+          printToConsole("You are only watching this game. Type 'exit' to stop spectating.");
+        }
+        break;
+
       case IN_GAME:
         handleInGameOrLobbyReadyInput(input, cs);
         break;
@@ -386,6 +439,8 @@ public class GameClient implements Runnable {
       case SENDING_HOST_REQUEST:
       case SENDING_JOIN_PUBLIC_REQUEST:
       case SENDING_JOIN_PRIVATE_REQUEST:
+      case SENDING_SPECTATE_REQUEST:
+      case RESUMING_SESSION:
       case ATTEMPTING_FINAL_EXAM:
       case SUBMITTING_EXAM_ANSWER:
         if (isChatCommand(input) && currentSessionId != null) {
@@ -444,6 +499,7 @@ public class GameClient implements Runnable {
         && (cs == ClientState.IN_GAME
             || cs == ClientState.IN_LOBBY_AWAITING_START
             || cs == ClientState.HOSTING_LOBBY_WAITING
+            || cs == ClientState.SPECTATING
             || cs.name().contains("EXAM"))) {
       sendToServer(new ExitCommand()); // Graceful exit from session
     } else {
@@ -538,13 +594,13 @@ public class GameClient implements Runnable {
         this.intentToHostPublic = true;
         this.preWaitingState = ClientState.SELECTING_HOST_TYPE;
         currentState.set(ClientState.REQUESTING_CASE_LIST_FOR_HOST);
-        sendToServer(new RequestCaseListCommand());
+        sendToServer(new RequestCaseListCommand(availableCasesHash));
         break;
       case "2": // Host Private
         this.intentToHostPublic = false;
         this.preWaitingState = ClientState.SELECTING_HOST_TYPE;
         currentState.set(ClientState.REQUESTING_CASE_LIST_FOR_HOST);
-        sendToServer(new RequestCaseListCommand());
+        sendToServer(new RequestCaseListCommand(availableCasesHash));
         break;
       case "3":
         if (launchMode == LaunchMode.HOST_ONLY) {
@@ -563,7 +619,6 @@ public class GameClient implements Runnable {
   private void handleHostCaseSelection(String input) {
     if ("0".equals(input)) {
       currentState.set(ClientState.SELECTING_HOST_TYPE);
-      this.availableCasesCache = null;
       this.caseIndexForLanguageSelection = -1;
       return;
     }
@@ -572,21 +627,21 @@ public class GameClient implements Runnable {
       int caseNum = Integer.parseInt(input);
       if (availableCasesCache != null && caseNum > 0 && caseNum <= availableCasesCache.size()) {
         this.caseIndexForLanguageSelection = caseNum - 1; // Store the index
-        JsonDTO.CaseFile selectedCase = availableCasesCache.get(this.caseIndexForLanguageSelection);
+        CaseSummaryDTO selectedCase = availableCasesCache.get(this.caseIndexForLanguageSelection);
 
-        if (selectedCase.getLocalizations().size() == 1) {
-          String langCode = selectedCase.getLocalizations().keySet().iterator().next();
+        if (selectedCase.getLanguages().size() == 1) {
+          String langCode = selectedCase.getLanguages().keySet().iterator().next();
           sendHostRequest(selectedCase.getUniversalTitle(), langCode);
         } else {
           printToConsole(
               "--- Select a Language for '" + selectedCase.getUniversalTitle() + "' ---");
-          List<String> langNames =
-              selectedCase.getLocalizations().values().stream()
-                  .map(JsonDTO.CaseFile.LocalizedData::getLanguageName)
-                  .collect(Collectors.toList());
+          List<String> langNames = new ArrayList<>(selectedCase.getLanguages().values());
           for (int i = 0; i < langNames.size(); i++) {
             printToConsole((i + 1) + ". " + langNames.get(i));
           }
+          if (listener == null) {
+            showCaseDetails(selectedCase); // A GUI shows them with its own language menu.
+          }
           currentState.set(ClientState.SELECTING_HOST_LANGUAGE);
         }
       } else {
@@ -608,7 +663,11 @@ public class GameClient implements Runnable {
         preWaitingState = ClientState.SELECTING_JOIN_TYPE;
         currentState.set(ClientState.ENTERING_PRIVATE_CODE);
         break;
-      case "3":
+      case "3": // Spectate
+        preWaitingState = ClientState.SELECTING_JOIN_TYPE;
+        currentState.set(ClientState.ENTERING_SPECTATE_TARGET);
+        break;
+      case "4":
         if (launchMode == LaunchMode.JOIN_ONLY) {
             stopClient();
         } else {
@@ -663,6 +722,21 @@ public class GameClient implements Runnable {
     sendToServer(new JoinPrivateGameCommand(new JoinPrivateGameRequestDTO(inputCode.toUpperCase())));
   }
 
+  private void handleSpectateTargetEntry(String target) {
+    if (target.equalsIgnoreCase("cancel")) {
+      currentState.set(ClientState.SELECTING_JOIN_TYPE);
+      return;
+    }
+    if (target.isBlank()) {
+      printToConsole("Enter a game code or session ID, or type 'cancel'.");
+      return;
+    }
+    printToConsole("Asking to watch game: " + target);
+    preWaitingState = ClientState.ENTERING_SPECTATE_TARGET;
+    currentState.set(ClientState.SENDING_SPECTATE_REQUEST);
+    sendToServer(new SpectateGameCommand(new SpectateGameRequestDTO(target.trim())));
+  }
+
   private void handleHostingLobbyInput(String input) {
     if (input.equalsIgnoreCase("exit lobby")) {
       printToConsole("Cancelling hosted game lobby...");
@@ -716,24 +790,96 @@ public class GameClient implements Runnable {
       return;
     }
 
-    this.availableCasesCache = ac.getCases();
-    if (availableCasesCache == null || availableCasesCache.isEmpty()) {
+    if (!ac.isUnchanged()) {
+      this.availableCasesCache = ac.getCases();
+      this.availableCasesHash = ac.getCatalogHash();
+    } else if (availableCasesCache == null) {
+      sendToServer(new RequestCaseListCommand()); // Nothing cached to fall back on; ask for all of it.
+      return;
+    } else {
+      log("Case catalog unchanged (" + ac.getCatalogHash() + "); using the cached copy.");
+    }
+    if (availableCasesCache.isEmpty()) {
       printToConsole("No cases available on the server to host.");
       currentState.set(ClientState.SELECTING_HOST_TYPE);
     } else {
       printToConsole("--- Select a Case to Host ---");
-      for (int i = 0; i < availableCasesCache.size(); i++) {
-        JsonDTO.CaseFile currentCase = availableCasesCache.get(i);
-        String languages =
-            currentCase.getLocalizations().values().stream()
-                .map(JsonDTO.CaseFile.LocalizedData::getLanguageName)
-                .collect(Collectors.joining(", "));
-        printToConsole((i + 1) + ". " + currentCase.getUniversalTitle() + " [" + languages + "]");
-      }
+      printCaseCatalog();
       currentState.set(ClientState.SELECTING_HOST_CASE);
     }
   }
 
+  private void printCaseCatalog() {
+    for (int i = 0; i < availableCasesCache.size(); i++) {
+      CaseSummaryDTO currentCase = availableCasesCache.get(i);
+      String languages = String.join(", ", currentCase.getLanguages().values());
+      printToConsole((i + 1) + ". " + currentCase.getUniversalTitle() + " [" + languages + "] - "
+          + currentCase.getRoomCount() + " rooms, " + currentCase.getSuspectCount() + " suspects");
+    }
+  }
+
+  /**
+   * A full case by the content hash from the catalog, if we have it. If we don't, asks the server
+   * for it and returns null; it lands in the cache when the answer arrives. Either way the server
+   * never sends a case we already hold.
+   */
+  public JsonDTO.CaseFile fetchCaseFile(String contentHash) {
+    JsonDTO.CaseFile cached = caseFileCache.get(contentHash);
+    if (cached == null && caseFilesRequested.add(contentHash)) {
+      sendToServer(new RequestCaseFileCommand(contentHash));
+    }
+    return cached;
+  }
+
+  private void handleCaseFile(CaseFileDTO dto) {
+    caseFilesRequested.remove(dto.getContentHash());
+    if (!dto.isSuccess()) {
+      printToConsole("[SERVER] " + dto.getMessage());
+      return;
+    }
+    caseFileCache.put(dto.getContentHash(), dto.getCaseFile());
+    log("Cached case '" + dto.getCaseFile().getUniversalTitle() + "' (" + dto.getContentHash() + ").");
+    CaseSummaryDTO choosing = caseBeingHosted();
+    if (choosing != null && choosing.getContentHash().equals(dto.getContentHash())) {
+      printCaseDetails(dto.getCaseFile()); // Still on its language menu; show what we were fetching.
+    }
+  }
+
+  /**
+   * The per-language titles and descriptions the catalog leaves out, shown while the host picks a
+   * language. From the cache when we've had this case before; otherwise fetched, and printed by
+   * handleCaseFile once it arrives.
+   */
+  private void showCaseDetails(CaseSummaryDTO caseSummary) {
+    JsonDTO.CaseFile caseFile = fetchCaseFile(caseSummary.getContentHash());
+    if (caseFile != null) {
+      log("Case '" + caseSummary.getUniversalTitle() + "' already cached; not fetching it again.");
+      printCaseDetails(caseFile);
+    } else {
+      printToConsole("(Fetching case details...)");
+    }
+  }
+
+  private void printCaseDetails(JsonDTO.CaseFile caseFile) {
+    if (caseFile.getLocalizations() == null) {
+      return;
+    }
+    for (JsonDTO.CaseFile.LocalizedData loc : new TreeMap<>(caseFile.getLocalizations()).values()) {
+      printToConsole("[" + loc.getLanguageName() + "] " + loc.getTitle()
+          + (loc.getDescription() != null ? ": " + loc.getDescription() : ""));
+    }
+  }
+
+  /** The case whose language menu is showing, or null if we're not on it. */
+  private CaseSummaryDTO caseBeingHosted() {
+    List<CaseSummaryDTO> cases = availableCasesCache;
+    int index = caseIndexForLanguageSelection;
+    if (currentState.get() != ClientState.SELECTING_HOST_LANGUAGE || cases == null || index < 0 || index >= cases.size()) {
+      return null;
+    }
+    return cases.get(index);
+  }
+
   private void handleTextMessage(TextMessage tm, ClientState stateWhenMessageReceived) {
     String messageToPrint = (tm.isError() ? "[SERVER ERROR] " : "[SERVER] ") + tm.getText();
     printToConsole(messageToPrint);
@@ -759,6 +905,7 @@ public class GameClient implements Runnable {
           break;
         case SENDING_JOIN_PUBLIC_REQUEST:
         case SENDING_JOIN_PRIVATE_REQUEST:
+        case SENDING_SPECTATE_REQUEST:
           printToConsole("Join request failed. Returning to join options.");
           currentState.set(ClientState.SELECTING_JOIN_TYPE);
           preWaitingState = null;
@@ -833,7 +980,6 @@ public class GameClient implements Runnable {
       }
     }
     // NEW: Clean up the temporary hosting state AFTER the server has responded.
-    this.availableCasesCache = null;
     this.caseIndexForLanguageSelection = -1;
   }
 
@@ -891,6 +1037,72 @@ public class GameClient implements Runnable {
     }
   }
 
+  /**
+   * Back in the game, or not. On success the frames that follow are the ones we missed, numbered on
+   * from the count we sent, so the counter is put back to it (this frame doesn't count).
+   */
+  private void handleResumeResponse(ResumeSessionResponseDTO rr) {
+    ResumeCandidate candidate = resumeCandidate;
+    resumeCandidate = null;
+    if (!rr.isSuccess() || candidate == null) {
+      printToConsole("Couldn't rejoin your game: " + rr.getMessage());
+      resetChunkReassembler(); // Streams cut off on the old connection won't be finished.
+      currentState.set(ClientState.CONNECTED_IDLE);
+      if (listener != null) {
+        listener.onReturnToMainMenu(rr.getMessage());
+      }
+      return;
+    }
+    framesReceived.set(candidate.framesReceived());
+    this.playerId = rr.getPlayerId();
+    this.playerDisplayId = rr.getDisplayId();
+    this.resumeToken = candidate.token();
+    this.currentSessionId = rr.getSessionId();
+    this.hostPlayerIdInSession = rr.getHostPlayerId();
+    printToConsole("[SERVER] " + rr.getMessage()
+        + (rr.getReplayedFrames() >= 0 ? " (" + rr.getReplayedFrames() + " missed update(s) on their way)" : ""));
+    currentState.set(candidate.state());
+  }
+
+  private void handleSpectateGameResponse(SpectateGameResponseDTO sgr) {
+    if (!sgr.isSuccess()) {
+      printToConsole("Can't watch that game: " + sgr.getMessage());
+      currentState.set(ClientState.ENTERING_SPECTATE_TARGET);
+      return;
+    }
+    this.currentSessionId = sgr.getSessionId();
+    printToConsole("[SPECTATING] " + sgr.getMessage());
+    printToConsole("Players: " + String.join(", ", sgr.getPlayerDisplayIds())
+        + (sgr.isCaseStarted() ? " (investigation under way)" : " (still in the lobby)"));
+    currentState.set(ClientState.SPECTATING);
+  }
+
+  /**
+   * What a spectator sees: the session's broadcasts, printed and otherwise left alone. Nothing here
+   * changes state, since none of it is ours to act on.
+   */
+  private void handleSpectatorMessage(Object message) {
+    if (message instanceof TextMessage tm) {
+      printToConsole("[GAME] " + tm.getText());
+    } else if (message instanceof ChatMessage cm) {
+      handleChatMessage(cm);
+    } else if (message instanceof JournalEntryDTO entry) {
+      printToConsole("[JOURNAL] " + entry.getText());
+    } else if (message instanceof NpcMovedBatchDTO batch) {
+      for (NpcMovedDTO move : batch.getMoves()) {
+        handleNpcMoved(move);
+      }
+    } else if (message instanceof NpcMovedDTO move) {
+      handleNpcMoved(move);
+    } else if (message instanceof LobbyUpdateDTO lu) {
+      printToConsole("[LOBBY UPDATE] " + lu.getMessage());
+    } else if (message instanceof ExamResultDTO er) {
+      printToConsole("\n--- FINAL EXAM RESULT ---\n" + er);
+    } else {
+      log("Spectator ignoring " + message.getClass().getSimpleName());
+    }
+  }
+
   private void handleLobbyUpdate(LobbyUpdateDTO lu) {
     printToConsole("[LOBBY UPDATE] " + lu.getMessage());
     if (!lu.getPlayerDisplayIdsInLobbyOrGame().isEmpty()) {
@@ -977,7 +1189,6 @@ public class GameClient implements Runnable {
     try {
       printToConsole("[SERVER] " + rtl.getMessage());
       this.currentSessionId = null;
-      this.availableCasesCache = null;
       this.publicGamesCache = null;
       this.hostPlayerIdInSession = null;
       this.intentToHostPublic = true;
@@ -1019,7 +1230,13 @@ public class GameClient implements Runnable {
     consoleLock.lock();
     try {
       ClientState previousStateForErrorCheck = currentState.get();
-      if (message instanceof TextMessage) {
+      if (previousStateForErrorCheck == ClientState.SPECTATING
+          && !(message instanceof ReturnToLobbyDTO)
+          && !(message instanceof SpectateGameResponseDTO)) {
+        handleSpectatorMessage(message);
+      } else if (message instanceof SpectateGameResponseDTO) {
+        handleSpectateGameResponse((SpectateGameResponseDTO) message);
+      } else if (message instanceof TextMessage) {
         handleTextMessage((TextMessage) message, previousStateForErrorCheck);
       } else if (message instanceof ChatMessage) {
         handleChatMessage((ChatMessage) message);
@@ -1027,6 +1244,8 @@ public class GameClient implements Runnable {
         handleRoomDescription((RoomDescriptionDTO) message);
       } else if (message instanceof AvailableCasesDTO) {
         handleAvailableCases((AvailableCasesDTO) message);
+      } else if (message instanceof CaseFileDTO) {
+        handleCaseFile((CaseFileDTO) message);
       } else if (message instanceof HostGameResponseDTO) {
         handleHostGameResponse((HostGameResponseDTO) message);
       } else if (message instanceof PublicGamesListDTO) {
@@ -1058,14 +1277,28 @@ public class GameClient implements Runnable {
         handleTaskStateUpdate((TaskStateUpdateDTO) message);
       } else if (message instanceof NpcMovedDTO) {
         handleNpcMoved((NpcMovedDTO) message);
+      } else if (message instanceof NpcMovedBatchDTO batch) {
+        for (NpcMovedDTO move : batch.getMoves()) {
+          handleNpcMoved(move);
+        }
       } else if (message instanceof ClientIdAssignmentDTO idDto) {
         this.playerId = idDto.getPlayerId();
         this.playerDisplayId = idDto.getAssignedDisplayId();
-        printToConsole(
-            "Server registration complete. Your Player ID: "
-                + this.playerId
-                + ", Display Name: "
-                + this.playerDisplayId);
+        this.resumeToken = idDto.getResumeToken();
+        negotiateWireFormat(idDto.getSupportedCodecs(), idDto.getSupportedCompressors());
+        ResumeCandidate candidate = resumeCandidate;
+        if (candidate != null) {
+          printToConsole("Reconnected. Rejoining your game...");
+          sendToServer(new ResumeSessionRequestDTO(candidate.token(), candidate.framesReceived()));
+        } else {
+          printToConsole(
+              "Server registration complete. Your Player ID: "
+                  + this.playerId
+                  + ", Display Name: "
+                  + this.playerDisplayId);
+        }
+      } else if (message instanceof ResumeSessionResponseDTO rr) {
+        handleResumeResponse(rr);
       } else if (message instanceof UpdatePinboardCommand) {
           if (pinboardUpdateListener != null) {
               pinboardUpdateListener.accept(((UpdatePinboardCommand) message).getUpdate());
@@ -1150,6 +1383,8 @@ public class GameClient implements Runnable {
       return ClientState.SENDING_JOIN_PUBLIC_REQUEST;
     } else if (command instanceof JoinPrivateGameCommand) {
       return ClientState.SENDING_JOIN_PRIVATE_REQUEST;
+    } else if (command instanceof SpectateGameCommand) {
+      return ClientState.SENDING_SPECTATE_REQUEST;
     } else if (command instanceof InitiateFinalExamCommand) {
       return ClientState.ATTEMPTING_FINAL_EXAM;
     } else if (command instanceof SubmitExamAnswerCommand) {
@@ -1178,12 +1413,20 @@ public class GameClient implements Runnable {
     try {
       channel = SocketChannel.open();
       channel.configureBlocking(true);
+      outboundFormat = WireFormat.JSON; // A fresh connection always starts on plain JSON.
       channel.connect(new InetSocketAddress(host, port));
       connected.set(true);
       reconnectAttempts = 0;
+      framesReceived.set(0);
+      if (resumeCandidate == null || chunkReassembler == null) {
+        resetChunkReassembler();
+      }
 
       // New logic to handle LaunchMode
-      if (launchMode == LaunchMode.HOST_ONLY) {
+      if (resumeCandidate != null) {
+        currentState.set(ClientState.RESUMING_SESSION); // The request goes out once we have our ID.
+        log("Successfully connected. Resuming the game we dropped out of.");
+      } else if (launchMode == LaunchMode.HOST_ONLY) {
         currentState.set(ClientState.SELECTING_HOST_TYPE);
         log("Successfully connected. Launch mode is HOST_ONLY, transitioning to SELECTING_HOST_TYPE.");
       } else if (launchMode == LaunchMode.JOIN_ONLY) {
@@ -1216,11 +1459,23 @@ public class GameClient implements Runnable {
     }
   }
 
+  private void resetChunkReassembler() {
+    if (chunkReassembler != null) {
+      chunkReassembler.close();
+    }
+    chunkReassembler =
+        new ChunkReassembler(
+            NetworkConstants.MAX_CONCURRENT_STREAMS,
+            NetworkConstants.MAX_STREAM_BYTES,
+            NetworkConstants.STREAM_SPOOL_THRESHOLD_BYTES);
+  }
+
   private void listenToServer() {
     log("Network listener started.");
+    ChunkReassembler reassembler = chunkReassembler;
     try {
       while (running.get() && connected.get() && channel != null && channel.isOpen()) {
-        Object receivedObject = SerializationUtils.readFramedObject(channel);
+        Object receivedObject = SerializationUtils.readFramedObject(channel, reassembler, framesReceived);
         if (receivedObject != null) {
           processServerMessage(receivedObject);
         } else {
@@ -1249,13 +1504,32 @@ public class GameClient implements Runnable {
     }
   }
 
+  /**
+   * Picks the best codec and compressor both sides support and tells the server. We switch our own
+   * outbound frames right away; incoming frames say how they were encoded, so no further sync is
+   * needed.
+   */
+  private void negotiateWireFormat(List<String> codecsOffered, List<String> compressorsOffered) {
+    WireCodec codec = WireCodecs.negotiate(codecsOffered);
+    FrameCompressor compressor = WireCodecs.negotiateCompressor(compressorsOffered);
+    WireFormat chosen = WireFormat.of(codec, compressor, NetworkConstants.COMPRESSION_THRESHOLD_BYTES);
+    if (chosen == WireFormat.JSON) {
+      outboundFormat = WireFormat.JSON;
+      return;
+    }
+    sendToServer(new WireCodecSelectionDTO(codec.getName(),
+        compressor != null ? compressor.getName() : null)); // Still sent in the old format.
+    outboundFormat = chosen;
+    log("Using wire format " + chosen);
+  }
+
   private void sendToServer(Serializable object) {
     if (!connected.get() || channel == null || !channel.isOpen()) {
       printToConsole("Not connected to server. Cannot send message. Type 'connect' to try again.");
       return;
     }
     try {
-      SerializationUtils.writeFramedObject(channel, object);
+      SerializationUtils.writeFramedObject(channel, object, outboundFormat);
     } catch (IOException e) {
       logError("Error sending message to server: " + e.getMessage(), null);
       handleDisconnect("Send I/O error");
@@ -1278,8 +1552,13 @@ public class GameClient implements Runnable {
       printToConsole("\nFailed to connect to server: " + reason);
     }
 
+    if (wasConnected && currentSessionId != null && resumeToken != null && oldState != ClientState.SPECTATING) {
+      // The server holds our seat for a while; the next connection asks for it back.
+      resumeCandidate = new ResumeCandidate(resumeToken, framesReceived.get(), oldState);
+      printToConsole("Your place in the game is held for a while. Reconnecting will take you back to it.");
+    }
+
     this.currentSessionId = null;
-    this.availableCasesCache = null;
     this.publicGamesCache = null;
     this.hostPlayerIdInSession = null;
 
@@ -1313,6 +1592,9 @@ public class GameClient implements Runnable {
       }
     }
     connected.set(false);
+    if (chunkReassembler != null) {
+      chunkReassembler.close();
+    }
     currentState.set(ClientState.EXITING);
     printToConsole("Exiting client...");
   }
@@ -1387,14 +1669,7 @@ public class GameClient implements Runnable {
       // The best way is to not call a handler directly. The main loop will reprint the prompt.
       // To show the whole menu again, we can just print it.
       printToConsole("\n--- Select a Case to Host ---");
-      for (int i = 0; i < availableCasesCache.size(); i++) {
-        JsonDTO.CaseFile currentCase = availableCasesCache.get(i);
-        String languages =
-            currentCase.getLocalizations().values().stream()
-                .map(JsonDTO.CaseFile.LocalizedData::getLanguageName)
-                .collect(Collectors.joining(", "));
-        printToConsole((i + 1) + ". " + currentCase.getUniversalTitle() + " [" + languages + "]");
-      }
+      printCaseCatalog();
       return;
     }
 
@@ -1406,9 +1681,8 @@ public class GameClient implements Runnable {
 
     try {
       int langNum = Integer.parseInt(input);
-      JsonDTO.CaseFile selectedCase = availableCasesCache.get(this.caseIndexForLanguageSelection);
-      List<String> langCodes = new ArrayList<>(selectedCase.getLocalizations().keySet());
-      Collections.sort(langCodes);
+      CaseSummaryDTO selectedCase = availableCasesCache.get(this.caseIndexForLanguageSelection);
+      List<String> langCodes = new ArrayList<>(selectedCase.getLanguages().keySet()); // Sorted by code.
 
       if (langNum > 0 && langNum <= langCodes.size()) {
         String selectedLangCode = langCodes.get(langNum - 1);
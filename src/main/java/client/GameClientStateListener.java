@@ -1,7 +1,7 @@
 package client;
 
 import java.util.List;
-import JsonDTO.CaseFile;
+import common.dto.CaseSummaryDTO;
 import common.dto.PublicGameInfoDTO;
 import common.dto.RoomDescriptionDTO;
 
@@ -12,8 +12,8 @@ public interface GameClientStateListener {
   void onMainMenu();
     void onReturnToMainMenu(String message);
   void onHostGameOptions();
-  void onCaseSelection(List<CaseFile> cases);
-  void onLanguageSelection(CaseFile caseFile);
+  void onCaseSelection(List<CaseSummaryDTO> cases);
+  void onLanguageSelection(CaseSummaryDTO caseSummary);
   void onHostingLobby(String gameCode);
   void onJoinGameOptions();
   void onPublicGamesList(List<PublicGameInfoDTO> games);
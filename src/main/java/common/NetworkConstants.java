@@ -4,9 +4,86 @@ public class NetworkConstants {
   public static final String DEFAULT_HOST = "localhost";
   public static final int DEFAULT_PORT = 8888;
   public static final int BUFFER_SIZE = 8192; // For network ByteBuffers (8KB)
+  // Default detectives per session, host included. ServerMain's fourth argument overrides it.
   public static final int MAX_PLAYERS_PER_GAME = 2;
+  // Read-only spectators one session will take on top of its players.
+  public static final int MAX_SPECTATORS_PER_GAME = 256;
+  // Largest frame payload the server accepts from a client.
+  public static final int MAX_INBOUND_FRAME_LENGTH = BUFFER_SIZE * 20;
+  // Reads done for one OP_READ before yielding to the worker's other connections.
+  public static final int MAX_READS_PER_EVENT = 16;
+  // Payloads at least this big (bytes) are compressed when the connection negotiated a compressor.
+  public static final int COMPRESSION_THRESHOLD_BYTES = 1024;
+  // Most frames handed to one gathering write() on OP_WRITE.
+  public static final int MAX_FRAMES_PER_WRITE = 64;
+
+  // --- Chunked streams (messages too big for one frame) ---
+  // Frame bodies above this are sent as a chunked stream instead of one frame.
+  public static final int MAX_UNCHUNKED_FRAME_BYTES = 64 * 1024;
+  // Body bytes carried by each chunk frame.
+  public static final int STREAM_CHUNK_BYTES = 32 * 1024;
+  // Largest reassembled stream accepted from a peer.
+  public static final long MAX_STREAM_BYTES = 64L * 1024 * 1024;
+  // Streams bigger than this are spooled to a temp file while they arrive.
+  public static final int STREAM_SPOOL_THRESHOLD_BYTES = 1024 * 1024;
+  // Streams a peer may have in flight at once.
+  public static final int MAX_CONCURRENT_STREAMS = 4;
+  // Chunk frames allowed into one gathering write, so gameplay frames never queue behind a transfer.
+  public static final int BULK_FRAMES_PER_WRITE = 1;
+
+  // --- Outbound backpressure (per client) ---
+  // Above either high mark a client counts as backpressured: coalescable updates replace queued ones
+  // and its game session is told. It stays that way until it drains below both low marks.
+  public static final long OUTBOUND_HIGH_WATER_BYTES = 1024 * 1024;
+  public static final long OUTBOUND_LOW_WATER_BYTES = 256 * 1024;
+  public static final int OUTBOUND_HIGH_WATER_FRAMES = 2048;
+  public static final int OUTBOUND_LOW_WATER_FRAMES = 512;
+  // A client backpressured for longer than this is disconnected.
+  public static final long SLOW_CONSUMER_GRACE_MS = 10_000;
+  // Queue size at which a client is disconnected right away, whatever the grace period says.
+  public static final long OUTBOUND_HARD_LIMIT_BYTES = 16L * 1024 * 1024;
 
   public static final long SELECTOR_TIMEOUT = 1000; // 1 second
+  // Worker selectors behind the server's accept loop. One per core by default.
+  public static final int DEFAULT_WORKER_REACTORS = Runtime.getRuntime().availableProcessors();
+  // Shared pool that runs the per-session command mailboxes.
+  public static final int GAME_LOGIC_THREADS = Runtime.getRuntime().availableProcessors();
+  // How often suspects and Watson wander, per session. ServerMain's third argument overrides it.
+  public static final long DEFAULT_NPC_TICK_MS = 4000;
+
+  // --- Session persistence (command log + snapshots) ---
+  // Where session logs and snapshots live. ServerMain's fifth argument overrides it ("none" = off).
+  public static final String DEFAULT_SESSION_STORE_DIR = "sessions";
+  // Group commit window: log records appended within it share one write and one fsync per session.
+  public static final long COMMAND_LOG_GROUP_COMMIT_MS = 10;
+  // A session writes a snapshot (and starts its log over) after this many log records.
+  public static final int SNAPSHOT_EVERY_RECORDS = 256;
+  // A session restored after a restart is dropped if none of its players are back within this.
+  public static final long RESTORED_SESSION_TTL_MS = 15 * 60_000;
+
+  // --- Session resume (reconnecting into the same seat) ---
+  // How long a player who dropped out of a game keeps their seat before they count as gone.
+  public static final long RESUME_GRACE_MS = 60_000;
+  // Frames already written to a player that are kept for a replay, by count and by total size.
+  // What fell out of it can't be replayed; the client is resynced instead.
+  public static final int RESUME_BUFFER_FRAMES = 128;
+  public static final int RESUME_BUFFER_BYTES = 64 * 1024;
+  // What's kept for a player who's away: frames that never went out plus the ones sent since.
+  public static final long RESUME_BACKLOG_BYTES = 512 * 1024;
+  // How long a resume waits for the server to notice the old connection is gone.
+  public static final long RESUME_EVICT_WAIT_MS = 2000;
+
+  // --- Case library ---
+  // Full case files a client keeps (by content hash) after fetching them; least recently used go.
+  public static final int CLIENT_CASE_CACHE_ENTRIES = 16;
+  // The case watcher waits for this long without file events before applying a batch of edits, so
+  // an editor's save (often several writes and a rename) is picked up once, complete.
+  public static final long CASE_WATCH_SETTLE_MS = 300;
+  // Case files at least this big are indexed and read record by record (see extractors.CaseIndex)
+  // rather than parsed whole and compiled to a bundle.
+  public static final long CASE_INDEX_THRESHOLD_BYTES = 8L * 1024 * 1024;
+  // Parsed records (a room's details, a language's suspects, ...) an indexed case keeps per case.
+  public static final int CASE_RECORD_CACHE_ENTRIES = 512;
 
   // --- LAN Discovery ---
   public static final int DISCOVERY_PORT = 51515;
@@ -6,9 +6,14 @@ import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicLong;
+import common.wire.ChunkReassembler;
+import common.wire.WireCodecs;
+import common.wire.WireFormat;
 
 public class SerializationUtils {
   private static final ObjectMapper mapper;
@@ -29,6 +34,11 @@ public class SerializationUtils {
 
   private SerializationUtils() {}
 
+  /** The shared, fully configured mapper. The binary wire codec builds on it. */
+  public static ObjectMapper getMapper() {
+    return mapper;
+  }
+
   public static byte[] serialize(Serializable object) throws IOException {
     return mapper.writeValueAsBytes(object);
   }
@@ -37,20 +47,110 @@ public class SerializationUtils {
     return mapper.readValue(bytes, Object.class);
   }
 
+  public static Object deserialize(InputStream in) throws IOException {
+    return mapper.readValue(in, Object.class);
+  }
+
+  /** Writes a frame in plain JSON (what every connection starts with). */
   public static void writeFramedObject(SocketChannel channel, Serializable object) throws IOException {
-    byte[] objectBytes = serialize(object);
-    int length = objectBytes.length;
-    ByteBuffer buffer = ByteBuffer.allocate(4 + length);
+    writeFramedObject(channel, object, WireFormat.JSON);
+  }
+
+  /**
+   * Writes {@code [length][flags][payload]} using the given wire format. Bodies above
+   * {@link NetworkConstants#MAX_UNCHUNKED_FRAME_BYTES} go out as a chunked stream instead, one
+   * frame per chunk.
+   *
+   * <p>Each frame is written while holding the channel's monitor, so concurrent writers never mix
+   * bytes mid-frame, but another thread's small message can slip in between two chunks of a big
+   * one. That's on purpose: a transfer shouldn't hold up gameplay messages.
+   */
+  public static void writeFramedObject(SocketChannel channel, Serializable object, WireFormat format)
+          throws IOException {
+    WireFormat.Body body = format.encode(object);
+    int length = WireCodecs.HEADER_BYTES + body.payload().length;
+    if (length > NetworkConstants.MAX_UNCHUNKED_FRAME_BYTES) {
+      WireCodecs.writeChunks(body.flags(), body.payload(), NetworkConstants.STREAM_CHUNK_BYTES,
+              new WireCodecs.ChunkSink() {
+                @Override
+                public ByteBuffer allocate(int size) {
+                  return ByteBuffer.allocate(size);
+                }
+
+                @Override
+                public void accept(ByteBuffer frame, boolean last) throws IOException {
+                  writeFully(channel, frame);
+                }
+              });
+      return;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(WireCodecs.LENGTH_PREFIX_BYTES + length);
     buffer.putInt(length);
-    buffer.put(objectBytes);
+    buffer.put(body.flags());
+    buffer.put(body.payload());
     buffer.flip();
+    writeFully(channel, buffer);
+  }
 
-    while (buffer.hasRemaining()) {
-      channel.write(buffer);
+  private static void writeFully(SocketChannel channel, ByteBuffer frame) throws IOException {
+    synchronized (channel) {
+      while (frame.hasRemaining()) {
+        channel.write(frame);
+      }
     }
   }
 
+  /**
+   * Blocking read of one message. Does not understand chunked streams (it throws on a chunk
+   * frame); a connection that may receive them should keep a {@link ChunkReassembler} and use
+   * {@link #readFramedObject(SocketChannel, ChunkReassembler)}.
+   *
+   * @return The decoded object, or null on a clean EOF before any byte of the frame.
+   */
   public static Object readFramedObject(SocketChannel channel) throws IOException {
+    ByteBuffer body = readFrameBody(channel);
+    return body == null ? null : WireCodecs.decodeFrameBody(body);
+  }
+
+  /**
+   * Blocking read of one message, reading as many frames as it takes: chunk frames are fed to the
+   * connection's reassembler until some stream completes.
+   *
+   * @return The decoded object, or null on a clean EOF between frames.
+   */
+  public static Object readFramedObject(SocketChannel channel, ChunkReassembler reassembler)
+          throws IOException {
+    return readFramedObject(channel, reassembler, null);
+  }
+
+  /**
+   * Same, counting every frame read (chunk frames one by one) in {@code framesRead}, which is what a
+   * client resuming a dropped connection tells the server it got.
+   */
+  public static Object readFramedObject(SocketChannel channel, ChunkReassembler reassembler, AtomicLong framesRead)
+          throws IOException {
+    while (true) {
+      ByteBuffer body = readFrameBody(channel);
+      if (body == null) {
+        return null;
+      }
+      if (framesRead != null) {
+        framesRead.incrementAndGet();
+      }
+      if (!WireCodecs.isChunk(body)) {
+        return WireCodecs.decodeFrameBody(body);
+      }
+      body.get(); // Flags.
+      try (ChunkReassembler.CompletedStream stream = reassembler.accept(body)) {
+        if (stream != null) {
+          return WireCodecs.decodeFrameBody(stream.body());
+        }
+      }
+    }
+  }
+
+  /** Reads one frame: returns the body (flags + payload), or null on a clean EOF. */
+  private static ByteBuffer readFrameBody(SocketChannel channel) throws IOException {
     ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
     int bytesRead = 0;
     while (bytesRead < 4) {
@@ -65,7 +165,7 @@ public class SerializationUtils {
     lengthBuffer.flip();
     int objectLength = lengthBuffer.getInt();
 
-    if (objectLength <= 0 || objectLength > 10 * 1024 * 1024) { // Max 10MB
+    if (objectLength <= WireCodecs.HEADER_BYTES || objectLength > 10 * 1024 * 1024) { // Max 10MB
       throw new IOException("Invalid object length received: " + objectLength);
     }
 
@@ -79,6 +179,7 @@ public class SerializationUtils {
       bytesRead += read;
     }
 
-    return deserialize(objectBuffer.array());
+    objectBuffer.flip();
+    return objectBuffer;
   }
-}
\ No newline at end of file
+}
@@ -10,8 +10,6 @@ import common.dto.JournalEntryDTO;
 import common.dto.TextMessage;
 import common.interfaces.GameActionContext;
 import java.io.Serial;
-import java.util.List;
-import java.util.Optional;
 
 public class DeduceCommand extends BaseCommand {
     @Serial
@@ -51,14 +49,9 @@ public class DeduceCommand extends BaseCommand {
         }
 
         // Step 2: If not an object, check if it's a Suspect in the room.
-        // We get ALL suspects and filter for those in the current room.
-        Optional<Suspect> suspectToDeduce = context.getAllSuspects().stream()
-                .filter(s -> s.getCurrentRoom() != null && s.getCurrentRoom().equals(currentRoom))
-                .filter(s -> s.getName().equalsIgnoreCase(this.targetName))
-                .findFirst();
-
-        if (suspectToDeduce.isPresent()) {
-            handleDeduceSuspect(context, playerDetective, suspectToDeduce.get());
+        Suspect suspectToDeduce = context.findSuspectInRoom(currentRoom, this.targetName);
+        if (suspectToDeduce != null) {
+            handleDeduceSuspect(context, playerDetective, suspectToDeduce);
             return;
         }
 
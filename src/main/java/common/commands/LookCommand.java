@@ -6,7 +6,6 @@ import common.dto.RoomDescriptionDTO;
 import common.dto.TextMessage;
 import common.interfaces.GameActionContext;
 import java.io.Serial;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -31,16 +30,7 @@ public class LookCommand extends BaseCommand {
             .map(GameObject::getName)
             .collect(Collectors.toList());
 
-    String occupantsString = context.getOccupantsDescriptionInRoom(currentRoom, getPlayerId());
-    List<String> occupantNames = new ArrayList<>();
-    if (occupantsString != null && !occupantsString.equalsIgnoreCase("Occupants: None") && occupantsString.startsWith("Occupants: ")) {
-      String[] names = occupantsString.substring("Occupants: ".length()).split(",\\s*");
-      for (String name : names) {
-        if (!name.trim().isEmpty()) {
-          occupantNames.add(name.trim());
-        }
-      }
-    }
+    List<String> occupantNames = context.getOccupantNamesInRoom(currentRoom, getPlayerId());
 
     Map<String, String> exitsMap = currentRoom.getNeighbors().entrySet().stream()
             .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getName()));
@@ -8,8 +8,6 @@ import common.dto.JournalEntryDTO;
 import common.dto.TextMessage;
 import common.interfaces.GameActionContext;
 import java.io.Serial;
-import java.util.List;
-import java.util.stream.Collectors;
 
 public class QuestionCommand extends BaseCommand {
   @Serial
@@ -37,17 +35,12 @@ public class QuestionCommand extends BaseCommand {
       return;
     }
 
-    List<Suspect> suspectsInRoom = context.getAllSuspects().stream()
-            .filter(s -> s.getCurrentRoom() != null && s.getCurrentRoom().getName().equalsIgnoreCase(currentRoom.getName()))
-            .filter(s -> s.getName().equalsIgnoreCase(this.suspectName))
-            .collect(Collectors.toList());
-
-    if (suspectsInRoom.isEmpty()) {
+    Suspect targetSuspect = context.findSuspectInRoom(currentRoom, this.suspectName);
+    if (targetSuspect == null) {
       context.sendResponseToPlayer(getPlayerId(), new TextMessage("Suspect '" + this.suspectName + "' is not in this room.", false));
       return;
     }
 
-    Suspect targetSuspect = suspectsInRoom.get(0);
     String statement = targetSuspect.getStatement();
     if (statement == null || statement.trim().isEmpty()) {
       statement = targetSuspect.getName() + " has nothing to say or seems unwilling to talk right now.";
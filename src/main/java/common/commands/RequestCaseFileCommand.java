@@ -0,0 +1,35 @@
+package common.commands;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import common.interfaces.GameActionContext;
+import java.io.Serial;
+
+public class RequestCaseFileCommand extends BaseCommand {
+  @Serial
+  private static final long serialVersionUID = 1L;
+  private final String contentHash;
+
+  @JsonCreator
+  public RequestCaseFileCommand(@JsonProperty("contentHash") String contentHash) {
+    super(false);
+    if (contentHash == null || contentHash.isBlank()) {
+      throw new IllegalArgumentException("Content hash cannot be null or empty for RequestCaseFileCommand.");
+    }
+    this.contentHash = contentHash;
+  }
+
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  @Override
+  protected void executeCommandLogic(GameActionContext context) {
+    // Lobby command: the session manager answers it with a CaseFileDTO.
+  }
+
+  @Override
+  public String getDescription() {
+    return "Client request for one full case file, by the content hash from the case catalog.";
+  }
+}
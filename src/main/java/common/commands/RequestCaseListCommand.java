@@ -1,14 +1,28 @@
 package common.commands;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import common.interfaces.GameActionContext;
 import java.io.Serial;
 
 public class RequestCaseListCommand extends BaseCommand {
   @Serial
   private static final long serialVersionUID = 1L;
+  // The catalog hash the client already has, if any; the server skips the summaries when it matches.
+  private final String knownCatalogHash;
 
   public RequestCaseListCommand() {
+    this(null);
+  }
+
+  @JsonCreator
+  public RequestCaseListCommand(@JsonProperty("knownCatalogHash") String knownCatalogHash) {
     super(false);
+    this.knownCatalogHash = knownCatalogHash;
+  }
+
+  public String getKnownCatalogHash() {
+    return knownCatalogHash;
   }
 
   @Override
@@ -18,6 +32,6 @@ public class RequestCaseListCommand extends BaseCommand {
 
   @Override
   public String getDescription() {
-    return "Client request to the server for the list of available game cases.";
+    return "Client request to the server for the catalog of available game cases.";
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package common.commands;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import common.dto.SpectateGameRequestDTO;
+import common.interfaces.GameActionContext;
+import java.io.Serial;
+
+public class SpectateGameCommand extends BaseCommand {
+  @Serial
+  private static final long serialVersionUID = 1L;
+  private final SpectateGameRequestDTO payload;
+
+  @JsonCreator
+  public SpectateGameCommand(@JsonProperty("payload") SpectateGameRequestDTO payload) {
+    super(false);
+    if (payload == null) {
+      throw new IllegalArgumentException("Payload cannot be null for SpectateGameCommand.");
+    }
+    this.payload = payload;
+  }
+
+  public SpectateGameRequestDTO getPayload() {
+    return payload;
+  }
+
+  @Override
+  protected void executeCommandLogic(GameActionContext context) {
+    // Lobby command: the session manager handles it before any game context is involved.
+  }
+
+  @Override
+  public String getDescription() {
+    return "Requests to watch a game session (by code or session ID) as a read-only spectator.";
+  }
+}
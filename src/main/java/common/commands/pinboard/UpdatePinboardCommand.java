@@ -3,8 +3,9 @@ package common.commands.pinboard;
 import common.commands.Command;
 import common.dto.pinboard.PinboardUpdateDTO;
 import common.interfaces.GameActionContext;
+import common.wire.Coalescable;
 
-public class UpdatePinboardCommand implements Command {
+public class UpdatePinboardCommand implements Command, Coalescable {
     private static final long serialVersionUID = 1L;
 
     private PinboardUpdateDTO update;
@@ -27,6 +28,15 @@ public class UpdatePinboardCommand implements Command {
         // Not used directly by GameContext in this architecture
     }
 
+    // Dragging a card produces a stream of MOVE_ITEMs; only the last position matters.
+    @Override
+    public String coalesceKey() {
+        if (update == null || update.getType() != PinboardUpdateDTO.UpdateType.MOVE_ITEM || update.getTargetId() == null) {
+            return null;
+        }
+        return "pinboard-move:" + update.getTargetId();
+    }
+
     @Override
     public String getDescription() {
         return "Updates the pinboard state";
@@ -1,33 +1,56 @@
-// PASTE THIS, REPLACING THE ENTIRE CONTENTS of src/main/java/common/dto/AvailableCasesDTO.java
-
 package common.dto;
 
-import JsonDTO.CaseFile; // MODIFIED: Import the full CaseFile DTO
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * AvailableCasesDTO The server's case catalog: a summary per case, never the cases themselves, plus
+ * a hash of the whole catalog. A client that sends the catalog hash it already has gets back just
+ * that hash with no summaries ({@link #isUnchanged()}), so a lobby round trip stays the same size
+ * however many cases the server has.
+ */
 public class AvailableCasesDTO implements Serializable {
   @Serial
-  private static final long serialVersionUID = 1L;
+  private static final long serialVersionUID = 2L;
 
-  // MODIFIED: The DTO now carries a list of the full, multilingual CaseFile objects.
-  private final List<CaseFile> cases;
+  private final String catalogHash;
+  private final List<CaseSummaryDTO> cases; // Null when the client's copy is current.
 
   @JsonCreator
-  public AvailableCasesDTO(@JsonProperty("cases") List<CaseFile> cases) {
-    this.cases = cases != null ? new ArrayList<>(cases) : new ArrayList<>();
+  public AvailableCasesDTO(
+          @JsonProperty("catalogHash") String catalogHash,
+          @JsonProperty("cases") List<CaseSummaryDTO> cases) {
+    this.catalogHash = catalogHash;
+    this.cases = cases != null ? new ArrayList<>(cases) : null;
+  }
+
+  /** The client already has this catalog. */
+  public static AvailableCasesDTO unchanged(String catalogHash) {
+    return new AvailableCasesDTO(catalogHash, null);
+  }
+
+  public String getCatalogHash() {
+    return catalogHash;
+  }
+
+  @JsonIgnore // Derived, not a property of its own.
+  public boolean isUnchanged() {
+    return cases == null;
   }
 
-  public List<CaseFile> getCases() {
-    return new ArrayList<>(cases);
+  /** The summaries, sorted by title. Null if {@link #isUnchanged()}. */
+  public List<CaseSummaryDTO> getCases() {
+    return cases != null ? new ArrayList<>(cases) : null;
   }
 
   @Override
   public String toString() {
-    return "AvailableCasesDTO{" + "cases_count=" + cases.size() + '}';
+    return "AvailableCasesDTO{" + "catalogHash='" + catalogHash + '\''
+            + (cases != null ? ", cases_count=" + cases.size() : ", unchanged") + '}';
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package common.dto;
+
+import JsonDTO.CaseFile;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * CaseFileDTO One full multilingual case, sent only when a client asks for it by content hash. The
+ * hash comes back with it so the client can file it in its cache under the name it asked for.
+ */
+public class CaseFileDTO implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+  private final String contentHash;
+  private final CaseFile caseFile;
+  private final String message;
+
+  @JsonCreator
+  public CaseFileDTO(
+          @JsonProperty("contentHash") String contentHash,
+          @JsonProperty("caseFile") CaseFile caseFile,
+          @JsonProperty("message") String message) {
+    this.contentHash = contentHash;
+    this.caseFile = caseFile;
+    this.message = message;
+  }
+
+  /** No case with that hash (never existed, or replaced by a reload). */
+  public static CaseFileDTO failed(String contentHash, String message) {
+    return new CaseFileDTO(contentHash, null, message);
+  }
+
+  @JsonIgnore // Derived, not a property of its own.
+  public boolean isSuccess() {
+    return caseFile != null;
+  }
+
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  public CaseFile getCaseFile() {
+    return caseFile;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String toString() {
+    return "CaseFileDTO{" +
+            "contentHash='" + contentHash + '\'' +
+            ", title=" + (caseFile != null ? "'" + caseFile.getUniversalTitle() + "'" : "none") +
+            ", message='" + message + '\'' +
+            '}';
+  }
+}
@@ -0,0 +1,69 @@
+package common.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * CaseSummaryDTO One line of the case catalog: enough to pick a case and a language to host, without
+ * the case itself. The content hash names exactly this version of the case file; the full case can
+ * be fetched by it (see {@link CaseFileDTO}), and a client that already has that hash never needs
+ * it again.
+ */
+public class CaseSummaryDTO implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+  private final String contentHash;
+  private final String universalTitle;
+  private final Map<String, String> languages; // Language code -> language name, sorted by code.
+  private final int roomCount;
+  private final int suspectCount;
+
+  @JsonCreator
+  public CaseSummaryDTO(
+          @JsonProperty("contentHash") String contentHash,
+          @JsonProperty("universalTitle") String universalTitle,
+          @JsonProperty("languages") Map<String, String> languages,
+          @JsonProperty("roomCount") int roomCount,
+          @JsonProperty("suspectCount") int suspectCount) {
+    this.contentHash = contentHash;
+    this.universalTitle = universalTitle;
+    this.languages = languages != null ? new LinkedHashMap<>(languages) : new LinkedHashMap<>();
+    this.roomCount = roomCount;
+    this.suspectCount = suspectCount;
+  }
+
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  public String getUniversalTitle() {
+    return universalTitle;
+  }
+
+  public Map<String, String> getLanguages() {
+    return new LinkedHashMap<>(languages);
+  }
+
+  public int getRoomCount() {
+    return roomCount;
+  }
+
+  public int getSuspectCount() {
+    return suspectCount;
+  }
+
+  @Override
+  public String toString() {
+    return "CaseSummaryDTO{" +
+            "title='" + universalTitle + '\'' +
+            ", languages=" + languages.keySet() +
+            ", rooms=" + roomCount +
+            ", suspects=" + suspectCount +
+            ", contentHash='" + contentHash + '\'' +
+            '}';
+  }
+}
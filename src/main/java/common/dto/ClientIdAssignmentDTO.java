@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 public class ClientIdAssignmentDTO implements Serializable {
@@ -11,13 +13,34 @@ public class ClientIdAssignmentDTO implements Serializable {
   private static final long serialVersionUID = 1L;
   private final String playerId;
   private final String assignedDisplayId;
+  // Wire codecs the server can speak, most preferred first. Empty means JSON only.
+  private final List<String> supportedCodecs;
+  // Frame compressors the server can apply/undo, most preferred first. Empty means none.
+  private final List<String> supportedCompressors;
+  // Secret that lets this player take their seat back from a new connection if this one drops
+  // mid-game (see ResumeSessionRequestDTO). Null from servers that don't support resuming.
+  private final String resumeToken;
+
+  public ClientIdAssignmentDTO(String playerId, String assignedDisplayId) {
+    this(playerId, assignedDisplayId, null, null, null);
+  }
+
+  public ClientIdAssignmentDTO(String playerId, String assignedDisplayId, List<String> supportedCodecs, List<String> supportedCompressors) {
+    this(playerId, assignedDisplayId, supportedCodecs, supportedCompressors, null);
+  }
 
   @JsonCreator
   public ClientIdAssignmentDTO(
           @JsonProperty("playerId") String playerId,
-          @JsonProperty("assignedDisplayId") String assignedDisplayId) {
+          @JsonProperty("assignedDisplayId") String assignedDisplayId,
+          @JsonProperty("supportedCodecs") List<String> supportedCodecs,
+          @JsonProperty("supportedCompressors") List<String> supportedCompressors,
+          @JsonProperty("resumeToken") String resumeToken) {
     this.playerId = Objects.requireNonNull(playerId);
     this.assignedDisplayId = Objects.requireNonNull(assignedDisplayId);
+    this.supportedCodecs = supportedCodecs != null ? new ArrayList<>(supportedCodecs) : new ArrayList<>();
+    this.supportedCompressors = supportedCompressors != null ? new ArrayList<>(supportedCompressors) : new ArrayList<>();
+    this.resumeToken = resumeToken;
   }
 
   public String getPlayerId() {
@@ -28,11 +51,25 @@ public class ClientIdAssignmentDTO implements Serializable {
     return assignedDisplayId;
   }
 
+  public List<String> getSupportedCodecs() {
+    return supportedCodecs;
+  }
+
+  public List<String> getSupportedCompressors() {
+    return supportedCompressors;
+  }
+
+  public String getResumeToken() {
+    return resumeToken;
+  }
+
   @Override
   public String toString() {
     return "ClientIdAssignmentDTO{" +
             "playerId='" + playerId + '\'' +
             ", assignedDisplayId='" + assignedDisplayId + '\'' +
+            ", supportedCodecs=" + supportedCodecs +
+            ", supportedCompressors=" + supportedCompressors +
             '}';
   }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package common.dto;
 
+import common.dto.pinboard.PinboardStateDTO;
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -7,6 +8,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * GameStateData Everything needed to rebuild one multiplayer session: which case (and language) it
+ * plays, who is in it, and where the investigation stands. The server writes one of these as a
+ * session snapshot; after a restart it rebuilds the session from the latest one and replays the
+ * session's command log from {@link #getLogSequence()} onward.
+ */
 public class GameStateData implements Serializable {
   @Serial
   private static final long serialVersionUID = 1L;
@@ -24,6 +31,16 @@ public class GameStateData implements Serializable {
   private Map<String, Boolean> taskCompletionStatus;
   private Map<String, Integer> playerScores;
   private Map<String, String> playerRanks;
+  private String caseUniversalTitle;
+  private String languageCode;
+  private boolean publicGame;
+  private String gameCode;
+  private String sessionState;
+  private long logSequence;
+  private Map<String, String> playerDisplayNames;
+  private Map<String, String> playerResumeTokens;
+  private Map<String, List<String>> playerDeducedObjects;
+  private PinboardStateDTO pinboard;
 
   public GameStateData() {
     this.playerIds = new ArrayList<>();
@@ -34,6 +51,9 @@ public class GameStateData implements Serializable {
     this.playerScores = new HashMap<>();
     this.playerRanks = new HashMap<>();
     this.deducedObjectsInSession = new ArrayList<>();
+    this.playerDisplayNames = new HashMap<>();
+    this.playerResumeTokens = new HashMap<>();
+    this.playerDeducedObjects = new HashMap<>();
   }
 
   public String getCaseTitle() {
@@ -139,4 +159,91 @@ public class GameStateData implements Serializable {
   public void setPlayerRanks(Map<String, String> playerRanks) {
     this.playerRanks = playerRanks;
   }
-}
\ No newline at end of file
+
+  /** The case's language-independent title, which is how the server looks the case up again. */
+  public String getCaseUniversalTitle() {
+    return caseUniversalTitle;
+  }
+
+  public void setCaseUniversalTitle(String caseUniversalTitle) {
+    this.caseUniversalTitle = caseUniversalTitle;
+  }
+
+  public String getLanguageCode() {
+    return languageCode;
+  }
+
+  public void setLanguageCode(String languageCode) {
+    this.languageCode = languageCode;
+  }
+
+  public boolean isPublicGame() {
+    return publicGame;
+  }
+
+  public void setPublicGame(boolean publicGame) {
+    this.publicGame = publicGame;
+  }
+
+  /** The private game code, or null for a public game. */
+  public String getGameCode() {
+    return gameCode;
+  }
+
+  public void setGameCode(String gameCode) {
+    this.gameCode = gameCode;
+  }
+
+  /** Name of the session's state when this was taken (WAITING_FOR_PLAYERS, ACTIVE, ...). */
+  public String getSessionState() {
+    return sessionState;
+  }
+
+  public void setSessionState(String sessionState) {
+    this.sessionState = sessionState;
+  }
+
+  /** Sequence number of the last command log record this snapshot already includes. */
+  public long getLogSequence() {
+    return logSequence;
+  }
+
+  public void setLogSequence(long logSequence) {
+    this.logSequence = logSequence;
+  }
+
+  /** Player ID -> display name, for everyone in {@link #getPlayerIds()}. */
+  public Map<String, String> getPlayerDisplayNames() {
+    return playerDisplayNames;
+  }
+
+  public void setPlayerDisplayNames(Map<String, String> playerDisplayNames) {
+    this.playerDisplayNames = playerDisplayNames;
+  }
+
+  /** Player ID -> the token that player resumes with, so they can still get back in after a restart. */
+  public Map<String, String> getPlayerResumeTokens() {
+    return playerResumeTokens;
+  }
+
+  public void setPlayerResumeTokens(Map<String, String> playerResumeTokens) {
+    this.playerResumeTokens = playerResumeTokens;
+  }
+
+  /** Player ID -> names of the objects that player has deduced. */
+  public Map<String, List<String>> getPlayerDeducedObjects() {
+    return playerDeducedObjects;
+  }
+
+  public void setPlayerDeducedObjects(Map<String, List<String>> playerDeducedObjects) {
+    this.playerDeducedObjects = playerDeducedObjects;
+  }
+
+  public PinboardStateDTO getPinboard() {
+    return pinboard;
+  }
+
+  public void setPinboard(PinboardStateDTO pinboard) {
+    this.pinboard = pinboard;
+  }
+}
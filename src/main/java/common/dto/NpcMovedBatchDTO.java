@@ -0,0 +1,40 @@
+package common.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * NpcMovedBatchDTO Every NPC move from one simulation tick that a player could see (in or next to
+ * their room; spectators get all of them), in one message instead of one NpcMovedDTO each.
+ */
+public class NpcMovedBatchDTO implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+  private final long tick;
+  private final List<NpcMovedDTO> moves;
+
+  @JsonCreator
+  public NpcMovedBatchDTO(
+          @JsonProperty("tick") long tick, @JsonProperty("moves") List<NpcMovedDTO> moves) {
+    this.tick = tick;
+    this.moves = moves != null ? new ArrayList<>(moves) : new ArrayList<>();
+  }
+
+  /** Simulation tick these moves happened on; increases by one per tick within a session. */
+  public long getTick() {
+    return tick;
+  }
+
+  public List<NpcMovedDTO> getMoves() {
+    return new ArrayList<>(moves);
+  }
+
+  @Override
+  public String toString() {
+    return "NpcMovedBatchDTO{" + "tick=" + tick + ", moves=" + moves.size() + '}';
+  }
+}
@@ -2,11 +2,12 @@ package common.dto;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import common.wire.Coalescable;
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.Objects;
 
-public class NpcMovedDTO implements Serializable {
+public class NpcMovedDTO implements Serializable, Coalescable {
   @Serial
   private static final long serialVersionUID = 1L;
   private final String npcName;
@@ -35,6 +36,12 @@ public class NpcMovedDTO implements Serializable {
     return newRoomName;
   }
 
+  /** Only where an NPC ended up matters to a client that's behind. */
+  @Override
+  public String coalesceKey() {
+    return "npc-moved:" + npcName;
+  }
+
   @Override
   public String toString() {
     if (oldRoomName != null && !oldRoomName.equalsIgnoreCase(newRoomName)) {
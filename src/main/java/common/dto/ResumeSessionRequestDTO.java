@@ -0,0 +1,42 @@
+package common.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * ResumeSessionRequestDTO Sent on a fresh connection, right after the codec selection, by a client
+ * whose connection dropped while it was in a game: the resume token it was given in
+ * {@link ClientIdAssignmentDTO}, and how many frames it had read from the server by then. The
+ * server puts the client back in its seat and replays what it sent after that count.
+ */
+public class ResumeSessionRequestDTO implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+  private final String resumeToken;
+  private final long framesReceived;
+
+  @JsonCreator
+  public ResumeSessionRequestDTO(
+          @JsonProperty("resumeToken") String resumeToken,
+          @JsonProperty("framesReceived") long framesReceived) {
+    this.resumeToken = Objects.requireNonNull(resumeToken);
+    this.framesReceived = framesReceived;
+  }
+
+  public String getResumeToken() {
+    return resumeToken;
+  }
+
+  /** Every frame read on the old connection (and the ones it resumed), chunk frames included. */
+  public long getFramesReceived() {
+    return framesReceived;
+  }
+
+  @Override
+  public String toString() {
+    return "ResumeSessionRequestDTO{framesReceived=" + framesReceived + '}'; // The token stays out of logs.
+  }
+}
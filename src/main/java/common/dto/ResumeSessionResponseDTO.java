@@ -0,0 +1,95 @@
+package common.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * ResumeSessionResponseDTO Answer to a resume request. On success the client is back under its old
+ * player ID, in the same session, and the frame count starts over from what the client said it had
+ * read: the frames that follow this one are the ones it missed, then the live game.
+ *
+ * <p>{@code replayedFrames} is -1 when the server no longer had everything that was missed. The
+ * client then gets a fresh look at where it is instead, and may have missed some chat.
+ */
+public class ResumeSessionResponseDTO implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+  private final boolean success;
+  private final String message;
+  private final String playerId;
+  private final String displayId;
+  private final String sessionId;
+  private final String hostPlayerId;
+  private final boolean caseStarted;
+  private final int replayedFrames;
+
+  @JsonCreator
+  public ResumeSessionResponseDTO(
+          @JsonProperty("success") boolean success,
+          @JsonProperty("message") String message,
+          @JsonProperty("playerId") String playerId,
+          @JsonProperty("displayId") String displayId,
+          @JsonProperty("sessionId") String sessionId,
+          @JsonProperty("hostPlayerId") String hostPlayerId,
+          @JsonProperty("caseStarted") boolean caseStarted,
+          @JsonProperty("replayedFrames") int replayedFrames) {
+    this.success = success;
+    this.message = message;
+    this.playerId = playerId;
+    this.displayId = displayId;
+    this.sessionId = sessionId;
+    this.hostPlayerId = hostPlayerId;
+    this.caseStarted = caseStarted;
+    this.replayedFrames = replayedFrames;
+  }
+
+  /** Nothing to resume; the client carries on as the new connection it is. */
+  public static ResumeSessionResponseDTO failed(String message) {
+    return new ResumeSessionResponseDTO(false, message, null, null, null, null, false, 0);
+  }
+
+  public boolean isSuccess() {
+    return success;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public String getPlayerId() {
+    return playerId;
+  }
+
+  public String getDisplayId() {
+    return displayId;
+  }
+
+  public String getSessionId() {
+    return sessionId;
+  }
+
+  public String getHostPlayerId() {
+    return hostPlayerId;
+  }
+
+  public boolean isCaseStarted() {
+    return caseStarted;
+  }
+
+  /** Frames replayed after this one, or -1 if the server had to resync the client instead. */
+  public int getReplayedFrames() {
+    return replayedFrames;
+  }
+
+  @Override
+  public String toString() {
+    return "ResumeSessionResponseDTO{" +
+            "success=" + success +
+            ", message='" + message + '\'' +
+            ", sessionId='" + sessionId + '\'' +
+            ", replayedFrames=" + replayedFrames +
+            '}';
+  }
+}
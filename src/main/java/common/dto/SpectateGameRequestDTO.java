@@ -0,0 +1,24 @@
+package common.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Objects;
+
+/** SpectateGameRequestDTO Which game to watch: a private game code or a session ID. */
+public class SpectateGameRequestDTO implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+  private final String target;
+
+  @JsonCreator
+  public SpectateGameRequestDTO(@JsonProperty("target") String target) {
+    this.target = Objects.requireNonNull(target);
+  }
+
+  /** A private game code or a session ID. */
+  public String getTarget() {
+    return target;
+  }
+}
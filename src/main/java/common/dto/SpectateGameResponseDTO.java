@@ -0,0 +1,80 @@
+package common.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SpectateGameResponseDTO Answer to a spectate request. On success it also carries a short
+ * snapshot of the game being watched (case, players, whether the case has started), since a
+ * spectator gets no lobby updates of their own; everything after that arrives as the session's
+ * normal broadcasts.
+ */
+public class SpectateGameResponseDTO implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+  private final boolean success;
+  private final String message;
+  private final String sessionId;
+  private final String caseTitle;
+  private final List<String> playerDisplayIds;
+  private final boolean caseStarted;
+
+  @JsonCreator
+  public SpectateGameResponseDTO(
+          @JsonProperty("success") boolean success,
+          @JsonProperty("message") String message,
+          @JsonProperty("sessionId") String sessionId,
+          @JsonProperty("caseTitle") String caseTitle,
+          @JsonProperty("playerDisplayIds") List<String> playerDisplayIds,
+          @JsonProperty("caseStarted") boolean caseStarted) {
+    this.success = success;
+    this.message = message;
+    this.sessionId = sessionId;
+    this.caseTitle = caseTitle;
+    this.playerDisplayIds = playerDisplayIds != null ? new ArrayList<>(playerDisplayIds) : new ArrayList<>();
+    this.caseStarted = caseStarted;
+  }
+
+  /** A refusal; there's nothing to snapshot. */
+  public static SpectateGameResponseDTO failed(String message) {
+    return new SpectateGameResponseDTO(false, message, null, null, null, false);
+  }
+
+  public boolean isSuccess() {
+    return success;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public String getSessionId() {
+    return sessionId;
+  }
+
+  public String getCaseTitle() {
+    return caseTitle;
+  }
+
+  public List<String> getPlayerDisplayIds() {
+    return new ArrayList<>(playerDisplayIds);
+  }
+
+  public boolean isCaseStarted() {
+    return caseStarted;
+  }
+
+  @Override
+  public String toString() {
+    return "SpectateGameResponseDTO{" +
+            "success=" + success +
+            ", message='" + message + '\'' +
+            ", sessionId='" + sessionId + '\'' +
+            ", players=" + playerDisplayIds +
+            '}';
+  }
+}
@@ -0,0 +1,44 @@
+package common.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Sent by the client right after {@link ClientIdAssignmentDTO}: the wire codec (and optionally the
+ * frame compressor) it picked from the server's offer. The client itself switches as soon as it sends this; the server switches its
+ * outbound frames once it has processed it. Frames carry their codec id, so the overlap is harmless.
+ */
+public class WireCodecSelectionDTO implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+  private final String codecName;
+  private final String compressorName; // Null = no compression.
+
+  public WireCodecSelectionDTO(String codecName) {
+    this(codecName, null);
+  }
+
+  @JsonCreator
+  public WireCodecSelectionDTO(
+          @JsonProperty("codecName") String codecName,
+          @JsonProperty("compressorName") String compressorName) {
+    this.codecName = Objects.requireNonNull(codecName);
+    this.compressorName = compressorName;
+  }
+
+  public String getCodecName() {
+    return codecName;
+  }
+
+  public String getCompressorName() {
+    return compressorName;
+  }
+
+  @Override
+  public String toString() {
+    return "WireCodecSelectionDTO{codecName='" + codecName + "', compressorName='" + compressorName + "'}";
+  }
+}
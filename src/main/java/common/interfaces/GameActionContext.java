@@ -23,6 +23,15 @@ public interface GameActionContext {
 
   // --- World Information & Interaction ---
   String getOccupantsDescriptionInRoom(Room room, String askingPlayerId);
+
+  /**
+   * Names of everyone in {@code room} as the asking player sees them (they're left out of their own
+   * list). Same content as getOccupantsDescriptionInRoom, but as a list, for DTOs.
+   */
+  List<String> getOccupantNamesInRoom(Room room, String askingPlayerId);
+
+  /** The suspect called {@code suspectName} (case-insensitive) if they're in {@code room}, else null. */
+  Suspect findSuspectInRoom(Room room, String suspectName);
   TaskList getTaskList();
   DoctorWatson getWatson();
   List<Suspect> getAllSuspects();
@@ -35,6 +44,12 @@ public interface GameActionContext {
   // --- Communication (Abstracted for SP/MP) ---
   void sendResponseToPlayer(String playerId, Serializable responseDto);
   void broadcastToSession(Serializable dto, String excludePlayerId);
+
+  /**
+   * Sends to the players who can observe {@code room}: anyone in it or one exit away. For
+   * room-local events; journal, chat and exam traffic stays on {@link #broadcastToSession}.
+   */
+  void broadcastToArea(Room room, Serializable dto, String excludePlayerId);
   void notifyPlayerMove(String movingPlayerId, Room newRoom, Room oldRoom);
 
   // --- Exam Flow ---
@@ -0,0 +1,306 @@
+package common.wire;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import common.SerializationUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BinaryWireCodec A compact binary form of exactly what the JSON codec would send.
+ *
+ * <p>It reuses the same Jackson mapper (same annotations, same polymorphic typing) but captures the
+ * token stream in a TokenBuffer and writes it as tagged binary tokens instead of text:
+ *
+ * <ul>
+ *   <li>class names found in {@link WireTypeRegistry} become a varint type ID;
+ *   <li>field names and short strings are written once per frame and back-referenced after that
+ *       (room names, "@class", "description" etc. repeat a lot);
+ *   <li>ints/longs are zigzag varints, floating point is raw IEEE bits.
+ * </ul>
+ *
+ * Decoding replays the tokens into a TokenBuffer and lets the mapper bind it, so anything the JSON
+ * codec can carry, this one can too.
+ */
+public final class BinaryWireCodec implements WireCodec {
+
+  public static final byte ID = 1;
+
+  // --- Token tags ---
+  private static final int T_START_OBJECT = 1;
+  private static final int T_END_OBJECT = 2;
+  private static final int T_START_ARRAY = 3;
+  private static final int T_END_ARRAY = 4;
+  private static final int T_FIELD = 5; // + symbol
+  private static final int T_STRING = 6; // + symbol
+  private static final int T_TYPE = 7; // + varint type id (a string value that is a registered class)
+  private static final int T_INT = 8; // + zigzag varint
+  private static final int T_LONG = 9; // + zigzag varlong
+  private static final int T_DOUBLE = 10; // + 8 bytes
+  private static final int T_FLOAT = 11; // + 4 bytes
+  private static final int T_TRUE = 12;
+  private static final int T_FALSE = 13;
+  private static final int T_NULL = 14;
+  private static final int T_BIG_INTEGER = 15; // + symbol (decimal text)
+  private static final int T_BIG_DECIMAL = 16; // + symbol (decimal text)
+  private static final int T_BINARY = 17; // + varint length + bytes
+
+  // Strings longer than this (UTF-8 bytes) are never added to the per-frame back-reference table.
+  private static final int MAX_SYMBOL_BYTES = 64;
+  // Sanity cap for a single string/binary value (frames themselves are capped well below this).
+  private static final int MAX_VALUE_BYTES = 10 * 1024 * 1024;
+
+  private final ObjectMapper mapper = SerializationUtils.getMapper();
+
+  @Override
+  public byte getId() {
+    return ID;
+  }
+
+  @Override
+  public String getName() {
+    return "binary-" + WireTypeRegistry.fingerprint();
+  }
+
+  @Override
+  public byte[] encode(Serializable object) throws IOException {
+    TokenBuffer tokens = new TokenBuffer(mapper, false);
+    mapper.writeValue(tokens, object);
+
+    Writer out = new Writer();
+    try (JsonParser p = tokens.asParser(mapper)) {
+      JsonToken t;
+      while ((t = p.nextToken()) != null) {
+        switch (t) {
+          case START_OBJECT -> out.write(T_START_OBJECT);
+          case END_OBJECT -> out.write(T_END_OBJECT);
+          case START_ARRAY -> out.write(T_START_ARRAY);
+          case END_ARRAY -> out.write(T_END_ARRAY);
+          case FIELD_NAME -> {
+            out.write(T_FIELD);
+            out.writeSymbol(p.currentName());
+          }
+          case VALUE_STRING -> {
+            String value = p.getText();
+            int typeId = WireTypeRegistry.idOf(value);
+            if (typeId >= 0) {
+              out.write(T_TYPE);
+              out.writeVarLong(typeId);
+            } else {
+              out.write(T_STRING);
+              out.writeSymbol(value);
+            }
+          }
+          case VALUE_NUMBER_INT -> {
+            switch (p.getNumberType()) {
+              case INT -> {
+                out.write(T_INT);
+                out.writeZigZag(p.getIntValue());
+              }
+              case LONG -> {
+                out.write(T_LONG);
+                out.writeZigZag(p.getLongValue());
+              }
+              default -> {
+                out.write(T_BIG_INTEGER);
+                out.writeSymbol(p.getBigIntegerValue().toString());
+              }
+            }
+          }
+          case VALUE_NUMBER_FLOAT -> {
+            switch (p.getNumberType()) {
+              case FLOAT -> {
+                out.write(T_FLOAT);
+                out.writeFixed(Float.floatToIntBits(p.getFloatValue()), 4);
+              }
+              case DOUBLE -> {
+                out.write(T_DOUBLE);
+                out.writeFixed(Double.doubleToLongBits(p.getDoubleValue()), 8);
+              }
+              default -> {
+                out.write(T_BIG_DECIMAL);
+                out.writeSymbol(p.getDecimalValue().toString());
+              }
+            }
+          }
+          case VALUE_TRUE -> out.write(T_TRUE);
+          case VALUE_FALSE -> out.write(T_FALSE);
+          case VALUE_NULL -> out.write(T_NULL);
+          case VALUE_EMBEDDED_OBJECT -> {
+            Object embedded = p.getEmbeddedObject();
+            if (!(embedded instanceof byte[] bytes)) {
+              throw new IOException("BinaryWireCodec can't encode embedded " + embedded);
+            }
+            out.write(T_BINARY);
+            out.writeVarLong(bytes.length);
+            out.write(bytes, 0, bytes.length);
+          }
+          default -> throw new IOException("Unexpected token while encoding: " + t);
+        }
+      }
+    }
+    return out.toByteArray();
+  }
+
+  @Override
+  public Object decode(InputStream in) throws IOException {
+    Reader reader = new Reader(in);
+    TokenBuffer tokens = new TokenBuffer(mapper, false);
+    int tag;
+    while ((tag = in.read()) != -1) {
+      switch (tag) {
+        case T_START_OBJECT -> tokens.writeStartObject();
+        case T_END_OBJECT -> tokens.writeEndObject();
+        case T_START_ARRAY -> tokens.writeStartArray();
+        case T_END_ARRAY -> tokens.writeEndArray();
+        case T_FIELD -> tokens.writeFieldName(reader.readSymbol());
+        case T_STRING -> tokens.writeString(reader.readSymbol());
+        case T_TYPE -> tokens.writeString(WireTypeRegistry.nameOf((int) reader.readVarLong()));
+        case T_INT -> tokens.writeNumber((int) reader.readZigZag());
+        case T_LONG -> tokens.writeNumber(reader.readZigZag());
+        case T_DOUBLE -> tokens.writeNumber(Double.longBitsToDouble(reader.readFixed(8)));
+        case T_FLOAT -> tokens.writeNumber(Float.intBitsToFloat((int) reader.readFixed(4)));
+        case T_TRUE -> tokens.writeBoolean(true);
+        case T_FALSE -> tokens.writeBoolean(false);
+        case T_NULL -> tokens.writeNull();
+        case T_BIG_INTEGER -> tokens.writeNumber(new BigInteger(reader.readSymbol()));
+        case T_BIG_DECIMAL -> tokens.writeNumber(new BigDecimal(reader.readSymbol()));
+        case T_BINARY -> tokens.writeBinary(reader.readBytes((int) reader.readVarLong()));
+        default -> throw new IOException("Unknown binary wire tag: " + tag);
+      }
+    }
+    try (JsonParser p = tokens.asParser(mapper)) {
+      return mapper.readValue(p, Object.class);
+    }
+  }
+
+  /** Output side: tagged tokens plus the per-frame symbol table. */
+  private static final class Writer extends ByteArrayOutputStream {
+    private final Map<String, Integer> symbols = new HashMap<>();
+
+    Writer() {
+      super(256);
+    }
+
+    /** Literal: varint(len << 1) + UTF-8. Repeat: varint(index << 1 | 1). */
+    void writeSymbol(String s) {
+      Integer index = symbols.get(s);
+      if (index != null) {
+        writeVarLong(((long) index << 1) | 1);
+        return;
+      }
+      byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+      writeVarLong((long) utf8.length << 1);
+      write(utf8, 0, utf8.length);
+      if (utf8.length <= MAX_SYMBOL_BYTES) {
+        symbols.put(s, symbols.size());
+      }
+    }
+
+    void writeZigZag(long v) {
+      writeVarLong((v << 1) ^ (v >> 63));
+    }
+
+    void writeVarLong(long v) {
+      while ((v & ~0x7FL) != 0) {
+        write((int) ((v & 0x7F) | 0x80));
+        v >>>= 7;
+      }
+      write((int) v);
+    }
+
+    void writeFixed(long bits, int bytes) {
+      for (int i = bytes - 1; i >= 0; i--) {
+        write((int) (bits >>> (8 * i)));
+      }
+    }
+  }
+
+  /** Input side, mirrors {@link Writer}. */
+  private static final class Reader {
+    private final InputStream in;
+    private final List<String> symbols = new ArrayList<>();
+
+    Reader(InputStream in) {
+      this.in = in;
+    }
+
+    String readSymbol() throws IOException {
+      long header = readVarLong();
+      if ((header & 1) == 1) {
+        int index = (int) (header >>> 1);
+        if (index >= symbols.size()) {
+          throw new IOException("Bad symbol back-reference: " + index);
+        }
+        return symbols.get(index);
+      }
+      byte[] utf8 = readBytes((int) (header >>> 1));
+      String s = new String(utf8, StandardCharsets.UTF_8);
+      if (utf8.length <= MAX_SYMBOL_BYTES) {
+        symbols.add(s);
+      }
+      return s;
+    }
+
+    long readZigZag() throws IOException {
+      long v = readVarLong();
+      return (v >>> 1) ^ -(v & 1);
+    }
+
+    long readVarLong() throws IOException {
+      long result = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        int b = readByte();
+        result |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return result;
+        }
+      }
+      throw new IOException("Malformed varint");
+    }
+
+    long readFixed(int bytes) throws IOException {
+      long bits = 0;
+      for (int i = 0; i < bytes; i++) {
+        bits = (bits << 8) | readByte();
+      }
+      return bits;
+    }
+
+    byte[] readBytes(int length) throws IOException {
+      if (length < 0 || length > MAX_VALUE_BYTES) {
+        throw new IOException("Bad value length in binary frame: " + length);
+      }
+      byte[] bytes = new byte[length];
+      int off = 0;
+      while (off < length) {
+        int n = in.read(bytes, off, length - off);
+        if (n < 0) {
+          throw new EOFException("Binary frame ended inside a value");
+        }
+        off += n;
+      }
+      return bytes;
+    }
+
+    private int readByte() throws IOException {
+      int b = in.read();
+      if (b < 0) {
+        throw new EOFException("Binary frame ended inside a value");
+      }
+      return b;
+    }
+  }
+}
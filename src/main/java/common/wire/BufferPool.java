@@ -0,0 +1,135 @@
+package common.wire;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BufferPool A small size-classed pool of direct ByteBuffers for outbound frames.
+ *
+ * <p>Direct buffers are expensive to allocate and free, but they let the socket write skip the
+ * JDK's internal heap-to-direct copy. So I keep a few of each size class around and hand them out
+ * again. Requests bigger than the largest class just get a one-off heap buffer that is never pooled
+ * (those are rare: case files and other bulk DTOs).
+ *
+ * <p>Thread-safe: buffers are acquired on game-logic threads and released on worker threads.
+ */
+public final class BufferPool {
+
+  /** Shared pool used by {@link EncodedFrame}. */
+  public static final BufferPool DEFAULT = new BufferPool(256, 6, 32);
+
+  private final int smallestClass;
+  private final int classCount;
+  private final int maxRetainedPerClass;
+  private final List<Queue<ByteBuffer>> freeLists; // One per size class, smallest first.
+  private final AtomicInteger[] retainedCounts;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder oversized = new LongAdder();
+
+  /**
+   * @param smallestClass Capacity of the smallest size class, in bytes (a power of two).
+   * @param classCount Number of size classes; each one is 4x the previous.
+   * @param maxRetainedPerClass How many free buffers a class keeps before extras are dropped.
+   */
+  public BufferPool(int smallestClass, int classCount, int maxRetainedPerClass) {
+    this.smallestClass = smallestClass;
+    this.classCount = classCount;
+    this.maxRetainedPerClass = maxRetainedPerClass;
+    this.freeLists = new ArrayList<>(classCount);
+    this.retainedCounts = new AtomicInteger[classCount];
+    for (int i = 0; i < classCount; i++) {
+      freeLists.add(new ConcurrentLinkedQueue<>());
+      retainedCounts[i] = new AtomicInteger();
+    }
+  }
+
+  /** Largest request size that is served from the pool. */
+  public int getLargestPooledSize() {
+    return classCapacity(classCount - 1);
+  }
+
+  /**
+   * Returns a cleared buffer with at least {@code size} bytes capacity and its limit set to
+   * {@code size}. Give it back with {@link #release(ByteBuffer)} when done.
+   */
+  public ByteBuffer acquire(int size) {
+    int sizeClass = classFor(size);
+    if (sizeClass < 0) {
+      oversized.increment();
+      return ByteBuffer.allocate(size);
+    }
+    ByteBuffer buffer = freeLists.get(sizeClass).poll();
+    if (buffer != null) {
+      retainedCounts[sizeClass].decrementAndGet();
+      hits.increment();
+    } else {
+      misses.increment();
+      buffer = ByteBuffer.allocateDirect(classCapacity(sizeClass));
+    }
+    buffer.clear().limit(size);
+    return buffer;
+  }
+
+  /** Returns a buffer obtained from {@link #acquire(int)}. Heap (oversized) buffers are ignored. */
+  public void release(ByteBuffer buffer) {
+    if (buffer == null || !buffer.isDirect()) {
+      return;
+    }
+    int sizeClass = exactClassFor(buffer.capacity());
+    if (sizeClass < 0) {
+      return; // Not one of ours.
+    }
+    if (retainedCounts[sizeClass].incrementAndGet() <= maxRetainedPerClass) {
+      buffer.clear();
+      freeLists.get(sizeClass).offer(buffer);
+    } else {
+      retainedCounts[sizeClass].decrementAndGet(); // Let GC have it.
+    }
+  }
+
+  private int classCapacity(int sizeClass) {
+    return smallestClass << (2 * sizeClass);
+  }
+
+  private int classFor(int size) {
+    for (int i = 0; i < classCount; i++) {
+      if (size <= classCapacity(i)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int exactClassFor(int capacity) {
+    for (int i = 0; i < classCount; i++) {
+      if (capacity == classCapacity(i)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getOversized() {
+    return oversized.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "BufferPool{hits=" + getHits() + ", misses=" + getMisses() + ", oversized=" + getOversized() + '}';
+  }
+}
@@ -0,0 +1,195 @@
+package common.wire;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * ChunkReassembler Puts chunked streams (see {@link WireCodecs#FLAG_CHUNK}) back together, one
+ * instance per connection.
+ *
+ * <p>Each stream is buffered in memory until it passes the spool threshold; from then on it goes to
+ * a temp file, so a big transfer doesn't pin a big heap array while the rest trickles in. The
+ * completed body is handed out as a {@link CompletedStream} (heap or memory-mapped file) that must be
+ * closed after decoding so the spool file is removed.
+ *
+ * <p>Limits (concurrent streams, bytes per stream, strict sequence order) are enforced; breaking one
+ * is a protocol error. Not thread-safe: used from the connection's reading thread only.
+ */
+public final class ChunkReassembler implements Closeable {
+
+  private final int maxStreams;
+  private final long maxStreamBytes;
+  private final int spoolThresholdBytes;
+  private final Map<Integer, PartialStream> streams = new HashMap<>();
+
+  /**
+   * @param maxStreams How many streams may be in progress at once.
+   * @param maxStreamBytes Largest reassembled body accepted.
+   * @param spoolThresholdBytes Streams bigger than this are spooled to a temp file.
+   */
+  public ChunkReassembler(int maxStreams, long maxStreamBytes, int spoolThresholdBytes) {
+    this.maxStreams = maxStreams;
+    this.maxStreamBytes = maxStreamBytes;
+    this.spoolThresholdBytes = spoolThresholdBytes;
+  }
+
+  /**
+   * Takes one chunk frame payload (everything after the flags byte).
+   *
+   * @return The completed frame body (flags + payload) if this was the last chunk, else null.
+   */
+  public CompletedStream accept(ByteBuffer chunk) throws IOException {
+    if (chunk.remaining() < WireCodecs.CHUNK_HEADER_BYTES) {
+      throw new IOException("Chunk frame too short: " + chunk.remaining() + " bytes");
+    }
+    int streamId = chunk.getInt();
+    int sequence = chunk.getInt();
+    boolean last = chunk.get() != 0;
+
+    PartialStream stream = streams.get(streamId);
+    if (stream == null) {
+      if (sequence != 0) {
+        throw new IOException("Chunk " + sequence + " for unknown stream " + streamId);
+      }
+      if (streams.size() >= maxStreams) {
+        throw new IOException("Too many concurrent streams (max " + maxStreams + ")");
+      }
+      stream = new PartialStream(streamId);
+      streams.put(streamId, stream);
+    }
+    try {
+      stream.append(sequence, chunk);
+    } catch (IOException e) {
+      streams.remove(streamId);
+      stream.discard();
+      throw e;
+    }
+    if (!last) {
+      return null;
+    }
+    streams.remove(streamId);
+    return stream.complete();
+  }
+
+  /** Streams currently being reassembled. */
+  public int getOpenStreamCount() {
+    return streams.size();
+  }
+
+  /** Drops every partial stream and deletes its spool file. */
+  @Override
+  public void close() {
+    for (Iterator<PartialStream> it = streams.values().iterator(); it.hasNext(); ) {
+      it.next().discard();
+      it.remove();
+    }
+  }
+
+  /** A reassembled frame body. Close it once decoded. */
+  public static final class CompletedStream implements Closeable {
+    private final ByteBuffer body;
+    // Null if the stream stayed in memory. Opened DELETE_ON_CLOSE, so closing it removes the spool
+    // file; deleting it by name would fail on Windows while the body's mapping is still alive.
+    private final FileChannel spoolChannel;
+
+    private CompletedStream(ByteBuffer body, FileChannel spoolChannel) {
+      this.body = body;
+      this.spoolChannel = spoolChannel;
+    }
+
+    /** Flags byte followed by the payload. */
+    public ByteBuffer body() {
+      return body;
+    }
+
+    public boolean wasSpooled() {
+      return spoolChannel != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (spoolChannel != null) {
+        spoolChannel.close();
+      }
+    }
+  }
+
+  private final class PartialStream {
+    private final int streamId;
+    private int nextSequence = 0;
+    private long size = 0;
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private Path spoolFile;
+    private FileChannel spoolChannel;
+
+    PartialStream(int streamId) {
+      this.streamId = streamId;
+    }
+
+    void append(int sequence, ByteBuffer data) throws IOException {
+      if (sequence != nextSequence) {
+        throw new IOException(
+            "Stream " + streamId + ": expected chunk " + nextSequence + " but got " + sequence);
+      }
+      nextSequence++;
+      size += data.remaining();
+      if (size > maxStreamBytes) {
+        throw new IOException("Stream " + streamId + " exceeds " + maxStreamBytes + " bytes");
+      }
+      if (spoolChannel == null && size > spoolThresholdBytes) {
+        spoolFile = Files.createTempFile("sherlock-stream-", ".part");
+        spoolChannel = FileChannel.open(spoolFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.DELETE_ON_CLOSE);
+        writeFully(ByteBuffer.wrap(memory.toByteArray()));
+        memory = null;
+      }
+      if (spoolChannel != null) {
+        writeFully(data);
+      } else {
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        memory.write(bytes, 0, bytes.length);
+      }
+    }
+
+    private void writeFully(ByteBuffer data) throws IOException {
+      while (data.hasRemaining()) {
+        spoolChannel.write(data);
+      }
+    }
+
+    CompletedStream complete() throws IOException {
+      if (size == 0) {
+        discard();
+        throw new IOException("Stream " + streamId + " completed empty");
+      }
+      if (spoolChannel == null) {
+        return new CompletedStream(ByteBuffer.wrap(memory.toByteArray()), null);
+      }
+      ByteBuffer mapped = spoolChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      return new CompletedStream(mapped, spoolChannel); // Its close() deletes the file.
+    }
+
+    void discard() {
+      memory = null;
+      try {
+        if (spoolChannel != null) {
+          spoolChannel.close(); // DELETE_ON_CLOSE removes the file.
+        } else if (spoolFile != null) {
+          Files.deleteIfExists(spoolFile); // Created, but the channel never opened.
+        }
+      } catch (IOException ignored) {
+        // Best effort; the temp dir gets cleaned eventually.
+      }
+    }
+  }
+}
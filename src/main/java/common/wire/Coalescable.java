@@ -0,0 +1,18 @@
+package common.wire;
+
+/**
+ * Coalescable A message that a later message with the same key makes obsolete, like "item X is now
+ * at (x, y)". When a client falls behind, the server may replace a still-queued message with a newer
+ * one of the same key instead of queuing both.
+ *
+ * <p>Only implement this for pure "latest state wins" updates; anything the client needs to see
+ * every instance of must not be coalescable.
+ */
+public interface Coalescable {
+
+  /**
+   * Key under which this message supersedes earlier ones, or null if this particular instance must
+   * always be delivered. Not a bean getter on purpose, so the codecs don't put it on the wire.
+   */
+  String coalesceKey();
+}
@@ -0,0 +1,71 @@
+package common.wire;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * DeflateFrameCompressor java.util.zip Deflate (raw, no zlib header). Deflater/Inflater instances are
+ * kept per thread and reset between frames, since creating them allocates native memory.
+ */
+public final class DeflateFrameCompressor implements FrameCompressor {
+
+  public static final byte ID = 1;
+
+  private static final ThreadLocal<Deflater> DEFLATERS =
+      ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+  private static final ThreadLocal<Inflater> INFLATERS =
+      ThreadLocal.withInitial(() -> new Inflater(true));
+
+  @Override
+  public byte getId() {
+    return ID;
+  }
+
+  @Override
+  public String getName() {
+    return "deflate";
+  }
+
+  @Override
+  public byte[] compress(byte[] data) {
+    Deflater deflater = DEFLATERS.get();
+    deflater.reset();
+    deflater.setInput(data);
+    deflater.finish();
+    ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+    byte[] chunk = new byte[8192];
+    while (!deflater.finished()) {
+      int n = deflater.deflate(chunk);
+      out.write(chunk, 0, n);
+    }
+    return out.toByteArray();
+  }
+
+  @Override
+  public byte[] decompress(ByteBuffer compressed, int maxBytes) throws IOException {
+    Inflater inflater = INFLATERS.get();
+    inflater.reset();
+    inflater.setInput(compressed);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(256, compressed.remaining() * 4));
+    byte[] chunk = new byte[8192];
+    try {
+      while (!inflater.finished()) {
+        int n = inflater.inflate(chunk);
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new IOException("Truncated deflate payload");
+        }
+        if (out.size() + n > maxBytes) {
+          throw new IOException("Decompressed frame exceeds " + maxBytes + " bytes");
+        }
+        out.write(chunk, 0, n);
+      }
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupt deflate payload: " + e.getMessage(), e);
+    }
+    return out.toByteArray();
+  }
+}
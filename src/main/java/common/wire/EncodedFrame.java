@@ -0,0 +1,163 @@
+package common.wire;
+
+import common.NetworkConstants;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * EncodedFrame An immutable, already-serialized wire frame: the 4-byte length prefix, the flags byte
+ * and the payload, exactly as it goes out on the socket (see {@link WireCodecs}).
+ *
+ * <p>The point is to encode a DTO once and hand the same frame to every recipient. The bytes are
+ * never modified after construction; each writer gets its own read-only view (own position/limit)
+ * via {@link #newWriteBuffer()}, so sharing one instance across many write queues is safe.
+ *
+ * <p>The bytes live in a pooled direct buffer, so frames are reference counted. Whoever creates a
+ * frame holds one reference; every write queue that takes the frame calls {@link #retain()} and
+ * {@link #release()} once it's been flushed (or dropped). The buffer goes back to the pool when the
+ * last reference is released.
+ *
+ * <p>A message whose body is too big for one frame comes out as several chunk frames (see
+ * {@link WireCodecs#FLAG_CHUNK}), marked bulk so writers can interleave them with gameplay traffic.
+ */
+public final class EncodedFrame {
+
+  private final ByteBuffer frameBuffer; // Length + flags + payload, position 0, limit = frame length.
+  private final BufferPool pool;
+  private final String payloadType; // Simple class name of the DTO, for logging.
+  private final boolean bulk; // A chunk of a large stream; writers send these at lower priority.
+  private final String coalesceKey; // See Coalescable; null for frames that must always go out.
+  // What encoding did to the whole message. Only set on a message's first frame (see encode()).
+  private final WireFormat.Body messageStats;
+  private final AtomicInteger refCount = new AtomicInteger(1);
+
+  private EncodedFrame(
+      ByteBuffer frameBuffer,
+      BufferPool pool,
+      String payloadType,
+      boolean bulk,
+      String coalesceKey,
+      WireFormat.Body messageStats) {
+    this.frameBuffer = frameBuffer;
+    this.pool = pool;
+    this.payloadType = payloadType;
+    this.bulk = bulk;
+    this.coalesceKey = coalesceKey;
+    this.messageStats = messageStats;
+  }
+
+  /**
+   * {@link #encode(Serializable, WireFormat, int, int)} with the chunking limits from
+   * {@link NetworkConstants}.
+   */
+  public static List<EncodedFrame> encode(Serializable dto, WireFormat format) throws IOException {
+    return encode(
+        dto, format, NetworkConstants.MAX_UNCHUNKED_FRAME_BYTES, NetworkConstants.STREAM_CHUNK_BYTES);
+  }
+
+  /**
+   * Serializes a DTO in the given wire format (codec, plus compression above the format's threshold)
+   * and copies it into pooled frame buffers. Usually that's a single frame; a body bigger than
+   * {@code maxUnchunkedBody} is split into chunk frames of at most {@code chunkBytes} data each,
+   * all marked {@link #isBulk() bulk}. The caller owns one reference to each returned frame and must
+   * {@link #release()} them after handing them out.
+   *
+   * @throws IOException if the DTO can't be serialized.
+   */
+  public static List<EncodedFrame> encode(
+      Serializable dto, WireFormat format, int maxUnchunkedBody, int chunkBytes) throws IOException {
+    WireFormat.Body body = format.encode(dto);
+    String payloadType = dto.getClass().getSimpleName();
+    String coalesceKey = dto instanceof Coalescable c ? c.coalesceKey() : null;
+    int length = WireCodecs.HEADER_BYTES + body.payload().length;
+    if (length <= maxUnchunkedBody) {
+      ByteBuffer buffer = BufferPool.DEFAULT.acquire(WireCodecs.LENGTH_PREFIX_BYTES + length);
+      buffer.putInt(length);
+      buffer.put(body.flags());
+      buffer.put(body.payload());
+      buffer.flip();
+      return List.of(new EncodedFrame(buffer, BufferPool.DEFAULT, payloadType, false, coalesceKey, body));
+    }
+
+    List<EncodedFrame> chunks = new ArrayList<>();
+    WireCodecs.writeChunks(body.flags(), body.payload(), chunkBytes, new WireCodecs.ChunkSink() {
+      @Override
+      public ByteBuffer allocate(int size) {
+        return BufferPool.DEFAULT.acquire(size);
+      }
+
+      @Override
+      public void accept(ByteBuffer frame, boolean last) {
+        chunks.add(new EncodedFrame(
+            frame, BufferPool.DEFAULT, payloadType, true, null, chunks.isEmpty() ? body : null));
+      }
+    });
+    return chunks;
+  }
+
+  /**
+   * A fresh read-only view positioned at the start of the frame. Only valid while the caller holds
+   * a reference.
+   */
+  public ByteBuffer newWriteBuffer() {
+    return frameBuffer.asReadOnlyBuffer();
+  }
+
+  /** Takes an extra reference (e.g. when queuing the frame for one more recipient). */
+  public EncodedFrame retain() {
+    int previous;
+    do {
+      previous = refCount.get();
+      if (previous <= 0) {
+        throw new IllegalStateException("EncodedFrame already released: " + this);
+      }
+    } while (!refCount.compareAndSet(previous, previous + 1));
+    return this;
+  }
+
+  /** Drops one reference; the last one returns the buffer to the pool. */
+  public void release() {
+    int remaining = refCount.decrementAndGet();
+    if (remaining == 0) {
+      pool.release(frameBuffer);
+    } else if (remaining < 0) {
+      throw new IllegalStateException("EncodedFrame released too many times: " + this);
+    }
+  }
+
+  /** Total bytes on the wire, length prefix included. */
+  public int getFrameLength() {
+    return frameBuffer.limit();
+  }
+
+  /** True for chunks of a large stream, which writers may hold back behind gameplay frames. */
+  public boolean isBulk() {
+    return bulk;
+  }
+
+  /** Key of the {@link Coalescable} message this frame carries, or null. Never set on chunks. */
+  public String getCoalesceKey() {
+    return coalesceKey;
+  }
+
+  /**
+   * Encoding stats for the whole message (payload sizes before/after compression, compression
+   * time). Null on every frame of a chunked message except the first.
+   */
+  public WireFormat.Body getMessageStats() {
+    return messageStats;
+  }
+
+  public String getPayloadType() {
+    return payloadType;
+  }
+
+  @Override
+  public String toString() {
+    return "EncodedFrame{" + payloadType + ", " + getFrameLength() + " bytes, refs=" + refCount.get() + '}';
+  }
+}
@@ -0,0 +1,27 @@
+package common.wire;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * FrameCompressor Optional compression applied to a frame's payload after the codec ran. The frame
+ * flags record which compressor was used (see {@link WireCodecs}), so frames below the threshold
+ * simply go out uncompressed on the same connection.
+ */
+public interface FrameCompressor {
+
+  /** Id stored in the frame flags (1..3; 0 means "not compressed"). */
+  byte getId();
+
+  /** Name used during negotiation. */
+  String getName();
+
+  byte[] compress(byte[] data) throws IOException;
+
+  /**
+   * Decompresses {@code compressed} (position..limit).
+   *
+   * @param maxBytes Upper bound on the decompressed size; larger output is treated as corrupt.
+   */
+  byte[] decompress(ByteBuffer compressed, int maxBytes) throws IOException;
+}
@@ -0,0 +1,144 @@
+package common.wire;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * FrameDecoder Incremental decoder for the length-prefixed wire format on a non-blocking channel.
+ *
+ * <p>One {@link #readFrom} call reads everything the socket has right now and hands every complete
+ * frame to the handler, so a burst of pipelined messages costs one readiness event instead of one
+ * per message. Payloads are passed as a slice of the read buffer (no byte[] copy); the handler must
+ * be done with the slice when it returns.
+ *
+ * <p>The read buffer is borrowed from a {@link BufferPool} and adapts: it grows when a frame doesn't
+ * fit, and goes back to the pool whenever no partial frame is pending, so idle connections hold no
+ * buffer at all.
+ */
+public final class FrameDecoder {
+
+  /** Receives each complete frame body, flags byte first (position..limit), during a read. */
+  @FunctionalInterface
+  public interface FrameHandler {
+    void onFrame(ByteBuffer payload) throws IOException;
+  }
+
+  private static final int LENGTH_PREFIX_BYTES = WireCodecs.LENGTH_PREFIX_BYTES;
+
+  private final BufferPool pool;
+  private final int initialBufferSize;
+  private final int maxFrameLength;
+  private ByteBuffer buffer; // Write mode between calls; null when nothing is pending.
+
+  /**
+   * @param pool Where read buffers are borrowed from.
+   * @param initialBufferSize Starting buffer size; most frames should fit.
+   * @param maxFrameLength Largest payload accepted. Anything bigger is treated as a protocol error.
+   */
+  public FrameDecoder(BufferPool pool, int initialBufferSize, int maxFrameLength) {
+    this.pool = pool;
+    this.initialBufferSize = initialBufferSize;
+    this.maxFrameLength = maxFrameLength;
+  }
+
+  /**
+   * Reads until the socket has nothing more (or {@code maxReads} reads were done) and dispatches
+   * every complete frame.
+   *
+   * @return Number of frames dispatched.
+   * @throws EOFException if the peer closed the connection.
+   * @throws IOException on a network error, an invalid length, or if the handler throws.
+   */
+  public int readFrom(ReadableByteChannel channel, FrameHandler handler, int maxReads)
+      throws IOException {
+    int frames = 0;
+    try {
+      for (int reads = 0; reads < maxReads; reads++) {
+        if (buffer == null) {
+          buffer = acquire(initialBufferSize);
+        }
+        int read = channel.read(buffer);
+        if (read == -1) {
+          throw new EOFException("Client disconnected (EOF).");
+        }
+        if (read == 0) {
+          break;
+        }
+        boolean filled = !buffer.hasRemaining();
+        frames += extractFrames(handler);
+        if (!filled) {
+          break; // Socket is drained for now.
+        }
+      }
+    } finally {
+      if (buffer != null && buffer.position() == 0) {
+        // No partial frame pending: hand the buffer back (shrinks a grown buffer too).
+        pool.release(buffer);
+        buffer = null;
+      }
+    }
+    return frames;
+  }
+
+  /** Dispatches all complete frames in the buffer and compacts what's left. */
+  private int extractFrames(FrameHandler handler) throws IOException {
+    int frames = 0;
+    buffer.flip();
+    while (buffer.remaining() >= LENGTH_PREFIX_BYTES) {
+      int start = buffer.position();
+      int length = buffer.getInt(start);
+      if (length <= WireCodecs.HEADER_BYTES || length > maxFrameLength) {
+        throw new IOException("Invalid object length received: " + length + ". Closing connection.");
+      }
+      if (buffer.remaining() < LENGTH_PREFIX_BYTES + length) {
+        break; // Partial frame; wait for more bytes.
+      }
+      int payloadStart = start + LENGTH_PREFIX_BYTES;
+      ByteBuffer payload = buffer.duplicate();
+      payload.position(payloadStart).limit(payloadStart + length);
+      buffer.position(payloadStart + length);
+      handler.onFrame(payload);
+      frames++;
+    }
+    ensureCapacityForPendingFrame();
+    buffer.compact();
+    return frames;
+  }
+
+  /** Buffer is in read mode here. Grows it if the pending frame can't fit. */
+  private void ensureCapacityForPendingFrame() {
+    if (buffer.remaining() < LENGTH_PREFIX_BYTES) {
+      return;
+    }
+    int needed = LENGTH_PREFIX_BYTES + buffer.getInt(buffer.position());
+    if (needed <= buffer.capacity()) {
+      return;
+    }
+    ByteBuffer bigger = acquire(needed);
+    bigger.put(buffer);
+    bigger.flip(); // Read mode, like the buffer it replaces (compact() comes next).
+    pool.release(buffer);
+    buffer = bigger;
+  }
+
+  private ByteBuffer acquire(int size) {
+    ByteBuffer b = pool.acquire(size);
+    b.limit(b.capacity()); // Use the whole size class for reading.
+    return b;
+  }
+
+  /** Returns the read buffer to the pool. Call once the connection is closed. */
+  public void release() {
+    if (buffer != null) {
+      pool.release(buffer);
+      buffer = null;
+    }
+  }
+
+  /** Bytes currently held for a partial frame (0 when idle). */
+  public int getPendingBytes() {
+    return buffer == null ? 0 : buffer.position();
+  }
+}
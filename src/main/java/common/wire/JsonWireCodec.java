@@ -0,0 +1,35 @@
+package common.wire;
+
+import common.SerializationUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+
+/**
+ * JsonWireCodec The original format: Jackson JSON with default typing (fully-qualified class names in
+ * "@class"). Every connection starts with it and it stays the fallback if negotiation fails.
+ */
+public final class JsonWireCodec implements WireCodec {
+
+  public static final byte ID = 0;
+
+  @Override
+  public byte getId() {
+    return ID;
+  }
+
+  @Override
+  public String getName() {
+    return "json";
+  }
+
+  @Override
+  public byte[] encode(Serializable object) throws IOException {
+    return SerializationUtils.serialize(object);
+  }
+
+  @Override
+  public Object decode(InputStream in) throws IOException {
+    return SerializationUtils.deserialize(in);
+  }
+}
@@ -0,0 +1,26 @@
+package common.wire;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+
+/**
+ * WireCodec Turns commands/DTOs into frame payload bytes and back. The frame header (see
+ * {@link WireCodecs}) records which codec produced a payload, so every frame decodes on its own and
+ * a connection can switch codecs mid-stream without a handshake race.
+ */
+public interface WireCodec {
+
+  /** Id stored in the frame flags. Must fit in {@link WireCodecs#CODEC_ID_MASK}. */
+  byte getId();
+
+  /**
+   * Name used during negotiation. Includes anything both sides must agree on (e.g. the type table
+   * fingerprint), so mismatched builds simply won't pick the same codec.
+   */
+  String getName();
+
+  byte[] encode(Serializable object) throws IOException;
+
+  Object decode(InputStream in) throws IOException;
+}
@@ -0,0 +1,127 @@
+package common.wire;
+
+import common.NetworkConstants;
+import common.commands.MoveCommand;
+import common.commands.pinboard.UpdatePinboardCommand;
+import common.dto.AvailableCasesDTO;
+import common.dto.CaseFileDTO;
+import common.dto.CaseSummaryDTO;
+import common.dto.JournalEntryDTO;
+import common.dto.RoomDescriptionDTO;
+import common.dto.TextMessage;
+import common.dto.pinboard.PinboardUpdateDTO;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WireCodecBenchmark Quick side-by-side of the wire formats (codecs, with and without compression) on
+ * representative messages: payload size and encode/decode ns/op. Run it directly:
+ *
+ * <pre>
+ *   java -cp target/classes:... common.wire.WireCodecBenchmark [iterations] [casesDir]
+ * </pre>
+ *
+ * Not a JMH harness, just warm up then time a tight loop, but plenty to see the difference. It also
+ * checks that every sample survives a round trip through each format.
+ */
+public final class WireCodecBenchmark {
+
+  private WireCodecBenchmark() {}
+
+  public static void main(String[] args) throws IOException {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+    String casesDir = args.length > 1 ? args[1] : "cases";
+
+    Map<String, Serializable> samples = new LinkedHashMap<>();
+    samples.put("TextMessage", new TextMessage("You look around the Ballroom. Nothing moves.", false));
+    samples.put("MoveCommand", new MoveCommand("north"));
+    samples.put(
+        "RoomDescriptionDTO",
+        new RoomDescriptionDTO(
+            "Ballroom",
+            "A grand hall with a shattered chandelier and a cold draught from the terrace.",
+            List.of("shattered_glass", "wine_glass", "torn_invitation"),
+            List.of("Lady Ashcombe", "Detective (Player-3f2a)"),
+            Map.of("east", "Terrace", "north", "Library")));
+    samples.put(
+        "JournalEntryDTO",
+        new JournalEntryDTO(
+            "The butler's alibi does not match the gardener's statement.",
+            "c0a8012e-6a1f-4f0e-9a57-0a9c3c1f2b11",
+            System.currentTimeMillis()));
+    PinboardUpdateDTO move = new PinboardUpdateDTO(PinboardUpdateDTO.UpdateType.MOVE_ITEM);
+    move.setTargetId("note-17");
+    move.setNewX(412.5);
+    move.setNewY(133.0);
+    samples.put("UpdatePinboardCommand(MOVE)", new UpdatePinboardCommand(move));
+    try {
+      List<JsonDTO.CaseFile> cases = extractors.CaseLoader.loadCases(casesDir);
+      JsonDTO.CaseFile first = cases.get(0);
+      String hash = extractors.CaseLoader.contentHash(first);
+      samples.put("AvailableCasesDTO", new AvailableCasesDTO(hash, List.of(new CaseSummaryDTO(
+          hash, first.getUniversalTitle(), Map.of("en", "English"), first.getRooms().size(), 3))));
+      samples.put("CaseFileDTO", new CaseFileDTO(hash, extractors.CaseLoader.detached(first), null));
+    } catch (RuntimeException e) {
+      System.out.println("(Skipping case samples: couldn't load cases from " + casesDir + ")");
+    }
+
+    int threshold = NetworkConstants.COMPRESSION_THRESHOLD_BYTES;
+    List<WireFormat> formats = List.of(
+        WireFormat.JSON,
+        WireFormat.of(WireCodecs.BINARY),
+        WireFormat.of(WireCodecs.JSON, WireCodecs.DEFLATE, threshold),
+        WireFormat.of(WireCodecs.BINARY, WireCodecs.DEFLATE, threshold));
+    System.out.printf("%-28s %-28s %10s %14s %14s%n", "message", "format", "bytes", "encode ns/op", "decode ns/op");
+    for (Map.Entry<String, Serializable> sample : samples.entrySet()) {
+      for (WireFormat format : formats) {
+        Result r = measure(format, sample.getValue(), iterations);
+        System.out.printf("%-28s %-28s %10d %14.0f %14.0f%n",
+            sample.getKey(), format, r.bytes, r.encodeNs, r.decodeNs);
+      }
+    }
+  }
+
+  private record Result(int bytes, double encodeNs, double decodeNs) {}
+
+  private static Result measure(WireFormat format, Serializable message, int iterations) throws IOException {
+    byte[] encoded = frameBody(format, message);
+    Object decoded = WireCodecs.decodeFrameBody(ByteBuffer.wrap(encoded));
+    byte[] reencoded = frameBody(format, (Serializable) decoded);
+    if (!java.util.Arrays.equals(encoded, reencoded)) {
+      throw new IllegalStateException(format + " round trip changed " + message.getClass().getSimpleName());
+    }
+
+    long sink = 0;
+    for (int i = 0; i < iterations; i++) { // Warm-up.
+      sink += format.encode(message).payload().length;
+      sink += WireCodecs.decodeFrameBody(ByteBuffer.wrap(encoded)).hashCode() & 1;
+    }
+
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      sink += format.encode(message).payload().length;
+    }
+    double encodeNs = (System.nanoTime() - start) / (double) iterations;
+
+    start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      sink += WireCodecs.decodeFrameBody(ByteBuffer.wrap(encoded)).hashCode() & 1;
+    }
+    double decodeNs = (System.nanoTime() - start) / (double) iterations;
+
+    if (sink == 42) {
+      System.out.print(""); // Keeps the JIT from dropping the loops.
+    }
+    return new Result(encoded.length, encodeNs, decodeNs);
+  }
+
+  /** Flags byte + payload, i.e. the frame minus its length prefix. */
+  private static byte[] frameBody(WireFormat format, Serializable message) throws IOException {
+    WireFormat.Body body = format.encode(message);
+    return ByteBuffer.allocate(1 + body.payload().length).put(body.flags()).put(body.payload()).array();
+  }
+}
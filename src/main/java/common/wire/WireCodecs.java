@@ -0,0 +1,211 @@
+package common.wire;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WireCodecs Known codecs plus the frame layout they share.
+ *
+ * <p>A frame on the wire is {@code [int length][byte flags][payload]}, where length counts the flags
+ * byte plus the payload. The flags say which codec encoded the payload and which compressor (if any)
+ * was applied afterwards, so the receiver never has to guess.
+ *
+ * <p>Bodies too big for one frame travel as a chunked stream: a run of frames with
+ * {@link #FLAG_CHUNK} set whose payload is {@code [int streamId][int sequence][byte last][data]}.
+ * Concatenating the data of a stream's chunks gives back the original frame body (flags + payload),
+ * which is then decoded like any other frame. Chunks of different streams and ordinary frames may be
+ * interleaved on the connection.
+ */
+public final class WireCodecs {
+
+  /** Bytes in the length prefix. */
+  public static final int LENGTH_PREFIX_BYTES = 4;
+  /** Bytes of frame header after the length prefix. */
+  public static final int HEADER_BYTES = 1;
+
+  /** Low bits of the flags byte: id of the codec that produced the payload. */
+  public static final int CODEC_ID_MASK = 0x07;
+  /** Bits 3-4: id of the compressor applied to the payload, 0 if uncompressed. */
+  public static final int COMPRESSOR_SHIFT = 3;
+  public static final int COMPRESSOR_MASK = 0x03 << COMPRESSOR_SHIFT;
+  /** Bit 5: this frame is one chunk of a larger body (see class doc). */
+  public static final int FLAG_CHUNK = 0x20;
+  /** Chunk payload header: stream id, sequence, last marker. */
+  public static final int CHUNK_HEADER_BYTES = 4 + 4 + 1;
+
+  private static final AtomicInteger NEXT_STREAM_ID = new AtomicInteger();
+
+  /** Number of distinct codec+compressor combinations (see {@link WireFormat#getKey()}). */
+  public static final int FORMAT_KEY_COUNT = (CODEC_ID_MASK | COMPRESSOR_MASK) + 1;
+
+  // Largest payload we'll inflate a compressed frame to.
+  private static final int MAX_DECOMPRESSED_BYTES = 10 * 1024 * 1024;
+
+  public static final WireCodec JSON = new JsonWireCodec();
+  public static final WireCodec BINARY = new BinaryWireCodec();
+  public static final FrameCompressor DEFLATE = new DeflateFrameCompressor();
+
+  // Indexed by codec id. Preference order for negotiation is PREFERENCE below.
+  private static final WireCodec[] BY_ID = {JSON, BINARY};
+  private static final List<WireCodec> PREFERENCE = List.of(BINARY, JSON);
+  // Indexed by compressor id; slot 0 is "none".
+  private static final FrameCompressor[] COMPRESSORS_BY_ID = {null, DEFLATE};
+
+  private WireCodecs() {}
+
+  public static WireCodec byId(int id) throws IOException {
+    if (id < 0 || id >= BY_ID.length) {
+      throw new IOException("Frame uses unknown codec id " + id);
+    }
+    return BY_ID[id];
+  }
+
+  /** Names this build can speak, most preferred first (sent by the server on connect). */
+  public static List<String> supportedNames() {
+    List<String> names = new ArrayList<>();
+    for (WireCodec codec : PREFERENCE) {
+      names.add(codec.getName());
+    }
+    return names;
+  }
+
+  /**
+   * Picks the first codec in our own preference order that the peer also offers. Falls back to JSON
+   * when nothing matches (or the peer didn't offer anything).
+   */
+  public static WireCodec negotiate(List<String> offeredByPeer) {
+    if (offeredByPeer != null) {
+      for (WireCodec codec : PREFERENCE) {
+        if (offeredByPeer.contains(codec.getName())) {
+          return codec;
+        }
+      }
+    }
+    return JSON;
+  }
+
+  /** Looks up a codec by its negotiated name, or null if this build doesn't have it. */
+  public static WireCodec byName(String name) {
+    for (WireCodec codec : BY_ID) {
+      if (codec.getName().equals(name)) {
+        return codec;
+      }
+    }
+    return null;
+  }
+
+  /** Compressors this build supports, most preferred first. */
+  public static List<String> supportedCompressorNames() {
+    List<String> names = new ArrayList<>();
+    for (int i = COMPRESSORS_BY_ID.length - 1; i > 0; i--) {
+      names.add(COMPRESSORS_BY_ID[i].getName());
+    }
+    return names;
+  }
+
+  /** First compressor we support that the peer offered, or null for no compression. */
+  public static FrameCompressor negotiateCompressor(List<String> offeredByPeer) {
+    if (offeredByPeer != null) {
+      for (String name : supportedCompressorNames()) {
+        if (offeredByPeer.contains(name)) {
+          return compressorByName(name);
+        }
+      }
+    }
+    return null;
+  }
+
+  /** Looks up a compressor by name, or null if this build doesn't have it. */
+  public static FrameCompressor compressorByName(String name) {
+    for (FrameCompressor compressor : COMPRESSORS_BY_ID) {
+      if (compressor != null && compressor.getName().equals(name)) {
+        return compressor;
+      }
+    }
+    return null;
+  }
+
+  /** Flags byte for a frame encoded with {@code codec}, compressed with {@code compressor} (or not). */
+  public static byte flagsFor(WireCodec codec, FrameCompressor compressor) {
+    int flags = codec.getId() & CODEC_ID_MASK;
+    if (compressor != null) {
+      flags |= (compressor.getId() << COMPRESSOR_SHIFT) & COMPRESSOR_MASK;
+    }
+    return (byte) flags;
+  }
+
+  /** True if the frame body (flags byte at position) is a chunk of a larger stream. */
+  public static boolean isChunk(ByteBuffer body) {
+    return (body.get(body.position()) & FLAG_CHUNK) != 0;
+  }
+
+  /** Stream ids only need to be unique per connection; one process-wide counter covers that. */
+  public static int nextStreamId() {
+    return NEXT_STREAM_ID.incrementAndGet();
+  }
+
+  /**
+   * Splits an encoded frame body (flags + payload) into chunk frames and hands each one, complete
+   * with length prefix, to {@code sink}. Chunks carry at most {@code chunkBytes} of body data.
+   */
+  public static void writeChunks(
+      byte flags, byte[] payload, int chunkBytes, ChunkSink sink) throws IOException {
+    int streamId = nextStreamId();
+    long bodyLength = 1L + payload.length;
+    int sequence = 0;
+    for (long offset = 0; offset < bodyLength; offset += chunkBytes) {
+      int dataLength = (int) Math.min(chunkBytes, bodyLength - offset);
+      boolean last = offset + dataLength >= bodyLength;
+      int frameLength = HEADER_BYTES + CHUNK_HEADER_BYTES + dataLength;
+      ByteBuffer frame = sink.allocate(LENGTH_PREFIX_BYTES + frameLength);
+      frame.putInt(frameLength);
+      frame.put((byte) FLAG_CHUNK);
+      frame.putInt(streamId);
+      frame.putInt(sequence++);
+      frame.put((byte) (last ? 1 : 0));
+      if (offset == 0) {
+        frame.put(flags); // Body byte 0 is the original frame's flags.
+        frame.put(payload, 0, dataLength - 1);
+      } else {
+        frame.put(payload, (int) (offset - 1), dataLength);
+      }
+      frame.flip();
+      sink.accept(frame, last);
+    }
+  }
+
+  /** Receives the chunk frames produced by {@link #writeChunks}. */
+  public interface ChunkSink {
+    ByteBuffer allocate(int size);
+
+    void accept(ByteBuffer frame, boolean last) throws IOException;
+  }
+
+  /**
+   * Decodes one frame body: the flags byte followed by the payload (position..limit). Decompresses
+   * first if the flags say so, then hands the payload to the codec named in the flags.
+   */
+  public static Object decodeFrameBody(ByteBuffer body) throws IOException {
+    int flags = body.get();
+    if ((flags & FLAG_CHUNK) != 0) {
+      throw new IOException("Chunk frame passed to decodeFrameBody; reassemble it first");
+    }
+    int compressorId = (flags & COMPRESSOR_MASK) >>> COMPRESSOR_SHIFT;
+    InputStream payload;
+    if (compressorId == 0) {
+      payload = new ByteBufferInputStream(body);
+    } else {
+      if (compressorId >= COMPRESSORS_BY_ID.length) {
+        throw new IOException("Frame uses unknown compressor id " + compressorId);
+      }
+      byte[] inflated = COMPRESSORS_BY_ID[compressorId].decompress(body, MAX_DECOMPRESSED_BYTES);
+      payload = new ByteArrayInputStream(inflated);
+    }
+    return byId(flags & CODEC_ID_MASK).decode(payload);
+  }
+}
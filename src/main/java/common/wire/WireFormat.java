@@ -0,0 +1,86 @@
+package common.wire;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * WireFormat Everything a connection negotiated about how its frames are encoded: the codec plus an
+ * optional compressor and the payload size from which compression kicks in. Immutable, so a
+ * ClientSession can swap its format atomically.
+ */
+public final class WireFormat {
+
+  /** What every connection starts with: JSON, no compression. */
+  public static final WireFormat JSON = new WireFormat(WireCodecs.JSON, null, Integer.MAX_VALUE);
+
+  private final WireCodec codec;
+  private final FrameCompressor compressor; // Null = never compress.
+  private final int compressionThreshold;
+
+  private WireFormat(WireCodec codec, FrameCompressor compressor, int compressionThreshold) {
+    this.codec = codec;
+    this.compressor = compressor;
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  /**
+   * @param compressor Null to disable compression.
+   * @param compressionThreshold Payloads smaller than this (bytes) are sent uncompressed.
+   */
+  public static WireFormat of(WireCodec codec, FrameCompressor compressor, int compressionThreshold) {
+    if (codec == WireCodecs.JSON && compressor == null) {
+      return JSON;
+    }
+    return new WireFormat(codec, compressor, compressionThreshold);
+  }
+
+  public static WireFormat of(WireCodec codec) {
+    return of(codec, null, Integer.MAX_VALUE);
+  }
+
+  public WireCodec getCodec() {
+    return codec;
+  }
+
+  public FrameCompressor getCompressor() {
+    return compressor;
+  }
+
+  /**
+   * Small integer identifying this format among those in use (codec + compressor), for caching one
+   * encoded frame per format in broadcasts. Always below {@link WireCodecs#FORMAT_KEY_COUNT}.
+   */
+  public int getKey() {
+    return WireCodecs.flagsFor(codec, compressor);
+  }
+
+  /** Encoded frame body: flags, payload, and what compression did (for stats). */
+  public record Body(byte flags, byte[] payload, int uncompressedLength, long compressNanos) {
+    public boolean isCompressed() {
+      return (flags & WireCodecs.COMPRESSOR_MASK) != 0;
+    }
+  }
+
+  /**
+   * Runs the codec and, if the payload is at least the threshold, the compressor. Compressed output
+   * is only kept if it actually came out smaller.
+   */
+  public Body encode(Serializable object) throws IOException {
+    byte[] payload = codec.encode(object);
+    if (compressor == null || payload.length < compressionThreshold) {
+      return new Body(WireCodecs.flagsFor(codec, null), payload, payload.length, 0);
+    }
+    long start = System.nanoTime();
+    byte[] compressed = compressor.compress(payload);
+    long nanos = System.nanoTime() - start;
+    if (compressed.length >= payload.length) {
+      return new Body(WireCodecs.flagsFor(codec, null), payload, payload.length, nanos);
+    }
+    return new Body(WireCodecs.flagsFor(codec, compressor), compressed, payload.length, nanos);
+  }
+
+  @Override
+  public String toString() {
+    return codec.getName() + (compressor != null ? "+" + compressor.getName() : "");
+  }
+}
@@ -0,0 +1,167 @@
+package common.wire;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * WireTypeRegistry The numeric type table used by {@link BinaryWireCodec}. Instead of sending
+ * "common.dto.RoomDescriptionDTO" in every frame, the binary codec sends the class's index here.
+ *
+ * <p>IDs are positions in {@link #TYPE_NAMES}, so the list is APPEND-ONLY: reordering or removing an
+ * entry changes what old IDs mean. Both sides also compare a fingerprint of the whole table during
+ * negotiation, so a client built against a different table just falls back to JSON.
+ *
+ * <p>Names not in the table still work; they're sent as plain strings.
+ */
+public final class WireTypeRegistry {
+
+  // Every class Jackson may write as a type id (commands, DTOs, case data and the collection types
+  // default typing emits). Append new entries at the end only.
+  private static final List<String> TYPE_NAMES = List.of(
+      // --- common.commands ---
+      common.commands.AskWatsonCommand.class.getName(),
+      common.commands.CancelLobbyCommand.class.getName(),
+      common.commands.ContinueGameCommand.class.getName(),
+      common.commands.DeduceCommand.class.getName(),
+      common.commands.ExamineCommand.class.getName(),
+      common.commands.ExitCommand.class.getName(),
+      common.commands.HelpCommand.class.getName(),
+      common.commands.HostGameCommand.class.getName(),
+      common.commands.InitiateFinalExamCommand.class.getName(),
+      common.commands.JoinPrivateGameCommand.class.getName(),
+      common.commands.JoinPublicGameCommand.class.getName(),
+      common.commands.JournalAddCommand.class.getName(),
+      common.commands.JournalCommand.class.getName(),
+      common.commands.ListPublicGamesCommand.class.getName(),
+      common.commands.LookCommand.class.getName(),
+      common.commands.MoveCommand.class.getName(),
+      common.commands.QuestionCommand.class.getName(),
+      common.commands.RequestCaseListCommand.class.getName(),
+      common.commands.RequestInitiateExamCommand.class.getName(),
+      common.commands.RequestStartCaseCommand.class.getName(),
+      common.commands.StartCaseCommand.class.getName(),
+      common.commands.SubmitExamAnswerCommand.class.getName(),
+      common.commands.SubmitQuestionAnswerCommand.class.getName(),
+      common.commands.TaskCommand.class.getName(),
+      common.commands.UpdateDisplayNameCommand.class.getName(),
+      common.commands.UpdateTaskStateCommand.class.getName(),
+      common.commands.pinboard.PinboardStateResponseCommand.class.getName(),
+      common.commands.pinboard.RequestPinboardStateCommand.class.getName(),
+      common.commands.pinboard.UpdatePinboardCommand.class.getName(),
+      // --- common.dto ---
+      common.dto.AvailableCasesDTO.class.getName(),
+      common.dto.CaseInfoDTO.class.getName(),
+      common.dto.ChatMessage.class.getName(),
+      common.dto.ClientIdAssignmentDTO.class.getName(),
+      common.dto.ExamAnswerSelectedDTO.class.getName(),
+      common.dto.ExamQuestionDTO.class.getName(),
+      common.dto.ExamResultDTO.class.getName(),
+      common.dto.FinalExamChoiceDTO.class.getName(),
+      common.dto.FinalExamDTO.class.getName(),
+      common.dto.FinalExamQuestionDTO.class.getName(),
+      common.dto.FinalExamRequestDTO.class.getName(),
+      common.dto.FinalExamSlotDTO.class.getName(),
+      common.dto.GameStateData.class.getName(),
+      common.dto.HostGameRequestDTO.class.getName(),
+      common.dto.HostGameResponseDTO.class.getName(),
+      common.dto.InitiateFinalExamDTO.class.getName(),
+      common.dto.JoinGameResponseDTO.class.getName(),
+      common.dto.JoinPrivateGameRequestDTO.class.getName(),
+      common.dto.JoinPublicGameRequestDTO.class.getName(),
+      common.dto.JournalEntryDTO.class.getName(),
+      common.dto.LobbyUpdateDTO.class.getName(),
+      common.dto.NpcMovedDTO.class.getName(),
+      common.dto.PlayerNameChangedDTO.class.getName(),
+      common.dto.PublicGameInfoDTO.class.getName(),
+      common.dto.PublicGamesListDTO.class.getName(),
+      common.dto.ReturnToLobbyDTO.class.getName(),
+      common.dto.RoomDescriptionDTO.class.getName(),
+      common.dto.TaskStateUpdateDTO.class.getName(),
+      common.dto.TextMessage.class.getName(),
+      common.dto.UpdateDisplayNameRequestDTO.class.getName(),
+      common.dto.WatsonHintResponseDTO.class.getName(),
+      common.dto.WireCodecSelectionDTO.class.getName(),
+      common.dto.pinboard.PinboardItemDTO.class.getName(),
+      common.dto.pinboard.PinboardLinkDTO.class.getName(),
+      common.dto.pinboard.PinboardStateDTO.class.getName(),
+      common.dto.pinboard.PinboardUpdateDTO.class.getName(),
+      // --- JsonDTO (case files travel inside CaseFileDTO) ---
+      JsonDTO.CaseFile.class.getName(),
+      JsonDTO.CaseFile.RoomData.class.getName(),
+      JsonDTO.CaseFile.GameObjectData.class.getName(),
+      JsonDTO.CaseFile.LocalizedData.class.getName(),
+      JsonDTO.CaseFile.SuspectData.class.getName(),
+      JsonDTO.CaseFile.RoomDetailData.class.getName(),
+      JsonDTO.CaseFile.ObjectDetailData.class.getName(),
+      JsonDTO.CaseFile.RankTierData.class.getName(),
+      // --- Collections written by default typing ---
+      "java.util.ArrayList",
+      "java.util.LinkedList",
+      "java.util.HashMap",
+      "java.util.LinkedHashMap",
+      "java.util.TreeMap",
+      "java.util.concurrent.ConcurrentHashMap",
+      "java.util.Arrays$ArrayList",
+      "java.util.Collections$UnmodifiableRandomAccessList",
+      "java.util.Collections$UnmodifiableMap",
+      "java.util.ImmutableCollections$List12",
+      "java.util.ImmutableCollections$ListN",
+      "java.util.ImmutableCollections$Map1",
+      "java.util.ImmutableCollections$MapN",
+      // --- Added later (append-only, see class doc) ---
+      common.dto.NpcMovedBatchDTO.class.getName(),
+      common.commands.SpectateGameCommand.class.getName(),
+      common.dto.SpectateGameRequestDTO.class.getName(),
+      common.dto.SpectateGameResponseDTO.class.getName(),
+      common.dto.ResumeSessionRequestDTO.class.getName(),
+      common.dto.ResumeSessionResponseDTO.class.getName(),
+      common.commands.RequestCaseFileCommand.class.getName(),
+      common.dto.CaseSummaryDTO.class.getName(),
+      common.dto.CaseFileDTO.class.getName());
+
+  private static final Map<String, Integer> IDS_BY_NAME;
+  private static final String FINGERPRINT;
+
+  static {
+    Map<String, Integer> ids = new HashMap<>();
+    CRC32 crc = new CRC32();
+    for (int i = 0; i < TYPE_NAMES.size(); i++) {
+      ids.put(TYPE_NAMES.get(i), i);
+      crc.update(TYPE_NAMES.get(i).getBytes(StandardCharsets.UTF_8));
+      crc.update('\n');
+    }
+    IDS_BY_NAME = Collections.unmodifiableMap(ids);
+    FINGERPRINT = String.format("%08x", crc.getValue());
+  }
+
+  private WireTypeRegistry() {}
+
+  /** Type ID for a class name, or -1 if it isn't registered. */
+  public static int idOf(String typeName) {
+    Integer id = IDS_BY_NAME.get(typeName);
+    return id == null ? -1 : id;
+  }
+
+  /** Class name for a type ID. */
+  public static String nameOf(int id) {
+    if (id < 0 || id >= TYPE_NAMES.size()) {
+      throw new IllegalArgumentException("Unknown wire type id: " + id);
+    }
+    return TYPE_NAMES.get(id);
+  }
+
+  /** CRC of the whole table, hex. Used in the binary codec's negotiated name. */
+  public static String fingerprint() {
+    return FINGERPRINT;
+  }
+
+  /** All registered names, in ID order (for diagnostics). */
+  public static List<String> registeredNames() {
+    return new ArrayList<>(TYPE_NAMES);
+  }
+}
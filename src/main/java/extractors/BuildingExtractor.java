@@ -1,21 +1,19 @@
 package extractors;
 
+import Core.Direction;
 import Core.Room;
+import Core.RoomGraph;
 import JsonDTO.CaseFile;
 import common.interfaces.GameContext;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import JsonDTO.CaseData;
 
 public class BuildingExtractor {
 
-  private static final Set<String> VALID_DIRECTIONS =
-          new HashSet<>(Set.of("north", "south", "east", "west", "up", "down"));
-
   private BuildingExtractor() {} // Utility class
 
   /**
@@ -54,8 +52,8 @@ public class BuildingExtractor {
         continue;
       }
 
-      // Using the concrete Room class from 'core'
-      Room room = new Room(roomData.getName(), roomData.getDescription());
+      // A Room from 'core' that reads its description from the case data when asked (see LazyRoom)
+      Room room = new LazyRoom(roomData.getName(), roomData::getDescription);
       createdRooms.put(room.getName().toLowerCase(), room);
       context.addRoom(room); // Add to the provided game context
     }
@@ -70,7 +68,7 @@ public class BuildingExtractor {
           String direction = neighborEntry.getKey().toLowerCase();
           String neighborName = neighborEntry.getValue();
 
-          if (!VALID_DIRECTIONS.contains(direction)) {
+          if (Direction.fromString(direction) == null) {
             context.logLoadingMessage(
                     "Warning: Invalid direction '"
                             + direction
@@ -136,35 +134,21 @@ public class BuildingExtractor {
   }
 
   private static void validateRoomConnectivity(GameContext context, Room startRoom) {
-    Set<Room> visited = new HashSet<>();
-    Queue<Room> queue = new LinkedList<>();
-
     if (startRoom == null) {
       throw new IllegalStateException("Start room for connectivity check is null.");
     }
 
-    queue.add(startRoom);
-    visited.add(startRoom);
-
-    while (!queue.isEmpty()) {
-      Room current = queue.poll();
-      for (Room neighbor : current.getNeighbors().values()) {
-        if (neighbor != null && !visited.contains(neighbor)) {
-          visited.add(neighbor);
-          queue.add(neighbor);
-        }
-      }
-    }
-
-    for (Room room : context.getAllRooms().values()) {
-      if (!visited.contains(room)) {
-        throw new IllegalStateException(
-                "Room '"
-                        + room.getName()
-                        + "' is unreachable from the starting room '"
-                        + startRoom.getName()
-                        + "'.");
-      }
+    // Compile the rooms into a dense graph and walk it by id: no per-room neighbor map copies.
+    RoomGraph graph = new RoomGraph(context.getAllRooms().values());
+    BitSet visited = graph.reachableFrom(startRoom.getId());
+    int unreachable = visited.nextClearBit(0);
+    if (unreachable < graph.size()) {
+      throw new IllegalStateException(
+              "Room '"
+                      + graph.room(unreachable).getName()
+                      + "' is unreachable from the starting room '"
+                      + startRoom.getName()
+                      + "'.");
     }
   }
 }
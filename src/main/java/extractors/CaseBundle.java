@@ -0,0 +1,369 @@
+package extractors;
+
+import JsonDTO.CaseFile;
+import common.dto.FinalExamChoiceDTO;
+import common.dto.FinalExamDTO;
+import common.dto.FinalExamQuestionDTO;
+import common.dto.FinalExamSlotDTO;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CaseBundle A compiled case (see {@link CaseBundleCompiler}), memory-mapped read-only. Opening one
+ * reads the header, the room graph and the language index; each localization is read the first
+ * time it's asked for, as handles into the bundle's string table (see {@link CaseStrings}). The text
+ * itself stays in the mapping and is decoded when something reads it. A case that's listed but
+ * never played costs a few small objects and some page cache, not a parse.
+ *
+ * <p>Everything reads the mapping with absolute gets, so any number of threads can materialize from
+ * one bundle at once. The mapping lives as long as anything still refers to the bundle.
+ */
+public final class CaseBundle {
+
+  private final ByteBuffer buffer;
+  private final String sourceHash;
+  private final String contentHash;
+  private final CaseStrings strings; // Over the mapped string bytes; decodes on each get.
+
+  private CaseBundle(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    int length = buffer.limit();
+    if (length < CaseBundleCompiler.HEADER_BYTES || buffer.getInt(0) != CaseBundleCompiler.MAGIC) {
+      throw new IOException("Not a case bundle");
+    }
+    if (buffer.getShort(4) != CaseBundleCompiler.VERSION) {
+      throw new IOException("Case bundle version " + buffer.getShort(4) + " (expected " + CaseBundleCompiler.VERSION + ")");
+    }
+    if (buffer.getInt(8) != length) {
+      throw new IOException("Case bundle is " + length + " bytes, header says " + buffer.getInt(8));
+    }
+    this.sourceHash = hashAt(12);
+    this.contentHash = hashAt(12 + CaseBundleCompiler.HASH_BYTES);
+    int stringsAt = header(0);
+    int stringCount = buffer.getInt(checked(stringsAt, 4));
+    if (stringCount < 0 || (long) stringCount * 8 > length) {
+      throw new IOException("Case bundle string table is damaged");
+    }
+    int stringsIndexAt = stringsAt + 4;
+    int stringsDataAt = stringsIndexAt + stringCount * 8;
+    // The compiler writes the strings back to back, so the (offset, length) pairs reduce to the
+    // starts a CaseStrings wants. Checking that here also means no string read can go out of bounds.
+    int[] starts = new int[stringCount + 1];
+    for (int i = 0; i < stringCount; i++) {
+      int offset = buffer.getInt(checked(stringsIndexAt + i * 8, 8));
+      int stringLength = buffer.getInt(stringsIndexAt + i * 8 + 4);
+      if (offset != starts[i] || stringLength < 0 || (long) offset + stringLength > length) {
+        throw new IOException("Case bundle string table is damaged");
+      }
+      starts[i + 1] = offset + stringLength;
+    }
+    checked(stringsDataAt, starts[stringCount]);
+    if (stringsDataAt + starts[stringCount] > header(1)) {
+      throw new IOException("Case bundle string table is damaged");
+    }
+    this.strings = CaseStrings.mapped(buffer.slice(stringsDataAt, starts[stringCount]), starts);
+  }
+
+  /** Maps {@code file}. Throws if it isn't a bundle this version can read. */
+  public static CaseBundle open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Case bundle too large: " + channel.size() + " bytes");
+      }
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new CaseBundle(mapped); // The mapping outlives the channel.
+    }
+  }
+
+  /** Hex SHA-256 of the JSON this was compiled from. */
+  public String getSourceHash() {
+    return sourceHash;
+  }
+
+  /** The case's content hash (see {@link CaseLoader#contentHash}), as of compiling. */
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  /**
+   * The case, with its room graph decoded and its localizations still in the bundle. Each language
+   * is decoded on its first get and kept from then on; iterating all of them decodes all of them.
+   */
+  public CaseFile toCaseFile() {
+    Cursor rooms = new Cursor(header(1));
+    CaseFile caseFile = new CaseFile(string(header(4)), string(header(5)), readRooms(rooms), new Localizations());
+    caseFile.setContentHash(contentHash);
+    return caseFile;
+  }
+
+  // --- Header ---
+
+  /** The i-th int after the hashes: strings, rooms, languages, records offsets; title; starting room. */
+  private int header(int i) {
+    return buffer.getInt(12 + 2 * CaseBundleCompiler.HASH_BYTES + i * 4);
+  }
+
+  private String hashAt(int at) {
+    byte[] hash = new byte[CaseBundleCompiler.HASH_BYTES];
+    buffer.get(at, hash);
+    return HexFormat.of().formatHex(hash);
+  }
+
+  private int checked(int at, int length) throws IOException {
+    if (at < 0 || length < 0 || (long) at + length > buffer.limit()) {
+      throw new IOException("Case bundle is damaged (offset " + at + ")");
+    }
+    return at;
+  }
+
+  // --- Strings ---
+
+  private String string(int ref) {
+    return ref < 0 ? null : strings.get(ref);
+  }
+
+  /** Reads forward from an offset. One per decode, so decodes don't share a position. */
+  private final class Cursor {
+    private int at;
+
+    Cursor(int at) {
+      this.at = at;
+    }
+
+    int readInt() {
+      int value = buffer.getInt(at);
+      at += 4;
+      return value;
+    }
+
+    boolean readBoolean() {
+      return buffer.get(at++) != 0;
+    }
+
+    String readString() {
+      return string(readInt());
+    }
+
+    List<String> readStringList() {
+      int count = readInt();
+      if (count < 0) {
+        return null;
+      }
+      List<String> list = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        list.add(readString());
+      }
+      return list;
+    }
+
+    Map<String, String> readStringMap() {
+      int count = readInt();
+      if (count < 0) {
+        return null;
+      }
+      Map<String, String> map = new LinkedHashMap<>();
+      for (int i = 0; i < count; i++) {
+        map.put(readString(), readString());
+      }
+      return map;
+    }
+  }
+
+  // --- Sections ---
+
+  private List<CaseFile.RoomData> readRooms(Cursor in) {
+    int count = in.readInt();
+    if (count < 0) {
+      return null;
+    }
+    List<CaseFile.RoomData> rooms = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      CaseFile.RoomData room = new CaseFile.RoomData();
+      room.name = in.readString();
+      room.description = in.readString();
+      room.neighbors = in.readStringMap();
+      int objects = in.readInt();
+      if (objects >= 0) {
+        room.objects = new ArrayList<>(objects);
+        for (int j = 0; j < objects; j++) {
+          CaseFile.GameObjectData object = new CaseFile.GameObjectData();
+          object.name = in.readString();
+          object.description = in.readString();
+          object.examine = in.readString();
+          object.deduce = in.readString();
+          room.objects.add(object);
+        }
+      }
+      rooms.add(room);
+    }
+    return rooms;
+  }
+
+  /** A localization record as handles into the bundle's own string table; no text is decoded. */
+  private CaseFile.LocalizedData readLocalization(Cursor in) {
+    int[] scalars = new int[5]; // Language name, title, invitation, description; winning message last.
+    for (int i = 0; i < 4; i++) {
+      scalars[i] = in.readInt();
+    }
+    int[] suspects = readRefs(in, CompactLocalizedData.SUSPECT_FIELDS);
+    int[] roomDetails = readRefs(in, CompactLocalizedData.ROOM_DETAIL_FIELDS);
+    int[] objectDetails = readRefs(in, CompactLocalizedData.OBJECT_DETAIL_FIELDS);
+    CaseFile.LocalizedData structured = new CaseFile.LocalizedData();
+    structured.finalExam = readFinalExam(in);
+    int[] tasks = readRefs(in, 1);
+    int[] watsonHints = readRefs(in, 1);
+    int count = in.readInt();
+    if (count >= 0) {
+      structured.rankingTiers = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        CaseFile.RankTierData tier = new CaseFile.RankTierData();
+        tier.rankName = in.readString();
+        tier.maxDeductions = in.readInt();
+        tier.description = in.readString();
+        tier.defaultRank = in.readBoolean();
+        structured.rankingTiers.add(tier);
+      }
+    }
+    scalars[4] = in.readInt();
+    return new CompactLocalizedData(strings, scalars, suspects, roomDetails, objectDetails, tasks, watsonHints, structured);
+  }
+
+  /** A count of records, then {@code fields} string refs each, as one flat array; null for a null list. */
+  private int[] readRefs(Cursor in, int fields) {
+    int count = in.readInt();
+    if (count < 0) {
+      return null;
+    }
+    int[] refs = new int[count * fields];
+    for (int i = 0; i < refs.length; i++) {
+      refs[i] = in.readInt();
+    }
+    return refs;
+  }
+
+  private FinalExamDTO readFinalExam(Cursor in) {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    FinalExamDTO exam = new FinalExamDTO();
+    int questions = in.readInt();
+    if (questions < 0) {
+      return exam;
+    }
+    List<FinalExamQuestionDTO> list = new ArrayList<>(questions);
+    for (int i = 0; i < questions; i++) {
+      FinalExamQuestionDTO question = new FinalExamQuestionDTO();
+      question.setQuestionPrompt(in.readString());
+      int slots = in.readInt();
+      if (slots >= 0) {
+        Map<String, FinalExamSlotDTO> slotMap = new LinkedHashMap<>();
+        for (int j = 0; j < slots; j++) {
+          String key = in.readString();
+          FinalExamSlotDTO slot = null;
+          if (in.readBoolean()) {
+            String slotId = in.readString();
+            int choices = in.readInt();
+            List<FinalExamChoiceDTO> choiceList = null;
+            if (choices >= 0) {
+              choiceList = new ArrayList<>(choices);
+              for (int k = 0; k < choices; k++) {
+                choiceList.add(new FinalExamChoiceDTO(in.readString(), in.readString()));
+              }
+            }
+            slot = new FinalExamSlotDTO(slotId, choiceList);
+          }
+          slotMap.put(key, slot);
+        }
+        question.setSlots(slotMap);
+      }
+      question.setCorrectCombination(in.readStringMap());
+      list.add(question);
+    }
+    exam.setQuestions(list);
+    return exam;
+  }
+
+  /**
+   * The case's localizations, in file order. Knows every language code up front (the index), decodes
+   * a language's record on its first get. Read-only, like the rest of a loaded case.
+   */
+  private final class Localizations extends AbstractMap<String, CaseFile.LocalizedData> {
+    private final Map<String, Integer> recordAt = new LinkedHashMap<>();
+    private final Map<String, CaseFile.LocalizedData> decoded = new ConcurrentHashMap<>();
+
+    Localizations() {
+      Cursor index = new Cursor(header(2));
+      int count = index.readInt();
+      for (int i = 0; i < count; i++) {
+        String code = index.readString();
+        recordAt.put(code, index.readInt());
+      }
+    }
+
+    @Override
+    public CaseFile.LocalizedData get(Object code) {
+      Integer at = recordAt.get(code);
+      if (at == null) {
+        return null;
+      }
+      return decoded.computeIfAbsent((String) code, c -> readLocalization(new Cursor(at)));
+    }
+
+    @Override
+    public boolean containsKey(Object code) {
+      return recordAt.containsKey(code);
+    }
+
+    @Override
+    public int size() {
+      return recordAt.size();
+    }
+
+    @Override
+    public Set<String> keySet() {
+      return Collections.unmodifiableSet(recordAt.keySet());
+    }
+
+    @Override
+    public Set<Entry<String, CaseFile.LocalizedData>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<String, CaseFile.LocalizedData>> iterator() {
+          Iterator<String> codes = recordAt.keySet().iterator();
+          return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+              return codes.hasNext();
+            }
+
+            @Override
+            public Entry<String, CaseFile.LocalizedData> next() {
+              String code = codes.next();
+              return new SimpleImmutableEntry<>(code, get(code));
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return recordAt.size();
+        }
+      };
+    }
+  }
+}
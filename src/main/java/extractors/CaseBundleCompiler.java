@@ -0,0 +1,282 @@
+package extractors;
+
+import JsonDTO.CaseFile;
+import common.dto.FinalExamChoiceDTO;
+import common.dto.FinalExamDTO;
+import common.dto.FinalExamQuestionDTO;
+import common.dto.FinalExamSlotDTO;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CaseBundleCompiler Turns a validated CaseFile into a case bundle: the same case in a compact binary
+ * form that {@link CaseBundle} can map straight from disk instead of parsing JSON. The JSON stays
+ * the authoring format; a bundle records the hash of the JSON it was built from, and CaseLoader
+ * rebuilds it whenever that hash changes.
+ *
+ * <p>Layout (all integers big-endian; a string is an int index into the string table, -1 for null;
+ * a list or map starts with an int count, -1 for null):
+ *
+ * <pre>
+ *   header       magic "SLCB", version, total length, source hash (32 bytes), content hash (32 bytes),
+ *                section offsets, universal title, starting room
+ *   strings      count, then (offset, length) per string, then the UTF-8 bytes. Every distinct string
+ *                in the case is stored once, across all languages.
+ *   rooms        the language-independent room graph: name, neighbors, object names
+ *   languages    count, then (language code, record offset) per localization
+ *   records      one per localization, read only when that language is first asked for
+ * </pre>
+ *
+ * Only ever given a case that already passed CaseLoader's validation.
+ */
+public final class CaseBundleCompiler {
+
+  static final int MAGIC = 0x534C4342; // "SLCB"
+  static final short VERSION = 1;
+  static final int HASH_BYTES = 32;
+  // magic, version + reserved, length, two hashes, four offsets/counts, two strings.
+  static final int HEADER_BYTES = 4 + 4 + 4 + 2 * HASH_BYTES + 4 * 4 + 2 * 4;
+
+  private final Map<String, Integer> stringIndex = new LinkedHashMap<>();
+
+  private CaseBundleCompiler() {}
+
+  /**
+   * Compiles {@code caseFile}, built from JSON whose SHA-256 is {@code sourceHash}.
+   *
+   * @return The bundle's bytes, ready for {@link #write}.
+   */
+  public static byte[] compile(CaseFile caseFile, String sourceHash) {
+    try {
+      return new CaseBundleCompiler().build(caseFile, sourceHash);
+    } catch (IOException e) {
+      throw new IllegalStateException("In-memory write failed", e); // ByteArrayOutputStream doesn't throw.
+    }
+  }
+
+  /**
+   * Writes a bundle next to where it's wanted and moves it into place, so a reader (this process or
+   * another) sees either the old bundle or the new one, never half of one. A bundle that's mapped
+   * keeps its old contents; the move only replaces the name.
+   */
+  public static void write(Path bundleFile, byte[] bundle) throws IOException {
+    Files.createDirectories(bundleFile.getParent());
+    Path temp = Files.createTempFile(bundleFile.getParent(), bundleFile.getFileName().toString(), ".tmp");
+    try {
+      Files.write(temp, bundle);
+      Files.move(temp, bundleFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private byte[] build(CaseFile caseFile, String sourceHash) throws IOException {
+    // Encode the sections first; that fills the string table, which goes in front of them.
+    int titleRef = intern(caseFile.getUniversalTitle());
+    int startingRoomRef = intern(caseFile.getStartingRoom());
+
+    ByteArrayOutputStream roomBytes = new ByteArrayOutputStream();
+    writeRooms(new DataOutputStream(roomBytes), caseFile.getRooms());
+
+    Map<String, CaseFile.LocalizedData> localizations =
+        caseFile.getLocalizations() != null ? caseFile.getLocalizations() : Map.of();
+    List<byte[]> records = new ArrayList<>();
+    List<Integer> languageRefs = new ArrayList<>();
+    for (Map.Entry<String, CaseFile.LocalizedData> entry : localizations.entrySet()) {
+      ByteArrayOutputStream record = new ByteArrayOutputStream();
+      writeLocalization(new DataOutputStream(record), entry.getValue());
+      records.add(record.toByteArray());
+      languageRefs.add(intern(entry.getKey()));
+    }
+
+    byte[] strings = stringTable();
+    int stringsOffset = HEADER_BYTES;
+    int roomsOffset = stringsOffset + strings.length;
+    int languagesOffset = roomsOffset + roomBytes.size();
+    int recordsOffset = languagesOffset + 4 + records.size() * 8;
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream(recordsOffset + 1024);
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeShort(VERSION);
+    data.writeShort(0);
+    data.writeInt(0); // Total length, patched below.
+    data.write(HexFormat.of().parseHex(sourceHash));
+    data.write(HexFormat.of().parseHex(CaseLoader.contentHash(caseFile)));
+    data.writeInt(stringsOffset);
+    data.writeInt(roomsOffset);
+    data.writeInt(languagesOffset);
+    data.writeInt(recordsOffset);
+    data.writeInt(titleRef);
+    data.writeInt(startingRoomRef);
+    data.write(strings);
+    roomBytes.writeTo(data);
+    data.writeInt(records.size());
+    int recordOffset = recordsOffset;
+    for (int i = 0; i < records.size(); i++) {
+      data.writeInt(languageRefs.get(i));
+      data.writeInt(recordOffset);
+      recordOffset += records.get(i).length;
+    }
+    for (byte[] record : records) {
+      data.write(record);
+    }
+    data.flush();
+
+    byte[] bundle = out.toByteArray();
+    ByteBuffer.wrap(bundle).putInt(8, bundle.length);
+    return bundle;
+  }
+
+  private int intern(String s) {
+    if (s == null) {
+      return -1;
+    }
+    return stringIndex.computeIfAbsent(s, k -> stringIndex.size());
+  }
+
+  private byte[] stringTable() throws IOException {
+    List<byte[]> encoded = new ArrayList<>(stringIndex.size());
+    for (String s : stringIndex.keySet()) {
+      encoded.add(s.getBytes(StandardCharsets.UTF_8));
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(encoded.size());
+    int offset = 0; // Relative to the first string byte.
+    for (byte[] bytes : encoded) {
+      data.writeInt(offset);
+      data.writeInt(bytes.length);
+      offset += bytes.length;
+    }
+    for (byte[] bytes : encoded) {
+      data.write(bytes);
+    }
+    return out.toByteArray();
+  }
+
+  private void writeRooms(DataOutputStream out, List<CaseFile.RoomData> rooms) throws IOException {
+    if (writeCount(out, rooms)) {
+      for (CaseFile.RoomData room : rooms) {
+        writeString(out, room.getName());
+        writeString(out, room.getDescription());
+        writeStringMap(out, room.getNeighbors());
+        if (writeCount(out, room.getObjects())) {
+          for (CaseFile.GameObjectData object : room.getObjects()) {
+            writeString(out, object.getName());
+            writeString(out, object.getDescription());
+            writeString(out, object.getExamine());
+            writeString(out, object.getDeduce());
+          }
+        }
+      }
+    }
+  }
+
+  private void writeLocalization(DataOutputStream out, CaseFile.LocalizedData loc) throws IOException {
+    writeString(out, loc.getLanguageName());
+    writeString(out, loc.getTitle());
+    writeString(out, loc.getInvitation());
+    writeString(out, loc.getDescription());
+    if (writeCount(out, loc.getSuspects())) {
+      for (CaseFile.SuspectData suspect : loc.getSuspects()) {
+        writeString(out, suspect.getName());
+        writeString(out, suspect.getStatement());
+        writeString(out, suspect.getClue());
+      }
+    }
+    if (writeCount(out, loc.getRoomDetails())) {
+      for (CaseFile.RoomDetailData room : loc.getRoomDetails()) {
+        writeString(out, room.getName());
+        writeString(out, room.getDescription());
+      }
+    }
+    if (writeCount(out, loc.getObjectDetails())) {
+      for (CaseFile.ObjectDetailData object : loc.getObjectDetails()) {
+        writeString(out, object.getName());
+        writeString(out, object.getDescription());
+        writeString(out, object.getExamine());
+        writeString(out, object.getDeduce());
+      }
+    }
+    writeFinalExam(out, loc.getFinalExam());
+    writeStringList(out, loc.getTasks());
+    writeStringList(out, loc.getWatsonHints());
+    if (writeCount(out, loc.getRankingTiers())) {
+      for (CaseFile.RankTierData tier : loc.getRankingTiers()) {
+        writeString(out, tier.getRankName());
+        out.writeInt(tier.getMaxDeductions());
+        writeString(out, tier.getDescription());
+        out.writeBoolean(tier.isDefaultRank());
+      }
+    }
+    writeString(out, loc.getWinningMessage());
+  }
+
+  private void writeFinalExam(DataOutputStream out, FinalExamDTO exam) throws IOException {
+    out.writeBoolean(exam != null);
+    if (exam == null || !writeCount(out, exam.getQuestions())) {
+      return;
+    }
+    for (FinalExamQuestionDTO question : exam.getQuestions()) {
+      writeString(out, question.getQuestionPrompt());
+      Map<String, FinalExamSlotDTO> slots = question.getSlots();
+      if (writeCount(out, slots == null ? null : slots.keySet())) {
+        for (Map.Entry<String, FinalExamSlotDTO> slot : slots.entrySet()) {
+          writeString(out, slot.getKey());
+          out.writeBoolean(slot.getValue() != null);
+          if (slot.getValue() == null) {
+            continue;
+          }
+          writeString(out, slot.getValue().getSlotId());
+          if (writeCount(out, slot.getValue().getChoices())) {
+            for (FinalExamChoiceDTO choice : slot.getValue().getChoices()) {
+              writeString(out, choice.getChoiceId());
+              writeString(out, choice.getChoiceText());
+            }
+          }
+        }
+      }
+      writeStringMap(out, question.getCorrectCombination());
+    }
+  }
+
+  private void writeString(DataOutputStream out, String s) throws IOException {
+    out.writeInt(intern(s));
+  }
+
+  private void writeStringList(DataOutputStream out, List<String> list) throws IOException {
+    if (writeCount(out, list)) {
+      for (String s : list) {
+        writeString(out, s);
+      }
+    }
+  }
+
+  private void writeStringMap(DataOutputStream out, Map<String, String> map) throws IOException {
+    if (writeCount(out, map == null ? null : map.keySet())) {
+      for (Map.Entry<String, String> entry : map.entrySet()) {
+        writeString(out, entry.getKey());
+        writeString(out, entry.getValue());
+      }
+    }
+  }
+
+  /** Writes the size, or -1 for null. @return Whether there are elements to follow. */
+  private static boolean writeCount(DataOutputStream out, Collection<?> c) throws IOException {
+    out.writeInt(c == null ? -1 : c.size());
+    return c != null && !c.isEmpty();
+  }
+}
@@ -0,0 +1,154 @@
+package extractors;
+
+import JsonDTO.CaseFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CaseFootprint Roughly how much heap one loaded case's text takes, next to what the same text
+ * would take as one String per occurrence (how a parsed case used to hold it). Estimates assume a
+ * 64-bit JVM with compressed pointers and compact strings: a String is 24 bytes plus its array, an
+ * array is 16 bytes plus its elements, everything rounded up to 8. Only the text {@link CaseStrings}
+ * covers is counted; the room graph, final exam and ranks cost the same either way.
+ *
+ * <p>Taking a footprint decodes every text in the case once, so it's for reports (the server's
+ * {@code casememory} command, CaseLoadBenchmark), not for anything on a hot path.
+ */
+public final class CaseFootprint {
+
+  private final String title;
+  private final int languages;
+  private final String storage;
+  private final int texts;
+  private final int distinct;
+  private final long utf8Bytes;
+  private final long asStrings;
+  private final long heap;
+  private final long mapped;
+
+  private CaseFootprint(String title, int languages, String storage, int texts, int distinct, long utf8Bytes,
+      long asStrings, long heap, long mapped) {
+    this.title = title;
+    this.languages = languages;
+    this.storage = storage;
+    this.texts = texts;
+    this.distinct = distinct;
+    this.utf8Bytes = utf8Bytes;
+    this.asStrings = asStrings;
+    this.heap = heap;
+    this.mapped = mapped;
+  }
+
+  /** Measures {@code caseFile}. A case read through a CaseIndex isn't walked (that reads the whole file). */
+  public static CaseFootprint of(CaseFile caseFile) {
+    Map<String, CaseFile.LocalizedData> localizations =
+        caseFile.getLocalizations() != null ? caseFile.getLocalizations() : Map.of();
+    if (localizations.values().stream().anyMatch(loc -> loc instanceof CaseIndex.IndexedLocalizedData)) {
+      return new CaseFootprint(caseFile.getUniversalTitle(), localizations.size(), "indexed", 0, 0, 0, 0, 0, 0);
+    }
+    List<String> all = new ArrayList<>();
+    CaseStrings strings = null;
+    long handleArrays = 0;
+    for (CaseFile.LocalizedData loc : localizations.values()) {
+      collectTexts(loc, all);
+      if (loc instanceof CompactLocalizedData compact) {
+        strings = compact.strings();
+        for (int[] handles : compact.handleArrays()) {
+          handleArrays += handles != null ? arrayBytes(handles.length, 4) : 0;
+        }
+      }
+    }
+    long asStrings = 0;
+    long utf8 = 0;
+    for (String text : all) {
+      asStrings += stringBytes(text);
+    }
+    HashSet<String> distinct = new HashSet<>(all);
+    for (String text : distinct) {
+      utf8 += text.getBytes(StandardCharsets.UTF_8).length;
+    }
+    if (strings == null) {
+      return new CaseFootprint(caseFile.getUniversalTitle(), localizations.size(), "strings", all.size(),
+          distinct.size(), utf8, asStrings, asStrings, 0);
+    }
+    return new CaseFootprint(caseFile.getUniversalTitle(), localizations.size(), strings.isMapped() ? "bundle" : "heap table",
+        all.size(), distinct.size(), utf8, asStrings, strings.heapBytes() + handleArrays,
+        strings.isMapped() ? strings.utf8Bytes() : 0);
+  }
+
+  private static void collectTexts(CaseFile.LocalizedData loc, List<String> into) {
+    addAll(into, loc.getLanguageName(), loc.getTitle(), loc.getInvitation(), loc.getDescription(), loc.getWinningMessage());
+    if (loc.getSuspects() != null) {
+      for (CaseFile.SuspectData suspect : loc.getSuspects()) {
+        addAll(into, suspect.getName(), suspect.getStatement(), suspect.getClue());
+      }
+    }
+    if (loc.getRoomDetails() != null) {
+      for (CaseFile.RoomDetailData room : loc.getRoomDetails()) {
+        addAll(into, room.getName(), room.getDescription());
+      }
+    }
+    if (loc.getObjectDetails() != null) {
+      for (CaseFile.ObjectDetailData object : loc.getObjectDetails()) {
+        addAll(into, object.getName(), object.getDescription(), object.getExamine(), object.getDeduce());
+      }
+    }
+    if (loc.getTasks() != null) {
+      addAll(into, loc.getTasks().toArray(new String[0]));
+    }
+    if (loc.getWatsonHints() != null) {
+      addAll(into, loc.getWatsonHints().toArray(new String[0]));
+    }
+  }
+
+  private static void addAll(List<String> into, String... texts) {
+    for (String text : texts) {
+      if (text != null) {
+        into.add(text);
+      }
+    }
+  }
+
+  /** Heap bytes of an array of {@code length} elements of {@code elementBytes} each. */
+  static long arrayBytes(int length, int elementBytes) {
+    return align(16 + (long) length * elementBytes);
+  }
+
+  /** Heap bytes of {@code text} as a String of its own: Latin-1 at a byte per char, else two. */
+  static long stringBytes(String text) {
+    boolean latin1 = text.chars().allMatch(c -> c < 256);
+    return 24 + arrayBytes(text.length(), latin1 ? 1 : 2);
+  }
+
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+
+  public long getHeapBytes() {
+    return heap;
+  }
+
+  public long getAsStringsBytes() {
+    return asStrings;
+  }
+
+  /** One line for a report. */
+  public String describe() {
+    if (storage.equals("indexed")) {
+      return String.format("'%s' (%d language(s), indexed): text stays in the file; read on demand, cached per record.",
+          title, languages);
+    }
+    String saving = asStrings > 0 ? String.format(" (%.0f%% less)", 100.0 * (asStrings - heap) / asStrings) : "";
+    return String.format("'%s' (%d language(s), %s): %d texts, %d distinct, %.1f KiB UTF-8; as Strings ~%.1f KiB,"
+            + " now ~%.1f KiB heap%s%s.", title, languages, storage, texts, distinct, utf8Bytes / 1024.0,
+        asStrings / 1024.0, heap / 1024.0, mapped > 0 ? String.format(" + %.1f KiB mapped", mapped / 1024.0) : "", saving);
+  }
+
+  @Override
+  public String toString() {
+    return describe();
+  }
+}
@@ -0,0 +1,306 @@
+package extractors;
+
+import JsonDTO.CaseFile;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import common.NetworkConstants;
+import common.dto.FinalExamDTO;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CaseIndex A case JSON file that's read on demand instead of parsed up front, for cases too big to
+ * hold in memory whole (see {@link NetworkConstants#CASE_INDEX_THRESHOLD_BYTES}). Opening one maps
+ * the file and makes a single pass over it with Jackson's token API, keeping only the room graph and
+ * where each record starts: every room detail and object detail by name, and every other field of
+ * each localization (suspects, final exam, texts, ...). Strings are skipped over, never decoded.
+ *
+ * <p>A record is parsed from its offset the first time it's asked for and kept in a bounded, least
+ * recently used cache shared by everything that reads this case, so memory follows what players
+ * actually look at, not the size of the case. Reads are thread-safe.
+ */
+public final class CaseIndex {
+
+  private static final TypeReference<List<CaseFile.RoomData>> ROOMS = new TypeReference<>() {};
+  private static final TypeReference<List<CaseFile.SuspectData>> SUSPECTS = new TypeReference<>() {};
+  private static final TypeReference<List<String>> STRINGS = new TypeReference<>() {};
+  private static final TypeReference<List<CaseFile.RankTierData>> RANK_TIERS = new TypeReference<>() {};
+
+  private final ObjectMapper mapper;
+  private final ObjectReader textReader;
+  private final ObjectReader suspectsReader;
+  private final ObjectReader stringsReader;
+  private final ObjectReader rankTiersReader;
+  private final ObjectReader finalExamReader;
+  private final ObjectReader roomDetailReader;
+  private final ObjectReader objectDetailReader;
+  private final ByteBuffer buffer;
+  private final String sourceHash;
+  private final Map<Long, Object> records; // Record offset -> parsed record; access-ordered, bounded.
+  private String universalTitle;
+  private String startingRoom;
+  private List<CaseFile.RoomData> rooms;
+  private final Map<String, Localization> localizations = new LinkedHashMap<>();
+
+  private CaseIndex(ObjectMapper mapper, ByteBuffer buffer, String sourceHash) {
+    this.mapper = mapper;
+    this.textReader = mapper.readerFor(String.class);
+    this.suspectsReader = mapper.readerFor(SUSPECTS);
+    this.stringsReader = mapper.readerFor(STRINGS);
+    this.rankTiersReader = mapper.readerFor(RANK_TIERS);
+    this.finalExamReader = mapper.readerFor(FinalExamDTO.class);
+    this.roomDetailReader = mapper.readerFor(CaseFile.RoomDetailData.class);
+    this.objectDetailReader = mapper.readerFor(CaseFile.ObjectDetailData.class);
+    this.buffer = buffer;
+    this.sourceHash = sourceHash;
+    int capacity = NetworkConstants.CASE_RECORD_CACHE_ENTRIES;
+    this.records = Collections.synchronizedMap(new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Object> eldest) {
+        return size() > capacity;
+      }
+    });
+  }
+
+  /** Maps and indexes {@code file}. Throws if it isn't a case file's JSON. */
+  static CaseIndex open(Path file, ObjectMapper mapper) throws IOException {
+    MappedByteBuffer mapped;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Case file too large to index: " + channel.size() + " bytes");
+      }
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // Outlives the channel.
+    }
+    CaseIndex index = new CaseIndex(mapper, mapped, sha256Hex(mapped));
+    index.scan();
+    return index;
+  }
+
+  /** Hex SHA-256 of the file; also used as the case's content hash. */
+  public String getSourceHash() {
+    return sourceHash;
+  }
+
+  /**
+   * The case, with its room graph in memory and its localizations backed by this index. Anything
+   * that goes through the whole case (serializing it for a client, say) still works; it just parses
+   * the records as it goes instead of keeping them.
+   */
+  public CaseFile toCaseFile() {
+    Map<String, CaseFile.LocalizedData> byCode = new LinkedHashMap<>();
+    for (Map.Entry<String, Localization> entry : localizations.entrySet()) {
+      byCode.put(entry.getKey(), new IndexedLocalizedData(entry.getValue()));
+    }
+    CaseFile caseFile = new CaseFile(universalTitle, startingRoom, rooms, Collections.unmodifiableMap(byCode));
+    // Serializing the case to hash it would read every record; the file's own hash changes exactly
+    // as often (and on whitespace edits too, which only costs lobby clients one refetch).
+    caseFile.setContentHash(sourceHash);
+    return caseFile;
+  }
+
+  // --- Scanning ---
+
+  /** Where one localization's records start. Only offsets and names; no text. */
+  private static final class Localization {
+    private String languageName;
+    private final Map<String, Long> fields = new HashMap<>(); // JSON field -> value offset.
+    private final Details roomDetails = new Details();
+    private final Details objectDetails = new Details();
+  }
+
+  /** The elements of a roomDetails/objectDetails array: every offset in order, and the first per name. */
+  private static final class Details {
+    private boolean present;
+    private final List<Long> offsets = new ArrayList<>();
+    private final Map<String, Long> byName = new HashMap<>();
+  }
+
+  private void scan() throws IOException {
+    try (JsonParser parser = parserAt(0)) {
+      expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        JsonToken value = parser.nextToken();
+        switch (field) {
+          case "universal_title" -> universalTitle = parser.getValueAsString();
+          case "startingRoom" -> startingRoom = parser.getValueAsString();
+          case "rooms" -> rooms = mapper.readerFor(ROOMS).readValue(parser);
+          case "localizations" -> {
+            if (value != JsonToken.VALUE_NULL) {
+              scanLocalizations(parser);
+            }
+          }
+          default -> parser.skipChildren();
+        }
+      }
+    }
+  }
+
+  private void scanLocalizations(JsonParser parser) throws IOException {
+    expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String code = parser.currentName();
+      expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+      Localization localization = new Localization();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        JsonToken value = parser.nextToken();
+        switch (field) {
+          case "languageName" -> localization.languageName = parser.getValueAsString();
+          case "roomDetails" -> scanDetails(parser, value, localization.roomDetails);
+          case "objectDetails" -> scanDetails(parser, value, localization.objectDetails);
+          default -> {
+            localization.fields.put(field, offset(parser));
+            parser.skipChildren();
+          }
+        }
+      }
+      localizations.put(code, localization);
+    }
+  }
+
+  private void scanDetails(JsonParser parser, JsonToken value, Details details) throws IOException {
+    if (value == JsonToken.VALUE_NULL) {
+      return;
+    }
+    expect(parser, value, JsonToken.START_ARRAY);
+    details.present = true;
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      Long at = offset(parser); // Boxed once for both maps.
+      details.offsets.add(at);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        boolean isName = parser.currentName().equals("name");
+        parser.nextToken();
+        if (isName && parser.getValueAsString() != null) {
+          details.byName.putIfAbsent(parser.getValueAsString(), at);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    expect(parser, parser.currentToken(), JsonToken.END_ARRAY);
+  }
+
+  private static long offset(JsonParser parser) {
+    return parser.currentTokenLocation().getByteOffset();
+  }
+
+  private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+    if (actual != expected) {
+      throw new IOException("Malformed case file at byte " + offset(parser) + ": expected " + expected + ", found " + actual);
+    }
+  }
+
+  // --- Reading records ---
+
+  private JsonParser parserAt(long offset) throws IOException {
+    ByteBuffer slice = buffer.slice((int) offset, buffer.limit() - (int) offset);
+    return mapper.getFactory().createParser(new ByteBufferBackedInputStream(slice));
+  }
+
+  /** The value that starts at {@code offset}, from the cache or parsed now. */
+  @SuppressWarnings("unchecked")
+  private <T> T record(long offset, ObjectReader reader) {
+    Object cached = records.get(offset);
+    if (cached != null) {
+      return (T) cached;
+    }
+    T parsed = parse(offset, reader);
+    if (parsed != null) {
+      records.put(offset, parsed);
+    }
+    return parsed;
+  }
+
+  /** The value at {@code offset}, without caching it (for whole-case reads). */
+  private <T> T parse(long offset, ObjectReader reader) {
+    try (JsonParser parser = parserAt(offset)) {
+      return reader.readValue(parser);
+    } catch (IOException e) {
+      // The file was read once already; it changing under the mapping is the only way to get here.
+      throw new UncheckedIOException("Case file changed while in use at byte " + offset, e);
+    }
+  }
+
+  private <T> T field(Localization localization, String field, ObjectReader reader) {
+    Long at = localization.fields.get(field);
+    return at != null ? record(at, reader) : null;
+  }
+
+  private <T> List<T> allDetails(Details details, Class<T> type, ObjectReader reader) {
+    if (!details.present) {
+      return null;
+    }
+    List<T> all = new ArrayList<>(details.offsets.size());
+    for (long at : details.offsets) {
+      T cached = type.cast(records.get(at));
+      all.add(cached != null ? cached : parse(at, reader));
+    }
+    return all;
+  }
+
+  /**
+   * One localization, read from the index on each get. The public fields of LocalizedData stay
+   * null; everything goes through the getters (which is also what Jackson serializes).
+   */
+  final class IndexedLocalizedData extends CaseFile.LocalizedData {
+    private final Localization localization;
+
+    IndexedLocalizedData(Localization localization) {
+      this.localization = localization;
+    }
+
+    @Override public String getLanguageName() { return localization.languageName; }
+    @Override public String getTitle() { return field(localization, "title", textReader); }
+    @Override public String getInvitation() { return field(localization, "invitation", textReader); }
+    @Override public String getDescription() { return field(localization, "description", textReader); }
+    @Override public List<CaseFile.SuspectData> getSuspects() { return field(localization, "suspects", suspectsReader); }
+    @Override public List<CaseFile.RoomDetailData> getRoomDetails() { return allDetails(localization.roomDetails, CaseFile.RoomDetailData.class, roomDetailReader); }
+    @Override public List<CaseFile.ObjectDetailData> getObjectDetails() { return allDetails(localization.objectDetails, CaseFile.ObjectDetailData.class, objectDetailReader); }
+    @Override public FinalExamDTO getFinalExam() { return field(localization, "final_exam", finalExamReader); }
+    @Override public List<String> getTasks() { return field(localization, "tasks", stringsReader); }
+    @Override public List<String> getWatsonHints() { return field(localization, "watsonHints", stringsReader); }
+    @Override public List<CaseFile.RankTierData> getRankingTiers() { return field(localization, "rankingTiers", rankTiersReader); }
+    @Override public String getWinningMessage() { return field(localization, "winning_message", textReader); }
+
+    @Override
+    public CaseFile.RoomDetailData roomDetail(String name) {
+      Long at = localization.roomDetails.byName.get(name);
+      return at != null ? record(at, roomDetailReader) : null;
+    }
+
+    @Override
+    public CaseFile.ObjectDetailData objectDetail(String name) {
+      Long at = localization.objectDetails.byName.get(name);
+      return at != null ? record(at, objectDetailReader) : null;
+    }
+  }
+
+  private static String sha256Hex(ByteBuffer bytes) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(bytes.duplicate());
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is missing from this JVM", e); // Every JVM must have it.
+    }
+  }
+}
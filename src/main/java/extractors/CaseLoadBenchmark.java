@@ -0,0 +1,124 @@
+package extractors;
+
+import JsonDTO.CaseFile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * CaseLoadBenchmark What startup spends on cases: a library of a few hundred case files loaded by
+ * parsing the JSON every time, by compiling bundles the first time, and by mapping the bundles
+ * afterwards (with and without then decoding every language), and what the loaded text weighs on
+ * the heap (see {@link CaseFootprint}). Run it directly:
+ *
+ * <pre>
+ *   java -cp target/classes:... extractors.CaseLoadBenchmark [cases] [template.json] [dir]
+ * </pre>
+ *
+ * The library is copies of the template case (sapphire_case.json by default) under different
+ * titles, written into a temp directory (or {@code dir}) that's deleted afterwards. Not a JMH
+ * harness; each row is the best of a few rounds.
+ */
+public final class CaseLoadBenchmark {
+
+  private static final int ROUNDS = 5;
+
+  private CaseLoadBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    int caseCount = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+    Path template = Path.of(args.length > 1 ? args[1] : "cases/sapphire_case.json");
+    Path dir = args.length > 2 ? Files.createDirectories(Path.of(args[2])) : Files.createTempDirectory("case-load-bench");
+    try {
+      String json = Files.readString(template, StandardCharsets.UTF_8);
+      String title = new ObjectMapper().readTree(json).get("universal_title").asText();
+      for (int i = 0; i < caseCount; i++) {
+        // A different title per copy, so none is dropped as a duplicate.
+        Files.writeString(dir.resolve("case_" + i + ".json"), json.replace(title, title + " #" + i), StandardCharsets.UTF_8);
+      }
+      warmUp(dir);
+
+      System.out.printf("%-40s %10s %12s%n", caseCount + " cases", "ms", "us/case");
+      row("parse JSON (no bundles)", caseCount, () -> CaseLoader.loadCasesFromDirectory(dir, new ArrayList<>(), false));
+      row("parse JSON + compile bundles (first run)", caseCount, () -> {
+        deleteTree(dir.resolve(CaseLoader.BUNDLE_DIRECTORY));
+        CaseLoader.loadCasesFromDirectory(dir, new ArrayList<>(), true);
+      });
+      row("map bundles", caseCount, () -> CaseLoader.loadCasesFromDirectory(dir, new ArrayList<>(), true));
+      row("map bundles + decode every language", caseCount, () -> {
+        List<CaseFile> cases = new ArrayList<>();
+        CaseLoader.loadCasesFromDirectory(dir, cases, true);
+        for (CaseFile caseFile : cases) {
+          caseFile.getLocalizations().values().forEach(loc -> loc.getTitle().length());
+        }
+      });
+
+      List<CaseFile> loaded = new ArrayList<>();
+      CaseLoader.loadCasesFromDirectory(dir, loaded, true);
+      long heap = 0;
+      long asStrings = 0;
+      for (CaseFile caseFile : loaded) {
+        CaseFootprint footprint = CaseFootprint.of(caseFile);
+        heap += footprint.getHeapBytes();
+        asStrings += footprint.getAsStringsBytes();
+      }
+      System.out.printf("%nCase text on the heap: ~%d KiB from bundles (~%d KiB as one String per text).%n",
+          heap / 1024, asStrings / 1024);
+
+      long jsonBytes = totalSize(dir, ".json");
+      long bundleBytes = totalSize(dir.resolve(CaseLoader.BUNDLE_DIRECTORY), CaseLoader.BUNDLE_EXTENSION);
+      System.out.printf("On disk: %d bytes of JSON, %d bytes of bundles (%.0f%%).%n",
+          jsonBytes, bundleBytes, 100.0 * bundleBytes / jsonBytes);
+    } finally {
+      deleteTree(dir);
+    }
+  }
+
+  private interface Load {
+    void run() throws IOException;
+  }
+
+  private static void row(String name, int caseCount, Load load) throws IOException {
+    long best = Long.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      long start = System.nanoTime();
+      load.run();
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    System.out.printf("%-40s %10.1f %12.1f%n", name, best / 1e6, best / 1e3 / caseCount);
+  }
+
+  private static void warmUp(Path dir) {
+    for (int i = 0; i < 3; i++) {
+      CaseLoader.loadCasesFromDirectory(dir, new ArrayList<>(), false);
+      CaseLoader.loadCasesFromDirectory(dir, new ArrayList<>(), true);
+    }
+  }
+
+  private static long totalSize(Path dir, String extension) throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      long total = 0;
+      for (Path path : files.filter(p -> p.toString().endsWith(extension)).toList()) {
+        total += Files.size(path);
+      }
+      return total;
+    }
+  }
+
+  private static void deleteTree(Path dir) throws IOException {
+    if (!Files.exists(dir)) {
+      return;
+    }
+    try (Stream<Path> files = Files.walk(dir)) {
+      for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(path);
+      }
+    }
+  }
+}
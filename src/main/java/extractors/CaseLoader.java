@@ -3,7 +3,7 @@ package extractors;
 import JsonDTO.CaseFile;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.io.File;
+import common.NetworkConstants;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -13,9 +13,18 @@ import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +33,12 @@ public class CaseLoader {
 
   private static final Logger logger = LoggerFactory.getLogger(CaseLoader.class);
 
+  // Compiled bundles live in this subdirectory of the cases directory, one per JSON case file.
+  static final String BUNDLE_DIRECTORY = ".bundles";
+  static final String BUNDLE_EXTENSION = ".bundle";
+  // Large cases are read through a CaseIndex over a private copy instead (see indexedCopyOf).
+  static final String INDEXED_EXTENSION = ".indexed.json";
+
   private static final ObjectMapper mapper =
           new ObjectMapper()
                   .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -32,9 +47,23 @@ public class CaseLoader {
   }
 
   public static List<CaseFile> loadCases(String directoryPath) {
-    List<CaseFile> cases = new ArrayList<>();
+    List<CaseFile> cases = loadBuiltInCases(directoryPath);
+
+    // --- 2. Load external cases from a folder next to the JAR ---
+    Path externalCasesDir = Paths.get(directoryPath);
+    if (Files.exists(externalCasesDir) && Files.isDirectory(externalCasesDir)) {
+      logger.info("Found external cases directory. Loading additional cases...");
+      loadCasesFromDirectory(externalCasesDir, cases);
+    }
+
+    logger.info("Finished loading cases. Found {} valid case(s).", cases.size());
+    return cases;
+  }
 
-    // --- 1. Load built-in cases from inside the JAR/resources ---
+  /** The cases shipped inside the JAR (or the resources directory, when running from an IDE). */
+  public static List<CaseFile> loadBuiltInCases(String directoryPath) {
+    List<CaseFile> cases = new ArrayList<>();
+    // (Cases inside a JAR are always parsed; bundles need a directory to live in and be mapped from.)
     try {
       URI uri = CaseLoader.class.getClassLoader().getResource(directoryPath).toURI();
       if (uri.getScheme().equals("jar")) {
@@ -47,7 +76,7 @@ public class CaseLoader {
                         CaseFile caseFile = mapper.readValue(is, CaseFile.class);
                         // MODIFIED: Use getUniversalTitle() for validation
                         if (caseFile.getUniversalTitle() != null && !caseFile.getUniversalTitle().isBlank()) {
-                          cases.add(caseFile);
+                          cases.add(CompactLocalizedData.compact(caseFile));
                         }
                       } catch (IOException e) {
                         logger.error("Error reading or parsing case file from JAR: {}", path, e);
@@ -62,46 +91,261 @@ public class CaseLoader {
     } catch (IOException | URISyntaxException | NullPointerException e) {
       logger.warn("Could not load built-in cases from resource directory: '{}'. This is normal if the directory is empty or missing.", directoryPath);
     }
+    return cases;
+  }
 
-    // --- 2. Load external cases from a folder next to the JAR ---
-    Path externalCasesDir = Paths.get(directoryPath);
-    if (Files.exists(externalCasesDir) && Files.isDirectory(externalCasesDir)) {
-      logger.info("Found external cases directory. Loading additional cases...");
-      loadCasesFromDirectory(externalCasesDir, cases);
+  /**
+   * A name for this exact version of a case: the SHA-256 of the case as its loader re-serializes it,
+   * so whitespace and key formatting in the file don't count but any change to the content does.
+   * Clients cache cases under it. Worked out once per case and remembered on it.
+   */
+  public static String contentHash(CaseFile caseFile) {
+    String known = caseFile.getContentHash();
+    if (known != null) {
+      return known; // Loaded from a bundle, or hashed before.
+    }
+    try {
+      String hash = sha256Hex(mapper.writeValueAsBytes(caseFile));
+      caseFile.setContentHash(hash);
+      return hash;
+    } catch (IOException e) {
+      throw new IllegalStateException("Couldn't serialize case '" + caseFile.getUniversalTitle() + "' to hash it", e);
     }
+  }
 
-    logger.info("Finished loading cases. Found {} valid case(s).", cases.size());
-    return cases;
+  /**
+   * A plain copy of {@code caseFile} for the wire: loaded cases keep their text in a string table or
+   * a CaseIndex, which the other side has never heard of (and the wire codec names the class it
+   * writes). Decodes the whole case, so it's for sending a case, not for keeping one.
+   */
+  public static CaseFile detached(CaseFile caseFile) {
+    CaseFile copy = mapper.convertValue(caseFile, CaseFile.class);
+    copy.setContentHash(caseFile.getContentHash());
+    return copy;
+  }
+
+  /** Hex SHA-256 of {@code bytes}. */
+  public static String sha256Hex(byte[] bytes) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is missing from this JVM", e); // Every JVM must have it.
+    }
   }
 
   private static void loadCasesFromDirectory(Path dir, List<CaseFile> cases) {
+    loadCasesFromDirectory(dir, cases, true);
+  }
+
+  static void loadCasesFromDirectory(Path dir, List<CaseFile> cases, boolean useBundles) {
+    addUnique(cases, loadCaseDirectory(dir, useBundles).values());
+  }
+
+  /**
+   * Every valid case in {@code dir}, by file, in file name order. A case whose compiled bundle (in
+   * {@value #BUNDLE_DIRECTORY}) was built from the same JSON is mapped from the bundle instead of
+   * parsed; otherwise it's parsed, validated and compiled for next time. Files are independent of
+   * each other, so they're all loaded at once, across cores. Titles aren't de-duplicated here (see
+   * {@link #addUnique}).
+   */
+  public static Map<Path, CaseFile> loadCaseDirectory(Path dir) {
+    return loadCaseDirectory(dir, true);
+  }
+
+  static Map<Path, CaseFile> loadCaseDirectory(Path dir, boolean useBundles) {
+    List<Path> files;
     try (Stream<Path> stream = Files.list(dir)) {
-      stream
-              .filter(path -> !Files.isDirectory(path))
-              .filter(path -> path.toString().toLowerCase().endsWith(".json"))
-              .forEach(filePath -> {
-                File file = filePath.toFile();
-                try {
-                  CaseFile caseFile = mapper.readValue(file, CaseFile.class);
-                  // MODIFIED: Use getUniversalTitle() for validation and duplicate checking
-                  if (caseFile.getUniversalTitle() != null && !caseFile.getUniversalTitle().isBlank() &&
-                          cases.stream().noneMatch(c -> c.getUniversalTitle().equalsIgnoreCase(caseFile.getUniversalTitle()))) {
-                      boolean allLocalizationsValid = caseFile.getLocalizations().values().stream()
-                              .allMatch(loc -> loc.getFinalExam() != null && loc.getFinalExam().getQuestions() != null && !loc.getFinalExam().getQuestions().isEmpty());
-                      if (allLocalizationsValid) {
-                          cases.add(caseFile);
-                      } else {
-                          logger.warn("Skipping case file '{}': Invalid structure (missing or empty final_exam).", file.getName());
-                      }
-                  } else if (caseFile.getUniversalTitle() == null || caseFile.getUniversalTitle().isBlank()) {
-                    logger.warn("Skipping case file '{}': Invalid structure (missing universal_title).", file.getName());
-                  }
-                } catch (IOException e) {
-                  logger.error("Error reading or parsing external case file '{}'", file.getName(), e);
-                }
-              });
+      files = stream.filter(CaseLoader::isCaseFile).sorted().toList();
     } catch (IOException e) {
       logger.error("Error listing files in external case directory '{}'", dir, e);
+      return new LinkedHashMap<>();
+    }
+    List<CaseFile> loaded = files.parallelStream().map(path -> loadCaseFileOrNull(path, useBundles)).toList();
+    if (useBundles) {
+      removeOrphanBundles(dir, files);
+    }
+    Map<Path, CaseFile> byFile = new LinkedHashMap<>();
+    for (int i = 0; i < files.size(); i++) {
+      if (loaded.get(i) != null) {
+        byFile.put(files.get(i), loaded.get(i));
+      }
+    }
+    return byFile;
+  }
+
+  /** Deletes bundles whose JSON is gone, so they don't pile up as cases are renamed and removed. */
+  private static void removeOrphanBundles(Path dir, List<Path> caseFiles) {
+    Path bundleDir = dir.resolve(BUNDLE_DIRECTORY);
+    if (!Files.isDirectory(bundleDir)) {
+      return;
+    }
+    Set<Path> wanted = new HashSet<>();
+    for (Path caseFile : caseFiles) {
+      wanted.add(bundleFileFor(caseFile).getFileName());
+      wanted.add(indexedCopyFor(caseFile).getFileName());
+    }
+    try (Stream<Path> bundles = Files.list(bundleDir)) {
+      for (Path bundle : bundles.filter(path -> path.toString().endsWith(BUNDLE_EXTENSION)
+          || path.toString().endsWith(INDEXED_EXTENSION)).toList()) {
+        if (!wanted.contains(bundle.getFileName())) {
+          Files.deleteIfExists(bundle);
+        }
+      }
+    } catch (IOException e) {
+      logger.warn("Couldn't clean up old case bundles in {}", bundleDir, e);
+    }
+  }
+
+  /** Deletes the bundle (or indexed copy) of {@code jsonFile} (the JSON was deleted), if there is one. */
+  public static void removeBundleOf(Path jsonFile) {
+    try {
+      Files.deleteIfExists(bundleFileFor(jsonFile));
+      Files.deleteIfExists(indexedCopyFor(jsonFile));
+    } catch (IOException e) {
+      logger.warn("Couldn't delete the case bundle of {}", jsonFile, e);
+    }
+  }
+
+  /** True for a path that would hold a case: a {@code .json} file. */
+  public static boolean isCaseFile(Path path) {
+    return path.toString().toLowerCase().endsWith(".json") && !Files.isDirectory(path);
+  }
+
+  /**
+   * Adds each of {@code candidates} whose title no case in {@code cases} has yet (ignoring case), in
+   * order, so the first case with a title wins. One hash lookup per case.
+   */
+  public static void addUnique(List<CaseFile> cases, Collection<CaseFile> candidates) {
+    Set<String> titles = new HashSet<>();
+    for (CaseFile caseFile : cases) {
+      titles.add(caseFile.getUniversalTitle().toLowerCase());
+    }
+    for (CaseFile candidate : candidates) {
+      if (titles.add(candidate.getUniversalTitle().toLowerCase())) {
+        cases.add(candidate);
+      } else {
+        logger.warn("Skipping case '{}': another case file already has that title.", candidate.getUniversalTitle());
+      }
+    }
+  }
+
+  /**
+   * One case file, from its bundle if that's current (or through a {@link CaseIndex}, if it's large).
+   *
+   * @return The case, or null if it isn't valid (the reason is logged).
+   */
+  public static CaseFile loadCaseFile(Path filePath) throws IOException {
+    return loadCaseFile(filePath, true);
+  }
+
+  private static CaseFile loadCaseFileOrNull(Path filePath, boolean useBundles) {
+    try {
+      return loadCaseFile(filePath, useBundles);
+    } catch (IOException e) {
+      logger.error("Error reading or parsing external case file '{}'", filePath.getFileName(), e);
+      return null;
+    }
+  }
+
+  /**
+   * One case file: indexed if it's large, else from its bundle if that's current. Null if the case
+   * isn't valid.
+   */
+  private static CaseFile loadCaseFile(Path filePath, boolean useBundles) throws IOException {
+    String fileName = filePath.getFileName().toString();
+    long size = Files.size(filePath);
+    if (size >= NetworkConstants.CASE_INDEX_THRESHOLD_BYTES) {
+      // Too big to hold whole: no parse and no bundle (which decodes a language at a time).
+      CaseIndex index = CaseIndex.open(useBundles ? indexedCopyOf(filePath) : filePath, mapper);
+      logger.info("Indexed large case file '{}' ({} bytes); its records are read as needed.", fileName, size);
+      return validated(index.toCaseFile(), fileName);
+    }
+    byte[] source = Files.readAllBytes(filePath);
+    if (!useBundles) {
+      return CompactLocalizedData.compact(validated(mapper.readValue(source, CaseFile.class), fileName));
+    }
+    Files.deleteIfExists(indexedCopyFor(filePath)); // In case it used to be large.
+    String sourceHash = sha256Hex(source); // Far cheaper than the parse it saves.
+    Path bundleFile = bundleFileFor(filePath);
+    CaseFile compiled = openCurrentBundle(bundleFile, sourceHash);
+    if (compiled != null) {
+      return compiled; // Validated when it was compiled.
+    }
+    CaseFile caseFile = validated(mapper.readValue(source, CaseFile.class), fileName);
+    if (caseFile != null) {
+      try {
+        CaseBundleCompiler.write(bundleFile, CaseBundleCompiler.compile(caseFile, sourceHash));
+        logger.info("Compiled case file '{}' to {}", fileName, bundleFile);
+      } catch (IOException | RuntimeException e) {
+        logger.warn("Couldn't write case bundle {}; '{}' will be parsed again next time.", bundleFile, fileName, e);
+      }
+    }
+    // Keep the text in a string table, not as the parsed Strings (a bundle's cases already do).
+    return CompactLocalizedData.compact(caseFile);
+  }
+
+  /**
+   * Copies a large case file into the bundle directory for a CaseIndex to map. The index reads
+   * records from it for as long as the case is in use, so it mustn't be a file an author can save
+   * over (or truncate) under running games; a new copy is moved in by name, like a bundle.
+   */
+  private static Path indexedCopyOf(Path jsonFile) throws IOException {
+    Files.deleteIfExists(bundleFileFor(jsonFile));
+    Path copy = indexedCopyFor(jsonFile);
+    Files.createDirectories(copy.getParent());
+    Path temp = Files.createTempFile(copy.getParent(), copy.getFileName().toString(), ".tmp");
+    try {
+      Files.copy(jsonFile, temp, StandardCopyOption.REPLACE_EXISTING);
+      Files.move(temp, copy, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    return copy;
+  }
+
+  /** The bundle's case if the bundle exists and was compiled from JSON with {@code sourceHash}. */
+  private static CaseFile openCurrentBundle(Path bundleFile, String sourceHash) {
+    if (!Files.isRegularFile(bundleFile)) {
+      return null;
+    }
+    try {
+      CaseBundle bundle = CaseBundle.open(bundleFile);
+      if (!bundle.getSourceHash().equals(sourceHash)) {
+        logger.info("Case bundle {} is out of date; recompiling.", bundleFile);
+        return null;
+      }
+      return bundle.toCaseFile();
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Ignoring unreadable case bundle {}; recompiling.", bundleFile, e);
+      return null;
+    }
+  }
+
+  static Path bundleFileFor(Path jsonFile) {
+    return jsonFile.resolveSibling(BUNDLE_DIRECTORY).resolve(baseName(jsonFile) + BUNDLE_EXTENSION);
+  }
+
+  private static Path indexedCopyFor(Path jsonFile) {
+    return jsonFile.resolveSibling(BUNDLE_DIRECTORY).resolve(baseName(jsonFile) + INDEXED_EXTENSION);
+  }
+
+  private static String baseName(Path jsonFile) {
+    String name = jsonFile.getFileName().toString();
+    return name.substring(0, name.length() - ".json".length());
+  }
+
+  /** {@code caseFile} if it's playable; otherwise logs why not and returns null. */
+  private static CaseFile validated(CaseFile caseFile, String fileName) {
+    if (caseFile.getUniversalTitle() == null || caseFile.getUniversalTitle().isBlank()) {
+      logger.warn("Skipping case file '{}': Invalid structure (missing universal_title).", fileName);
+      return null;
+    }
+    boolean allLocalizationsValid = caseFile.getLocalizations() != null && caseFile.getLocalizations().values().stream()
+            .allMatch(loc -> loc.getFinalExam() != null && loc.getFinalExam().getQuestions() != null && !loc.getFinalExam().getQuestions().isEmpty());
+    if (!allLocalizationsValid) {
+      logger.warn("Skipping case file '{}': Invalid structure (missing or empty final_exam).", fileName);
+      return null;
     }
+    return caseFile;
   }
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package extractors;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CaseStrings Every distinct piece of text in one case, across all its languages, stored once as
+ * UTF-8 and named by an int handle. Case data keeps handles instead of Strings (see
+ * {@link CompactLocalizedData}), and a String is only decoded when something actually reads the
+ * text, typically right before it's sent to a player. Sessions share the case's table; nothing is
+ * copied per session.
+ *
+ * <p>The bytes live either in a heap {@code byte[]} (cases parsed from JSON, via {@link Builder}) or
+ * in a compiled bundle's mapping, whose string table already has this shape (see
+ * {@link CaseBundle}). A table never changes once built, so any number of threads can read it.
+ */
+public final class CaseStrings {
+
+  /** The handle for null. */
+  public static final int NONE = -1;
+
+  private final ByteBuffer data;  // Every string's bytes, back to back.
+  private final int[] starts;     // String i is data[starts[i], starts[i + 1]).
+  private final boolean mapped;
+  private volatile int[] lookup;  // Open addressing over handles, for handleOf; built on first use.
+
+  private CaseStrings(ByteBuffer data, int[] starts, boolean mapped) {
+    this.data = data;
+    this.starts = starts;
+    this.mapped = mapped;
+  }
+
+  /** A table over a bundle's string bytes; {@code starts} as for the heap table. */
+  static CaseStrings mapped(ByteBuffer data, int[] starts) {
+    return new CaseStrings(data, starts, true);
+  }
+
+  /** The text for {@code handle}, decoded now; null for {@link #NONE}. */
+  public String get(int handle) {
+    if (handle == NONE) {
+      return null;
+    }
+    int start = starts[handle];
+    byte[] bytes = new byte[starts[handle + 1] - start];
+    data.get(start, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** The handle of {@code text} in this table, or {@link #NONE} if it isn't in it. */
+  public int handleOf(String text) {
+    if (text == null) {
+      return NONE;
+    }
+    int[] table = lookup;
+    if (table == null) {
+      table = buildLookup();
+      lookup = table;
+    }
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    int mask = table.length - 1;
+    for (int slot = Arrays.hashCode(bytes) & mask; table[slot] != NONE; slot = (slot + 1) & mask) {
+      if (equalsAt(table[slot], bytes)) {
+        return table[slot];
+      }
+    }
+    return NONE;
+  }
+
+  /** Number of distinct strings. */
+  public int size() {
+    return starts.length - 1;
+  }
+
+  /** Total UTF-8 bytes of all distinct strings. */
+  public int utf8Bytes() {
+    return starts[starts.length - 1];
+  }
+
+  /** True if the bytes are a bundle's mapping rather than heap. */
+  public boolean isMapped() {
+    return mapped;
+  }
+
+  /** Roughly what this table holds on the heap: the bytes (unless mapped) and the index arrays. */
+  public long heapBytes() {
+    int[] table = lookup;
+    return (mapped ? 0 : CaseFootprint.arrayBytes(utf8Bytes(), 1)) + CaseFootprint.arrayBytes(starts.length, 4)
+        + (table != null ? CaseFootprint.arrayBytes(table.length, 4) : 0);
+  }
+
+  private int[] buildLookup() {
+    int[] table = new int[Integer.highestOneBit(Math.max(size(), 1) * 2) * 2];
+    Arrays.fill(table, NONE);
+    int mask = table.length - 1;
+    for (int handle = 0; handle < size(); handle++) {
+      int slot = hashAt(handle) & mask;
+      while (table[slot] != NONE) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = handle;
+    }
+    return table;
+  }
+
+  private int hashAt(int handle) { // Same as Arrays.hashCode over the string's bytes.
+    int hash = 1;
+    for (int i = starts[handle]; i < starts[handle + 1]; i++) {
+      hash = 31 * hash + data.get(i);
+    }
+    return hash;
+  }
+
+  private boolean equalsAt(int handle, byte[] bytes) {
+    int start = starts[handle];
+    if (starts[handle + 1] - start != bytes.length) {
+      return false;
+    }
+    for (int i = 0; i < bytes.length; i++) {
+      if (data.get(start + i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Collects a case's text, once per distinct string, then {@link #build()}s the table. */
+  public static final class Builder {
+    private final Map<String, Integer> handles = new HashMap<>();
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private int[] starts = new int[64];
+
+    /** The handle {@code text} will have in the built table. */
+    public int intern(String text) {
+      if (text == null) {
+        return NONE;
+      }
+      Integer known = handles.get(text);
+      if (known != null) {
+        return known;
+      }
+      int handle = handles.size();
+      bytes.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+      if (handle + 2 > starts.length) {
+        starts = Arrays.copyOf(starts, starts.length * 2);
+      }
+      starts[handle + 1] = bytes.size();
+      handles.put(text, handle);
+      return handle;
+    }
+
+    /** The table. The builder (and its Strings) can be dropped afterwards. */
+    public CaseStrings build() {
+      return new CaseStrings(ByteBuffer.wrap(bytes.toByteArray()), Arrays.copyOf(starts, handles.size() + 1), false);
+    }
+  }
+}
@@ -0,0 +1,167 @@
+package extractors;
+
+import Core.Room;
+import Core.RoomGraph;
+import Core.Suspect;
+import JsonDTO.CaseData;
+import JsonDTO.CaseFile;
+import JsonDTO.LocalizedCaseFile;
+import common.interfaces.GameContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * CaseWorld The compiled, read-only part of one case in one language: the localized case data, the
+ * rooms with their exits and objects, and who the suspects are. It's built once by running the
+ * usual extractors, and then every game session of that case shares it.
+ *
+ * <p>Nothing in here changes after {@link #compile}: the rooms are sealed (see {@link Room#seal()})
+ * and the maps and lists are unmodifiable. What does change during a game (where the players and
+ * suspects are, what's been deduced, task states) lives in the session's own context. Suspects move,
+ * so a session gets fresh Suspect objects from {@link #newSuspects()} rather than these templates.
+ */
+public final class CaseWorld {
+
+  private static final Logger logger = LoggerFactory.getLogger(CaseWorld.class);
+
+  private final CaseFile source;
+  private final String languageCode;
+  private final CaseData caseData;
+  private final RoomGraph graph;
+  private final Room startingRoom;
+  private final List<Suspect> suspectTemplates;
+
+  private CaseWorld(CaseFile source, String languageCode, CaseData caseData, RoomGraph graph,
+      Room startingRoom, List<Suspect> suspectTemplates) {
+    this.source = source;
+    this.languageCode = languageCode;
+    this.caseData = caseData;
+    this.graph = graph;
+    this.startingRoom = startingRoom;
+    this.suspectTemplates = Collections.unmodifiableList(suspectTemplates);
+  }
+
+  /**
+   * Localizes {@code source} and runs the building, object and suspect extractors over it.
+   *
+   * @return The compiled world, or null if the case data is broken (details are logged).
+   */
+  public static CaseWorld compile(CaseFile source, String languageCode) {
+    long start = System.nanoTime();
+    CaseData caseData = new LocalizedCaseFile(source, languageCode);
+    LoadingContext loading = new LoadingContext(source.getUniversalTitle() + "/" + languageCode);
+    try {
+      if (!BuildingExtractor.loadBuilding(caseData, loading)) {
+        logger.error("Couldn't build case world for {}: building failed to load.", loading.contextId);
+        return null;
+      }
+      GameObjectExtractor.loadObjects(caseData, loading);
+      SuspectExtractor.loadSuspects(caseData, loading);
+    } catch (Exception e) {
+      logger.error("Couldn't build case world for {}", loading.contextId, e);
+      return null;
+    }
+
+    RoomGraph graph = new RoomGraph(loading.rooms.values());
+    Room startingRoom = graph.byName(caseData.getStartingRoom());
+    for (Room room : loading.rooms.values()) {
+      room.seal();
+    }
+    // The extractor already put each suspect somewhere; that's per-session state, so drop it here.
+    for (Suspect suspect : loading.suspects) {
+      suspect.setCurrentRoom(null);
+    }
+    CaseWorld world =
+        new CaseWorld(source, languageCode, caseData, graph, startingRoom, loading.suspects);
+    logger.info("Compiled case world {} ({} rooms, {} suspects) in {} ms.", loading.contextId,
+        graph.size(), world.suspectTemplates.size(), (System.nanoTime() - start) / 1_000_000);
+    return world;
+  }
+
+  /** The multilingual case file this world was compiled from. */
+  public CaseFile getSource() {
+    return source;
+  }
+
+  public String getLanguageCode() {
+    return languageCode;
+  }
+
+  /** The case data in this world's language. */
+  public CaseData getCaseData() {
+    return caseData;
+  }
+
+  /** Every room, keyed by lowercase name. Unmodifiable, and the rooms themselves are sealed. */
+  public Map<String, Room> getRooms() {
+    return graph.asMap();
+  }
+
+  /** The rooms as a dense graph; room ids index into per-session arrays. */
+  public RoomGraph getGraph() {
+    return graph;
+  }
+
+  public Room getRoomByName(String name) {
+    return graph.byName(name);
+  }
+
+  public Room getStartingRoom() {
+    return startingRoom;
+  }
+
+  /** Fresh, unplaced Suspect objects for one session; they're the session's to move around. */
+  public List<Suspect> newSuspects() {
+    List<Suspect> copies = new ArrayList<>(suspectTemplates.size());
+    for (Suspect template : suspectTemplates) {
+      copies.add(new Suspect(template.getName(), template.getStatement(), template.getClue()));
+    }
+    return copies;
+  }
+
+  /** Collects what the extractors produce. Only lives for the duration of {@link #compile}. */
+  private static final class LoadingContext implements GameContext {
+    private final String contextId;
+    private final Map<String, Room> rooms = new LinkedHashMap<>();
+    private final List<Suspect> suspects = new ArrayList<>();
+
+    LoadingContext(String contextId) {
+      this.contextId = contextId;
+    }
+
+    @Override
+    public void addRoom(Room room) {
+      rooms.put(room.getName().toLowerCase(), room);
+    }
+
+    @Override
+    public Room getRoomByName(String name) {
+      return name != null ? rooms.get(name.toLowerCase()) : null;
+    }
+
+    @Override
+    public Map<String, Room> getAllRooms() {
+      return Collections.unmodifiableMap(rooms);
+    }
+
+    @Override
+    public void addSuspect(Suspect suspect) {
+      suspects.add(suspect);
+    }
+
+    @Override
+    public void logLoadingMessage(String message) {
+      logger.info("[WORLD:{}] {}", contextId, message);
+    }
+
+    @Override
+    public String getContextIdForLog() {
+      return "CaseWorld-" + contextId;
+    }
+  }
+}
@@ -0,0 +1,267 @@
+package extractors;
+
+import JsonDTO.CaseFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CompactLocalizedData One language of a case with its text held as {@link CaseStrings} handles
+ * instead of Strings: the titles and messages, the suspects, the room and object details, the tasks
+ * and Watson's hints. The getters decode what they return on every call and keep nothing, so the
+ * only copy of the text is the case's string table. The final exam and the ranking tiers stay
+ * objects; they're small and only read at the end of a game.
+ *
+ * <p>Records are flattened into int arrays, a fixed number of handles each (see the *_FIELDS
+ * constants); a null array is a null list. Jackson serializes this through the getters, so a client
+ * fetching the case gets exactly the JSON it would have got before.
+ */
+final class CompactLocalizedData extends CaseFile.LocalizedData {
+
+  static final int SUSPECT_FIELDS = 3;       // name, statement, clue
+  static final int ROOM_DETAIL_FIELDS = 2;   // name, description
+  static final int OBJECT_DETAIL_FIELDS = 4; // name, description, examine, deduce
+
+  private final CaseStrings strings;
+  private final int languageNameRef;
+  private final int titleRef;
+  private final int invitationRef;
+  private final int descriptionRef;
+  private final int winningMessageRef;
+  private final int[] suspectRefs;
+  private final int[] roomDetailRefs;
+  private final int[] objectDetailRefs;
+  private final int[] taskRefs;
+  private final int[] watsonHintRefs;
+  // Name handle << 32 | record index, sorted; for roomDetail/objectDetail. Built on first lookup.
+  private volatile long[] roomDetailsByName;
+  private volatile long[] objectDetailsByName;
+
+  /** Handles in {@code scalars}: language name, title, invitation, description, winning message. */
+  CompactLocalizedData(CaseStrings strings, int[] scalars, int[] suspectRefs, int[] roomDetailRefs,
+      int[] objectDetailRefs, int[] taskRefs, int[] watsonHintRefs, CaseFile.LocalizedData structured) {
+    this.strings = strings;
+    this.languageNameRef = scalars[0];
+    this.titleRef = scalars[1];
+    this.invitationRef = scalars[2];
+    this.descriptionRef = scalars[3];
+    this.winningMessageRef = scalars[4];
+    this.suspectRefs = suspectRefs;
+    this.roomDetailRefs = roomDetailRefs;
+    this.objectDetailRefs = objectDetailRefs;
+    this.taskRefs = taskRefs;
+    this.watsonHintRefs = watsonHintRefs;
+    this.finalExam = structured.getFinalExam();
+    this.rankingTiers = structured.getRankingTiers();
+  }
+
+  /**
+   * {@code caseFile} with every localization compacted into one case-wide string table. The room
+   * graph and the content hash carry over as they are.
+   */
+  static CaseFile compact(CaseFile caseFile) {
+    if (caseFile == null || caseFile.getLocalizations() == null) {
+      return caseFile;
+    }
+    CaseStrings.Builder builder = new CaseStrings.Builder();
+    Map<String, int[][]> refs = new LinkedHashMap<>();
+    for (Map.Entry<String, CaseFile.LocalizedData> entry : caseFile.getLocalizations().entrySet()) {
+      refs.put(entry.getKey(), intern(builder, entry.getValue()));
+    }
+    CaseStrings strings = builder.build();
+    Map<String, CaseFile.LocalizedData> localizations = new LinkedHashMap<>();
+    for (Map.Entry<String, CaseFile.LocalizedData> entry : caseFile.getLocalizations().entrySet()) {
+      int[][] r = refs.get(entry.getKey());
+      localizations.put(entry.getKey(), new CompactLocalizedData(strings, r[0], r[1], r[2], r[3], r[4], r[5], entry.getValue()));
+    }
+    CaseFile compact = new CaseFile(caseFile.getUniversalTitle(), caseFile.getStartingRoom(), caseFile.getRooms(),
+        Collections.unmodifiableMap(localizations));
+    compact.setContentHash(caseFile.getContentHash());
+    return compact;
+  }
+
+  /** The handles of {@code loc}'s text: scalars, suspects, room details, object details, tasks, hints. */
+  private static int[][] intern(CaseStrings.Builder builder, CaseFile.LocalizedData loc) {
+    int[] scalars = {builder.intern(loc.getLanguageName()), builder.intern(loc.getTitle()),
+        builder.intern(loc.getInvitation()), builder.intern(loc.getDescription()), builder.intern(loc.getWinningMessage())};
+    int[] suspects = null;
+    if (loc.getSuspects() != null) {
+      suspects = new int[loc.getSuspects().size() * SUSPECT_FIELDS];
+      int i = 0;
+      for (CaseFile.SuspectData suspect : loc.getSuspects()) {
+        suspects[i++] = builder.intern(suspect.getName());
+        suspects[i++] = builder.intern(suspect.getStatement());
+        suspects[i++] = builder.intern(suspect.getClue());
+      }
+    }
+    int[] rooms = null;
+    if (loc.getRoomDetails() != null) {
+      rooms = new int[loc.getRoomDetails().size() * ROOM_DETAIL_FIELDS];
+      int i = 0;
+      for (CaseFile.RoomDetailData room : loc.getRoomDetails()) {
+        rooms[i++] = builder.intern(room.getName());
+        rooms[i++] = builder.intern(room.getDescription());
+      }
+    }
+    int[] objects = null;
+    if (loc.getObjectDetails() != null) {
+      objects = new int[loc.getObjectDetails().size() * OBJECT_DETAIL_FIELDS];
+      int i = 0;
+      for (CaseFile.ObjectDetailData object : loc.getObjectDetails()) {
+        objects[i++] = builder.intern(object.getName());
+        objects[i++] = builder.intern(object.getDescription());
+        objects[i++] = builder.intern(object.getExamine());
+        objects[i++] = builder.intern(object.getDeduce());
+      }
+    }
+    return new int[][] {scalars, suspects, rooms, objects, internAll(builder, loc.getTasks()), internAll(builder, loc.getWatsonHints())};
+  }
+
+  private static int[] internAll(CaseStrings.Builder builder, List<String> texts) {
+    if (texts == null) {
+      return null;
+    }
+    int[] handles = new int[texts.size()];
+    for (int i = 0; i < handles.length; i++) {
+      handles[i] = builder.intern(texts.get(i));
+    }
+    return handles;
+  }
+
+  /** The case-wide table this language's handles point into. */
+  CaseStrings strings() {
+    return strings;
+  }
+
+  /** Every handle this language holds, for {@link CaseFootprint}; null lists count as empty. */
+  int[][] handleArrays() {
+    return new int[][] {suspectRefs, roomDetailRefs, objectDetailRefs, taskRefs, watsonHintRefs};
+  }
+
+  // --- Getters: decoded on each call ---
+
+  @Override public String getLanguageName() { return strings.get(languageNameRef); }
+  @Override public String getTitle() { return strings.get(titleRef); }
+  @Override public String getInvitation() { return strings.get(invitationRef); }
+  @Override public String getDescription() { return strings.get(descriptionRef); }
+  @Override public String getWinningMessage() { return strings.get(winningMessageRef); }
+  @Override public List<String> getTasks() { return decodeAll(taskRefs); }
+  @Override public List<String> getWatsonHints() { return decodeAll(watsonHintRefs); }
+
+  @Override
+  public List<CaseFile.SuspectData> getSuspects() {
+    if (suspectRefs == null) {
+      return null;
+    }
+    List<CaseFile.SuspectData> suspects = new ArrayList<>(suspectRefs.length / SUSPECT_FIELDS);
+    for (int i = 0; i < suspectRefs.length; i += SUSPECT_FIELDS) {
+      CaseFile.SuspectData suspect = new CaseFile.SuspectData();
+      suspect.name = strings.get(suspectRefs[i]);
+      suspect.statement = strings.get(suspectRefs[i + 1]);
+      suspect.clue = strings.get(suspectRefs[i + 2]);
+      suspects.add(suspect);
+    }
+    return suspects;
+  }
+
+  @Override
+  public List<CaseFile.RoomDetailData> getRoomDetails() {
+    if (roomDetailRefs == null) {
+      return null;
+    }
+    List<CaseFile.RoomDetailData> rooms = new ArrayList<>(roomDetailRefs.length / ROOM_DETAIL_FIELDS);
+    for (int i = 0; i < roomDetailRefs.length; i += ROOM_DETAIL_FIELDS) {
+      rooms.add(roomDetailAt(i));
+    }
+    return rooms;
+  }
+
+  @Override
+  public List<CaseFile.ObjectDetailData> getObjectDetails() {
+    if (objectDetailRefs == null) {
+      return null;
+    }
+    List<CaseFile.ObjectDetailData> objects = new ArrayList<>(objectDetailRefs.length / OBJECT_DETAIL_FIELDS);
+    for (int i = 0; i < objectDetailRefs.length; i += OBJECT_DETAIL_FIELDS) {
+      objects.add(objectDetailAt(i));
+    }
+    return objects;
+  }
+
+  @Override
+  public CaseFile.RoomDetailData roomDetail(String name) {
+    long[] byName = roomDetailsByName;
+    if (byName == null) {
+      byName = nameIndex(roomDetailRefs, ROOM_DETAIL_FIELDS);
+      roomDetailsByName = byName;
+    }
+    int at = find(byName, name);
+    return at >= 0 ? roomDetailAt(at * ROOM_DETAIL_FIELDS) : null;
+  }
+
+  @Override
+  public CaseFile.ObjectDetailData objectDetail(String name) {
+    long[] byName = objectDetailsByName;
+    if (byName == null) {
+      byName = nameIndex(objectDetailRefs, OBJECT_DETAIL_FIELDS);
+      objectDetailsByName = byName;
+    }
+    int at = find(byName, name);
+    return at >= 0 ? objectDetailAt(at * OBJECT_DETAIL_FIELDS) : null;
+  }
+
+  private CaseFile.RoomDetailData roomDetailAt(int i) {
+    CaseFile.RoomDetailData room = new CaseFile.RoomDetailData();
+    room.name = strings.get(roomDetailRefs[i]);
+    room.description = strings.get(roomDetailRefs[i + 1]);
+    return room;
+  }
+
+  private CaseFile.ObjectDetailData objectDetailAt(int i) {
+    CaseFile.ObjectDetailData object = new CaseFile.ObjectDetailData();
+    object.name = strings.get(objectDetailRefs[i]);
+    object.description = strings.get(objectDetailRefs[i + 1]);
+    object.examine = strings.get(objectDetailRefs[i + 2]);
+    object.deduce = strings.get(objectDetailRefs[i + 3]);
+    return object;
+  }
+
+  private List<String> decodeAll(int[] handles) {
+    if (handles == null) {
+      return null;
+    }
+    List<String> texts = new ArrayList<>(handles.length);
+    for (int handle : handles) {
+      texts.add(strings.get(handle));
+    }
+    return texts;
+  }
+
+  private static long[] nameIndex(int[] refs, int fields) {
+    if (refs == null) {
+      return new long[0];
+    }
+    long[] index = new long[refs.length / fields];
+    for (int record = 0; record < index.length; record++) {
+      index[record] = (long) refs[record * fields] << 32 | record;
+    }
+    Arrays.sort(index); // Same name: lower record first, so the first detail of a name wins.
+    return index;
+  }
+
+  /** The record index for {@code name}, or -1. */
+  private int find(long[] byName, String name) {
+    int handle = strings.handleOf(name);
+    if (handle == CaseStrings.NONE) {
+      return -1;
+    }
+    int at = Arrays.binarySearch(byName, (long) handle << 32);
+    if (at < 0) {
+      at = -at - 1;
+    }
+    return at < byName.length && (int) (byName[at] >>> 32) == handle ? (int) byName[at] : -1;
+  }
+}
@@ -81,28 +81,10 @@ public class GameObjectExtractor {
               continue;
             }
 
-            // Providing default values if JSON fields are missing or empty.
-            // This makes the case files more forgiving.
+            // The texts (with their defaults for missing fields, see LazyGameObject) are read from
+            // the case data when a player asks, not copied here.
             String name = objData.getName().trim(); // Always trim names.
-            String description =
-                    (objData.getDescription() != null && !objData.getDescription().trim().isEmpty())
-                            ? objData.getDescription()
-                            : "A nondescript " + name + "."; // Sensible default.
-            String examineText =
-                    (objData.getExamine() != null && !objData.getExamine().trim().isEmpty())
-                            ? objData.getExamine()
-                            : description; // If no examine text, just use its description.
-            String deduceText =
-                    (objData.getDeduce() != null && !objData.getDeduce().trim().isEmpty())
-                            ? objData.getDeduce()
-                            : "You find nothing particularly revealing to deduce about the "
-                            + name
-                            + "."; // Default no-clue.
-
-
-
-            // Create the actual GameObject instance.
-            GameObject obj = new GameObject(name, description, examineText, deduceText);
+            GameObject obj = new LazyGameObject(name, objData);
 
             // Add it to the room. Room's addObject handles storing it by its lowercase name.
             room.addObject(obj);
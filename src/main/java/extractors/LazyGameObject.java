@@ -0,0 +1,50 @@
+package extractors;
+
+import Core.GameObject;
+import JsonDTO.CaseFile;
+
+/**
+ * LazyGameObject A GameObject that reads its texts from the case data when asked (see
+ * {@link LazyRoom} for why). Missing or empty fields get the same defaults GameObjectExtractor
+ * always gave them, so case files can stay forgiving.
+ */
+final class LazyGameObject extends GameObject {
+
+  private final String name;
+  private final CaseFile.GameObjectData data;
+
+  LazyGameObject(String name, CaseFile.GameObjectData data) {
+    super(name, null, null, null);
+    this.name = name;
+    this.data = data;
+  }
+
+  @Override
+  public String getDescription() {
+    String description = data.getDescription();
+    return isPresent(description) ? description : "A nondescript " + name + "."; // Sensible default.
+  }
+
+  @Override
+  public String getExamine() {
+    String examine = data.getExamine();
+    return isPresent(examine) ? examine : getDescription(); // If no examine text, just use its description.
+  }
+
+  @Override
+  public String getDeduce() {
+    String deduce = data.getDeduce();
+    return isPresent(deduce)
+        ? deduce
+        : "You find nothing particularly revealing to deduce about the " + name + "."; // Default no-clue.
+  }
+
+  @Override
+  public String deduce() {
+    return getDeduce();
+  }
+
+  private static boolean isPresent(String text) {
+    return text != null && !text.trim().isEmpty();
+  }
+}
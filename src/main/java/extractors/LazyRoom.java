@@ -0,0 +1,34 @@
+package extractors;
+
+import Core.Room;
+import java.util.function.Supplier;
+
+/**
+ * LazyRoom A Room whose description is read from the case data each time instead of being copied
+ * in when the world is built. For most cases that's a lookup in the localized data that's in memory
+ * anyway; for a case read through a {@link CaseIndex} it keeps the text in the file (or the index's
+ * cache) until someone looks at the room.
+ */
+final class LazyRoom extends Room {
+  private static final long serialVersionUID = 1L;
+
+  // Dropped once setDescription gives the room text of its own.
+  private transient volatile Supplier<String> description;
+
+  LazyRoom(String name, Supplier<String> description) {
+    super(name, null);
+    this.description = description;
+  }
+
+  @Override
+  public String getDescription() {
+    Supplier<String> source = description;
+    return source != null ? source.get() : super.getDescription();
+  }
+
+  @Override
+  public void setDescription(String description) {
+    super.setDescription(description);
+    this.description = null;
+  }
+}
@@ -0,0 +1,276 @@
+package server;
+
+import JsonDTO.CaseFile;
+import common.NetworkConstants;
+import common.dto.CaseSummaryDTO;
+import extractors.CaseLoader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * CaseLibrary The cases the server offers, as an immutable, versioned {@link Snapshot} that's
+ * replaced as a whole whenever the case files change. A reader takes the current snapshot once and
+ * sees one consistent version of every map in it, however many swaps happen meanwhile. Running
+ * sessions don't read it at all: they hold the world compiled from the CaseFile they started with,
+ * so they keep that version of their case until they end.
+ *
+ * <p>A full {@link #reload()} rescans the cases directory (in parallel, see
+ * {@link CaseLoader#loadCaseDirectory}). After {@link #startWatching()} a watcher thread also
+ * follows the external cases directory and re-reads only the files that were added, changed or
+ * deleted. Both kinds of update are serialized, and each swaps in a new snapshot with the next
+ * version number.
+ */
+final class CaseLibrary {
+  private static final Logger logger = LoggerFactory.getLogger(CaseLibrary.class);
+
+  /**
+   * One version of the library. {@code files} are the external cases by file; {@code byTitle} is
+   * what's offered (built-in cases first, then files in name order; the first of a title wins).
+   */
+  record Snapshot(
+      long version,
+      List<CaseFile> builtIn,
+      Map<Path, CaseFile> files,
+      Map<String, CaseFile> byTitle,
+      CaseCatalog catalog) {
+
+    CaseFile byTitle(String universalTitle) {
+      return universalTitle != null ? byTitle.get(universalTitle.toLowerCase()) : null;
+    }
+
+    boolean contains(CaseFile caseFile) {
+      return caseFile != null && byTitle.get(caseFile.getUniversalTitle().toLowerCase()) == caseFile;
+    }
+  }
+
+  /** What lobby clients see of a snapshot: summaries, their hashes, and the cases by hash for fetches. */
+  record CaseCatalog(String hash, List<CaseSummaryDTO> summaries, Map<String, CaseFile> casesByHash) {}
+
+  private final String directory;
+  private final Consumer<Snapshot> onSwap;
+  private final Object updateLock = new Object(); // One update at a time; readers never take it.
+  private volatile Snapshot current;
+  private volatile WatchService watchService;
+
+  /**
+   * @param directory The cases directory: a resource directory for built-in cases and, if it exists
+   *     on disk, the directory of external case files.
+   * @param onSwap Called after each swap, on the thread that made it.
+   */
+  CaseLibrary(String directory, Consumer<Snapshot> onSwap) {
+    this.directory = directory;
+    this.onSwap = onSwap;
+    this.current = build(0, List.of(), new TreeMap<>());
+  }
+
+  Snapshot current() {
+    return current;
+  }
+
+  /** Rescans everything, built-in cases included. */
+  Snapshot reload() {
+    synchronized (updateLock) {
+      List<CaseFile> builtIn = CaseLoader.loadBuiltInCases(directory);
+      Path external = Paths.get(directory);
+      Map<Path, CaseFile> files = new TreeMap<>();
+      if (Files.isDirectory(external)) {
+        files.putAll(CaseLoader.loadCaseDirectory(external));
+      }
+      return swap(build(current.version() + 1, builtIn, files));
+    }
+  }
+
+  /**
+   * Re-reads just {@code changed} (external case files that were added, edited or deleted) and swaps
+   * in a snapshot with those applied. A file that's gone, or no longer holds a valid case, drops out.
+   */
+  Snapshot update(Set<Path> changed) {
+    synchronized (updateLock) {
+      Snapshot old = current;
+      Map<Path, CaseFile> files = new TreeMap<>(old.files());
+      List<Path> paths = new ArrayList<>(changed);
+      List<CaseFile> loaded = paths.parallelStream().map(CaseLibrary::loadIfPresent).toList();
+      for (int i = 0; i < paths.size(); i++) {
+        if (loaded.get(i) != null) {
+          files.put(paths.get(i), loaded.get(i));
+        } else {
+          files.remove(paths.get(i));
+        }
+      }
+      return swap(build(old.version() + 1, old.builtIn(), files));
+    }
+  }
+
+  private static CaseFile loadIfPresent(Path file) {
+    if (!Files.exists(file)) {
+      CaseLoader.removeBundleOf(file);
+      return null;
+    }
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    try {
+      return CaseLoader.loadCaseFile(file);
+    } catch (IOException e) {
+      logger.error("Error reading or parsing case file '{}'", file.getFileName(), e);
+      return null;
+    }
+  }
+
+  private Snapshot swap(Snapshot next) {
+    current = next;
+    onSwap.accept(next);
+    return next;
+  }
+
+  private static Snapshot build(long version, List<CaseFile> builtIn, Map<Path, CaseFile> files) {
+    List<CaseFile> offered = new ArrayList<>(builtIn);
+    CaseLoader.addUnique(offered, files.values());
+    Map<String, CaseFile> byTitle = new HashMap<>();
+    for (CaseFile cf : offered) {
+      // MODIFIED: Use the language-independent universal_title as the key
+      byTitle.put(cf.getUniversalTitle().toLowerCase(), cf);
+    }
+    return new Snapshot(version, List.copyOf(builtIn), Collections.unmodifiableMap(files), Map.copyOf(byTitle),
+        buildCatalog(offered));
+  }
+
+  /**
+   * Summarizes the offered cases for the lobby, sorted by title. The catalog hash is taken over the
+   * cases' content hashes in that order, so it changes exactly when some case is added, removed or
+   * edited.
+   */
+  private static CaseCatalog buildCatalog(List<CaseFile> cases) {
+    List<CaseSummaryDTO> summaries = new ArrayList<>();
+    Map<String, CaseFile> byHash = new HashMap<>();
+    for (CaseFile cf : cases) {
+      String hash = CaseLoader.contentHash(cf);
+      byHash.put(hash, cf);
+      summaries.add(summarize(hash, cf));
+    }
+    summaries.sort(Comparator.comparing(CaseSummaryDTO::getUniversalTitle, String.CASE_INSENSITIVE_ORDER));
+    StringBuilder hashes = new StringBuilder();
+    for (CaseSummaryDTO summary : summaries) {
+      hashes.append(summary.getContentHash()).append('\n');
+    }
+    String catalogHash = CaseLoader.sha256Hex(hashes.toString().getBytes(StandardCharsets.UTF_8));
+    return new CaseCatalog(catalogHash, List.copyOf(summaries), Map.copyOf(byHash));
+  }
+
+  private static CaseSummaryDTO summarize(String contentHash, CaseFile cf) {
+    Map<String, String> languages = new TreeMap<>();
+    int suspects = 0;
+    if (cf.getLocalizations() != null) {
+      for (Map.Entry<String, CaseFile.LocalizedData> loc : cf.getLocalizations().entrySet()) {
+        languages.put(loc.getKey(), loc.getValue().getLanguageName());
+        if (loc.getValue().getSuspects() != null) {
+          suspects = Math.max(suspects, loc.getValue().getSuspects().size());
+        }
+      }
+    }
+    int rooms = cf.getRooms() != null ? cf.getRooms().size() : 0;
+    return new CaseSummaryDTO(contentHash, cf.getUniversalTitle(), languages, rooms, suspects);
+  }
+
+  // --- Watching ---
+
+  /**
+   * Starts following the external cases directory, if there is one. Edits are applied in batches:
+   * the watcher waits until {@link NetworkConstants#CASE_WATCH_SETTLE_MS} pass without events, then
+   * updates the files it heard about. If the OS drops events, it falls back to a full reload.
+   */
+  void startWatching() {
+    Path external = Paths.get(directory);
+    if (!Files.isDirectory(external)) {
+      return;
+    }
+    try {
+      WatchService watcher = external.getFileSystem().newWatchService();
+      external.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+          StandardWatchEventKinds.ENTRY_DELETE);
+      watchService = watcher;
+      Thread thread = new Thread(() -> watch(watcher, external), "case-watcher");
+      thread.setDaemon(true);
+      thread.start();
+      logger.info("Watching '{}' for case file changes.", external);
+    } catch (IOException | UnsupportedOperationException e) {
+      logger.warn("Can't watch '{}' for case changes; use reloadcases after editing cases.", external, e);
+    }
+  }
+
+  void stopWatching() {
+    WatchService watcher = watchService;
+    watchService = null;
+    if (watcher != null) {
+      try {
+        watcher.close(); // The watcher thread gets ClosedWatchServiceException and ends.
+      } catch (IOException e) {
+        logger.warn("Error closing the case watcher", e);
+      }
+    }
+  }
+
+  private void watch(WatchService watcher, Path dir) {
+    try {
+      while (true) {
+        WatchKey key = watcher.take();
+        Set<Path> changed = new LinkedHashSet<>();
+        boolean overflow = collect(key, dir, changed);
+        while ((key = watcher.poll(NetworkConstants.CASE_WATCH_SETTLE_MS, TimeUnit.MILLISECONDS)) != null) {
+          overflow |= collect(key, dir, changed);
+        }
+        if (overflow) {
+          reload();
+        } else if (!changed.isEmpty()) {
+          update(changed);
+        }
+      }
+    } catch (ClosedWatchServiceException e) {
+      // stopWatching()
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      logger.error("Case watcher stopped; use reloadcases after editing cases.", e);
+    }
+  }
+
+  /** Adds the case files {@code key}'s events name to {@code changed}. @return True on overflow. */
+  private static boolean collect(WatchKey key, Path dir, Set<Path> changed) {
+    boolean overflow = false;
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+        overflow = true;
+      } else {
+        Path file = dir.resolve((Path) event.context());
+        if (file.getFileName().toString().toLowerCase().endsWith(".json")) {
+          changed.add(file);
+        }
+      }
+    }
+    if (!key.reset()) {
+      logger.warn("'{}' can't be watched any more (deleted?); use reloadcases after editing cases.", dir);
+    }
+    return overflow;
+  }
+}
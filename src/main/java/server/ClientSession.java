@@ -1,14 +1,29 @@
 package server;
 
 import common.NetworkConstants;
-import common.SerializationUtils;
+import common.wire.BufferPool;
+import common.wire.ChunkReassembler;
+import common.wire.EncodedFrame;
+import common.wire.FrameDecoder;
+import common.wire.WireCodecs;
+import common.wire.WireFormat;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
-import java.util.LinkedList;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 
 /**
@@ -20,53 +35,140 @@ import java.util.UUID;
  * length-prefix framing, and holds basic player info like ID and display name.
  */
 public class ClientSession {
+  private static final SecureRandom TOKEN_RANDOM = new SecureRandom();
+
   private final SocketChannel channel; // The actual network connection to the
   // client.
-  private final String playerId; // Unique ID for this connection, server-generated.
+  // Unique ID for this connection, server-generated. A connection that resumes a dropped one takes
+  // over its ID (see adopt()), so it's only set on the worker before the first message, or on the
+  // session's mailbox.
+  private volatile String playerId;
   private String displayId; // Name shown to other players, can be changed.
-  private GameSession associatedGameSession; // Which game are they in? Null if
-  // none.
-
-  // NIO Buffers - these are key for non-blocking reads.
-  private final ByteBuffer readBuffer; // Main buffer for incoming object bytes.
-  private final ByteBuffer lengthBuffer; // Small buffer just for the 4-byte int length
-  // prefix.
-  private boolean readingLength; // My state machine for reading: am I getting
-  // length or data?
-  private int
-          expectedObjectLength; // Once length is read, this stores how many object
-  // bytes to expect.
-
-  // Outgoing messages are queued. OP_WRITE will drain this.
-  private final Queue<Serializable> writeQueue;
-
-  private final GameServer
-          server; // Need this to call back to server (e.g., registerForWrite,
-  // processMessage).
+  // Proves a new connection is this player coming back (see GameSession.resumePlayer).
+  private volatile String resumeToken;
+  // Frames this player may need again after a drop. Kept only while they're seated in a game.
+  private final ResumeBuffer resumeBuffer = new ResumeBuffer();
+  // Which game are they in? Null if none. Cleared on the game session's mailbox, read when routing
+  // on this client's mailbox (see GameServer.forwardToSession).
+  private volatile GameSession associatedGameSession;
+
+  // Inbound length-prefix framing. Holds a pooled read buffer only while a frame is partial.
+  private final FrameDecoder frameDecoder;
+  // Puts inbound chunked streams back together. Only touched on the worker thread.
+  private final ChunkReassembler chunkReassembler;
+
+  // Outgoing frames, already encoded (pooled direct buffers). Any thread may add to the inbox
+  // without locking; only our worker thread drains it into the two lanes below and writes. Broadcast
+  // frames are shared between several clients' queues; each queue holds a reference.
+  private final MpscQueue<EncodedFrame> outboundInbox = new MpscQueue<>();
+  // True while a flush request for us is on its way to the worker. Lets a burst of sends from
+  // several threads cost one request (and at most one selector wakeup) instead of one per message.
+  private final AtomicBoolean writeRequested = new AtomicBoolean();
+  // Set once the connection is cleaned up; later sends are dropped (or released by the worker).
+  private volatile boolean closed;
+
+  // Gameplay lane. Each entry has this client's own read-only view of the frame; the head view keeps
+  // its position across OP_WRITE events, so a partial write resumes mid-frame. Worker thread only,
+  // like everything down to gatherFrames.
+  private final Queue<QueuedFrame> writeQueue = new ArrayDeque<>();
+  // Second lane for chunks of large streams. Each gathering write takes at most
+  // BULK_FRAMES_PER_WRITE of these, after the gameplay frames, so a transfer can't starve gameplay
+  // traffic.
+  private final Queue<QueuedFrame> bulkQueue = new ArrayDeque<>();
+  // Set when the last write stopped mid-way through the head bulk chunk. That chunk must go first
+  // next time, so its bytes stay contiguous on the wire.
+  private boolean bulkHeadPartial;
+  // Queued frames carrying a Coalescable message, by key (latest one only).
+  private final Map<String, QueuedFrame> coalescable = new HashMap<>();
+  // Scratch arrays for the gathering write.
+  private final ByteBuffer[] gatherArray = new ByteBuffer[NetworkConstants.MAX_FRAMES_PER_WRITE];
+  private final QueuedFrame[] gatherFrames = new QueuedFrame[NetworkConstants.MAX_FRAMES_PER_WRITE];
+
+  // Backpressure. Depth counts the inbox too: senders add, the worker subtracts.
+  private final AtomicLong queuedBytes = new AtomicLong();
+  private final AtomicInteger queuedFrames = new AtomicInteger();
+  // Over the high-water mark and not yet back under the low one. Only the worker flips it.
+  private volatile boolean backpressured;
+  private volatile long backpressuredSinceMillis;
+  // Set when the queue hits the hard limit; the worker disconnects us on its next sweep.
+  private volatile boolean evictionRequested;
+  // Set with evictionRequested when a resumed connection replaces this one.
+  private volatile boolean superseded;
+
+  // Per-client outbound counters (the server-wide ones live in ServerStats).
+  private long writeCalls;
+  private long bytesFlushed;
+  private long coalescedFrames;
+  private final LongAdder droppedFrames = new LongAdder();
+
+  private final GameServer server; // Need this to call back to server (e.g., processMessage).
+  // The worker whose selector owns this channel. OP_WRITE interest is toggled there.
+  private final WorkerReactor reactor;
+  // Codec + compression for frames we send to this client. Starts as plain JSON; switched once the
+  // client picks from our offer.
+  private volatile WireFormat outboundFormat = WireFormat.JSON;
+  // Routes this client's messages in arrival order, off the selector thread.
+  private final SerialExecutor mailbox;
 
   /**
    * Constructor for a new client session.
    *
    * @param channel The connected SocketChannel for this client.
    * @param server  A reference to the main GameServer.
+   * @param reactor The worker reactor that registered this channel.
    */
-  public ClientSession(SocketChannel channel, GameServer server) {
+  public ClientSession(SocketChannel channel, GameServer server, WorkerReactor reactor) {
+    this(channel, server, reactor, UUID.randomUUID().toString()); // Every connection gets a unique
+    // internal ID.
+  }
+
+  private ClientSession(SocketChannel channel, GameServer server, WorkerReactor reactor, String playerId) {
     this.channel = channel;
     this.server = server;
-    this.playerId = UUID.randomUUID().toString(); // Every connection gets a unique
-    // internal ID.
+    this.reactor = reactor;
+    this.playerId = playerId;
+    this.resumeToken = newResumeToken();
 
     // Default display name, client can change it later with /setname.
     this.displayId = "Player-" + playerId.substring(0, 4);
+    this.mailbox = server.newMailbox("client-" + playerId.substring(0, 8));
+
+    this.frameDecoder =
+            new FrameDecoder(
+                    BufferPool.DEFAULT,
+                    NetworkConstants.BUFFER_SIZE,
+                    NetworkConstants.MAX_INBOUND_FRAME_LENGTH);
+    this.chunkReassembler =
+            new ChunkReassembler(
+                    NetworkConstants.MAX_CONCURRENT_STREAMS,
+                    NetworkConstants.MAX_STREAM_BYTES,
+                    NetworkConstants.STREAM_SPOOL_THRESHOLD_BYTES);
+  }
+
+
+  /**
+   * A player with no connection: the stand-in for someone in a session restored from the session
+   * store, until they reconnect. Anything sent to it is dropped.
+   */
+  static ClientSession detached(GameServer server, String playerId, String displayId, String resumeToken) {
+    ClientSession session = new ClientSession(null, server, null, playerId);
+    session.setDisplayId(displayId);
+    session.resumeToken = resumeToken;
+    session.closed = true;
+    session.resumeBuffer.seal();
+    return session;
+  }
 
-    this.readBuffer = ByteBuffer.allocate(NetworkConstants.BUFFER_SIZE); // Main
-    // read buffer.
-    this.lengthBuffer = ByteBuffer.allocate(4); // Just for the int.
-    this.readingLength = true; // Start by expecting a length prefix.
-    this.expectedObjectLength = -1; // No object expected yet.
-    this.writeQueue = new LinkedList<>(); // For DTOs to send.
+  private static String newResumeToken() {
+    byte[] bytes = new byte[24];
+    TOKEN_RANDOM.nextBytes(bytes);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
   }
 
+  /** True for a {@link #detached} stand-in. */
+  public boolean isDetached() {
+    return channel == null;
+  }
 
   // --- Getters and Setters ---
 
@@ -78,6 +180,11 @@ public class ClientSession {
     return displayId;
   }
 
+  /** Null only for a restored stand-in whose token didn't survive the restart. */
+  public String getResumeToken() {
+    return resumeToken;
+  }
+
   /**
    * Updates the display name for this client session. Called by server logic when
    * processing an
@@ -94,6 +201,23 @@ public class ClientSession {
     return channel;
   }
 
+  public WorkerReactor getReactor() {
+    return reactor;
+  }
+
+  public WireFormat getOutboundFormat() {
+    return outboundFormat;
+  }
+
+  /** Switches the wire format used for everything sent to this client from now on. */
+  public void setOutboundFormat(WireFormat outboundFormat) {
+    this.outboundFormat = outboundFormat;
+  }
+
+  public SerialExecutor getMailbox() {
+    return mailbox;
+  }
+
   public GameSession getAssociatedGameSession() {
     return associatedGameSession;
   }
@@ -102,169 +226,450 @@ public class ClientSession {
     this.associatedGameSession = gameSession;
   }
 
+  // --- Resume ---
+
+  /** Starts keeping what's sent, for a replay if the connection drops. When the player takes a seat. */
+  void startResumeBuffer() {
+    resumeBuffer.start();
+  }
+
+  /** Lets go of what was kept. When the player gives up their seat, or someone resumed it. */
+  void releaseResumeBuffer() {
+    resumeBuffer.release();
+  }
+
+  ResumeBuffer getResumeBuffer() {
+    return resumeBuffer;
+  }
+
+  /**
+   * True once this connection is gone and everything it had queued has been moved into its resume
+   * buffer, so what it missed can be worked out. A detached stand-in is always there.
+   */
+  boolean isResumeReady() {
+    return resumeBuffer.isSealed();
+  }
 
   /**
-   * Adds a DTO to the outgoing queue for this client. Also signals the GameServer
-   * that this channel
-   * now has data to write.
+   * Becomes the player {@code previous} was: same ID, name, token and game. Called on the game
+   * session's mailbox while the session swaps this connection into the seat.
+   */
+  void adopt(ClientSession previous) {
+    this.playerId = previous.playerId;
+    this.displayId = previous.displayId;
+    this.resumeToken = previous.resumeToken;
+    this.associatedGameSession = previous.associatedGameSession;
+    resumeBuffer.start();
+  }
+
+  /**
+   * Sends the answer to a resume request. Once it's been written, frame numbering carries on from
+   * {@code framesReceived}, so the frames queued after it line up with the client's count.
+   */
+  void sendResumeResponse(Serializable response, long framesReceived) {
+    List<EncodedFrame> frames;
+    try {
+      frames = EncodedFrame.encode(response, outboundFormat);
+    } catch (IOException e) {
+      server.logError("SERIALIZATION_ERROR for client " + playerId + " (resume response)", e);
+      return;
+    }
+    server.getStats().recordEncoded(frames);
+    resumeBuffer.rebaseAt(frames.get(frames.size() - 1), framesReceived);
+    sendFrames(frames);
+    for (EncodedFrame frame : frames) {
+      frame.release();
+    }
+  }
+
+  /**
+   * Drops this connection: a resumed one is taking its place, but the server hasn't noticed this one
+   * is gone yet. The worker closes it on its next sweep; anything sent meanwhile is kept for the
+   * replay.
+   */
+  void requestDisconnect() {
+    if (closed || evictionRequested) {
+      return;
+    }
+    superseded = true;
+    evictionRequested = true;
+    reactor.wakeup();
+  }
+
+  /** True if this connection is being dropped because a resumed one replaced it. */
+  boolean isSuperseded() {
+    return superseded;
+  }
+
+
+  /**
+   * Encodes a DTO and adds it to the outgoing queue for this client. Encoding happens here, on the
+   * caller's thread, so the selector thread only copies bytes.
    *
    * @param dto The Serializable object (usually a DTO) to send.
    */
   public void send(Serializable dto) {
-    // Must synchronize writeQueue as network listener thread might also check it
-    // (for OP_WRITE).
-    synchronized (writeQueue) {
-      writeQueue.offer(dto);
-      // Tell the server's selector we're interested in writing now.
-      // This is crucial for OP_WRITE to get triggered.
-      server.registerForWrite(this);
+    if (closed && !resumeBuffer.isKeeping()) {
+      return; // Gone (or never connected) for good; don't bother encoding.
+    }
+    List<EncodedFrame> frames;
+    try {
+      frames = EncodedFrame.encode(dto, outboundFormat);
+    } catch (IOException e) {
+      server.logError(
+              "SERIALIZATION_ERROR for client " + playerId + " (" + dto.getClass().getSimpleName() + ")",
+              e);
+      return;
+    }
+    server.getStats().recordEncoded(frames);
+    sendFrames(frames);
+    for (EncodedFrame frame : frames) {
+      frame.release(); // sendFrames took its own references.
     }
   }
 
   /**
-   * Handles reading data from this client's SocketChannel. Implements the state
-   * machine for
-   * length-prefix framing: 1. Read 4 bytes for length. 2. Read 'length' bytes
-   * for the
-   * object data.
-   * 3. Deserialize and process. This method is called by GameServer when its
-   * selector indicates
-   * OP_READ is ready.
-   *
-   * @throws IOException if the client disconnects or a network error occurs.
+   * Adds an already encoded frame to the outgoing queue. Also signals our worker that this channel
+   * now has data to write. Used directly by broadcasts, which encode once for all recipients. The
+   * queue takes its own reference; the caller keeps (and still has to release) theirs.
    */
-  public void handleRead() throws IOException {
-    int bytesRead;
-    // No try-catch here for IOException; GameServer's main loop handles it and
-    // calls cleanupClient.
-    // This method just throws it up.
-
-    if (readingLength) {
-      // Trying to read the 4-byte integer length.
-      bytesRead = channel.read(lengthBuffer);
-      if (bytesRead == -1)
-        throw new IOException("Client disconnected (EOF on length read).");
-      if (bytesRead == 0) return; // Channel not ready, try again later.
-
-      if (!lengthBuffer.hasRemaining()) { // Got all 4 bytes for length.
-        lengthBuffer.flip(); // Prepare for reading from buffer.
-        expectedObjectLength = lengthBuffer.getInt();
-        lengthBuffer.clear(); // Reset for next length.
-
-        // Basic sanity check on object length. Too small, or ridiculously large?
-        if (expectedObjectLength <= 0
-                || expectedObjectLength > NetworkConstants.BUFFER_SIZE * 20) { // Max 160KB object, adjust as
-          // needed.
-          throw new IOException(
-                  "Invalid object length received: " + expectedObjectLength + ". Closing connection.");
-        }
-        readingLength = false; // Next, we'll read the object data.
-        readBuffer.clear(); // Prepare main read buffer.
-        readBuffer.limit(
-                expectedObjectLength); // IMPORTANT: Only read up to this many bytes for
-        // current object.
+  public void sendFrame(EncodedFrame frame) {
+    sendFrames(List.of(frame));
+  }
+
+  /**
+   * Queues all frames of one message (several for a chunked stream), in order. Lock-free and safe
+   * from any thread: the frames go into the inbox and, unless a flush request is already pending,
+   * our worker is asked to flush. Same reference rules as {@link #sendFrame}.
+   */
+  public void sendFrames(List<EncodedFrame> frames) {
+    if (closed || evictionRequested || !channel.isOpen()) {
+      resumeBuffer.late(frames); // Nobody will ever flush it here; kept in case the player resumes.
+      return;
+    }
+    if (queuedBytes.get() >= NetworkConstants.OUTBOUND_HARD_LIMIT_BYTES) {
+      // Hopelessly behind. Stop buffering and let the worker drop the connection.
+      droppedFrames.add(frames.size());
+      resumeBuffer.late(frames);
+      if (!evictionRequested) {
+        evictionRequested = true;
+        server.log("Client " + playerId + " hit the outbound hard limit (" + queuedBytes.get()
+                + " bytes queued). Disconnecting.");
+        reactor.wakeup();
       }
+      return;
     }
+    for (EncodedFrame frame : frames) {
+      // Counted before it's visible, so the worker never takes the depth below zero.
+      queuedBytes.addAndGet(frame.getFrameLength());
+      queuedFrames.incrementAndGet();
+      outboundInbox.offer(frame.retain());
+    }
+    // Closed since the check above: the cleanup may have drained the inbox before our frames got
+    // there, so have the worker (the inbox's only consumer) look once more and give them back.
+    if (writeRequested.compareAndSet(false, true) || closed) {
+      reactor.requestWrite(this);
+    }
+  }
 
-    // If we're not reading length, we must be reading the object data.
-    if (!readingLength) {
-      // Need to check if readBuffer is null, though it's final.
-      // But more importantly, expectedObjectLength should be set.
-      if (expectedObjectLength <= 0) { // Should not happen if logic above is correct
-        throw new IOException(
-                "Internal read state error: trying to read object data but expectedObjectLength is invalid: "
-                        + expectedObjectLength);
+  /**
+   * Moves everything senders have added so far into the write lanes. Coalescing happens here: while
+   * backpressured, a Coalescable frame replaces a queued one with the same key that hasn't started
+   * going out yet. Worker thread only.
+   */
+  private void drainInbox() {
+    EncodedFrame frame;
+    while ((frame = outboundInbox.poll()) != null) {
+      String key = frame.getCoalesceKey();
+      if (key != null && backpressured) {
+        QueuedFrame superseded = coalescable.get(key);
+        if (superseded != null && superseded.view.position() == 0) {
+          (superseded.frame.isBulk() ? bulkQueue : writeQueue).remove(superseded);
+          dequeued(superseded);
+          coalescedFrames++;
+        }
       }
+      QueuedFrame queued = new QueuedFrame(frame, frame.newWriteBuffer());
+      (frame.isBulk() ? bulkQueue : writeQueue).offer(queued);
+      if (key != null) {
+        coalescable.put(key, queued);
+      }
+    }
+  }
 
-      bytesRead = channel.read(readBuffer);
-      if (bytesRead == -1)
-        throw new IOException("Client disconnected (EOF on object data read).");
-      if (bytesRead == 0) return; // Channel not ready, try again later.
-
-      if (!readBuffer.hasRemaining()) { // Got all 'expectedObjectLength' bytes.
-        readBuffer.flip(); // Prepare for reading from buffer.
-        byte[] objectData = new byte[expectedObjectLength];
-        readBuffer.get(objectData); // Copy bytes from buffer to array.
-
-        try {
-          Object receivedObject = SerializationUtils.deserialize(objectData);
-          // Message fully read and deserialized. Pass it to GameServer for
-          // processing/routing.
-          server.processClientMessage(this, receivedObject);
-        } catch (IOException e) { // Catches JsonProcessingException and other IO issues from deserialize
-          // This is bad. Client sent something we can't parse, or it was corrupted.
-          server.logError(
-                  "DESERIALIZATION_ERROR from client "
-                          + playerId
-                          + ": "
-                          + e.getMessage(),
-                  e);
-          // Propagate as IOException to trigger cleanup.
-          throw new IOException("Deserialization failed: " + e.getMessage(), e);
-        }
+  /** Bookkeeping for a frame leaving the queue (written or coalesced). Worker thread only. */
+  private void dequeued(QueuedFrame queued) {
+    String key = queued.frame.getCoalesceKey();
+    if (key != null) {
+      coalescable.remove(key, queued);
+    }
+    release(queued.frame);
+  }
+
+  private void release(EncodedFrame frame) {
+    queuedBytes.addAndGet(-frame.getFrameLength());
+    queuedFrames.decrementAndGet();
+    frame.release();
+  }
+
+  /**
+   * Flips the backpressure flag at the water marks (hysteresis between high and low) and tells our
+   * game session, so it can ease off. Worker thread only.
+   */
+  private void updateBackpressure() {
+    long bytes = queuedBytes.get();
+    int frames = queuedFrames.get();
+    boolean changed = false;
+    if (!backpressured
+            && (bytes > NetworkConstants.OUTBOUND_HIGH_WATER_BYTES
+            || frames > NetworkConstants.OUTBOUND_HIGH_WATER_FRAMES)) {
+      backpressuredSinceMillis = System.currentTimeMillis();
+      backpressured = true;
+      changed = true;
+    } else if (backpressured
+            && bytes <= NetworkConstants.OUTBOUND_LOW_WATER_BYTES
+            && frames <= NetworkConstants.OUTBOUND_LOW_WATER_FRAMES) {
+      backpressured = false;
+      changed = true;
+    }
+    GameSession session = associatedGameSession;
+    if (changed && session != null) {
+      boolean nowBackpressured = backpressured;
+      // Posted, not called: game state belongs to the session's mailbox, not the worker.
+      session.getMailbox().execute(() -> session.onPlayerBackpressure(this, nowBackpressured));
+    }
+  }
 
-        // Reset state for the next message.
-        readingLength = true;
-        expectedObjectLength = -1;
-        readBuffer.clear();
-        // Actually, limit is reset when new length is known.
+  /**
+   * Handles reading data from this client's SocketChannel. Reads whatever the socket has, then
+   * decodes every complete frame (with the codec and compressor named in its flags) straight from the read buffer and passes it to GameServer for
+   * routing. This method is called by the owning WorkerReactor when its selector indicates OP_READ
+   * is ready.
+   *
+   * @throws IOException if the client disconnects or a network error occurs.
+   */
+  public void handleRead() throws IOException {
+    // No try-catch here for IOException; the worker's loop handles it and calls cleanupClient.
+    int frames =
+            frameDecoder.readFrom(channel, this::onFrame, NetworkConstants.MAX_READS_PER_EVENT);
+    server.getStats().recordRead(frames);
+  }
+
+  private void onFrame(ByteBuffer frameBody) throws IOException {
+    if (WireCodecs.isChunk(frameBody)) {
+      frameBody.get(); // Flags.
+      // Throws (and so drops the client) on a broken stream: bad sequence, too big, too many.
+      try (ChunkReassembler.CompletedStream stream = chunkReassembler.accept(frameBody)) {
+        if (stream != null) {
+          dispatch(stream.body());
+        }
       }
+      return;
     }
+    dispatch(frameBody);
   }
 
+  private void dispatch(ByteBuffer frameBody) throws IOException {
+    Object receivedObject;
+    try {
+      receivedObject = WireCodecs.decodeFrameBody(frameBody);
+    } catch (IOException e) { // Catches JsonProcessingException and other IO issues from deserialize
+      // This is bad. Client sent something we can't parse, or it was corrupted.
+      server.logError("DESERIALIZATION_ERROR from client " + playerId + ": " + e.getMessage(), e);
+      // Propagate as IOException to trigger cleanup.
+      throw new IOException("Deserialization failed: " + e.getMessage(), e);
+    }
+    // Message fully read and deserialized. Pass it to GameServer for routing.
+    server.processClientMessage(this, receivedObject);
+  }
 
   /**
-   * Handles writing DTOs from the writeQueue to the client's SocketChannel. This
-   * method is called
-   * by GameServer when its selector indicates OP_WRITE is ready. It also uses
-   * length-prefix
-   * framing.
+   * Flushes queued frames to the client's SocketChannel. Called by the owning WorkerReactor when its
+   * selector indicates OP_WRITE is ready, and when senders asked for a flush. Drains the inbox, then
+   * hands up to MAX_FRAMES_PER_WRITE frames to a single gathering write: gameplay frames first, then
+   * at most BULK_FRAMES_PER_WRITE stream chunks. Fully written frames are released; a partially
+   * written one stays at the head of its lane with its position intact and goes first next time.
+   * OP_WRITE interest is kept exactly while something is left over.
    *
    * @throws IOException if a network error occurs.
    */
   public void handleWrite() throws IOException {
-    // Synchronize because 'send' method also modifies this queue.
-    synchronized (writeQueue) {
-      while (!writeQueue.isEmpty()) {
-        // Peek first. Only remove (poll) if fully sent.
-        Serializable dtoToSend = writeQueue.peek();
-        if (dtoToSend == null) { // Should not happen if !isEmpty() is true, but defensive.
-          writeQueue.poll(); // Remove the null.
-          continue;
+    if (closed) {
+      releaseLateFrames(); // A sender raced the cleanup; give its frames back.
+      return;
+    }
+    // Cleared before draining: a send that lands after this point raises a fresh request.
+    writeRequested.set(false);
+    drainInbox();
+    ServerStats stats = server.getStats();
+    try {
+      while (!writeQueue.isEmpty() || !bulkQueue.isEmpty()) {
+        int count = gather();
+
+        long written = channel.write(gatherArray, 0, count);
+
+        // Pop (and release) every frame this call finished, in the order they were gathered.
+        int completed = 0;
+        while (completed < count && !gatherArray[completed].hasRemaining()) {
+          QueuedFrame done = gatherFrames[completed];
+          (done.frame.isBulk() ? bulkQueue : writeQueue).poll();
+          resumeBuffer.written(done.frame);
+          dequeued(done);
+          completed++;
         }
-
-        // Current simple model: serialize and try to write whole DTO (length + data)
-        // each time.
-        // This is okay if channel usually accepts all bytes or if DTOs are small.
-        byte[] objectBytes = SerializationUtils.serialize(dtoToSend); // Serialize DTO to
-        // bytes.
-        int length = objectBytes.length;
-
-        // Prepare a new ByteBuffer for each DTO. Inefficient for many small DTOs.
-        // Could use a single, larger, reusable session write buffer.
-        ByteBuffer buffer = ByteBuffer.allocate(4 + length); // 4 bytes for int length.
-        buffer.putInt(length);
-        buffer.put(objectBytes);
-        buffer.flip(); // Ready for writing to channel.
-
-        while (buffer.hasRemaining()) {
-          int written = channel.write(buffer);
-          if (written == 0) {
-            // Socket send buffer is full. Can't write more now.
-            // The DTO is still at the head of the queue.
-            // OP_WRITE will be triggered again by selector when channel is ready.
-            // GameServer MUST ensure OP_WRITE is still registered.
-            return; // Exit handleWrite, will try again later.
-          }
+        // Only the first unfinished buffer can have been partly written.
+        bulkHeadPartial = completed < count
+                && gatherFrames[completed].frame.isBulk()
+                && gatherArray[completed].position() > 0;
+        Arrays.fill(gatherArray, 0, count, null);
+        Arrays.fill(gatherFrames, 0, count, null);
+        writeCalls++;
+        bytesFlushed += written;
+        stats.recordWrite(written, completed);
+
+        if (completed < count) {
+          // Socket send buffer is full. The head frame keeps its position; OP_WRITE brings us back
+          // right here once there's room.
+          reactor.registerForWrite(this);
+          return;
         }
+      }
+    } finally {
+      updateBackpressure();
+    }
 
-        // If we reach here, the entire current DTO (length + data) was written
-        // successfully.
-        writeQueue.poll(); // Remove it from the queue.
+    // Queue is empty, we don't need OP_WRITE interest anymore for now.
+    reactor.unregisterForWrite(this);
+  }
+
+  /** Fills the gather arrays for one write. Worker thread only: it alone drains the inbox into the lanes. */
+  private int gather() {
+    int count = 0;
+    int bulkAllowance = NetworkConstants.BULK_FRAMES_PER_WRITE;
+    if (bulkHeadPartial) {
+      count = add(bulkQueue.peek(), count);
+      bulkAllowance--;
+    }
+    for (QueuedFrame queued : writeQueue) {
+      if (count == gatherArray.length) {
+        return count;
+      }
+      count = add(queued, count);
+    }
+    for (QueuedFrame queued : bulkQueue) {
+      if (count == gatherArray.length || bulkAllowance <= 0) {
+        break;
       }
+      if (queued == bulkQueue.peek() && bulkHeadPartial) {
+        continue; // Already first in line.
+      }
+      count = add(queued, count);
+      bulkAllowance--;
+    }
+    return count;
+  }
+
+  private int add(QueuedFrame queued, int count) {
+    gatherArray[count] = queued.view;
+    gatherFrames[count] = queued;
+    return count + 1;
+  }
+
+  /**
+   * True once this client should be disconnected for not keeping up: it hit the hard limit, or it
+   * stayed above the high-water mark for longer than the grace period. Checked by the worker.
+   */
+  boolean shouldEvict(long nowMillis) {
+    return evictionRequested
+            || (backpressured
+            && nowMillis - backpressuredSinceMillis > NetworkConstants.SLOW_CONSUMER_GRACE_MS);
+  }
+
+  /** Over the high-water mark (and not yet drained below the low one). */
+  public boolean isBackpressured() {
+    return backpressured;
+  }
+
+  /** Bytes waiting to be written to this client. */
+  public long getQueuedBytes() {
+    return queuedBytes.get();
+  }
+
+  /** Frames waiting to be written to this client, both lanes plus the inbox. */
+  public int getQueuedFrames() {
+    return queuedFrames.get();
+  }
+
+  public long getCoalescedFrames() {
+    return coalescedFrames;
+  }
+
+  public long getDroppedFrames() {
+    return droppedFrames.sum();
+  }
+
+  /**
+   * Counts frames we were never given because we were too far behind. Spectators get this instead
+   * of a deeper queue: they miss events rather than hold up the game.
+   */
+  public void recordSkippedFrames(int count) {
+    droppedFrames.add(count);
+  }
+
+  /**
+   * Drops everything still queued and returns the frame and read buffers. Called on the worker
+   * thread once the client is gone. The resume buffer keeps what never went out, in queue order,
+   * then is sealed. A send that passed its closed check just before this can still land in the inbox
+   * afterwards; it asks the worker for a flush, which ends in {@link #releaseLateFrames}.
+   */
+  void releaseQueuedFrames() {
+    closed = true;
+    writeRequested.set(false); // Before draining, same as handleWrite().
+    QueuedFrame queued;
+    while ((queued = writeQueue.poll()) != null) {
+      resumeBuffer.unsent(queued.frame);
+      dequeued(queued);
+    }
+    while ((queued = bulkQueue.poll()) != null) {
+      resumeBuffer.unsent(queued.frame);
+      dequeued(queued);
+    }
+    EncodedFrame frame;
+    while ((frame = outboundInbox.poll()) != null) {
+      resumeBuffer.unsent(frame);
+      release(frame);
+    }
+    frameDecoder.release();
+    chunkReassembler.close();
+    resumeBuffer.seal();
+  }
+
+  /** Gives back frames that reached the inbox after the cleanup drained it. Worker thread only. */
+  private void releaseLateFrames() {
+    writeRequested.set(false);
+    EncodedFrame frame;
+    while ((frame = outboundInbox.poll()) != null) {
+      resumeBuffer.late(List.of(frame));
+      release(frame);
+    }
+  }
+
+  public long getWriteCalls() {
+    return writeCalls;
+  }
+
+  public long getBytesFlushed() {
+    return bytesFlushed;
+  }
+
+  /** A frame in this client's queue, with this client's own view of its bytes. */
+  private static final class QueuedFrame {
+    final EncodedFrame frame;
+    final ByteBuffer view;
 
-      // If queue becomes empty, we don't need OP_WRITE interest anymore for now.
-      server.unregisterForWrite(this);
+    QueuedFrame(EncodedFrame frame, ByteBuffer view) {
+      this.frame = frame;
+      this.view = view;
     }
   }
 
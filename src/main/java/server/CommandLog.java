@@ -0,0 +1,415 @@
+package server;
+
+import common.SerializationUtils;
+import common.commands.Command;
+import common.dto.GameStateData;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * CommandLog One session's write-ahead log, plus its latest snapshot. The session appends a record
+ * for everything that changes its state and isn't already in the last snapshot: accepted commands,
+ * players joining and leaving, NPC moves. After a restart the session is rebuilt from the snapshot
+ * and the records after it (see {@link SessionStore#recover()}).
+ *
+ * <p>Appending only copies the record into a memory buffer; the store's flusher thread writes and
+ * fsyncs it a few milliseconds later, together with whatever else arrived meanwhile (group commit).
+ * So a command costs the session an encode and a copy, never a disk wait, and a crash loses at most
+ * the last commit window.
+ *
+ * <p>Record layout, big-endian: {@code [int payloadLength][int crc32][long seq][byte type][payload]},
+ * the CRC covering seq, type and payload. A torn record at the end (the crash hit mid-write) fails
+ * its length or CRC check and recovery stops there. Sequence numbers keep counting across
+ * snapshots, so records the snapshot already covers are skipped even if the log wasn't truncated
+ * yet when the server died.
+ *
+ * <p>Appends may come from any thread (they're under the log's own lock); the file itself is only
+ * touched by the flusher.
+ */
+final class CommandLog {
+
+  private static final Logger logger = LoggerFactory.getLogger(CommandLog.class);
+
+  // Record types.
+  static final byte COMMAND = 1; // [UTF playerId][command, as the JSON wire codec encodes it]
+  static final byte JOIN = 2; // [UTF playerId][UTF displayName][UTF resumeToken, optional]
+  static final byte LEAVE = 3; // [UTF playerId]
+  static final byte NPC_MOVES = 4; // [short count] then per move [short npcIndex][int roomId]
+
+  static final int RECORD_HEADER_BYTES = 4 + 4 + 8 + 1;
+  // Anything claiming to be bigger than this is garbage, not a record.
+  private static final int MAX_RECORD_PAYLOAD = 16 * 1024 * 1024;
+
+  private final SessionStore store;
+  private final String sessionId;
+  private final Path logFile;
+  private final Path snapshotFile;
+
+  private final Object lock = new Object();
+  // Guarded by lock: records not yet handed to the flusher, and a snapshot waiting to be written.
+  private byte[] buffer = new byte[4096];
+  private int size;
+  private byte[] spare; // The other half of the double buffer, while it isn't being written.
+  private byte[] pendingSnapshot;
+  private long sequence; // Last sequence number handed out.
+  private int recordsSinceSnapshot;
+  private boolean queued; // Already in the flusher's queue.
+  private boolean discarded; // Session ended; delete the files.
+  private final CRC32 crc = new CRC32();
+
+  private FileChannel channel; // Flusher thread only.
+
+  CommandLog(SessionStore store, String sessionId, long lastSequence) {
+    this.store = store;
+    this.sessionId = sessionId;
+    this.logFile = store.logFileOf(sessionId);
+    this.snapshotFile = store.snapshotFileOf(sessionId);
+    this.sequence = lastSequence;
+  }
+
+  String getSessionId() {
+    return sessionId;
+  }
+
+  // --- Appending (any thread) ---
+
+  void appendCommand(String playerId, Command command) {
+    byte[] encoded;
+    try {
+      encoded = SerializationUtils.serialize((Serializable) command);
+    } catch (IOException e) {
+      logger.error("[LOG:{}] Couldn't encode {} for the command log; it won't survive a restart.",
+          shortId(), command.getClass().getSimpleName(), e);
+      return;
+    }
+    byte[] id = playerId.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer payload = ByteBuffer.allocate(2 + id.length + encoded.length);
+    payload.putShort((short) id.length).put(id).put(encoded);
+    append(COMMAND, payload.array());
+  }
+
+  void appendJoin(String playerId, String displayName, String resumeToken) {
+    append(JOIN, utf(playerId, displayName, resumeToken));
+  }
+
+  void appendLeave(String playerId) {
+    append(LEAVE, utf(playerId));
+  }
+
+  /** One NPC tick's moves: which NPC (by simulation index) ended up in which room (by graph id). */
+  void appendNpcMoves(int[] npcIndexes, int[] roomIds, int count) {
+    ByteBuffer payload = ByteBuffer.allocate(2 + count * 6);
+    payload.putShort((short) count);
+    for (int i = 0; i < count; i++) {
+      payload.putShort((short) npcIndexes[i]).putInt(roomIds[i]);
+    }
+    append(NPC_MOVES, payload.array());
+  }
+
+  private void append(byte type, byte[] payload) {
+    synchronized (lock) {
+      if (discarded) {
+        return;
+      }
+      long seq = ++sequence;
+      crc.reset();
+      crc.update(ByteBuffer.allocate(9).putLong(seq).put(type).array());
+      crc.update(payload);
+      ensureCapacity(RECORD_HEADER_BYTES + payload.length);
+      ByteBuffer out = ByteBuffer.wrap(buffer, size, RECORD_HEADER_BYTES + payload.length);
+      out.putInt(payload.length).putInt((int) crc.getValue()).putLong(seq).put(type).put(payload);
+      size += RECORD_HEADER_BYTES + payload.length;
+      recordsSinceSnapshot++;
+      enqueue();
+    }
+    store.recordAppended(RECORD_HEADER_BYTES + payload.length);
+  }
+
+  /** True once enough records have piled up since the last snapshot that it's time for another. */
+  boolean isSnapshotDue() {
+    synchronized (lock) {
+      return recordsSinceSnapshot >= store.getSnapshotEveryRecords();
+    }
+  }
+
+  /**
+   * Replaces the log with a snapshot of the session as it is now. The caller must make sure nothing
+   * changes the session while the state is captured and this runs (the session calls it on its
+   * mailbox, under its lock). Records still in memory are dropped: the snapshot covers them.
+   */
+  void snapshot(GameStateData state) {
+    synchronized (lock) {
+      if (discarded) {
+        return;
+      }
+      state.setLogSequence(sequence);
+      byte[] encoded;
+      try {
+        encoded = SerializationUtils.serialize(state);
+      } catch (IOException e) {
+        logger.error("[LOG:{}] Couldn't encode a snapshot; keeping the log as it is.", shortId(), e);
+        return;
+      }
+      pendingSnapshot = encoded;
+      size = 0;
+      recordsSinceSnapshot = 0;
+      enqueue();
+    }
+  }
+
+  /** The session is over: forget it, files and all (unless the store is shutting down). */
+  void discard() {
+    synchronized (lock) {
+      if (discarded) {
+        return;
+      }
+      discarded = true;
+      size = 0;
+      pendingSnapshot = null;
+      enqueue();
+    }
+  }
+
+  private void enqueue() {
+    if (!queued) {
+      queued = true;
+      store.markDirty(this);
+    }
+  }
+
+  private void ensureCapacity(int extra) {
+    if (size + extra > buffer.length) {
+      byte[] bigger = new byte[Math.max(buffer.length * 2, size + extra)];
+      System.arraycopy(buffer, 0, bigger, 0, size);
+      buffer = bigger;
+    }
+  }
+
+  // --- Flushing (flusher thread) ---
+
+  /**
+   * Writes whatever has been appended (and a pending snapshot first, if there is one), then fsyncs.
+   *
+   * @return Bytes written to the log.
+   */
+  int flush(boolean deleteIfDiscarded) throws IOException {
+    byte[] data;
+    int length;
+    byte[] snapshot;
+    boolean gone;
+    synchronized (lock) {
+      queued = false;
+      gone = discarded;
+      snapshot = pendingSnapshot;
+      pendingSnapshot = null;
+      data = buffer;
+      length = size;
+      buffer = spare != null ? spare : new byte[data.length];
+      spare = null;
+      size = 0;
+    }
+    if (gone) {
+      close();
+      if (deleteIfDiscarded) {
+        Files.deleteIfExists(logFile);
+        Files.deleteIfExists(snapshotFile);
+      }
+      return 0;
+    }
+    if (channel == null) {
+      channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+          StandardOpenOption.APPEND);
+    }
+    if (snapshot != null) {
+      writeSnapshot(snapshot);
+      channel.truncate(0); // Everything in it is in the snapshot now.
+    }
+    ByteBuffer out = ByteBuffer.wrap(data, 0, length);
+    while (out.hasRemaining()) {
+      channel.write(out);
+    }
+    if (snapshot != null || length > 0) {
+      channel.force(false);
+    }
+    synchronized (lock) {
+      if (spare == null && data.length <= 64 * 1024) {
+        spare = data; // Reuse it next time, unless a burst made it huge.
+      }
+    }
+    return length;
+  }
+
+  /** Snapshot to a temp file, fsync, then rename over the old one, so there's always a whole one. */
+  private void writeSnapshot(byte[] encoded) throws IOException {
+    Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+    CRC32 check = new CRC32();
+    check.update(encoded);
+    ByteBuffer header = ByteBuffer.allocate(8).putInt(encoded.length).putInt((int) check.getValue());
+    header.flip();
+    try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer body = ByteBuffer.wrap(encoded);
+      while (header.hasRemaining() || body.hasRemaining()) {
+        out.write(new ByteBuffer[] {header, body});
+      }
+      out.force(true);
+    }
+    Files.move(temp, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    store.syncDirectory();
+  }
+
+  void close() {
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        logger.warn("[LOG:{}] Error closing command log.", shortId(), e);
+      }
+      channel = null;
+    }
+  }
+
+  private String shortId() {
+    return sessionId.substring(0, Math.min(8, sessionId.length()));
+  }
+
+  private static byte[] utf(String... values) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+      DataOutputStream out = new DataOutputStream(bytes);
+      for (String value : values) {
+        out.writeUTF(value != null ? value : "");
+      }
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new IllegalStateException(e); // Not with a byte array underneath.
+    }
+  }
+
+  // --- Reading (recovery) ---
+
+  /** One record read back from a log. */
+  record Entry(long sequence, byte type, byte[] payload) {
+
+    /** For COMMAND records. */
+    String playerId() {
+      ByteBuffer in = ByteBuffer.wrap(payload);
+      byte[] id = new byte[in.getShort() & 0xFFFF];
+      in.get(id);
+      return new String(id, StandardCharsets.UTF_8);
+    }
+
+    /** For COMMAND records. */
+    Command command() throws IOException {
+      int idLength = ByteBuffer.wrap(payload).getShort() & 0xFFFF;
+      int offset = 2 + idLength;
+      Object decoded = SerializationUtils.getMapper().readValue(payload, offset, payload.length - offset, Object.class);
+      if (!(decoded instanceof Command command)) {
+        throw new IOException("Logged command decoded to " + (decoded == null ? "null" : decoded.getClass().getName()));
+      }
+      return command;
+    }
+
+    /** For NPC_MOVES records: npc index, room id, npc index, room id, ... */
+    int[] npcMoves() {
+      ByteBuffer in = ByteBuffer.wrap(payload);
+      int count = in.getShort() & 0xFFFF;
+      int[] moves = new int[count * 2];
+      for (int i = 0; i < count; i++) {
+        moves[2 * i] = in.getShort();
+        moves[2 * i + 1] = in.getInt();
+      }
+      return moves;
+    }
+
+    /** For JOIN and LEAVE records: the UTF strings in the payload. */
+    String[] strings() throws IOException {
+      DataInputStream in = new DataInputStream(new java.io.ByteArrayInputStream(payload));
+      List<String> values = new ArrayList<>(2);
+      while (in.available() > 0) {
+        values.add(in.readUTF());
+      }
+      return values.toArray(new String[0]);
+    }
+  }
+
+  /**
+   * Reads every intact record of a log file, in order, and cuts off a torn tail so appends can carry
+   * on from the last good record.
+   */
+  static List<Entry> read(Path file) throws IOException {
+    List<Entry> entries = new ArrayList<>();
+    if (!Files.exists(file)) {
+      return entries;
+    }
+    // Logs are kept short by snapshots, so reading the whole file in one go is fine.
+    ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+    CRC32 check = new CRC32();
+    int good = 0;
+    while (data.remaining() >= RECORD_HEADER_BYTES) {
+      int length = data.getInt();
+      int expectedCrc = data.getInt();
+      if (length < 0 || length > MAX_RECORD_PAYLOAD || data.remaining() < 9 + length) {
+        break;
+      }
+      check.reset();
+      check.update(data.array(), data.position(), 9 + length);
+      if ((int) check.getValue() != expectedCrc) {
+        break;
+      }
+      long seq = data.getLong();
+      byte type = data.get();
+      byte[] payload = new byte[length];
+      data.get(payload);
+      entries.add(new Entry(seq, type, payload));
+      good = data.position();
+    }
+    if (good < data.capacity()) {
+      logger.warn("Command log {} has a torn tail ({} of {} bytes intact); truncating.",
+          file.getFileName(), good, data.capacity());
+      try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        out.truncate(good);
+        out.force(false);
+      }
+    }
+    return entries;
+  }
+
+  /** Reads a snapshot file back, or null if it's missing or damaged. */
+  static GameStateData readSnapshot(Path file) throws IOException {
+    if (!Files.exists(file)) {
+      return null;
+    }
+    ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+    if (data.remaining() < 8) {
+      return null;
+    }
+    int length = data.getInt();
+    int expectedCrc = data.getInt();
+    if (length < 0 || length != data.remaining()) {
+      return null;
+    }
+    CRC32 check = new CRC32();
+    check.update(data.array(), 8, length);
+    if ((int) check.getValue() != expectedCrc) {
+      return null;
+    }
+    Object decoded = SerializationUtils.getMapper().readValue(data.array(), 8, length, Object.class);
+    return decoded instanceof GameStateData state ? state : null;
+  }
+}
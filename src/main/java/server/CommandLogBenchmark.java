@@ -0,0 +1,137 @@
+package server;
+
+import common.NetworkConstants;
+import common.commands.Command;
+import common.commands.MoveCommand;
+import common.commands.QuestionCommand;
+import common.dto.GameStateData;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * CommandLogBenchmark What the command log costs: the time a session spends appending one command
+ * (what a player's command waits for; the fsync isn't on that path), how many records each fsync
+ * ends up carrying, and how long recovery takes as a log gets longer. Run it directly:
+ *
+ * <pre>
+ *   java -cp target/classes:... server.CommandLogBenchmark [commands] [sessions] [dir]
+ * </pre>
+ *
+ * Writes into a temp directory (or {@code dir}) and deletes it afterwards. Point it at the disk the
+ * server will use; a tmpfs makes the fsync numbers meaningless. Not a JMH harness.
+ */
+public final class CommandLogBenchmark {
+
+  private CommandLogBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    int commands = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+    int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+    Path dir = args.length > 2 ? Files.createDirectories(Path.of(args[2])) : Files.createTempDirectory("command-log-bench");
+    try {
+      System.out.printf("%-34s %12s %12s %14s%n", "append", "ns/command", "fsyncs", "records/fsync");
+      appendOverhead(dir.resolve("append-1"), commands, 1);
+      appendOverhead(dir.resolve("append-n"), commands, sessions);
+
+      System.out.printf("%n%-34s %12s %12s %14s%n", "recovery (read + CRC + decode)", "log bytes", "ms", "us/record");
+      for (int length : new int[] {1_000, 10_000, 100_000}) {
+        recovery(dir.resolve("recover-" + length), length);
+      }
+    } finally {
+      deleteTree(dir);
+    }
+  }
+
+  /**
+   * {@code commands} appends spread over {@code sessions} sessions, one thread each, the way their
+   * mailboxes would make them. The time is what the appending threads spent; the flusher keeps
+   * writing in the background meanwhile.
+   */
+  private static void appendOverhead(Path dir, int commands, int sessions) throws Exception {
+    Command[] sample = {new MoveCommand("north"), new QuestionCommand("Lady Ashcombe"), new MoveCommand("east")};
+    warmUp(dir.resolveSibling(dir.getFileName() + "-warmup"), sample);
+    SessionStore store = new SessionStore(dir, NetworkConstants.COMMAND_LOG_GROUP_COMMIT_MS, Integer.MAX_VALUE);
+    List<CommandLog> logs = new ArrayList<>();
+    for (int s = 0; s < sessions; s++) {
+      logs.add(store.open("bench-" + s, 0));
+    }
+    int perSession = commands / sessions;
+    List<Thread> threads = new ArrayList<>();
+    long start = System.nanoTime();
+    for (int s = 0; s < sessions; s++) {
+      CommandLog log = logs.get(s);
+      String playerId = "player-" + s;
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < perSession; i++) {
+          log.appendCommand(playerId, sample[i % sample.length]);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    double nsPerCommand = (System.nanoTime() - start) / (double) perSession; // Per thread, they run side by side.
+    store.close(); // Waits for the last batch.
+    System.out.printf("%-34s %12.0f %12d %14.1f%n", sessions + " session(s), 1 thread each", nsPerCommand,
+        store.getFsyncs(), store.getFsyncs() > 0 ? store.getRecordsAppended() / (double) store.getFsyncs() : 0.0);
+  }
+
+  private static void warmUp(Path dir, Command[] sample) throws Exception {
+    SessionStore store = new SessionStore(dir, 0, Integer.MAX_VALUE);
+    CommandLog log = store.open("warmup", 0);
+    for (int i = 0; i < 50_000; i++) {
+      log.appendCommand("player", sample[i % sample.length]);
+    }
+    store.close();
+  }
+
+  /** Writes a log of {@code length} commands after a snapshot, then times reading it back. */
+  private static void recovery(Path dir, int length) throws Exception {
+    SessionStore store = new SessionStore(dir, 0, Integer.MAX_VALUE);
+    CommandLog log = store.open("recover", 0);
+    GameStateData snapshot = new GameStateData();
+    snapshot.setSessionId("recover");
+    log.snapshot(snapshot);
+    for (int i = 0; i < length; i++) {
+      log.appendCommand("player-" + (i & 3), i % 2 == 0 ? new MoveCommand("north") : new QuestionCommand("Lady Ashcombe"));
+    }
+    store.close();
+
+    Path file = store.logFileOf("recover");
+    long bytes = Files.size(file);
+    long best = Long.MAX_VALUE;
+    long sink = 0;
+    for (int round = 0; round < 5; round++) { // First rounds warm up; keep the best.
+      SessionStore reader = new SessionStore(dir, 0, Integer.MAX_VALUE);
+      long start = System.nanoTime();
+      SessionStore.Recovered recovered = reader.recover().get(0);
+      for (CommandLog.Entry entry : recovered.tail()) {
+        sink += entry.command().hashCode() & 1;
+      }
+      best = Math.min(best, System.nanoTime() - start);
+      reader.close();
+      if (recovered.tail().size() != length) {
+        throw new IllegalStateException("Recovered " + recovered.tail().size() + " of " + length + " records");
+      }
+    }
+    if (sink == 42) {
+      System.out.print(""); // Keeps the JIT from dropping the loop.
+    }
+    System.out.printf("%-34s %12d %12.1f %14.2f%n", length + " records", bytes, best / 1e6, best / 1e3 / length);
+  }
+
+  private static void deleteTree(Path dir) throws IOException {
+    try (Stream<Path> files = Files.walk(dir)) {
+      for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(path);
+      }
+    }
+  }
+}
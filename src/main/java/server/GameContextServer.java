@@ -22,20 +22,26 @@ public class GameContextServer implements GameContext, GameActionContext {
   private static final Logger logger = LoggerFactory.getLogger(GameContextServer.class);
 
   private final GameSession gameSession; // Reference back to the session for communication
-  // Player specific state - managed by player IDs
-  private Detective player1Detective;
-  private Detective player2Detective;
-  private String player1Id; // Host
-  private String player2Id; // Guest
+  // Player specific state - one Detective per player, keyed by player ID. The host is slot 0.
+  private final PlayerRoster<Detective> detectives;
 
   // Shared game state
   private Map<String, Room> rooms;
   private List<Suspect> suspects;
+  // Who is in which room, updated by every setCurrentRoom. Built per case in loadWorld().
+  private RoomOccupancy occupancy;
+  private RoomGraph roomGraph;
+  // Moves suspects and Watson on the session's NPC tick. Created when the case starts.
+  private NpcSimulation npcSimulation;
+  // Who hears about room-local events (moves, NPCs wandering). Built with the occupancy index.
+  private InterestManager interest;
   private DoctorWatson watson;
   private Journal<JournalEntryDTO> journal;
   private TaskList taskList;
   private boolean caseStarted = false;
   private final Random random = new Random();
+  // Watson's entry in a snapshot's NPC rooms (suspects are keyed by name).
+  private static final String WATSON_STATE_KEY = "@watson";
 
   // Session-wide tracking for multiplayer mechanics
   private Set<String> deducedObjectsInSession; // Names of objects deduced by anyone in this session
@@ -54,64 +60,67 @@ public class GameContextServer implements GameContext, GameActionContext {
 
 
   public GameContextServer(
-          GameSession gameSession, CaseData selectedCase, String p1Id, String p2Id) {
+          GameSession gameSession, CaseData selectedCase, String hostPlayerId, int maxPlayers) {
     this.gameSession = Objects.requireNonNull(gameSession, "GameSession cannot be null");
     this.selectedCase = Objects.requireNonNull(selectedCase, "SelectedCase (CaseData) cannot be null");
-    // Player IDs can be null initially if P2 hasn't joined when context is first created by
-    // GameSession constructor
-    this.player1Id = p1Id;
-    this.player2Id = p2Id;
+    this.detectives = new PlayerRoster<>(maxPlayers);
 
     resetForNewCaseLoad(); // Initialize all collections and states
 
-    if (p1Id != null) this.player1Detective = new Detective(p1Id);
-    if (p2Id != null) this.player2Detective = new Detective(p2Id);
+    if (hostPlayerId != null) detectives.add(hostPlayerId, newDetective(hostPlayerId));
     this.taskStates = new HashMap<>();
   }
 
-  // Called by GameSession when P2 joins or if context needs re-init with both players
-  public void setPlayerIds(String p1Id, String p2Id) {
-    this.player1Id = p1Id;
-    this.player2Id = p2Id;
-
-    if (p1Id != null) {
-      if (this.player1Detective == null || !this.player1Detective.getPlayerId().equals(p1Id)) {
-        this.player1Detective = new Detective(p1Id);
-      }
-    } else {
-      this.player1Detective = null;
+  /**
+   * Called by GameSession when a guest joins. Their detective starts in the case's starting room,
+   * the same as everyone else.
+   */
+  public void addPlayer(String playerId) {
+    if (playerId == null || detectives.contains(playerId)) {
+      return;
     }
-
-    if (p2Id != null) {
-      if (this.player2Detective == null || !this.player2Detective.getPlayerId().equals(p2Id)) {
-        this.player2Detective = new Detective(p2Id);
-      }
-      // *** ADDED/MODIFIED: Ensure P2's room is set if game is ready ***
-      if (this.selectedCase != null
-              && this.selectedCase.getStartingRoom() != null
-              && this.player2Detective != null) {
-        Room startingRoom = getRoomByName(this.selectedCase.getStartingRoom());
-        if (startingRoom != null) {
-          this.player2Detective.setCurrentRoom(startingRoom);
-          logGameMessage(
-                  "Player 2 (" + p2Id + ") position set to starting room: " + startingRoom.getName());
-        } else {
-          logGameMessage(
-                  "Warning: Could not set starting room for Player 2 ("
-                          + p2Id
-                          + ") upon ID set - starting room not found.");
-        }
+    Detective detective = newDetective(playerId);
+    if (!detectives.add(playerId, detective)) {
+      logGameMessage("Warning: No room for player " + playerId + "; all " + detectives.capacity() + " detective slots are taken.");
+      dropDetective(detective);
+      return;
+    }
+    if (this.selectedCase.getStartingRoom() != null) {
+      Room startingRoom = getRoomByName(this.selectedCase.getStartingRoom());
+      if (startingRoom != null) {
+        detective.setCurrentRoom(startingRoom);
+        logGameMessage(
+                "Player " + playerId + " position set to starting room: " + startingRoom.getName());
+      } else {
+        logGameMessage(
+                "Warning: Could not set starting room for player "
+                        + playerId
+                        + " on join - starting room not found.");
       }
-    } else {
-      this.player2Detective = null;
     }
-    // If initializePlayerStartingState() is robust enough to handle being called multiple times
-    // or if it checks if players already have rooms, you could call it here.
-    // For now, direct setting is more targeted.
-    // initializePlayerStartingState(); // Re-evaluate if this is needed here
+  }
+
+  /** Called by GameSession when a guest leaves; their detective leaves the occupancy index too. */
+  public void removePlayer(String playerId) {
+    dropDetective(detectives.remove(playerId));
+  }
+  /** A detective whose moves are tracked in the occupancy index (once there is one). */
+  private Detective newDetective(String playerId) {
+    Detective detective = new Detective(playerId);
+    detective.setOccupancy(occupancy);
+    return detective;
+  }
+
+  private void dropDetective(Detective detective) {
+    if (detective != null) detective.setOccupancy(null);
   }
 
   public void resetForNewCaseLoad() {
+    for (Detective detective : detectives) detective.setOccupancy(null);
+    this.occupancy = null;
+    this.roomGraph = null;
+    this.npcSimulation = null;
+    this.interest = null;
     this.rooms = new HashMap<>();
     this.suspects = new ArrayList<>();
     this.journal = new Journal<>();
@@ -137,8 +146,24 @@ public class GameContextServer implements GameContext, GameActionContext {
               "Warning: No Watson hints found in selected case '" + selectedCase.getTitle() + "'.");
     }
 
-    if (player1Detective != null) player1Detective.resetForNewCase();
-    if (player2Detective != null) player2Detective.resetForNewCase();
+    for (Detective detective : detectives) detective.resetForNewCase();
+  }
+
+  /**
+   * Points this context at a compiled case world instead of running the extractors again. The rooms
+   * are the world's own (shared with every other session of the case, read-only); the suspects are
+   * fresh copies, since they move around per session. Call after resetForNewCaseLoad() and before
+   * initializePlayerStartingState(), which places everyone.
+   */
+  public void loadWorld(extractors.CaseWorld world) {
+    this.rooms = world.getRooms();
+    this.suspects = world.newSuspects();
+    this.roomGraph = world.getGraph();
+    this.occupancy = new RoomOccupancy(roomGraph);
+    this.interest = new InterestManager(roomGraph, occupancy);
+    for (Suspect suspect : suspects) suspect.setOccupancy(occupancy);
+    if (watson != null) watson.setOccupancy(occupancy);
+    for (Detective detective : detectives) detective.setOccupancy(occupancy);
   }
 
   public void initializePlayerStartingState() {
@@ -170,13 +195,9 @@ public class GameContextServer implements GameContext, GameActionContext {
     }
 
     logGameMessage("Initializing player states. Starting room: " + startingRoom.getName());
-    if (player1Detective != null) {
-      player1Detective.resetForNewCase();
-      player1Detective.setCurrentRoom(startingRoom);
-    }
-    if (player2Detective != null) {
-      player2Detective.resetForNewCase();
-      player2Detective.setCurrentRoom(startingRoom);
+    for (Detective detective : detectives) {
+      detective.resetForNewCase();
+      detective.setCurrentRoom(startingRoom);
     }
     if (watson != null) {
       watson.setCurrentRoom(startingRoom);
@@ -186,15 +207,16 @@ public class GameContextServer implements GameContext, GameActionContext {
     if (!this.suspects.isEmpty() && !this.rooms.isEmpty()) {
       List<Room> allRoomsList = new ArrayList<>(this.rooms.values());
       final Room finalStartingRoom = startingRoom; // For lambda
+      // Same candidates for every suspect, so filter once.
+      List<Room> validSuspectStarts =
+              allRoomsList.stream()
+                      .filter(
+                              r ->
+                                      !r.getName()
+                                              .equalsIgnoreCase(
+                                                      finalStartingRoom.getName())) // Try not to start in player room
+                      .collect(Collectors.toList());
       for (Suspect suspect : this.suspects) {
-        List<Room> validSuspectStarts =
-                allRoomsList.stream()
-                        .filter(
-                                r ->
-                                        !r.getName()
-                                                .equalsIgnoreCase(
-                                                        finalStartingRoom.getName())) // Try not to start in player room
-                        .collect(Collectors.toList());
         if (!validSuspectStarts.isEmpty()) {
           suspect.setCurrentRoom(validSuspectStarts.get(random.nextInt(validSuspectStarts.size())));
         } else { // Fallback if only one room or all rooms are starting room
@@ -286,6 +308,12 @@ public class GameContextServer implements GameContext, GameActionContext {
       // *** END NOTIFICATION ***
 
       broadcastInitialCaseDetails(); // Now broadcast all the initial game data
+
+      // NPCs start wandering on their own clock from here on.
+      if (roomGraph != null) {
+        npcSimulation = new NpcSimulation(roomGraph, suspects, watson);
+        gameSession.startNpcTicks();
+      }
     } else {
       logGameMessage(
               "Case '"
@@ -369,24 +397,22 @@ public class GameContextServer implements GameContext, GameActionContext {
     }
 
     // 4. Broadcast Starting Room Details
-    // Both players start in the same room defined by the case.
-    // Get the starting room based on player1 (could be player2, it's the same initial room for the
-    // case)
-    Room startingRoom;
-    if (player1Detective != null
-            && player1Detective.getCurrentRoom() != null) { // Check if P1 detective and room are set
-      startingRoom = player1Detective.getCurrentRoom();
-    } else if (player2Detective != null
-            && player2Detective.getCurrentRoom() != null) { // Fallback to P2 if P1 not fully init
-      startingRoom = player2Detective.getCurrentRoom();
-    } else {
+    // Every player starts in the same room defined by the case.
+    // Take it from the first detective (in roster order) that has been placed.
+    Room startingRoom = null;
+    for (Detective detective : detectives) {
+      if (detective.getCurrentRoom() != null) {
+        startingRoom = detective.getCurrentRoom();
+        break;
+      }
+    }
+    if (startingRoom == null) {
       // Fallback if detective rooms aren't set yet by initializePlayerStartingState
       // (which should have happened before case can be started)
       startingRoom = getRoomByName(selectedCase.getStartingRoom());
-      if (startingRoom != null && player1Detective != null)
-        player1Detective.setCurrentRoom(startingRoom);
-      if (startingRoom != null && player2Detective != null)
-        player2Detective.setCurrentRoom(startingRoom);
+      if (startingRoom != null) {
+        for (Detective detective : detectives) detective.setCurrentRoom(startingRoom);
+      }
     }
 
     if (startingRoom != null) {
@@ -398,42 +424,12 @@ public class GameContextServer implements GameContext, GameActionContext {
 
       // Create one DTO for the room and send it to both.
       // The occupants list will be from the server's perspective of who is in that room.
-      List<String> objectNames =
-              startingRoom.getObjects().values().stream()
-                      .map(GameObject::getName)
-                      .collect(Collectors.toList());
+      List<String> objectNames = objectNamesIn(startingRoom);
 
-      List<String> occupantNamesForBroadcast = new ArrayList<>();
-      // Player 1 (if in starting room - should be)
-      if (player1Detective != null
-              && player1Detective.getCurrentRoom() != null
-              && player1Detective.getCurrentRoom().getName().equalsIgnoreCase(startingRoom.getName())) {
-        ClientSession p1Session = gameSession.getClientSessionById(player1Id);
-        occupantNamesForBroadcast.add(p1Session != null ? p1Session.getDisplayId() : "Player 1");
-      }
-      // Player 2 (if in starting room - should be)
-      if (player2Detective != null
-              && player2Detective.getCurrentRoom() != null
-              && player2Detective.getCurrentRoom().getName().equalsIgnoreCase(startingRoom.getName())) {
-        ClientSession p2Session = gameSession.getClientSessionById(player2Id);
-        occupantNamesForBroadcast.add(p2Session != null ? p2Session.getDisplayId() : "Player 2");
-      }
-      // NPCs in starting room
-      for (Suspect s : suspects) {
-        if (s.getCurrentRoom() != null
-                && s.getCurrentRoom().getName().equalsIgnoreCase(startingRoom.getName())) {
-          occupantNamesForBroadcast.add(s.getName());
-        }
-      }
-      if (watson != null
-              && watson.getCurrentRoom() != null
-              && watson.getCurrentRoom().getName().equalsIgnoreCase(startingRoom.getName())) {
-        occupantNamesForBroadcast.add("Dr. Watson");
-      }
+      // Everyone in the starting room, players included (no asking player to leave out).
+      List<String> occupantNamesForBroadcast = getOccupantNamesInRoom(startingRoom, null);
 
-      Map<String, String> exits =
-              startingRoom.getNeighbors().entrySet().stream()
-                      .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getName()));
+      Map<String, String> exits = exitsOf(startingRoom);
       RoomDescriptionDTO initialRoomDTO =
               new RoomDescriptionDTO(
                       startingRoom.getName(),
@@ -462,8 +458,8 @@ public class GameContextServer implements GameContext, GameActionContext {
   @Override
   public Detective getPlayerDetective(String playerId) {
     if (playerId == null) return null;
-    if (player1Id != null && player1Id.equals(playerId)) return player1Detective;
-    if (player2Id != null && player2Id.equals(playerId)) return player2Detective;
+    Detective detective = detectives.get(playerId);
+    if (detective != null) return detective;
     logGameMessage("Warning: getPlayerDetective called for unknown or null playerId: " + playerId);
     return null;
   }
@@ -480,42 +476,53 @@ public class GameContextServer implements GameContext, GameActionContext {
       logGameMessage("Error: getOccupantsDescriptionInRoom called with null room.");
       return "Occupants: Error determining room";
     }
+    List<String> occupantNames = getOccupantNamesInRoom(room, askingPlayerId);
+    return occupantNames.isEmpty()
+            ? "Occupants: None"
+            : "Occupants: " + String.join(", ", occupantNames);
+  }
+
+  /**
+   * Reads the room's occupant list from the occupancy index, so it costs O(people in the room).
+   * Players come first, then suspects, then Watson, as before.
+   */
+  @Override
+  public List<String> getOccupantNamesInRoom(Room room, String askingPlayerId) {
     List<String> occupantNames = new ArrayList<>();
-    ClientSession p1Session = gameSession.getClientSessionById(player1Id);
-    ClientSession p2Session = gameSession.getClientSessionById(player2Id);
-
-    // Player 1
-    if (player1Detective != null
-            && player1Detective.getCurrentRoom() != null
-            && player1Detective.getCurrentRoom().getName().equalsIgnoreCase(room.getName())) {
-      if (player1Id == null || !player1Id.equals(askingPlayerId)) {
-        occupantNames.add(p1Session != null ? p1Session.getDisplayId() : "Player 1 (Host)");
-      }
+    if (room == null || occupancy == null) {
+      return occupantNames;
     }
-    // Player 2
-    if (player2Detective != null
-            && player2Detective.getCurrentRoom() != null
-            && player2Detective.getCurrentRoom().getName().equalsIgnoreCase(room.getName())) {
-      if (player2Id == null || !player2Id.equals(askingPlayerId)) {
-        occupantNames.add(p2Session != null ? p2Session.getDisplayId() : "Player 2");
+    List<RoomOccupant> occupants = occupancy.occupantsOf(room);
+    for (RoomOccupant occupant : occupants) {
+      if (occupant instanceof Detective detective && !detective.getPlayerId().equals(askingPlayerId)) {
+        occupantNames.add(displayNameOf(detective));
       }
     }
-    // Suspects
-    for (Suspect suspect : suspects) {
-      if (suspect.getCurrentRoom() != null
-              && suspect.getCurrentRoom().getName().equalsIgnoreCase(room.getName())) {
-        occupantNames.add(suspect.getName());
-      }
+    for (RoomOccupant occupant : occupants) {
+      if (occupant instanceof Suspect suspect) occupantNames.add(suspect.getName());
     }
-    // Watson
-    if (watson != null
-            && watson.getCurrentRoom() != null
-            && watson.getCurrentRoom().getName().equalsIgnoreCase(room.getName())) {
-      occupantNames.add("Dr. Watson");
+    for (RoomOccupant occupant : occupants) {
+      if (occupant instanceof DoctorWatson) occupantNames.add("Dr. Watson");
     }
-    return occupantNames.isEmpty()
-            ? "Occupants: None"
-            : "Occupants: " + String.join(", ", occupantNames);
+    return occupantNames;
+  }
+
+  @Override
+  public Suspect findSuspectInRoom(Room room, String suspectName) {
+    if (room == null || suspectName == null || occupancy == null) return null;
+    for (RoomOccupant occupant : occupancy.occupantsOf(room)) {
+      if (occupant instanceof Suspect suspect && suspect.getName().equalsIgnoreCase(suspectName.trim())) {
+        return suspect;
+      }
+    }
+    return null;
+  }
+
+  private String displayNameOf(Detective detective) {
+    ClientSession session = gameSession.getClientSessionById(detective.getPlayerId());
+    if (session != null) return session.getDisplayId();
+    int slot = detectives.indexOf(detective.getPlayerId());
+    return slot == 0 ? "Player 1 (Host)" : "Player " + (slot + 1);
   }
 
   @Override
@@ -566,17 +573,13 @@ public class GameContextServer implements GameContext, GameActionContext {
                       + newRoom.getName()
                       + " (server state updated).");
 
-      // 2. NPCs take their turn to move (AFTER player has moved)
-      // The triggeringPlayerId here is the one whose move initiated this round of NPC updates.
-      updateNpcMovements(playerId); // This method will now also broadcast NpcMovedDTOs
+      // 2. NPCs no longer move here; they have their own tick (see tickNpcs), so a move costs the
+      // same however many NPCs the case has.
 
       // 3. Notify the OTHER player about the moving player's move
-      // This should happen before sending the new room description to the moving player,
-      // so the other player knows the context if they receive NpcMovedDTOs next.
       notifyPlayerMove(playerId, newRoom, oldRoom);
 
       // 4. Construct and send the RoomDescriptionDTO for the moving player's NEW room
-      // This will reflect NPC positions AFTER they have moved.
       sendRoomDescriptionToPlayer(playerId, newRoom); // This helper method constructs the DTO
 
       return true;
@@ -593,24 +596,12 @@ public class GameContextServer implements GameContext, GameActionContext {
   private void sendRoomDescriptionToPlayer(String playerId, Room room) {
     if (room == null || playerId == null) return;
     // It constructs the DTO based on the CURRENT state of 'room' and its occupants
-    List<String> objectNames =
-            room.getObjects().values().stream().map(GameObject::getName).collect(Collectors.toList());
-
-    // Get occupants description specific to the 'playerId' view for their new room
-    String occupantsStr = getOccupantsDescriptionInRoom(room, playerId);
-    List<String> occupantNamesList = new ArrayList<>();
-    if (occupantsStr != null
-            && !occupantsStr.equalsIgnoreCase("Occupants: None")
-            && occupantsStr.startsWith("Occupants: ")) {
-      String[] names = occupantsStr.substring("Occupants: ".length()).split(",\\s*");
-      for (String name : names) {
-        if (!name.trim().isEmpty()) occupantNamesList.add(name.trim());
-      }
-    }
+    List<String> objectNames = objectNamesIn(room);
 
-    Map<String, String> exits =
-            room.getNeighbors().entrySet().stream()
-                    .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getName()));
+    // Occupants as the 'playerId' sees them in their new room
+    List<String> occupantNamesList = getOccupantNamesInRoom(room, playerId);
+
+    Map<String, String> exits = exitsOf(room);
     sendResponseToPlayer(
             playerId,
             new RoomDescriptionDTO(
@@ -660,17 +651,29 @@ public class GameContextServer implements GameContext, GameActionContext {
     gameSession.broadcast(dto, excludePlayerId);
   }
 
+  @Override
+  public void broadcastToArea(Room room, Serializable dto, String excludePlayerId) {
+    if (interest == null) {
+      return;
+    }
+    gameSession.sendToPlayers(dto, sessionsOf(interest.observersOf(room), excludePlayerId));
+  }
+
   @Override
   public void notifyPlayerMove(String movingPlayerId, Room newRoom, Room oldRoom) {
-    ClientSession otherPlayerSession = gameSession.getOtherPlayer(movingPlayerId);
     ClientSession movingPlayerSession = gameSession.getClientSessionById(movingPlayerId);
 
-    // Ensure all objects are non-null before trying to access their properties
-    if (otherPlayerSession != null
-            && movingPlayerSession != null
+    // Ensure all objects are non-null before trying to access their properties. Only players who
+    // could see the move (in or next to either room) hear about it; it's encoded once for them all.
+    if (movingPlayerSession != null
+            && interest != null
             && oldRoom != null
             && newRoom != null) {
-      otherPlayerSession.send(
+      List<ClientSession> witnesses = sessionsOf(interest.observersOf(oldRoom, newRoom), movingPlayerId);
+      if (witnesses.isEmpty() && !gameSession.hasSpectators()) {
+        return; // Nobody to tell; spectators would have seen it from anywhere.
+      }
+      gameSession.sendToPlayers(
               new TextMessage(
                       movingPlayerSession.getDisplayId()
                               + " moved from "
@@ -678,14 +681,27 @@ public class GameContextServer implements GameContext, GameActionContext {
                               + " to "
                               + newRoom.getName()
                               + ".",
-                      false));
+                      false),
+              witnesses);
     }
   }
 
+  /** The connections behind {@code observers}, minus {@code excludePlayerId}. */
+  private List<ClientSession> sessionsOf(List<Detective> observers, String excludePlayerId) {
+    List<ClientSession> sessions = new ArrayList<>(observers.size());
+    for (Detective observer : observers) {
+      if (!observer.getPlayerId().equals(excludePlayerId)) {
+        ClientSession session = gameSession.getClientSessionById(observer.getPlayerId());
+        if (session != null) sessions.add(session);
+      }
+    }
+    return sessions;
+  }
+
   // --- Exam Logic ---
   @Override
   public boolean canStartFinalExam(String playerId) {
-    // Only player1 (host) can initiate. Case must be started.
+    // Only the host can initiate. Case must be started.
     // Removed !examActiveForSession to allow re-starting if needed or to handle retries differently,
     // though typically startExamProcess handles reset.
     // However, if an exam IS active, we probably shouldn't restart it unless it's a specific retry.
@@ -732,7 +748,7 @@ public class GameContextServer implements GameContext, GameActionContext {
     this.playerAnswers = new HashMap<>(); // Clear answers for a fresh start
     this.currentExamQuestionIndex = 0;
 
-    ClientSession hostSession = gameSession.getClientSessionById(player1Id); // Host is player1Id
+    ClientSession hostSession = gameSession.getClientSessionById(detectives.hostId());
     String hostDisplay = hostSession != null ? hostSession.getDisplayId() : "The Host";
 
     logGameMessage(
@@ -773,7 +789,7 @@ public class GameContextServer implements GameContext, GameActionContext {
   }
 
   public boolean isPlayerHost(String playerId) {
-    return this.player1Id != null && this.player1Id.equals(playerId);
+    return detectives.isHost(playerId);
   }
 
   // Inside server.GameContextServer.java
@@ -800,21 +816,22 @@ public class GameContextServer implements GameContext, GameActionContext {
     }
 
     // If it's a guest making the request
-    if (player1Id != null) { // Check if host (player1Id) is actually connected/present
+    String hostId = detectives.hostId();
+    if (hostId != null) { // Check if the host is actually connected/present
       ClientSession requestingPlayerSession = gameSession.getClientSessionById(requestingPlayerId);
       String requesterDisplay =
               (requestingPlayerSession != null)
                       ? requestingPlayerSession.getDisplayId()
                       : "Your partner (" + requestingPlayerId.substring(0, 4) + "..)";
 
-      // Send prompt to HOST (player1Id)
+      // Send prompt to HOST
       logGameMessage(
               "PROCESS_REQUEST_START_CASE: Sending prompt to host "
-                      + player1Id
+                      + hostId
                       + " about request from "
                       + requestingPlayerId);
       sendResponseToPlayer(
-              player1Id,
+              hostId,
               new TextMessage(
                       requesterDisplay + " has requested to start the case. Type 'start case' to begin.",
                       false));
@@ -825,7 +842,7 @@ public class GameContextServer implements GameContext, GameActionContext {
               new TextMessage("Request sent to the host to start the case.", false));
     } else {
       logGameMessage(
-              "PROCESS_REQUEST_START_CASE: Host (player1Id) is null or not available. Cannot process request from "
+              "PROCESS_REQUEST_START_CASE: Host is null or not available. Cannot process request from "
                       + requestingPlayerId);
       sendResponseToPlayer(
               requestingPlayerId,
@@ -853,13 +870,14 @@ public class GameContextServer implements GameContext, GameActionContext {
       return;
     }
     // Guest is requesting
-    if (player1Id != null) { // If host is present
+    String hostId = detectives.hostId();
+    if (hostId != null) { // If host is present
       ClientSession requestingPlayerSession = gameSession.getClientSessionById(requestingPlayerId);
       String requesterDisplay =
               requestingPlayerSession != null ? requestingPlayerSession.getDisplayId() : "Your partner";
 
       sendResponseToPlayer(
-              player1Id,
+              hostId,
               new FinalExamRequestDTO(requestingPlayerId, requesterDisplay));
       sendResponseToPlayer(
               requestingPlayerId,
@@ -868,7 +886,7 @@ public class GameContextServer implements GameContext, GameActionContext {
               "Player "
                       + requestingPlayerId
                       + " requested final exam. Host "
-                      + player1Id
+                      + hostId
                       + " notified.");
     } else {
       sendResponseToPlayer(
@@ -894,12 +912,13 @@ public class GameContextServer implements GameContext, GameActionContext {
       logGameMessage(
               "SEND_NEXT_Q_TO_SESS: CRITICAL - finalExam is null or empty! Cannot proceed with exam.");
       // Attempt to end exam gracefully if possible, or send error to host
-      if (player1Id != null) {
+      String hostId = detectives.hostId();
+      if (hostId != null) {
         sendResponseToPlayer(
-                player1Id,
+                hostId,
                 new TextMessage("Error: Exam questions are missing. Cannot continue exam.", true));
       }
-      evaluateAndBroadcastExamResults(player1Id); // This will likely show 0/0 or error
+      evaluateAndBroadcastExamResults(hostId); // This will likely show 0/0 or error
       return;
     }
 
@@ -919,33 +938,29 @@ public class GameContextServer implements GameContext, GameActionContext {
       broadcastToSession(questionDTO, null);
 
       // Send specific prompt to host
-      if (player1Id != null) {
+      String hostId = detectives.hostId();
+      if (hostId != null) {
         logGameMessage(
                 "SEND_NEXT_Q_TO_SESS: Sending prompt to host "
-                        + player1Id
+                        + hostId
                         + " for Q"
                         + (currentExamQuestionIndex + 1));
         sendResponseToPlayer(
-                player1Id,
+                hostId,
                 new TextMessage(
                         "Host, please submit your answer for Q" + (currentExamQuestionIndex + 1) + ".",
                         false));
       }
-      // Notify guest
-      if (player2Id != null
-              && (!player2Id.equals(player1Id))) { // Ensure guest is not also host (single player test)
-        ClientSession hostSess = gameSession.getClientSessionById(player1Id);
-        String hostDisp =
-                (hostSess != null)
-                        ? hostSess.getDisplayId()
-                        : (player1Detective != null ? player1Detective.getPlayerId() : "The Host");
+      // Notify the guests, all with the same message
+      if (detectives.size() > 1) {
+        ClientSession hostSess = gameSession.getClientSessionById(hostId);
+        String hostDisp = (hostSess != null) ? hostSess.getDisplayId() : "The Host";
         logGameMessage(
-                "SEND_NEXT_Q_TO_SESS: Notifying guest "
-                        + player2Id
-                        + " that host is answering Q"
+                "SEND_NEXT_Q_TO_SESS: Notifying "
+                        + (detectives.size() - 1)
+                        + " guest(s) that host is answering Q"
                         + (currentExamQuestionIndex + 1));
-        sendResponseToPlayer(
-                player2Id,
+        broadcastToSession(
                 new TextMessage(
                         hostDisp
                                 + " is answering exam question "
@@ -953,10 +968,11 @@ public class GameContextServer implements GameContext, GameActionContext {
                                 + "/"
                                 + finalExam.getQuestions().size()
                                 + "...",
-                        false));
+                        false),
+                hostId);
       }
     } else {
-        sendResponseToPlayer(player1Id, new TextMessage("You have answered all questions. Type 'submit exam' to finalize your answers.", false));
+        sendResponseToPlayer(detectives.hostId(), new TextMessage("You have answered all questions. Type 'submit exam' to finalize your answers.", false));
     }
   }
 
@@ -967,8 +983,8 @@ public class GameContextServer implements GameContext, GameActionContext {
 
     if (finalExam == null) {
       logger.error("[SESS_CTX:{}] EVAL_EXAM_RESULTS: Error - finalExam is null. Cannot evaluate.", gameSession.getSessionId());
-      if (player1Id != null && player1Id.equals(hostPlayerId)) {
-        sendResponseToPlayer(player1Id, new TextMessage("Error during exam evaluation (missing questions).", true));
+      if (detectives.isHost(hostPlayerId)) {
+        sendResponseToPlayer(hostPlayerId, new TextMessage("Error during exam evaluation (missing questions).", true));
       }
       resetServerExamState();
       return;
@@ -1001,16 +1017,10 @@ public class GameContextServer implements GameContext, GameActionContext {
     Rank finalRank = RankEvaluator.evaluate(this.sessionDeduceCount, this.selectedCase);
     String finalRankString = (finalRank != null) ? finalRank.getRankName() : "Unranked";
 
-    Detective hostDetective = getPlayerDetective(hostPlayerId);
-    if (hostDetective != null) {
-      hostDetective.setFinalExamScore(score);
-      hostDetective.setRank(finalRank);
-    }
-
-    Detective guestDetective = getPlayerDetective(player2Id);
-    if (guestDetective != null) {
-      guestDetective.setFinalExamScore(score);
-      guestDetective.setRank(finalRank);
+    // The host answers for the whole team, so everyone shares the score and rank.
+    for (Detective detective : detectives) {
+      detective.setFinalExamScore(score);
+      detective.setRank(finalRank);
     }
     // --- END DYNAMIC RANK EVALUATION ---
 
@@ -1149,88 +1159,172 @@ public class GameContextServer implements GameContext, GameActionContext {
 
 
 
+  /**
+   * Runs one NPC tick right away. NPCs normally move on the session's own tick (see tickNpcs); this
+   * is kept for the shared GameActionContext contract.
+   */
   @Override
   public void updateNpcMovements(String triggeringPlayerId) {
-    if (!isCaseStarted()) {
-      logGameMessage("NPC Movement SKIPPED (MP): Case not started.");
+    tickNpcs();
+  }
+
+  /**
+   * One NPC simulation step (called on the mailbox by the session's tick). Each move goes to the
+   * players who could see it (in or next to the room the NPC left or entered), and each of them
+   * gets a single batch. Players nowhere near any of it get nothing.
+   */
+  void tickNpcs() {
+    if (!isCaseStarted() || npcSimulation == null || interest == null) {
       return;
     }
-
-    // --- NEW: Determine all currently occupied rooms ---
-    Set<String> occupiedRoomNames = new HashSet<>();
-    if (player1Detective != null && player1Detective.getCurrentRoom() != null) {
-      occupiedRoomNames.add(player1Detective.getCurrentRoom().getName().toLowerCase());
+    int moves = npcSimulation.advance(detectives);
+    if (moves == 0) {
+      return;
     }
-    if (player2Detective != null && player2Detective.getCurrentRoom() != null) {
-      occupiedRoomNames.add(player2Detective.getCurrentRoom().getName().toLowerCase());
+    gameSession.logNpcMoves(npcSimulation);
+    // Roster slot -> visible moves; a slot stays null until its player sees something.
+    List<List<NpcMovedDTO>> seenBySlot = new ArrayList<>(Collections.nCopies(detectives.size(), null));
+    for (int m = 0; m < moves; m++) {
+      for (Detective observer : interest.observersOf(npcSimulation.getMoveFrom(m), npcSimulation.getMoveTo(m))) {
+        int slot = detectives.indexOf(observer.getPlayerId());
+        if (slot < 0) continue;
+        if (seenBySlot.get(slot) == null) seenBySlot.set(slot, new ArrayList<>());
+        seenBySlot.get(slot).add(npcSimulation.getMove(m));
+      }
     }
-
-    logGameMessage("NPC Movement START. Occupied rooms: " + occupiedRoomNames);
-
-    // --- Move Suspects ---
-    for (Suspect suspect : this.suspects) {
-      Room oldSuspectRoom = suspect.getCurrentRoom();
-
-      if (oldSuspectRoom == null) {
-        logGameMessage("Suspect " + suspect.getName() + " is not in any room, cannot move.");
-        continue;
+    for (int slot = 0; slot < seenBySlot.size(); slot++) {
+      List<NpcMovedDTO> seen = seenBySlot.get(slot);
+      if (seen != null) {
+        sendResponseToPlayer(detectives.idAt(slot), new NpcMovedBatchDTO(npcSimulation.getTick(), seen));
       }
-
-      // NEW RULE: If a player is in the same room as the suspect, the suspect does not move.
-      if (occupiedRoomNames.contains(oldSuspectRoom.getName().toLowerCase())) {
-        logGameMessage("Suspect " + suspect.getName() + " stays in " + oldSuspectRoom.getName() + " (room is occupied by a player).");
-        continue;
+    }
+    if (gameSession.hasSpectators()) { // They watch the whole map; one batch shared by all of them.
+      List<NpcMovedDTO> all = new ArrayList<>(moves);
+      for (int m = 0; m < moves; m++) {
+        all.add(npcSimulation.getMove(m));
       }
+      gameSession.sendToSpectators(new NpcMovedBatchDTO(npcSimulation.getTick(), all));
+    }
+  }
 
-      Map<String, Room> neighbors = oldSuspectRoom.getNeighbors();
-      if (neighbors.isEmpty()) {
-        logGameMessage("Suspect " + suspect.getName() + " in " + oldSuspectRoom.getName() + " has no neighbors, stays put.");
-        continue;
+  // --- Persistence (see CommandLog) ---
+
+  /**
+   * The investigation's state for a snapshot: where everyone is, journal, deductions, tasks and
+   * scores. The session adds who's playing and how the session is set up.
+   */
+  GameStateData captureState() {
+    GameStateData state = new GameStateData();
+    state.setCaseTitle(selectedCase.getTitle());
+    state.setCaseStarted(caseStarted);
+    state.setJournalEntries(new ArrayList<>(journal.getEntries()));
+    state.setDeduceCount(sessionDeduceCount);
+    state.setDeducedObjectsInSession(new ArrayList<>(deducedObjectsInSession));
+    for (Detective detective : detectives) {
+      String playerId = detective.getPlayerId();
+      if (detective.getCurrentRoom() != null) {
+        state.getPlayerCurrentRoomNames().put(playerId, detective.getCurrentRoom().getName());
       }
+      state.getPlayerDeducedObjects().put(playerId, new ArrayList<>(detective.getDeducedObjects()));
+      state.getPlayerScores().put(playerId, detective.getFinalExamScore());
+      if (detective.getRank() != null) {
+        state.getPlayerRanks().put(playerId, detective.getRank().getRankName());
+      }
+    }
+    for (Suspect suspect : suspects) {
+      if (suspect.getCurrentRoom() != null) {
+        state.getNpcCurrentRoomNames().put(suspect.getName(), suspect.getCurrentRoom().getName());
+      }
+    }
+    if (watson != null && watson.getCurrentRoom() != null) {
+      state.getNpcCurrentRoomNames().put(WATSON_STATE_KEY, watson.getCurrentRoom().getName());
+    }
+    for (Map.Entry<Integer, Boolean> task : taskStates.entrySet()) {
+      state.getTaskCompletionStatus().put(String.valueOf(task.getKey()), task.getValue());
+    }
+    return state;
+  }
 
-      // NEW RULE: Filter out neighbors that are occupied by players.
-      List<Room> possibleMoves = neighbors.values().stream()
-              .filter(room -> !occupiedRoomNames.contains(room.getName().toLowerCase()))
-              .collect(Collectors.toList());
-
-      if (!possibleMoves.isEmpty()) {
-        Room newSuspectRoom = possibleMoves.get(random.nextInt(possibleMoves.size()));
-        suspect.setCurrentRoom(newSuspectRoom);
-        logGameMessage("Suspect " + suspect.getName() + " moved from " + oldSuspectRoom.getName() + " to " + newSuspectRoom.getName());
-      } else {
-        logGameMessage("Suspect " + suspect.getName() + " has no unoccupied neighbors, stays put in " + oldSuspectRoom.getName());
+  /**
+   * Puts a snapshot's investigation state back, on top of a freshly loaded world with the same
+   * players. Nothing is sent to anyone. A started case gets its NPC simulation back, but the
+   * session decides when ticks resume.
+   */
+  void restoreState(GameStateData state) {
+    journal = new Journal<>();
+    if (state.getJournalEntries() != null) {
+      state.getJournalEntries().forEach(journal::addEntry);
+    }
+    sessionDeduceCount = state.getDeduceCount();
+    deducedObjectsInSession = new HashSet<>(state.getDeducedObjectsInSession() != null ? state.getDeducedObjectsInSession() : List.of());
+    for (Detective detective : detectives) {
+      String playerId = detective.getPlayerId();
+      detective.resetForNewCase();
+      Room room = getRoomByName(state.getPlayerCurrentRoomNames().get(playerId));
+      if (room != null) detective.setCurrentRoom(room);
+      for (String object : state.getPlayerDeducedObjects().getOrDefault(playerId, List.of())) {
+        detective.incrementDeduceCount(object);
       }
+      detective.setFinalExamScore(state.getPlayerScores().getOrDefault(playerId, 0));
+      if (state.getPlayerRanks().containsKey(playerId)) {
+        // Ranks come from the team's deductions, so evaluating again gives the same one.
+        detective.setRank(RankEvaluator.evaluate(sessionDeduceCount, selectedCase));
+      }
+    }
+    for (Suspect suspect : suspects) {
+      Room room = getRoomByName(state.getNpcCurrentRoomNames().get(suspect.getName()));
+      if (room != null) suspect.setCurrentRoom(room);
+    }
+    Room watsonRoom = getRoomByName(state.getNpcCurrentRoomNames().get(WATSON_STATE_KEY));
+    if (watson != null && watsonRoom != null) {
+      watson.setCurrentRoom(watsonRoom);
+    }
+    taskStates = new HashMap<>();
+    for (Map.Entry<String, Boolean> task : state.getTaskCompletionStatus().entrySet()) {
+      try {
+        taskStates.put(Integer.parseInt(task.getKey()), task.getValue());
+      } catch (NumberFormatException e) {
+        logGameMessage("Ignoring unreadable task index '" + task.getKey() + "' in snapshot.");
+      }
+    }
+    caseStarted = state.isCaseStarted();
+    if (caseStarted && roomGraph != null) {
+      npcSimulation = new NpcSimulation(roomGraph, suspects, watson);
     }
+  }
 
-    // --- Move Watson (applying the same logic) ---
-    if (this.watson != null) {
-      Room oldWatsonRoom = this.watson.getCurrentRoom();
+  /** Redoes one logged NPC tick. */
+  void replayNpcMoves(CommandLog.Entry entry) {
+    if (npcSimulation == null) {
+      return;
+    }
+    int[] moves = entry.npcMoves();
+    for (int i = 0; i < moves.length; i += 2) {
+      npcSimulation.replayMove(moves[i], moves[i + 1]);
+    }
+  }
 
-      if (oldWatsonRoom != null) {
-        // NEW RULE: If a player is in the same room, Watson does not move.
-        if (occupiedRoomNames.contains(oldWatsonRoom.getName().toLowerCase())) {
-          logGameMessage("Dr. Watson stays in " + oldWatsonRoom.getName() + " (room is occupied by a player).");
-        } else {
-          Map<String, Room> watsonNeighbors = oldWatsonRoom.getNeighbors();
-          if (!watsonNeighbors.isEmpty()) {
-            // NEW RULE: Filter out occupied neighbors.
-            List<Room> possibleMoves = watsonNeighbors.values().stream()
-                    .filter(room -> !occupiedRoomNames.contains(room.getName().toLowerCase()))
-                    .collect(Collectors.toList());
-
-            if (!possibleMoves.isEmpty()) {
-              Room newWatsonRoom = possibleMoves.get(random.nextInt(possibleMoves.size()));
-              this.watson.setCurrentRoom(newWatsonRoom);
-              logGameMessage("Dr. Watson moved from " + oldWatsonRoom.getName() + " to " + newWatsonRoom.getName());
-            } else {
-              logGameMessage("Dr. Watson has no unoccupied neighbors, stays put in " + oldWatsonRoom.getName());
-            }
-          }
-        }
-      }
+  /** A final exam is under way; its progress isn't in a snapshot, so the session waits it out. */
+  boolean isExamActive() {
+    return examActiveForSession;
+  }
+
+  /** Object names for a RoomDescriptionDTO, straight off the room's read-only view. */
+  private static List<String> objectNamesIn(Room room) {
+    List<String> names = new ArrayList<>(room.getObjects().size());
+    for (GameObject object : room.getObjects().values()) {
+      names.add(object.getName());
     }
+    return names;
+  }
 
-    logGameMessage("NPC Movement END.");
+  /** Direction -> neighbor name for a RoomDescriptionDTO, in direction order. */
+  private static Map<String, String> exitsOf(Room room) {
+    Map<String, String> exits = new LinkedHashMap<>();
+    for (int i = 0; i < room.getExitCount(); i++) {
+      exits.put(room.getExitDirection(i).key(), room.getExit(i).getName());
+    }
+    return exits;
   }
 
 
@@ -1346,14 +1440,9 @@ public class GameContextServer implements GameContext, GameActionContext {
       Room currentRoom = detective.getCurrentRoom();
       logGameMessage("Processing Continue Game. Broadcasting room '" + currentRoom.getName() + "' to all players.");
 
-      // Send room description to host
-      if (player1Id != null) {
-          sendRoomDescriptionToPlayer(player1Id, currentRoom);
-      }
-
-      // Send room description to guest
-      if (player2Id != null) {
-          sendRoomDescriptionToPlayer(player2Id, currentRoom);
+      // Send room description to every player
+      for (int i = 0; i < detectives.size(); i++) {
+          sendRoomDescriptionToPlayer(detectives.idAt(i), currentRoom);
       }
   }
 }
@@ -2,25 +2,40 @@ package server;
 
 import common.NetworkConstants;
 import common.commands.Command;
+import common.commands.RequestCaseFileCommand;
 import common.dto.ChatMessage;
 import common.dto.ClientIdAssignmentDTO;
+import common.dto.ResumeSessionRequestDTO;
 import common.dto.TextMessage;
+import common.dto.WireCodecSelectionDTO;
+import common.wire.FrameCompressor;
+import common.wire.WireCodec;
+import common.wire.WireCodecs;
+import common.wire.WireFormat;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.channels.*;
+import java.nio.file.Path;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * GameServer This is my main NIO server class. It listens for client connections, manages reads and
- * writes for connected clients, and routes messages. It runs in its own thread.
+ * GameServer This is my main NIO server class. It listens for client connections on a dedicated
+ * acceptor thread and hands every accepted channel to one of N {@link WorkerReactor}s, each with its
+ * own Selector, which then drive reads and writes for that client. Messages are routed from here.
  */
 public class GameServer implements Runnable {
 
@@ -28,10 +43,29 @@ public class GameServer implements Runnable {
 
   // --- Fields ---
   private final int port;
+  private final int workerCount;
   private ServerSocketChannel serverSocketChannel;
-  private Selector selector;
+  private Selector selector; // Acceptor selector: only OP_ACCEPT is registered here.
   private volatile boolean running = true; // Flag to control the main server loop.
 
+  // I/O workers. The acceptor picks the least-loaded one (round-robin on ties) per connection.
+  private WorkerReactor[] workers = new WorkerReactor[0];
+  private int nextWorkerIndex = 0; // Only touched by the acceptor thread.
+
+  private final ServerStats stats = new ServerStats();
+
+  // Shared pool behind every SerialExecutor mailbox. Game logic runs here, never on a selector.
+  private final ExecutorService gameLogicPool;
+
+  // One timer thread for every session's NPC ticks. It only posts the tick to the session's
+  // mailbox; the simulation itself runs on the game-logic pool like everything else.
+  private final ScheduledExecutorService npcTicker;
+  private final long npcTickMillis;
+  // Detectives a session holds, host included. Every session's roster is sized from this.
+  private final int maxPlayersPerGame;
+  // Where sessions are logged so they survive a restart. Null: they aren't.
+  private final SessionStore sessionStore;
+
   // Manages all active client connections. SocketChannel -> ClientSession.
   private final Map<SocketChannel, ClientSession> clientSessionsMap;
   // Manages game rooms, lobbies, etc. Protected so ServerMain can access for admin commands.
@@ -41,16 +75,124 @@ public class GameServer implements Runnable {
 
   // --- Constructor ---
   public GameServer(int port) {
+    this(port, NetworkConstants.DEFAULT_WORKER_REACTORS);
+  }
+
+  /**
+   * @param port TCP port to listen on.
+   * @param workerCount Number of worker selectors (I/O threads). Values below 1 are treated as 1.
+   */
+  public GameServer(int port, int workerCount) {
+    this(port, workerCount, NetworkConstants.DEFAULT_NPC_TICK_MS);
+  }
+
+  /**
+   * @param port TCP port to listen on.
+   * @param workerCount Number of worker selectors (I/O threads). Values below 1 are treated as 1.
+   * @param npcTickMillis How often each session's NPCs take a step. Values below 1 are treated as 1.
+   */
+  public GameServer(int port, int workerCount, long npcTickMillis) {
+    this(port, workerCount, npcTickMillis, NetworkConstants.MAX_PLAYERS_PER_GAME);
+  }
+
+  /**
+   * @param port TCP port to listen on.
+   * @param workerCount Number of worker selectors (I/O threads). Values below 1 are treated as 1.
+   * @param npcTickMillis How often each session's NPCs take a step. Values below 1 are treated as 1.
+   * @param maxPlayersPerGame Detectives per session, host included. Values below 2 are treated as 2.
+   */
+  public GameServer(int port, int workerCount, long npcTickMillis, int maxPlayersPerGame) {
+    this(port, workerCount, npcTickMillis, maxPlayersPerGame, null);
+  }
+
+  /**
+   * @param port TCP port to listen on.
+   * @param workerCount Number of worker selectors (I/O threads). Values below 1 are treated as 1.
+   * @param npcTickMillis How often each session's NPCs take a step. Values below 1 are treated as 1.
+   * @param maxPlayersPerGame Detectives per session, host included. Values below 2 are treated as 2.
+   * @param sessionStoreDir Directory for the session store (command logs and snapshots), or null to
+   *     keep sessions in memory only. Sessions found there are restored by {@link #startServer()}.
+   */
+  public GameServer(int port, int workerCount, long npcTickMillis, int maxPlayersPerGame, Path sessionStoreDir) {
     this.port = port;
+    this.workerCount = Math.max(1, workerCount);
+    this.npcTickMillis = Math.max(1, npcTickMillis);
+    this.maxPlayersPerGame = Math.max(2, maxPlayersPerGame);
     this.clientSessionsMap = new ConcurrentHashMap<>(); // Thread-safe map for client sessions.
+    this.gameLogicPool = createGameLogicPool();
+    this.npcTicker = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "NpcTicker");
+      t.setDaemon(true);
+      return t;
+    });
+    this.sessionStore = openSessionStore(sessionStoreDir);
     this.sessionManager = new GameSessionManager(this);
   }
 
+  private SessionStore openSessionStore(Path directory) {
+    if (directory == null) {
+      return null;
+    }
+    try {
+      return new SessionStore(directory);
+    } catch (IOException e) {
+      logError("Couldn't open the session store in " + directory + "; sessions won't survive a restart.", e);
+      return null;
+    }
+  }
+
+  private static ExecutorService createGameLogicPool() {
+    AtomicInteger threadIndex = new AtomicInteger();
+    return Executors.newFixedThreadPool(
+            NetworkConstants.GAME_LOGIC_THREADS,
+            r -> {
+              Thread t = new Thread(r, "GameLogic-" + threadIndex.getAndIncrement());
+              t.setDaemon(true);
+              return t;
+            });
+  }
+
+  public ServerStats getStats() {
+    return stats;
+  }
+
+  /**
+   * Runs {@code tick} every NPC tick until the returned future is cancelled. It runs on the shared
+   * timer thread, so it should only hand work off (to a mailbox), never do it.
+   */
+  public ScheduledFuture<?> scheduleNpcTicks(Runnable tick) {
+    return npcTicker.scheduleAtFixedRate(tick, npcTickMillis, npcTickMillis, TimeUnit.MILLISECONDS);
+  }
+
+  public long getNpcTickMillis() {
+    return npcTickMillis;
+  }
+
+  public int getMaxPlayersPerGame() {
+    return maxPlayersPerGame;
+  }
+
+  /** The session store, or null if sessions aren't persisted. */
+  public SessionStore getSessionStore() {
+    return sessionStore;
+  }
+
+  /** Runs {@code task} once after a delay, on the NPC timer thread. Same rule: hand the work off. */
+  public ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+    return npcTicker.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /** Creates a new ordered mailbox on the shared game-logic pool. */
+  public SerialExecutor newMailbox(String name) {
+    return new SerialExecutor(gameLogicPool, name);
+  }
+
   // --- Server Setup & Control ---
 
   /**
-   * Initializes the server: opens selector, server socket, binds, and registers for accept. This
-   * needs to be called before starting the server thread.
+   * Initializes the server: opens the acceptor selector and server socket, binds, registers for
+   * accept and starts the worker reactors. This needs to be called before starting the server
+   * thread.
    */
   public void startServer() throws IOException {
     this.selector = Selector.open();
@@ -60,7 +202,17 @@ public class GameServer implements Runnable {
     this.serverSocketChannel.register(
             selector, SelectionKey.OP_ACCEPT); // Listen for new connections.
 
-    log("Server started on port " + port + ". Waiting for connections...");
+    this.workers = new WorkerReactor[workerCount];
+    for (int i = 0; i < workerCount; i++) {
+      workers[i] = new WorkerReactor(i, this);
+      workers[i].start();
+    }
+
+    log("Server started on port " + port + " with " + workerCount + " worker reactor(s). Waiting for connections...");
+    if (sessionStore != null) {
+      log("Session store: " + sessionStore.getDirectory().toAbsolutePath());
+      sessionManager.restoreSessions(sessionStore);
+    }
   }
 
   /**
@@ -70,6 +222,11 @@ public class GameServer implements Runnable {
   public void stopServer() {
     log("StopServer called. Signaling server loop to terminate and closing socket.");
     this.running = false;
+    if (sessionStore != null) {
+      // First, while every session is still intact: flush their logs and keep the files, so the
+      // disconnects that follow don't end them on disk too. They're restored on the next start.
+      sessionStore.close();
+    }
 
     // Close the server socket channel immediately to release the port.
     // This will cause an exception in the select() loop, which is handled.
@@ -86,30 +243,22 @@ public class GameServer implements Runnable {
     if (this.selector != null && this.selector.isOpen()) {
       this.selector.wakeup(); // Interrupt selector.select() if it's blocking.
     }
+    for (WorkerReactor worker : workers) {
+      worker.stop();
+    }
   }
 
   /**
-   * Cleans up server resources when the server is shutting down. Closes channels, selector, and
-   * saves games. Called from finally block of run().
+   * Cleans up server resources when the server is shutting down. Closes the acceptor, stops the
+   * workers (each closes its own client channels) and waits briefly for them. Called from finally
+   * block of run().
    */
   protected void shutdownServerInternals() {
     log("Server is shutting down internals...");
-    // Close selector first to stop processing new events.
     if (selector != null && selector.isOpen()) {
-      // Close all client channels registered with the selector.
-      for (SelectionKey key : selector.keys()) {
-        try {
-          if (key.channel() != null && key.channel().isOpen()) {
-            key.channel().close();
-          }
-          key.cancel(); // Cancel the key.
-        } catch (IOException e) {
-          logError("Error closing channel during shutdown: " + key.channel(), e);
-        }
-      }
       try {
         selector.close();
-        log("Selector closed.");
+        log("Acceptor selector closed.");
       } catch (IOException e) {
         logError("Error closing selector: " + e.getMessage(), e);
       }
@@ -123,11 +272,35 @@ public class GameServer implements Runnable {
         logError("Error closing server socket channel: " + e.getMessage(), e);
       }
     }
+    for (WorkerReactor worker : workers) {
+      worker.stop();
+    }
+    for (WorkerReactor worker : workers) {
+      try {
+        worker.join(2000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    // Workers are gone, so no new messages can arrive. Let queued game logic (disconnect handling
+    // included) finish briefly, then stop the pool.
+    sessionManager.shutdown(); // Stops the LAN broadcaster.
+    npcTicker.shutdownNow();
+    gameLogicPool.shutdown();
+    try {
+      if (!gameLogicPool.awaitTermination(2, TimeUnit.SECONDS)) {
+        gameLogicPool.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      gameLogicPool.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
     log("Server has shut down internals.");
     // clientSessionsMap will be cleared as clients get cleaned up.
   }
 
-  // --- Main Server Loop (Runnable Implementation) ---
+  // --- Acceptor Loop (Runnable Implementation) ---
   @Override
   public void run() {
     try {
@@ -150,57 +323,14 @@ public class GameServer implements Runnable {
           SelectionKey key = keyIterator.next();
           keyIterator.remove(); // Must remove the key from the selected set.
 
-          if (!key.isValid()) {
-            // Key might have been cancelled (e.g., channel closed).
-            // cleanupClient would have been called if so.
-            // log("Key is invalid, skipping.");
+          if (!key.isValid() || !key.isAcceptable()) {
             continue;
           }
-
-          // Handle I/O events for this key.
           try {
-            if (key.isAcceptable()) {
-              handleAccept(key);
-            }
-            if (key.isReadable()) { // Key might become invalid after accept/read/write if channel
-              // closes
-              handleRead(key);
-            }
-            if (key.isWritable()) { // Check validity again
-              handleWrite(key);
-            }
-          } catch (CancelledKeyException cke) {
-            // This happens if channel closed while processing.
-            // ClientSession object might still be in map if cleanupClient hasn't run for this key
-            // yet.
-            ClientSession client =
-                    (ClientSession) key.attachment(); // More reliable way to get session
-            String clientId =
-                    (client != null)
-                            ? client.getPlayerId()
-                            : "Unknown (channel: " + key.channel().hashCode() + ")";
-            log("Key cancelled for client " + clientId + " during event processing. Cleaning up.");
-            cleanupClient(key, "Key was cancelled during op");
+            handleAccept(key);
           } catch (IOException e) {
-            // Network errors (e.g., client disconnected abruptly).
-            ClientSession client = (ClientSession) key.attachment();
-            String clientId =
-                    (client != null)
-                            ? client.getPlayerId()
-                            : "Unknown (channel: " + key.channel().hashCode() + ")";
-            log(
-                    "I/O Error for client "
-                            + clientId
-                            + ": "
-                            + e.getMessage()
-                            + ". Closing connection.");
-            cleanupClient(key, "I/O Error: " + e.getMessage());
-          } catch (Exception e) {
-            // Catch-all for unexpected errors during key processing to keep server running.
-            ClientSession client = (ClientSession) key.attachment();
-            String clientId = (client != null) ? client.getPlayerId() : "Unknown";
-            logError("Unexpected error processing key for client " + clientId, e);
-            cleanupClient(key, "Unexpected error: " + e.getMessage());
+            // A single failed accept (e.g. client reset during handshake) must not stop the loop.
+            logError("Error accepting connection: " + e.getMessage(), e);
           }
         }
       }
@@ -216,84 +346,112 @@ public class GameServer implements Runnable {
     }
   }
 
-  // --- Event Handlers (Called by run() loop) ---
+  // --- Event Handlers ---
 
   private void handleAccept(SelectionKey key) throws IOException {
     ServerSocketChannel ssc = (ServerSocketChannel) key.channel();
-    SocketChannel clientChannel = ssc.accept(); // Accept the new connection.
-
-    if (clientChannel != null) {
+    SocketChannel clientChannel;
+    // Drain the accept backlog in one go; each accepted channel goes to a worker.
+    while ((clientChannel = ssc.accept()) != null) {
       clientChannel.configureBlocking(false); // Must be non-blocking for selector.
-      SelectionKey clientKey =
-              clientChannel.register(
-                      selector, SelectionKey.OP_READ); // Initially interested in reading.
-
-      ClientSession clientSession = new ClientSession(clientChannel, this);
-      clientKey.attach(clientSession); // Attach session object to key for easy retrieval.
-      clientSessionsMap.put(clientChannel, clientSession); // Also keep in map for now.
-
-      SocketAddress remoteAddr = clientChannel.getRemoteAddress();
-      log(
-              "Accepted new connection from: "
-                      + (remoteAddr != null ? remoteAddr.toString() : "Unknown")
-                      + " | PlayerID: "
-                      + clientSession.getPlayerId()
-                      + " (Display: "
-                      + clientSession.getDisplayId()
-                      + ")");
-
-      // Send initial DTOs for client setup.
-      clientSession.send(
-              new ClientIdAssignmentDTO(clientSession.getPlayerId(), clientSession.getDisplayId()));
-      clientSession.send(
-              new TextMessage(
-                      "Welcome, " + clientSession.getDisplayId() + "! Connected to Detective Game Server.",
-                      false));
+      selectWorker().adopt(clientChannel);
     }
   }
 
-  private void handleRead(SelectionKey key) throws IOException {
-    ClientSession clientSession = (ClientSession) key.attachment(); // Get session from key.
-    if (clientSession != null) {
-      clientSession.handleRead(); // Delegate to ClientSession to read framed data.
-    } else {
-      // This shouldn't happen if attach() was successful and key is valid.
-      log(
-              "Warning: Read event for key with no ClientSession attachment. Channel: "
-                      + key.channel().hashCode());
-      key.channel().close();
-      key.cancel();
+  /**
+   * Picks the worker with the fewest live connections, starting the scan at a rotating index so
+   * equally loaded workers are used round-robin.
+   */
+  private WorkerReactor selectWorker() {
+    WorkerReactor best = workers[nextWorkerIndex];
+    for (int i = 1; i < workers.length; i++) {
+      WorkerReactor candidate = workers[(nextWorkerIndex + i) % workers.length];
+      if (candidate.getConnectionCount() < best.getConnectionCount()) {
+        best = candidate;
+      }
     }
+    nextWorkerIndex = (nextWorkerIndex + 1) % workers.length;
+    return best;
   }
 
-  private void handleWrite(SelectionKey key) throws IOException {
-    ClientSession clientSession = (ClientSession) key.attachment();
-    if (clientSession != null) {
-      clientSession.handleWrite(); // Delegate to ClientSession to write queued data.
-    } else {
-      log(
-              "Warning: Write event for key with no ClientSession attachment. Channel: "
-                      + key.channel().hashCode());
-      key.channel().close();
-      key.cancel();
+  /**
+   * Called by a worker when registering a new channel failed part way. Forgets the session if
+   * {@link #clientRegistered} already added it; the worker closes the channel itself.
+   */
+  void clientRegistrationFailed(ClientSession clientSession) {
+    clientSessionsMap.remove(clientSession.getChannel(), clientSession);
+  }
+
+  /**
+   * Called by a worker once it has registered a new channel with its selector and created the
+   * ClientSession. Sends the initial DTOs for client setup.
+   */
+  void clientRegistered(ClientSession clientSession) throws IOException {
+    SocketChannel clientChannel = clientSession.getChannel();
+    clientSessionsMap.put(clientChannel, clientSession);
+
+    SocketAddress remoteAddr = clientChannel.getRemoteAddress();
+    log(
+            "Accepted new connection from: "
+                    + (remoteAddr != null ? remoteAddr.toString() : "Unknown")
+                    + " | PlayerID: "
+                    + clientSession.getPlayerId()
+                    + " (Display: "
+                    + clientSession.getDisplayId()
+                    + ") on worker "
+                    + clientSession.getReactor().getWorkerIndex());
+
+    clientSession.send(
+            new ClientIdAssignmentDTO(
+                    clientSession.getPlayerId(),
+                    clientSession.getDisplayId(),
+                    WireCodecs.supportedNames(),
+                    WireCodecs.supportedCompressorNames(),
+                    clientSession.getResumeToken()));
+    clientSession.send(
+            new TextMessage(
+                    "Welcome, " + clientSession.getDisplayId() + "! Connected to Detective Game Server.",
+                    false));
+  }
+
+  /** Live connection count per worker, in worker order. Used by the admin console. */
+  public int[] getWorkerConnectionCounts() {
+    int[] counts = new int[workers.length];
+    for (int i = 0; i < workers.length; i++) {
+      counts[i] = workers[i].getConnectionCount();
     }
+    return counts;
   }
 
   // --- Client Management & Message Routing ---
 
   /**
-   * Processes a fully deserialized message from a client. Routes it to GameSessionManager (for
-   * lobby commands) or GameSession (for in-game commands).
+   * Processes a fully deserialized message from a client. Routes it (on the client's mailbox) to
+   * GameSessionManager (for lobby commands) or the GameSession's mailbox (for in-game commands).
    */
   public void processClientMessage(ClientSession sender, Object message) {
     if (sender == null || message == null) return; // Basic sanity check.
+    // Called on a worker selector thread: just enqueue. The client's own mailbox keeps its messages
+    // in wire order, and routing there sees the session association left by earlier messages.
+    sender.getMailbox().execute(() -> routeClientMessage(sender, message));
+  }
+
+  /** Runs on the sender's mailbox. In-session work is forwarded to that session's mailbox. */
+  private void routeClientMessage(ClientSession sender, Object message) {
     log("Received from " + sender.getDisplayId() + ": " + message.getClass().getSimpleName());
 
-    if (message instanceof Command command) {
+    if (message instanceof WireCodecSelectionDTO selection) {
+      handleCodecSelection(sender, selection);
+    } else if (message instanceof ResumeSessionRequestDTO resume) {
+      sessionManager.resumeSession(sender, resume);
+    } else if (message instanceof RequestCaseFileCommand fetch) {
+      // Answered the same in or out of a game; it never touches session state.
+      sender.send(sessionManager.getCaseFile(fetch.getContentHash()));
+    } else if (message instanceof Command command) {
       GameSession session = sender.getAssociatedGameSession();
       if (session != null) {
         // Client is in a game session (could be WAITING, ACTIVE, etc.)
-        session.processCommand(command, sender.getPlayerId());
+        forwardToSession(sender, session, message, () -> session.processCommand(command, sender.getPlayerId()));
       } else {
         // Client is not in a game session yet (e.g., just connected, using lobby commands).
         sessionManager.processLobbyCommand(sender, command);
@@ -304,8 +462,8 @@ public class GameServer implements Runnable {
               && (session.getState() == GameSessionState.ACTIVE
               || session.getState() == GameSessionState.IN_LOBBY_AWAITING_START
               || (session.getState() == GameSessionState.WAITING_FOR_PLAYERS
-              && session.isFull()))) {
-        session.processChatMessage(chatMsg);
+              && session.getPlayerCount() > 1))) {
+        forwardToSession(sender, session, message, () -> session.processChatMessage(chatMsg, sender.getPlayerId()));
       } else {
         sender.send(new TextMessage("Chat only available in game lobbies or active games.", true));
       }
@@ -320,14 +478,48 @@ public class GameServer implements Runnable {
   }
 
   /**
-   * Cleans up a client connection: cancels key, closes channel, notifies session manager. Called
-   * when an error occurs or client disconnects.
+   * Runs {@code work} on {@code session}'s mailbox if the sender is still in that session by then.
+   * A session only ever clears the association on its own mailbox, so a leave (or an ended game) queued
+   * ahead of this message has taken effect when the check runs; a message that lost that race is
+   * routed again from the sender's mailbox, to the lobby or whatever session they're in now.
    */
+  private void forwardToSession(ClientSession sender, GameSession session, Object message, Runnable work) {
+    session.getMailbox().execute(() -> {
+      if (sender.getAssociatedGameSession() != session) {
+        sender.getMailbox().execute(() -> routeClientMessage(sender, message));
+        return;
+      }
+      work.run();
+    });
+  }
 
+  /**
+   * Connection-level: switches the sender's outbound wire format to the codec and compressor it
+   * picked from our offer.
+   */
+  private void handleCodecSelection(ClientSession sender, WireCodecSelectionDTO selection) {
+    WireCodec codec = WireCodecs.byName(selection.getCodecName());
+    if (codec == null) {
+      log("Client " + sender.getDisplayId() + " selected unknown codec '" + selection.getCodecName() + "'. Staying on " + sender.getOutboundFormat() + ".");
+      return;
+    }
+    FrameCompressor compressor = null;
+    if (selection.getCompressorName() != null) {
+      compressor = WireCodecs.compressorByName(selection.getCompressorName());
+      if (compressor == null) {
+        log("Client " + sender.getDisplayId() + " selected unknown compressor '" + selection.getCompressorName() + "'. Sending uncompressed.");
+      }
+    }
+    WireFormat format = WireFormat.of(codec, compressor, NetworkConstants.COMPRESSION_THRESHOLD_BYTES);
+    sender.setOutboundFormat(format);
+    log("Client " + sender.getDisplayId() + " now uses wire format " + format);
+  }
 
-// PASTE THIS, REPLACING the current cleanupClient method in server/GameServer.java
-
-  private void cleanupClient(SelectionKey key, String reason) {
+  /**
+   * Cleans up a client connection: cancels key, closes channel, notifies session manager. Called
+   * by the owning worker when an error occurs or client disconnects.
+   */
+  void cleanupClient(SelectionKey key, String reason) {
     SocketChannel clientChannel = null;
     ClientSession clientSession = null;
 
@@ -337,13 +529,17 @@ public class GameServer implements Runnable {
       key.cancel();
     }
 
-    if (clientChannel != null) {
-      clientSessionsMap.remove(clientChannel);
+    if (clientChannel != null
+            && clientSessionsMap.remove(clientChannel) != null
+            && clientSession != null) {
+      clientSession.getReactor().connectionClosed();
     }
 
     if (clientSession != null) {
       logger.info("Cleaning up client {}. Reason: {}", clientSession.getDisplayId(), reason);
-      sessionManager.handleClientDisconnect(clientSession);
+      // Queued behind anything this client already sent, so its last commands still apply.
+      ClientSession disconnected = clientSession;
+      clientSession.getMailbox().execute(() -> sessionManager.handleClientDisconnect(disconnected));
     } else {
       logger.info("Cleaning up a client that had no session. Reason: {}", reason);
     }
@@ -355,44 +551,10 @@ public class GameServer implements Runnable {
     } catch (IOException ex) {
       logger.error("Error closing channel during cleanup.", ex);
     }
-  }
-
-  /**
-   * Called by ClientSession when its writeQueue is empty. Signals the selector that this channel is
-   * no longer interested in write operations (for now).
-   */
-  public void registerForWrite(ClientSession client) {
-    if (client == null || client.getChannel() == null || !client.getChannel().isOpen() || selector == null || !selector.isOpen()) {
-      return; // Invalid state, do nothing.
-    }
-    try {
-      SelectionKey key = client.getChannel().keyFor(selector);
-      if (key != null && key.isValid()) {
-        key.interestOps(key.interestOps() | SelectionKey.OP_WRITE); // Add write interest
-        selector.wakeup(); // Wake up selector if it's blocking
-      }
-    } catch (CancelledKeyException e) {
-      // Key was cancelled, client is likely disconnecting. Cleanup is handled elsewhere.
-      logger.debug("Could not register for write, key cancelled for {}", client.getPlayerId());
-    }
-  }
-
-  /**
-   * Called by a ClientSession when its writeQueue is empty.
-   * This signals the selector that the channel is no longer interested in write operations.
-   */
-  public void unregisterForWrite(ClientSession client) {
-    if (client == null || client.getChannel() == null || !client.getChannel().isOpen() || selector == null || !selector.isOpen()) {
-      return;
-    }
-    try {
-      SelectionKey key = client.getChannel().keyFor(selector);
-      if (key != null && key.isValid()) {
-        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE); // Remove write interest
-      }
-    } catch (CancelledKeyException e) {
-      // Key was cancelled, client is likely disconnecting. Cleanup is handled elsewhere.
-      logger.debug("Could not unregister for write, key cancelled for {}", client.getPlayerId());
+    if (clientSession != null) {
+      // A send already past its closed check can still reach the inbox after this; it then asks the
+      // worker for another flush, which releases it (see ClientSession.sendFrames).
+      clientSession.releaseQueuedFrames();
     }
   }
 
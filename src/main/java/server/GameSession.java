@@ -1,18 +1,37 @@
 package server;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import common.NetworkConstants;
+import common.commands.CancelLobbyCommand;
 import common.commands.Command;
+import common.commands.ExitCommand;
+import common.commands.LookCommand;
+import common.wire.Coalescable;
 import common.dto.ChatMessage;
+import common.dto.GameStateData;
+import common.wire.EncodedFrame;
+import common.wire.WireCodecs;
+import common.wire.WireFormat;
+import common.dto.LanDiscoveryPacket;
 import common.dto.LobbyUpdateDTO;
+import common.dto.ResumeSessionResponseDTO;
 import common.dto.ReturnToLobbyDTO;
+import common.dto.SpectateGameResponseDTO;
 import common.dto.TextMessage;
 import common.dto.pinboard.PinboardStateDTO;
 import common.dto.pinboard.PinboardUpdateDTO;
@@ -20,48 +39,75 @@ import common.commands.pinboard.UpdatePinboardCommand;
 import common.commands.pinboard.RequestPinboardStateCommand;
 import common.commands.pinboard.PinboardStateResponseCommand;
 import JsonDTO.CaseData;
+import extractors.CaseWorld;
 
 public class GameSession {
   private static final Logger logger = LoggerFactory.getLogger(GameSession.class);
   private final String sessionId;
   private final PinboardStateDTO pinboardState = new PinboardStateDTO();
   private final GameContextServer gameContext;
-  private ClientSession player1;
-  private ClientSession player2;
+  // Everyone in the session, host in slot 0. Sized from the server's players-per-game setting.
+  private final PlayerRoster<ClientSession> players;
+  // Only ever replaced by the host's own resumed connection: the session ends when the host leaves.
+  private ClientSession host;
+  private volatile int playerCount; // players.size(), for threads that aren't on the mailbox.
+  // Read-only watchers. Created with the first one; mailbox only, like the player roster.
+  private PlayerRoster<ClientSession> spectators;
+  private long spectatorFramesSkipped; // Events a lagging spectator missed (see sendToSpectator).
   private final ReentrantLock sessionLock = new ReentrantLock();
+  // Commands, chat and disconnects for this session run here, in order, off the I/O threads.
+  private final SerialExecutor mailbox;
+  // Players whose outbound queue is over the high-water mark (see ClientSession). Only touched on
+  // the mailbox; read by isThrottled() from anywhere.
+  private final Set<String> backpressuredPlayers = ConcurrentHashMap.newKeySet();
   private GameSessionState state;
   private String gameCode;
   private final boolean isPublic;
   private final GameSessionManager sessionManager;
   private final GameServer server;
   private final CaseData caseFile;
-  private LanGameBroadcaster broadcaster;
-  private Thread broadcasterThread;
-
+  private final CaseWorld world; // Shared with every session of this case and language; read-only.
+  private volatile boolean advertised; // Announced by the manager's LAN broadcaster.
+  // NPC ticks: the server's timer fires npcTickDue(), which queues at most one tick on the mailbox.
+  private volatile ScheduledFuture<?> npcTicks;
+  private final AtomicBoolean npcTickQueued = new AtomicBoolean();
+  // Everything that changes the game goes in here so a restart can rebuild it (see SessionStore).
+  // Null when the server runs without a store.
+  private CommandLog commandLog;
+  private boolean restoring; // Replaying the log: nothing is logged again and ticks stay off.
+  private GameSessionState suspendedFrom; // Where a restored session picks up once players are back.
+  // Players whose connection dropped, by ID: the timer that gives their seat up if they don't resume.
+  private final Map<String, ScheduledFuture<?>> awayPlayers = new ConcurrentHashMap<>();
 
   /**
    * Overloaded constructor for backward compatibility. Assumes a public game.
    */
-  public GameSession(CaseData caseFile, ClientSession hostPlayer, GameSessionManager manager, GameServer server) {
-    this(caseFile, hostPlayer, true, null, manager, server);
+  public GameSession(CaseWorld world, ClientSession hostPlayer, GameSessionManager manager, GameServer server) {
+    this(world, hostPlayer, true, null, manager, server);
   }
 
-  public GameSession(CaseData caseFile, ClientSession hostPlayer, boolean isPublic, String assignedGameCode, GameSessionManager manager, GameServer server) {
+  public GameSession(CaseWorld world, ClientSession hostPlayer, boolean isPublic, String assignedGameCode, GameSessionManager manager, GameServer server) {
     this.sessionId = UUID.randomUUID().toString();
-    this.caseFile = Objects.requireNonNull(caseFile, "CaseData object cannot be null");
+    this.world = Objects.requireNonNull(world, "CaseWorld cannot be null");
+    this.caseFile = world.getCaseData();
     this.sessionManager = Objects.requireNonNull(manager, "GameSessionManager cannot be null");
     this.server = Objects.requireNonNull(server, "GameServer cannot be null");
+    this.mailbox = server.newMailbox("session-" + sessionId.substring(0, 8));
     this.isPublic = isPublic;
     this.state = GameSessionState.LOADING;
-    this.player1 = Objects.requireNonNull(hostPlayer, "Host player (player1) cannot be null");
+    this.host = Objects.requireNonNull(hostPlayer, "Host player cannot be null");
+    this.players = new PlayerRoster<>(server.getMaxPlayersPerGame());
+    players.add(hostPlayer.getPlayerId(), hostPlayer);
+    this.playerCount = players.size();
     hostPlayer.setAssociatedGameSession(this);
+    seated(hostPlayer);
     if (!isPublic) {
       this.gameCode = Objects.requireNonNull(assignedGameCode, "Private game session must be created with an assigned game code.");
     } else {
       this.gameCode = null;
     }
 
-    this.gameContext = new GameContextServer(this, this.caseFile, hostPlayer.getPlayerId(), null);
+    this.gameContext = new GameContextServer(this, this.caseFile, hostPlayer.getPlayerId(), players.capacity());
 
     if (!loadCaseDataIntoContext()) {
       this.state = GameSessionState.ERROR;
@@ -69,25 +115,143 @@ public class GameSession {
       hostPlayer.send(new TextMessage("Error: Failed to initialize the game data for this case. Session cannot start.", true));
     } else {
       this.state = GameSessionState.WAITING_FOR_PLAYERS;
-      log("Session created for case '" + this.caseFile.getTitle() + "'. Host: " + hostPlayer.getDisplayId() + ". Waiting for Player 2.");
+      log("Session created for case '" + this.caseFile.getTitle() + "'. Host: " + hostPlayer.getDisplayId() + ". Waiting for players (up to " + players.capacity() + ").");
+      openCommandLog(0);
       startBroadcasting();
     }
   }
 
+  /**
+   * Rebuilds a session the session store found on disk: the case is loaded again, the snapshot put
+   * back on top, and the log records written after it replayed in order. Nobody is connected yet,
+   * so every player is a detached stand-in and the session waits in SUSPENDED.
+   */
+  GameSession(CaseWorld world, SessionStore.Recovered recovered, GameSessionManager manager, GameServer server) {
+    GameStateData snapshot = recovered.snapshot();
+    this.sessionId = Objects.requireNonNull(snapshot.getSessionId(), "Snapshot has no session ID");
+    this.world = Objects.requireNonNull(world, "CaseWorld cannot be null");
+    this.caseFile = world.getCaseData();
+    this.sessionManager = Objects.requireNonNull(manager, "GameSessionManager cannot be null");
+    this.server = Objects.requireNonNull(server, "GameServer cannot be null");
+    this.mailbox = server.newMailbox("session-" + sessionId.substring(0, 8));
+    this.isPublic = snapshot.isPublicGame();
+    this.gameCode = snapshot.getGameCode();
+    this.state = GameSessionState.LOADING;
+    List<String> ids = snapshot.getPlayerIds();
+    if (ids == null || ids.isEmpty()) {
+      throw new IllegalArgumentException("Snapshot of session " + sessionId + " has no players");
+    }
+    this.players = new PlayerRoster<>(Math.max(server.getMaxPlayersPerGame(), ids.size()));
+    Map<String, String> tokens = snapshot.getPlayerResumeTokens();
+    for (String id : ids) {
+      addDetachedPlayer(id, snapshot.getPlayerDisplayNames().get(id), tokens != null ? tokens.get(id) : null);
+    }
+    this.host = players.host();
+    this.gameContext = new GameContextServer(this, this.caseFile, host.getPlayerId(), players.capacity());
+    for (int i = 1; i < players.size(); i++) {
+      gameContext.addPlayer(players.idAt(i));
+    }
+    if (!loadCaseDataIntoContext()) {
+      this.state = GameSessionState.ERROR;
+      return;
+    }
+    gameContext.restoreState(snapshot);
+    if (snapshot.getPinboard() != null) {
+      pinboardState.setItems(snapshot.getPinboard().getItems());
+      pinboardState.setLinks(snapshot.getPinboard().getLinks());
+      pinboardState.setTemplateData(snapshot.getPinboard().getTemplateData());
+      pinboardState.setTemplateDroppedItems(snapshot.getPinboard().getTemplateDroppedItems());
+    }
+    this.state = parseState(snapshot.getSessionState());
+
+    restoring = true;
+    try {
+      replay(recovered.tail());
+    } finally {
+      restoring = false;
+    }
+    this.suspendedFrom = this.state;
+    this.state = GameSessionState.SUSPENDED;
+    // Start the log over from here: the old records are folded into this snapshot.
+    openCommandLog(recovered.lastSequence());
+    log("Restored from the session store (" + recovered.tail().size() + " log records replayed, was " + suspendedFrom
+            + "). Waiting for " + players.size() + " player(s) to reconnect.");
+    // Everyone is away until they resume. A host who doesn't ends the session, files and all.
+    for (ClientSession player : players) {
+      markAway(player, NetworkConstants.RESTORED_SESSION_TTL_MS);
+    }
+  }
+
+  private void addDetachedPlayer(String playerId, String displayName, String resumeToken) {
+    ClientSession player = ClientSession.detached(server, playerId,
+            displayName != null ? displayName : "Player-" + playerId.substring(0, 4), resumeToken);
+    if (players.add(playerId, player)) {
+      player.setAssociatedGameSession(this);
+      sessionManager.registerSeat(player);
+    }
+    playerCount = players.size();
+  }
+
+  private static GameSessionState parseState(String name) {
+    try {
+      return name != null ? GameSessionState.valueOf(name) : GameSessionState.WAITING_FOR_PLAYERS;
+    } catch (IllegalArgumentException e) {
+      return GameSessionState.WAITING_FOR_PLAYERS;
+    }
+  }
+
+  /**
+   * Redoes what happened after the snapshot, the same way it happened live: commands through the
+   * same checks and the same game context, joins and leaves on the roster. Players are all detached,
+   * so nothing goes out. A record that fails is skipped; the rest still apply.
+   */
+  private void replay(List<CommandLog.Entry> tail) {
+    for (CommandLog.Entry entry : tail) {
+      try {
+        switch (entry.type()) {
+          case CommandLog.COMMAND -> {
+            String playerId = entry.playerId();
+            if (players.contains(playerId)) {
+              applyCommand(entry.command(), playerId);
+            }
+          }
+          case CommandLog.JOIN -> {
+            String[] joined = entry.strings();
+            if (!players.contains(joined[0])) {
+              addDetachedPlayer(joined[0], joined[1], joined.length > 2 && !joined[2].isEmpty() ? joined[2] : null);
+              gameContext.addPlayer(joined[0]);
+            }
+          }
+          case CommandLog.LEAVE -> {
+            String leftId = entry.strings()[0];
+            if (!players.isHost(leftId) && players.remove(leftId) != null) {
+              playerCount = players.size();
+              gameContext.removePlayer(leftId);
+            }
+          }
+          case CommandLog.NPC_MOVES -> gameContext.replayNpcMoves(entry);
+          default -> log("Skipping log record " + entry.sequence() + " of unknown type " + entry.type() + ".");
+        }
+      } catch (IOException | RuntimeException e) {
+        log("Skipping log record " + entry.sequence() + " that couldn't be replayed: " + e);
+      }
+    }
+  }
+
   private void log(String message) {
     logger.info("[SESS:{}] {}", this.sessionId.substring(0, 8), message);
   }
 
+  /**
+   * Sets up this session's own state on top of the shared case world. The rooms, objects and texts
+   * were built once by the manager's world cache, so this is just fresh suspects, Watson, journal and
+   * tasks, and everyone's starting position.
+   */
   private boolean loadCaseDataIntoContext() {
     log("Loading case data into context...");
     gameContext.resetForNewCaseLoad();
     try {
-      if (!extractors.BuildingExtractor.loadBuilding(this.caseFile, this.gameContext)) {
-        log("Failed to load building data.");
-        return false;
-      }
-      extractors.GameObjectExtractor.loadObjects(this.caseFile, this.gameContext);
-      extractors.SuspectExtractor.loadSuspects(this.caseFile, this.gameContext);
+      gameContext.loadWorld(world);
     } catch (Exception e) {
       log("Unexpected error during case data loading: " + e.getMessage());
       server.logError("Stack trace for unexpected loading error in session " + sessionId, e);
@@ -101,46 +265,74 @@ public class GameSession {
   public boolean addPlayer(ClientSession newPlayer) {
     sessionLock.lock();
     try {
-      if (player2 != null) {
+      if (players.isFull()) {
         newPlayer.send(new common.dto.JoinGameResponseDTO(false, "Session is already full.", null));
         return false;
       }
-      if (this.state != GameSessionState.WAITING_FOR_PLAYERS) {
+      if (!isPreGame()) {
         newPlayer.send(new common.dto.JoinGameResponseDTO(false, "Session not currently accepting new players.", null));
         return false;
       }
-      if (player1 != null && player1.getPlayerId().equals(newPlayer.getPlayerId())) {
-        newPlayer.send(new common.dto.JoinGameResponseDTO(false, "You cannot join your own game as the second player.", null));
+      if (players.contains(newPlayer.getPlayerId())) {
+        newPlayer.send(new common.dto.JoinGameResponseDTO(false, "You are already in this game.", null));
         return false;
       }
-      player2 = newPlayer;
+      players.add(newPlayer.getPlayerId(), newPlayer);
+      playerCount = players.size();
       newPlayer.setAssociatedGameSession(this);
-      log("Player 2 (" + player2.getDisplayId() + ") joined session.");
-      this.gameContext.setPlayerIds(player1.getPlayerId(), player2.getPlayerId());
+      seated(newPlayer);
+      log("Player " + players.size() + " (" + newPlayer.getDisplayId() + ") joined session.");
+      this.gameContext.addPlayer(newPlayer.getPlayerId());
+      if (commandLog != null) {
+        commandLog.appendJoin(newPlayer.getPlayerId(), newPlayer.getDisplayId(), newPlayer.getResumeToken());
+      }
 
-      newPlayer.send(new common.dto.JoinGameResponseDTO(true, "Joined game: " + this.caseFile.getTitle() + " with host " + player1.getDisplayId(), this.sessionId));
+      newPlayer.send(new common.dto.JoinGameResponseDTO(true, "Joined game: " + this.caseFile.getTitle() + " with host " + host.getDisplayId(), this.sessionId));
 
-      stopBroadcasting();
-      startGameSession();
+      if (players.isFull()) {
+        stopBroadcasting();
+      }
+      startGameSession(newPlayer);
       return true;
     } finally {
       sessionLock.unlock();
     }
   }
 
-  private void startGameSession() {
+  /**
+   * Puts the lobby in front of everyone once a guest has joined. The first guest to arrive opens the
+   * lobby and everybody gets the invitation; anyone joining after that gets the invitation for
+   * themselves, and the others just get the new line-up.
+   */
+  private void startGameSession(ClientSession newcomer) {
+    boolean lobbyAlreadyOpen = this.state == GameSessionState.IN_LOBBY_AWAITING_START;
     setSessionState(GameSessionState.IN_LOBBY_AWAITING_START);
-    log("Session is now " + this.state + ". Players: " + player1.getDisplayId() + ", " + player2.getDisplayId());
+    log("Session is now " + this.state + ". Players: " + String.join(", ", getPlayerDisplayIds()));
+    String lineUp = players.size() == 2 ? "Both players are in the lobby." : players.size() + " detectives are in the lobby.";
     LobbyUpdateDTO gameReadyMsg = new LobbyUpdateDTO(
-            "Both players are in the lobby.",
+            lineUp,
             new ArrayList<>(getPlayerDisplayIds()),
             new ArrayList<>(getPlayerActualIds()),
-            (player1 != null ? player1.getPlayerId() : null),
+            host.getPlayerId(),
             true,
             caseFile.getInvitation(),
             caseFile.getTasks());
-    broadcast(gameReadyMsg, null);
-    broadcast(new TextMessage("--- Case Invitation ---\n" + caseFile.getInvitation() + "\n\nHost (" + player1.getDisplayId() + ") should type 'start case' to begin.", false), null);
+    TextMessage invitation = new TextMessage("--- Case Invitation ---\n" + caseFile.getInvitation() + "\n\nHost (" + host.getDisplayId() + ") should type 'start case' to begin.", false);
+    if (!lobbyAlreadyOpen) {
+      broadcast(gameReadyMsg, null);
+      broadcast(invitation, null);
+      return;
+    }
+    newcomer.send(gameReadyMsg);
+    newcomer.send(invitation);
+    broadcast(new LobbyUpdateDTO(
+            newcomer.getDisplayId() + " joined the lobby. " + lineUp,
+            new ArrayList<>(getPlayerDisplayIds()),
+            new ArrayList<>(getPlayerActualIds()),
+            host.getPlayerId(),
+            true,
+            null,
+            null), newcomer.getPlayerId());
   }
 
   public void handlePlayerDisconnect(ClientSession disconnectedClient) {
@@ -148,42 +340,194 @@ public class GameSession {
     try {
       String leavingPlayerId = disconnectedClient.getPlayerId();
       String leavingPlayerDisplayId = disconnectedClient.getDisplayId();
-      boolean wasP1 = player1 != null && player1.getPlayerId().equals(leavingPlayerId);
-      boolean wasP2 = player2 != null && player2.getPlayerId().equals(leavingPlayerId);
+      if (isSpectator(leavingPlayerId)) {
+        backpressuredPlayers.remove(leavingPlayerId); // Its queue is gone with it.
+        spectators.remove(leavingPlayerId);
+        disconnectedClient.setAssociatedGameSession(null);
+        log("Spectator " + leavingPlayerDisplayId + " has disconnected.");
+        return;
+      }
+      if (players.get(leavingPlayerId) != disconnectedClient) return; // Gone already, or resumed elsewhere.
+      backpressuredPlayers.remove(leavingPlayerId); // Its queue is gone with it.
 
-      if (!wasP1 && !wasP2) return;
+      if (isPreGame() || this.state == GameSessionState.ACTIVE) {
+        // Could be a blip. Keep the seat for a while; resumePlayer() puts them back in it.
+        log("Player " + leavingPlayerDisplayId + " (ID: " + leavingPlayerId + ") lost their connection. Holding their seat.");
+        markAway(disconnectedClient, NetworkConstants.RESUME_GRACE_MS);
+        broadcast(new TextMessage(leavingPlayerDisplayId + " lost their connection. Waiting up to "
+                + NetworkConstants.RESUME_GRACE_MS / 1000 + " seconds for them to come back...", false), leavingPlayerId);
+        return;
+      }
+      giveUpSeat(disconnectedClient);
+    } finally {
+      sessionLock.unlock();
+    }
+  }
 
-      log("Player " + leavingPlayerDisplayId + " (ID: " + leavingPlayerId + ") has disconnected.");
-      disconnectedClient.setAssociatedGameSession(null);
+  /** A dropped player (or restored stand-in) keeps their seat until {@code graceMillis} runs out. */
+  private void markAway(ClientSession player, long graceMillis) {
+    ScheduledFuture<?> expiry = server.schedule(() -> mailbox.execute(() -> awayTooLong(player)), graceMillis);
+    ScheduledFuture<?> earlier = awayPlayers.put(player.getPlayerId(), expiry);
+    if (earlier != null) {
+      earlier.cancel(false);
+    }
+  }
 
-      if (wasP1) { // HOST DISCONNECTED
-        log("Host has disconnected. Ending session " + sessionId);
-        if (player2 != null) {
-          player2.send(new TextMessage("The host (" + leavingPlayerDisplayId + ") has disconnected. The session has ended.", false));
-          player2.send(new ReturnToLobbyDTO("Returning to main menu as host has left."));
-          player2.setAssociatedGameSession(null);
-        }
-        stopBroadcasting();
-        sessionManager.endSession(this.sessionId, "Host disconnected.");
-      } else if (wasP2) { // GUEST DISCONNECTED
-        log("Guest has disconnected. Session " + sessionId + " continues for host.");
-        this.player2 = null;
-        if (gameContext != null) {
-          gameContext.setPlayerIds(player1.getPlayerId(), null);
+  private void awayTooLong(ClientSession player) {
+    sessionLock.lock();
+    try {
+      String playerId = player.getPlayerId();
+      if (players.get(playerId) != player || awayPlayers.remove(playerId) == null) {
+        return; // They're back, or the session is over.
+      }
+      log("Player " + player.getDisplayId() + " didn't come back in time.");
+      giveUpSeat(player);
+    } finally {
+      sessionLock.unlock();
+    }
+  }
+
+  /** The player is gone for good, as if they'd left: a host ends the session, a guest leaves it. */
+  private void giveUpSeat(ClientSession player) {
+    String leavingPlayerId = player.getPlayerId();
+    String leavingPlayerDisplayId = player.getDisplayId();
+    log("Player " + leavingPlayerDisplayId + " (ID: " + leavingPlayerId + ") has disconnected.");
+    player.setAssociatedGameSession(null);
+
+    if (players.isHost(leavingPlayerId)) { // HOST DISCONNECTED
+      log("Host has disconnected. Ending session " + sessionId);
+      releaseGuests("The host (" + leavingPlayerDisplayId + ") has disconnected. The session has ended.",
+              "Returning to main menu as host has left.");
+      stopBroadcasting();
+      sessionManager.endSession(this.sessionId, "Host disconnected.");
+    } else { // GUEST DISCONNECTED
+      log("Guest has disconnected. Session " + sessionId + " continues for host.");
+      removeGuest(player);
+    }
+  }
+
+  // --- Resume ---
+
+  private void seated(ClientSession player) {
+    player.startResumeBuffer();
+    sessionManager.registerSeat(player);
+  }
+
+  /** Called by the manager when the session ends: nobody can resume into it any more. */
+  void releaseSeats() {
+    sessionLock.lock();
+    try {
+      for (ScheduledFuture<?> expiry : awayPlayers.values()) {
+        expiry.cancel(false);
+      }
+      awayPlayers.clear();
+      for (ClientSession player : players) {
+        sessionManager.releaseSeat(player);
+        player.releaseResumeBuffer();
+      }
+    } finally {
+      sessionLock.unlock();
+    }
+  }
+
+  /**
+   * Puts {@code connection} in the seat {@code previous} had (on the mailbox; the manager posts it
+   * here). The detective, the roster slot and the player ID all stay; only the connection changes.
+   * The client then gets the frames it missed, straight from the old connection's resume buffer, or
+   * a fresh look at where it is if those aren't all there any more.
+   *
+   * <p>If the old connection still looks alive (its drop hasn't been noticed yet), it's dropped now
+   * and this runs again shortly, until {@code giveUpAt}.
+   */
+  void resumePlayer(ClientSession connection, ClientSession previous, long framesReceived, long giveUpAt) {
+    sessionLock.lock();
+    try {
+      String playerId = previous.getPlayerId();
+      if (players.get(playerId) != previous || connection.getAssociatedGameSession() != null) {
+        connection.send(ResumeSessionResponseDTO.failed("That seat isn't held for you any more."));
+        return;
+      }
+      if (!previous.isResumeReady()) {
+        if (System.currentTimeMillis() > giveUpAt) {
+          connection.send(ResumeSessionResponseDTO.failed("Your old connection is still active."));
+          return;
         }
-        if (this.state == GameSessionState.ACTIVE && player1 != null) {
-          player1.send(new TextMessage(leavingPlayerDisplayId + " has left the game. You may continue your investigation solo.", false));
-        } else if (this.state == GameSessionState.IN_LOBBY_AWAITING_START && player1 != null) {
-          this.state = GameSessionState.WAITING_FOR_PLAYERS;
-          player1.send(new TextMessage(leavingPlayerDisplayId + " has left the lobby. Waiting for a new player...", false));
-          log("Session " + sessionId + " is now back to WAITING_FOR_PLAYERS.");
+        previous.requestDisconnect();
+        server.schedule(() -> mailbox.execute(() -> resumePlayer(connection, previous, framesReceived, giveUpAt)), 50);
+        return;
+      }
+      ScheduledFuture<?> expiry = awayPlayers.remove(playerId);
+      if (expiry != null) {
+        expiry.cancel(false);
+      }
+      List<EncodedFrame> missed = previous.getResumeBuffer().missedSince(framesReceived);
+      connection.adopt(previous);
+      players.replace(playerId, connection);
+      if (host == previous) {
+        host = connection;
+      }
+      sessionManager.moveSeat(previous, connection);
+      previous.releaseResumeBuffer();
+      if (this.state == GameSessionState.SUSPENDED) {
+        wakeUp();
+      }
+      log("Player " + connection.getDisplayId() + " resumed on a new connection ("
+              + (missed != null ? missed.size() + " frames replayed" : "resynced") + ").");
+
+      connection.sendResumeResponse(new ResumeSessionResponseDTO(true, "Welcome back! You're in your game again.",
+              playerId, connection.getDisplayId(), sessionId, host.getPlayerId(), this.state == GameSessionState.ACTIVE,
+              missed != null ? missed.size() : -1), framesReceived);
+      if (missed != null) {
+        connection.sendFrames(missed);
+        for (EncodedFrame frame : missed) {
+          frame.release();
         }
+      } else {
+        resync(connection);
       }
+      broadcast(new TextMessage(connection.getDisplayId() + " is back.", false), playerId);
     } finally {
       sessionLock.unlock();
     }
   }
 
+  /** A restored session's first player is back: it carries on where it was when the server stopped. */
+  private void wakeUp() {
+    this.state = suspendedFrom;
+    suspendedFrom = null;
+    log("Resuming as " + this.state + ".");
+    if (this.state == GameSessionState.ACTIVE && gameContext.isCaseStarted()) {
+      startNpcTicks();
+    } else if (isPreGame() && !players.isFull()) {
+      startBroadcasting();
+      if (this.gameCode == null) {
+        sessionManager.relistPublicLobby(this);
+      }
+    }
+  }
+
+  /**
+   * Brings a resumed player up to date when what they missed can't be replayed: where they are in
+   * the game, or the lobby as it stands.
+   */
+  private void resync(ClientSession player) {
+    player.send(new TextMessage("Some updates were lost while you were away. Here's where things stand.", false));
+    if (this.state == GameSessionState.ACTIVE) {
+      LookCommand look = new LookCommand();
+      look.setPlayerId(player.getPlayerId());
+      gameContext.executeCommand(look);
+    } else if (this.state == GameSessionState.IN_LOBBY_AWAITING_START) {
+      player.send(new LobbyUpdateDTO(
+              players.size() + " detectives are in the lobby.",
+              new ArrayList<>(getPlayerDisplayIds()),
+              new ArrayList<>(getPlayerActualIds()),
+              host.getPlayerId(),
+              true,
+              caseFile.getInvitation(),
+              caseFile.getTasks()));
+    }
+  }
+
   public void playerRequestsExit(String playerId) {
     sessionLock.lock();
     try {
@@ -195,40 +539,18 @@ public class GameSession {
 
       log("Player " + exitingPlayer.getDisplayId() + " has requested to exit the game.");
 
-      boolean wasHost = (player1 != null && player1.getPlayerId().equals(playerId));
-
-      if (wasHost) {
+      if (players.isHost(playerId)) {
         log("Host is exiting. The session will be terminated.");
-        if (player2 != null) {
-          player2.send(new TextMessage("The host has ended the game session.", false));
-          player2.send(new ReturnToLobbyDTO("Returning to main menu."));
-          player2.setAssociatedGameSession(null);
-        }
-        player1.send(new ReturnToLobbyDTO("You have left the game."));
-        player1.setAssociatedGameSession(null);
+        releaseGuests("The host has ended the game session.", "Returning to main menu.");
+        host.send(new ReturnToLobbyDTO("You have left the game."));
+        host.setAssociatedGameSession(null);
         sessionManager.endSession(this.sessionId, "Host exited the game.");
       }
       else {
         log("Guest (" + exitingPlayer.getDisplayId() + ") is exiting. Host will remain.");
         exitingPlayer.send(new ReturnToLobbyDTO("You have left the game."));
         exitingPlayer.setAssociatedGameSession(null);
-        this.player2 = null;
-        if (gameContext != null) {
-          gameContext.setPlayerIds(player1.getPlayerId(), null);
-        }
-        if (player1 != null) {
-          player1.send(new TextMessage(exitingPlayer.getDisplayId() + " has left the lobby.", false));
-          if (this.state == GameSessionState.ACTIVE) {
-            player1.send(new TextMessage("You may continue your investigation solo.", false));
-          } else if (this.state == GameSessionState.IN_LOBBY_AWAITING_START) {
-            setSessionState(GameSessionState.WAITING_FOR_PLAYERS);
-            log("Session is now back to WAITING_FOR_PLAYERS.");
-            player1.send(new TextMessage("Waiting for a new player...", false));
-            if (this.gameCode == null) {
-              sessionManager.relistPublicLobby(this);
-            }
-          }
-        }
+        removeGuest(exitingPlayer);
       }
     } finally {
       sessionLock.unlock();
@@ -238,6 +560,22 @@ public class GameSession {
   public void processCommand(Command command, String playerId) {
     sessionLock.lock();
     try {
+      if (isSpectator(playerId)) {
+        handleSpectatorCommand(command, playerId);
+        return;
+      }
+      applyCommand(command, playerId);
+      snapshotIfDue();
+    } finally {
+      sessionLock.unlock();
+    }
+  }
+
+  /**
+   * Runs one player's command: live from processCommand, or from the command log on a restore. What
+   * gets executed (or changes the pinboard) is logged first.
+   */
+  private void applyCommand(Command command, String playerId) {
       command.setPlayerId(playerId);
       boolean commandAllowed = false;
       if (this.state == GameSessionState.ACTIVE) {
@@ -256,6 +594,7 @@ public class GameSession {
       }
 
       if (command instanceof UpdatePinboardCommand) {
+          logCommand(command, playerId);
           handleUpdatePinboard((UpdatePinboardCommand) command, playerId);
           return; // Handled separately
       } else if (command instanceof RequestPinboardStateCommand) {
@@ -264,6 +603,7 @@ public class GameSession {
       }
 
       if (commandAllowed) {
+        logCommand(command, playerId);
         gameContext.executeCommand(command);
       } else {
         ClientSession sender = getClientSessionById(playerId);
@@ -271,6 +611,95 @@ public class GameSession {
           sender.send(new TextMessage("Command not allowed in current session state: " + this.state, true));
         }
       }
+  }
+
+  // --- Command log ---
+
+  /** Starts this session's command log (if the server keeps one) with a snapshot of where we are. */
+  private void openCommandLog(long lastSequence) {
+    SessionStore store = server.getSessionStore();
+    if (store == null) {
+      return;
+    }
+    commandLog = store.open(sessionId, lastSequence);
+    writeSnapshot();
+  }
+
+  /**
+   * Exit and cancel aren't logged: they end the session or take a guest out, and the leave is
+   * logged on its own.
+   */
+  private void logCommand(Command command, String playerId) {
+    if (commandLog == null || restoring || command instanceof ExitCommand || command instanceof CancelLobbyCommand) {
+      return;
+    }
+    commandLog.appendCommand(playerId, command);
+  }
+
+  /** Logs the NPC moves of the tick that just ran (on the mailbox, from the game context). */
+  void logNpcMoves(NpcSimulation simulation) {
+    if (commandLog == null || restoring) {
+      return;
+    }
+    simulation.logMoves(commandLog);
+    sessionLock.lock();
+    try {
+      snapshotIfDue();
+    } finally {
+      sessionLock.unlock();
+    }
+  }
+
+  /**
+   * A snapshot every so many records keeps recovery short. Not during a final exam: its progress
+   * isn't part of a snapshot, so the log carries it until the exam is over.
+   */
+  private void snapshotIfDue() {
+    if (commandLog != null && !restoring && commandLog.isSnapshotDue() && !gameContext.isExamActive()) {
+      writeSnapshot();
+    }
+  }
+
+  private void writeSnapshot() {
+    GameStateData snapshot = gameContext.captureState();
+    snapshot.setSessionId(sessionId);
+    snapshot.setCaseUniversalTitle(world.getSource().getUniversalTitle());
+    snapshot.setLanguageCode(world.getLanguageCode());
+    snapshot.setPublicGame(isPublic);
+    snapshot.setGameCode(gameCode);
+    snapshot.setSessionState((this.state == GameSessionState.SUSPENDED ? suspendedFrom : this.state).name());
+    List<String> ids = new ArrayList<>(players.size());
+    Map<String, String> names = snapshot.getPlayerDisplayNames();
+    Map<String, String> tokens = snapshot.getPlayerResumeTokens();
+    for (int i = 0; i < players.size(); i++) {
+      ids.add(players.idAt(i));
+      names.put(players.idAt(i), players.at(i).getDisplayId());
+      if (players.at(i).getResumeToken() != null) {
+        tokens.put(players.idAt(i), players.at(i).getResumeToken());
+      }
+    }
+    snapshot.setPlayerIds(ids);
+    snapshot.setPinboard(pinboardState);
+    snapshot.setLastPlayedTimestamp(System.currentTimeMillis());
+    commandLog.snapshot(snapshot);
+  }
+
+  /** The session is over for good: its files go once the log has caught up. */
+  void discardCommandLog() {
+    if (commandLog != null) {
+      commandLog.discard();
+    }
+  }
+
+  /** Chat from one of our connections. Spectators watch; they don't get a say. */
+  public void processChatMessage(ChatMessage chatMessage, String senderId) {
+    sessionLock.lock();
+    try {
+      if (isSpectator(senderId)) {
+        spectators.get(senderId).send(new TextMessage("Spectators can't chat. Type 'exit' to stop watching.", true));
+        return;
+      }
+      processChatMessage(chatMessage);
     } finally {
       sessionLock.unlock();
     }
@@ -287,13 +716,201 @@ public class GameSession {
     }
   }
 
+  /**
+   * Tells every guest and spectator the host is gone and sends them back to the main menu. The
+   * session is about to end, so they stay in the rosters.
+   */
+  private void releaseGuests(String notice, String returnMessage) {
+    for (int i = 1; i < players.size(); i++) {
+      ClientSession guest = players.at(i);
+      guest.send(new TextMessage(notice, false));
+      guest.send(new ReturnToLobbyDTO(returnMessage));
+      guest.setAssociatedGameSession(null);
+    }
+    if (spectators != null) {
+      for (ClientSession spectator : spectators) {
+        spectator.send(new TextMessage(notice, false));
+        spectator.send(new ReturnToLobbyDTO(returnMessage));
+        spectator.setAssociatedGameSession(null);
+      }
+    }
+  }
+
+  // --- Spectators ---
+
+  /**
+   * Adds a read-only spectator (on the mailbox; the manager posts it here). They get a snapshot in
+   * the response and then every session-wide broadcast and room-local event, but nobody's private
+   * messages, and they can't send commands or chat.
+   */
+  void addSpectator(ClientSession spectator) {
+    sessionLock.lock();
+    try {
+      if (this.state != GameSessionState.WAITING_FOR_PLAYERS && this.state != GameSessionState.IN_LOBBY_AWAITING_START
+              && this.state != GameSessionState.ACTIVE) {
+        spectator.send(SpectateGameResponseDTO.failed("That game can't be watched right now."));
+        return;
+      }
+      if (spectator.getAssociatedGameSession() != null || players.contains(spectator.getPlayerId())) {
+        spectator.send(SpectateGameResponseDTO.failed("You are already in a game or lobby."));
+        return;
+      }
+      if (spectators == null) {
+        spectators = new PlayerRoster<>(NetworkConstants.MAX_SPECTATORS_PER_GAME);
+      }
+      if (!spectators.add(spectator.getPlayerId(), spectator)) {
+        spectator.send(SpectateGameResponseDTO.failed("This game already has as many spectators as it can take."));
+        return;
+      }
+      spectator.setAssociatedGameSession(this);
+      log(spectator.getDisplayId() + " is now spectating (" + spectators.size() + " watching).");
+      spectator.send(new SpectateGameResponseDTO(true, "Now watching " + caseFile.getTitle() + " hosted by " + host.getDisplayId() + ".",
+              sessionId, caseFile.getTitle(), getPlayerDisplayIds(), this.state == GameSessionState.ACTIVE));
+      broadcast(new TextMessage(spectator.getDisplayId() + " is now watching this game.", false), spectator.getPlayerId());
+    } finally {
+      sessionLock.unlock();
+    }
+  }
+
+  private boolean isSpectator(String playerId) {
+    return spectators != null && spectators.contains(playerId);
+  }
+
+  /** Spectators can only leave. */
+  private void handleSpectatorCommand(Command command, String spectatorId) {
+    ClientSession spectator = spectators.get(spectatorId);
+    if (command instanceof ExitCommand || command instanceof CancelLobbyCommand) {
+      spectators.remove(spectatorId);
+      spectator.setAssociatedGameSession(null);
+      spectator.send(new ReturnToLobbyDTO("You stopped watching the game."));
+      log(spectator.getDisplayId() + " stopped spectating.");
+    } else {
+      spectator.send(new TextMessage("You're spectating this game. Type 'exit' to stop watching.", true));
+    }
+  }
+
+  public boolean hasSpectators() {
+    return spectators != null && !spectators.isEmpty();
+  }
+
+  /** Sends a DTO to the spectators only, encoded once per wire format for all of them. */
+  public void sendToSpectators(Serializable dto) {
+    if (!hasSpectators()) {
+      return;
+    }
+    fanOut(dto, List.of(), null, true);
+  }
+
+  /**
+   * Takes a guest out of the roster and the game context, then tells whoever is left. A lobby down
+   * to just the host goes back to waiting, and a lobby with room again is advertised (and, if it's
+   * public, listed) again.
+   */
+  private void removeGuest(ClientSession guest) {
+    players.remove(guest.getPlayerId());
+    playerCount = players.size();
+    sessionManager.releaseSeat(guest);
+    guest.releaseResumeBuffer();
+    gameContext.removePlayer(guest.getPlayerId());
+    if (commandLog != null) {
+      commandLog.appendLeave(guest.getPlayerId());
+    }
+    String name = guest.getDisplayId();
+    if (this.state == GameSessionState.ACTIVE) {
+      broadcast(new TextMessage(name + " has left the game. "
+              + (players.size() == 1 ? "You may continue your investigation solo." : "The investigation continues."), false), null);
+    } else if (isPreGame()) {
+      if (players.size() == 1) {
+        setSessionState(GameSessionState.WAITING_FOR_PLAYERS);
+        log("Session is now back to WAITING_FOR_PLAYERS.");
+        broadcast(new TextMessage(name + " has left the lobby. Waiting for a new player...", false), null);
+      } else {
+        broadcast(new TextMessage(name + " has left the lobby.", false), null);
+      }
+      startBroadcasting();
+      if (this.gameCode == null) {
+        sessionManager.relistPublicLobby(this);
+      }
+    }
+  }
+
+  /**
+   * Sends a DTO to everyone in the session (optionally minus one player). The DTO is serialized
+   * once per wire format in use and the same read-only frame is queued for every recipient on that
+   * format.
+   */
   public void broadcast(Serializable dto, String excludePlayerId) {
-    if (player1 != null && (excludePlayerId == null || !player1.getPlayerId().equals(excludePlayerId))) {
-      player1.send(dto);
+    fanOut(dto, players, excludePlayerId, true);
+  }
+
+  /**
+   * Sends a DTO to just these players, encoded once per wire format like {@link #broadcast}. For
+   * room-local events, whose audience comes from the context's interest manager. Spectators see
+   * every room, so they get it too.
+   */
+  public void sendToPlayers(Serializable dto, Iterable<ClientSession> recipients) {
+    fanOut(dto, recipients, null, true);
+  }
+
+  /**
+   * The one place messages for more than one connection get encoded: once per wire format in use,
+   * then the same frames are queued for every recipient on that format, spectators included. A
+   * hundred spectators on the players' format cost no extra encode at all.
+   */
+  private void fanOut(Serializable dto, Iterable<ClientSession> recipients, String excludePlayerId, boolean toSpectators) {
+    // Indexed by format key: the message's frame(s) in that format, several if it had to be
+    // chunked, or null until a recipient on that format comes up.
+    List<List<EncodedFrame>> framesByFormat = new ArrayList<>(Collections.nCopies(WireCodecs.FORMAT_KEY_COUNT, null));
+    try {
+      for (ClientSession recipient : recipients) {
+        sendEncoded(recipient, dto, excludePlayerId, framesByFormat);
+      }
+      if (toSpectators && spectators != null) {
+        for (int i = 0; i < spectators.size(); i++) {
+          sendToSpectator(spectators.at(i), dto, excludePlayerId, framesByFormat);
+        }
+      }
+    } catch (IOException e) {
+      server.logError("Failed to encode broadcast " + dto.getClass().getSimpleName() + " in session " + sessionId, e);
+    } finally {
+      for (List<EncodedFrame> frames : framesByFormat) {
+        if (frames != null) {
+          for (EncodedFrame frame : frames) {
+            frame.release(); // Each recipient's queue holds its own reference now.
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * A spectator that's fallen behind doesn't get a deeper queue. Coalescable updates still go out
+   * (its queue keeps only the latest of each), everything else is skipped and counted until it has
+   * caught up. Players never wait for a spectator, and a spectator's backlog never throttles the
+   * session (see onPlayerBackpressure).
+   */
+  private void sendToSpectator(ClientSession spectator, Serializable dto, String excludePlayerId,
+          List<List<EncodedFrame>> framesByFormat) throws IOException {
+    if (spectator.isBackpressured() && !(dto instanceof Coalescable)) {
+      spectator.recordSkippedFrames(1);
+      spectatorFramesSkipped++;
+      return;
+    }
+    sendEncoded(spectator, dto, excludePlayerId, framesByFormat);
+  }
+
+  private void sendEncoded(ClientSession recipient, Serializable dto, String excludePlayerId, List<List<EncodedFrame>> framesByFormat) throws IOException {
+    if (recipient == null || (excludePlayerId != null && recipient.getPlayerId().equals(excludePlayerId))) {
+      return;
     }
-    if (player2 != null && (excludePlayerId == null || !player2.getPlayerId().equals(excludePlayerId))) {
-      player2.send(dto);
+    WireFormat format = recipient.getOutboundFormat();
+    List<EncodedFrame> frames = framesByFormat.get(format.getKey());
+    if (frames == null) {
+      frames = EncodedFrame.encode(dto, format);
+      server.getStats().recordEncoded(frames);
+      framesByFormat.set(format.getKey(), frames);
     }
+    recipient.sendFrames(frames);
   }
 
   public void endSession(String reason) {
@@ -303,7 +920,7 @@ public class GameSession {
   public void notifyNameChangeToManagerIfHost(String updatedPlayerId, String newDisplayName) {
     sessionLock.lock();
     try {
-      if (player1 != null && player1.getPlayerId().equals(updatedPlayerId) && sessionManager != null && gameCode == null) {
+      if (players.isHost(updatedPlayerId) && sessionManager != null && gameCode == null) {
         sessionManager.updatePublicGameHostName(this.sessionId, newDisplayName);
       }
     } finally {
@@ -320,31 +937,108 @@ public class GameSession {
   public void setSessionState(GameSessionState state) { this.state = state; }
   public GameContextServer getGameContext() { return gameContext; }
   public GameServer getServer() { return server; }
-  public ClientSession getPlayer1() { return player1; }
-  public boolean isFull() { return player1 != null && player2 != null; }
+  public SerialExecutor getMailbox() { return mailbox; }
+
+  /**
+   * Called (on the mailbox) when one of our players' outbound queue crosses a water mark. While any
+   * player is backpressured the session counts as throttled, and anything optional it produces
+   * (periodic updates and the like) should check {@link #isThrottled()} and hold off.
+   */
+  void onPlayerBackpressure(ClientSession player, boolean backpressured) {
+    if (!players.contains(player.getPlayerId())) {
+      return; // A spectator; fanOut skips for them instead of slowing everyone down.
+    }
+    if (backpressured ? backpressuredPlayers.add(player.getPlayerId())
+                      : backpressuredPlayers.remove(player.getPlayerId())) {
+      log(player.getDisplayId() + (backpressured
+              ? " is falling behind (" + player.getQueuedBytes() + " bytes queued). Throttling."
+              : " caught up."));
+    }
+  }
+
+  /** True while at least one player can't keep up with what we send. */
+  public boolean isThrottled() {
+    return !backpressuredPlayers.isEmpty();
+  }
+
+  /**
+   * Starts this session's NPC ticks (on case start). Calling it again does nothing, and so does
+   * calling it while a restored session is still being rebuilt or waiting for its players.
+   */
+  void startNpcTicks() {
+    if (restoring || this.state == GameSessionState.SUSPENDED) {
+      return; // Ticks start once the players are back.
+    }
+    if (npcTicks == null) {
+      npcTicks = server.scheduleNpcTicks(this::npcTickDue);
+      log("NPC ticks every " + server.getNpcTickMillis() + " ms.");
+    }
+  }
+
+  /** Stops the NPC ticks for good; called when the session ends. */
+  void stopNpcTicks() {
+    ScheduledFuture<?> ticks = npcTicks;
+    if (ticks != null) {
+      ticks.cancel(false);
+    }
+  }
+
+  /**
+   * Runs on the timer thread. NPCs wait while a player is backpressured (their moves are optional
+   * traffic), and a tick is only queued if the last one has run, so a busy mailbox never piles them
+   * up.
+   */
+  private void npcTickDue() {
+    if (isThrottled() || !npcTickQueued.compareAndSet(false, true)) {
+      return;
+    }
+    mailbox.execute(() -> {
+      npcTickQueued.set(false);
+      gameContext.tickNpcs();
+    });
+  }
+
+  /** One line for the admin console: mailbox backlog plus each player's outbound queue. */
+  public String describeQueues() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("Session %s [%s] mailbox=%d", sessionId.substring(0, 8), state, mailbox.getPendingCount()));
+    sessionLock.lock(); // Called from the console thread; the roster belongs to the mailbox.
+    try {
+      for (ClientSession player : players) {
+        sb.append(String.format(" | %s: %d frames, %d bytes%s, %d coalesced", player.getDisplayId(),
+                player.getQueuedFrames(), player.getQueuedBytes(),
+                player.isBackpressured() ? " (backpressured)" : "", player.getCoalescedFrames()));
+      }
+      if (spectators != null && !spectators.isEmpty()) {
+        sb.append(String.format(" | %d spectators, %d events skipped", spectators.size(), spectatorFramesSkipped));
+      }
+    } finally {
+      sessionLock.unlock();
+    }
+    return sb.toString();
+  }
+  public ClientSession getHost() { return host; }
+  public int getPlayerCount() { return playerCount; }
+  public int getMaxPlayers() { return players.capacity(); }
+  public boolean isFull() { return playerCount >= players.capacity(); }
+  /** True while the session is in a pre-game lobby with a free seat. */
+  public boolean isAcceptingPlayers() { return isPreGame() && !isFull(); }
+  private boolean isPreGame() {
+    return this.state == GameSessionState.WAITING_FOR_PLAYERS || this.state == GameSessionState.IN_LOBBY_AWAITING_START;
+  }
   public List<String> getPlayerDisplayIds() {
-    List<String> ids = new ArrayList<>();
-    if (player1 != null) ids.add(player1.getDisplayId());
-    if (player2 != null) ids.add(player2.getDisplayId());
+    List<String> ids = new ArrayList<>(players.size());
+    for (ClientSession player : players) ids.add(player.getDisplayId());
     return ids;
   }
   public List<String> getPlayerActualIds() {
-    List<String> ids = new ArrayList<>();
-    if (player1 != null) ids.add(player1.getPlayerId());
-    if (player2 != null) ids.add(player2.getPlayerId());
+    List<String> ids = new ArrayList<>(players.size());
+    for (int i = 0; i < players.size(); i++) ids.add(players.idAt(i));
     return ids;
   }
+  /** O(1) via the roster's ID index. */
   public ClientSession getClientSessionById(String playerId) {
-    if (playerId == null) return null;
-    if (player1 != null && player1.getPlayerId().equals(playerId)) return player1;
-    if (player2 != null && player2.getPlayerId().equals(playerId)) return player2;
-    return null;
-  }
-  public ClientSession getOtherPlayer(String currentPlayerId) {
-    if (currentPlayerId == null) return null;
-    if (player1 != null && player1.getPlayerId().equals(currentPlayerId)) return player2;
-    if (player2 != null && player2.getPlayerId().equals(currentPlayerId)) return player1;
-    return null;
+    return players.get(playerId);
   }
 
   private void handleUpdatePinboard(UpdatePinboardCommand command, String senderId) {
@@ -452,19 +1146,13 @@ public void playerCancelsLobby(String playerId) {
           return;
       }
 
-      boolean isHost = player1 != null && player1.equals(cancellingPlayer);
-
-      if (isHost) {
+      if (players.isHost(playerId)) {
           log("Host is cancelling the lobby. Session will be terminated.");
 
-          if (player2 != null) {
-              player2.send(new TextMessage("The host has cancelled the lobby.", false));
-              player2.send(new ReturnToLobbyDTO("Returning to main menu."));
-              player2.setAssociatedGameSession(null);
-          }
+          releaseGuests("The host has cancelled the lobby.", "Returning to main menu.");
 
-          player1.send(new ReturnToLobbyDTO("You have left the lobby."));
-          player1.setAssociatedGameSession(null);
+          host.send(new ReturnToLobbyDTO("You have left the lobby."));
+          host.setAssociatedGameSession(null);
 
           stopBroadcasting();
           sessionManager.endSession(this.sessionId, "Lobby cancelled by host.");
@@ -476,20 +1164,7 @@ public void playerCancelsLobby(String playerId) {
           cancellingPlayer.send(new ReturnToLobbyDTO("You have left the lobby."));
           cancellingPlayer.setAssociatedGameSession(null);
 
-          this.player2 = null;
-          if (gameContext != null) {
-              gameContext.setPlayerIds(player1.getPlayerId(), null);
-          }
-
-          if (player1 != null) {
-              setSessionState(GameSessionState.WAITING_FOR_PLAYERS);
-              log("Session is now back to WAITING_FOR_PLAYERS.");
-              player1.send(new TextMessage(cancellingPlayer.getDisplayId() + " has left the lobby. Waiting for a new player...", false));
-              
-              if (this.gameCode == null) {
-                  sessionManager.relistPublicLobby(this);
-              }
-          }
+          removeGuest(cancellingPlayer);
       }
   } finally {
       sessionLock.unlock();
@@ -497,36 +1172,33 @@ public void playerCancelsLobby(String playerId) {
 }
 
     private void startBroadcasting() {
-        if (broadcaster != null) {
+        if (advertised) {
             log("Broadcaster already running.");
             return;
         }
+        advertised = true;
+        sessionManager.startAdvertising(this);
+        log("LAN discovery broadcast started.");
+    }
+
+    private void stopBroadcasting() {
+        if (advertised) {
+            advertised = false;
+            sessionManager.stopAdvertising(this);
+            log("LAN discovery broadcast stopped.");
+        }
+    }
 
-        java.util.function.Supplier<common.dto.LanDiscoveryPacket> packetSupplier = () -> new common.dto.LanDiscoveryPacket(
+    /** What the LAN broadcaster announces for this lobby. */
+    LanDiscoveryPacket toLanDiscoveryPacket() {
+        ClientSession host = this.host;
+        return new LanDiscoveryPacket(
                 this.sessionId,
                 this.getCaseTitle(),
-                this.player1.getDisplayId(),
+                host.getDisplayId(),
                 this.isPublic,
                 this.gameCode,
                 common.NetworkConstants.DEFAULT_PORT
         );
-
-        this.broadcaster = new LanGameBroadcaster(packetSupplier);
-        this.broadcasterThread = new Thread(broadcaster, "LanBroadcaster-" + sessionId.substring(0, 8));
-        this.broadcasterThread.setDaemon(true);
-        this.broadcasterThread.start();
-        log("LAN discovery broadcast started.");
-    }
-
-    private void stopBroadcasting() {
-        if (broadcaster != null) {
-            broadcaster.stop();
-            if (broadcasterThread != null) {
-                broadcasterThread.interrupt();
-            }
-            broadcaster = null;
-            broadcasterThread = null;
-            log("LAN discovery broadcast stopped.");
-        }
     }
 }
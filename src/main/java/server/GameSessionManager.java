@@ -2,20 +2,24 @@ package server;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import JsonDTO.CaseFile;
+import common.NetworkConstants;
 import common.commands.Command;
 import common.commands.HostGameCommand;
 import common.commands.JoinPrivateGameCommand;
 import common.commands.JoinPublicGameCommand;
 import common.commands.ListPublicGamesCommand;
 import common.commands.RequestCaseListCommand;
+import common.commands.SpectateGameCommand;
 import common.commands.UpdateDisplayNameCommand;
 import common.dto.AvailableCasesDTO;
+import common.dto.CaseFileDTO;
 import common.dto.HostGameRequestDTO;
 import common.dto.HostGameResponseDTO;
 import common.dto.JoinGameResponseDTO;
@@ -24,87 +28,179 @@ import common.dto.JoinPublicGameRequestDTO;
 import common.dto.PlayerNameChangedDTO;
 import common.dto.PublicGameInfoDTO;
 import common.dto.PublicGamesListDTO;
+import common.dto.ResumeSessionRequestDTO;
+import common.dto.ResumeSessionResponseDTO;
+import common.dto.SpectateGameResponseDTO;
+import common.dto.LanDiscoveryPacket;
 import common.dto.TextMessage;
 import common.dto.UpdateDisplayNameRequestDTO;
+import extractors.CaseFootprint;
 import extractors.CaseLoader;
+import extractors.CaseWorld;
 import JsonDTO.CaseFile;
-import JsonDTO.LocalizedCaseFile;
 import common.commands.*;
 import common.dto.*;
 import extractors.CaseLoader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
+/**
+ * GameSessionManager Registry of every game session on the server, plus the lobby commands that
+ * create and join them. One server can host any number of sessions at once.
+ *
+ * <p>There is no manager-wide lock. The registries are ConcurrentHashMaps (internally lock-striped),
+ * and every create/join/end path only uses their atomic operations, so lobby traffic for one
+ * session never waits on another. Anything that has to be consistent within a session (a second
+ * player joining, say) is the session's own job, under its own lock.
+ */
 public class GameSessionManager {
-  private final Map<String, CaseFile> availableCases;
+  private final CaseLibrary caseLibrary;
   private final Map<String, GameSession> activeSessionsById;
   private final Map<String, GameSession> publicLobbiesById;
+  // Code -> session id. A code is reserved (mapped to RESERVED_CODE) before its session exists.
   private final Map<String, String> privateGameCodeToSessionId;
-  private final Random randomForCodes = new Random();
-  private final ReentrantLock managerLock = new ReentrantLock();
+  private static final String RESERVED_CODE = "";
   private final GameServer server;
   private static final String CASES_DIRECTORY = "cases";
+  // Sized for a busy LAN event so the maps don't keep resizing while it fills up.
+  private static final int EXPECTED_SESSIONS = 1024;
+
+  // One LAN discovery broadcaster for all lobbies, instead of a thread per session.
+  private final Set<GameSession> advertisedLobbies = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean broadcasterStarted = new AtomicBoolean();
+  private final LanGameBroadcaster lanBroadcaster = new LanGameBroadcaster(this::collectLanPackets);
+
+  // Compiled case worlds, one per (case, language), shared by every session playing it.
+  private final Map<WorldKey, CaseWorld> caseWorlds = new ConcurrentHashMap<>();
+
+  // Resume token -> whoever holds that seat now, for every player seated in a session (connected,
+  // away, or a restored stand-in). Sessions add and remove their own players.
+  private final Map<String, ClientSession> seatsByResumeToken = new ConcurrentHashMap<>(EXPECTED_SESSIONS);
+
+  private record WorldKey(String universalTitle, String languageCode) {}
 
   public GameSessionManager(GameServer server) {
     this.server = server;
-    this.availableCases = new ConcurrentHashMap<>();
-    this.activeSessionsById = new ConcurrentHashMap<>();
-    this.publicLobbiesById = new ConcurrentHashMap<>();
-    this.privateGameCodeToSessionId = new ConcurrentHashMap<>();
-    loadAllAvailableCases();
-  }
-
-  private void loadAllAvailableCases() {
-    List<CaseFile> cases = CaseLoader.loadCases(CASES_DIRECTORY);
-    availableCases.clear();
-    for (CaseFile cf : cases) {
-      // MODIFIED: Use the language-independent universal_title as the key
-      availableCases.put(cf.getUniversalTitle().toLowerCase(), cf);
-    }
-    server.log("Loaded " + availableCases.size() + " cases from '" + CASES_DIRECTORY + "'.");
+    this.activeSessionsById = new ConcurrentHashMap<>(EXPECTED_SESSIONS);
+    this.publicLobbiesById = new ConcurrentHashMap<>(EXPECTED_SESSIONS);
+    this.privateGameCodeToSessionId = new ConcurrentHashMap<>(EXPECTED_SESSIONS);
+    this.caseLibrary = new CaseLibrary(CASES_DIRECTORY, this::caseLibrarySwapped);
+    caseLibrary.reload();
+    caseLibrary.startWatching();
   }
 
   public void reloadCases() {
     server.log("Admin: Reloading all case files...");
-    loadAllAvailableCases();
+    caseLibrary.reload();
+  }
+
+  /**
+   * A new version of the case library is in. Running sessions keep the world they started with; new
+   * ones compile from the new version. Cached worlds of cases that were replaced or removed go.
+   */
+  private void caseLibrarySwapped(CaseLibrary.Snapshot snapshot) {
+    caseWorlds.values().removeIf(world -> !snapshot.contains(world.getSource()));
+    server.log("Case library v" + snapshot.version() + ": " + snapshot.byTitle().size() + " case(s) from '"
+        + CASES_DIRECTORY + "'.");
+  }
+
+  /**
+   * The compiled world for a case in a language, built the first time anyone hosts that combination.
+   * A cached world is only reused while it was compiled from the CaseFile currently loaded, so a
+   * reload racing with a host can't hand out a stale one.
+   *
+   * @return The world, or null if the case data couldn't be compiled.
+   */
+  private CaseWorld worldFor(CaseFile multiLingualCase, String languageCode) {
+    WorldKey key = new WorldKey(multiLingualCase.getUniversalTitle().toLowerCase(), languageCode);
+    CaseWorld cached = caseWorlds.get(key);
+    if (cached != null && cached.getSource() == multiLingualCase) {
+      return cached;
+    }
+    // compute() runs at most one compile per key at a time; concurrent hosts of the same case wait
+    // for it instead of each building their own copy.
+    return caseWorlds.compute(key, (k, existing) ->
+        existing != null && existing.getSource() == multiLingualCase
+            ? existing
+            : CaseWorld.compile(multiLingualCase, languageCode));
+  }
+
+  /** Compiled case worlds currently cached, for the admin console. */
+  public int getCachedWorldCount() {
+    return caseWorlds.size();
+  }
+
+  /** One line per offered case: how much heap its text takes, and what it would as plain Strings. */
+  public List<String> describeCaseMemory() {
+    CaseLibrary.CaseCatalog catalog = caseLibrary.current().catalog();
+    List<String> lines = new ArrayList<>();
+    long heap = 0;
+    long asStrings = 0;
+    for (CaseSummaryDTO summary : catalog.summaries()) {
+      CaseFootprint footprint = CaseFootprint.of(catalog.casesByHash().get(summary.getContentHash()));
+      lines.add(footprint.describe());
+      heap += footprint.getHeapBytes();
+      asStrings += footprint.getAsStringsBytes();
+    }
+    lines.add(String.format("%d case(s): ~%.1f KiB of case text on the heap (~%.1f KiB as Strings).",
+        catalog.summaries().size(), heap / 1024.0, asStrings / 1024.0));
+    return lines;
   }
 
-  // NEW: This method returns the full multilingual CaseFile objects for the client.
-  public List<CaseFile> getAvailableCases() {
-    return new ArrayList<>(availableCases.values());
+  /** The catalog as a client that last saw {@code knownCatalogHash} needs it. */
+  public AvailableCasesDTO getCaseCatalog(String knownCatalogHash) {
+    CaseLibrary.CaseCatalog current = caseLibrary.current().catalog();
+    return current.hash().equals(knownCatalogHash)
+        ? AvailableCasesDTO.unchanged(current.hash())
+        : new AvailableCasesDTO(current.hash(), current.summaries());
+  }
+
+  /** One full case by content hash, for a client that doesn't have it cached. */
+  public CaseFileDTO getCaseFile(String contentHash) {
+    CaseFile cf = caseLibrary.current().catalog().casesByHash().get(contentHash);
+    return cf != null
+        ? new CaseFileDTO(contentHash, CaseLoader.detached(cf), null)
+        : CaseFileDTO.failed(contentHash, "That case isn't on the server any more. Refresh the case list.");
+  }
+
+  /** Snapshot of every live session (lobbies included), for the admin console. */
+  public List<GameSession> getActiveSessions() {
+    return new ArrayList<>(activeSessionsById.values());
   }
 
   public List<PublicGameInfoDTO> getPublicLobbiesInfo() {
     return publicLobbiesById.values().stream()
-            .filter(session -> session.getState() == GameSessionState.WAITING_FOR_PLAYERS && session.getPlayer1() != null)
-            .map(session -> new PublicGameInfoDTO(session.getPlayer1().getDisplayId(), session.getCaseTitle(), session.getSessionId()))
+            .filter(GameSession::isAcceptingPlayers)
+            .map(session -> new PublicGameInfoDTO(session.getHost().getDisplayId(), session.getCaseTitle(), session.getSessionId()))
             .collect(Collectors.toList());
   }
 
-  private String generateUniquePrivateGameCode() {
+  /**
+   * Picks a private game code nobody else has and reserves it atomically, so two hosts creating
+   * games at the same moment can never end up with the same code.
+   */
+  private String reserveUniquePrivateGameCode() {
     String chars = "ABCDEFGHIJKLMNPQRSTUVWXYZ123456789";
     int codeLength = 5;
+    ThreadLocalRandom random = ThreadLocalRandom.current();
     String potentialCode;
     do {
       StringBuilder codeBuilder = new StringBuilder(codeLength);
       for (int i = 0; i < codeLength; i++) {
-        codeBuilder.append(chars.charAt(randomForCodes.nextInt(chars.length())));
+        codeBuilder.append(chars.charAt(random.nextInt(chars.length())));
       }
       potentialCode = codeBuilder.toString();
-    } while (privateGameCodeToSessionId.containsKey(potentialCode));
+    } while (privateGameCodeToSessionId.putIfAbsent(potentialCode, RESERVED_CODE) != null);
     return potentialCode;
   }
 
   public void processLobbyCommand(ClientSession sender, Command command) {
     server.log("Processing Lobby Command: " + command.getClass().getSimpleName() + " from " + sender.getDisplayId());
     if (command instanceof RequestCaseListCommand) {
-      // MODIFIED: Send the new DTO with the full list of multilingual cases.
-      sender.send(new AvailableCasesDTO(getAvailableCases()));
+      sender.send(getCaseCatalog(((RequestCaseListCommand) command).getKnownCatalogHash()));
     } else if (command instanceof HostGameCommand) {
       HostGameRequestDTO req = ((HostGameCommand) command).getPayload();
       // MODIFIED: Pass the language code to the createGame method.
@@ -121,6 +217,8 @@ public class GameSessionManager {
     } else if (command instanceof JoinPrivateGameCommand) {
       JoinPrivateGameRequestDTO req = ((JoinPrivateGameCommand) command).getPayload();
       sender.send(joinPrivateGame(sender, req.getGameCode()));
+    } else if (command instanceof SpectateGameCommand) {
+      spectateGame(sender, ((SpectateGameCommand) command).getPayload().getTarget());
     } else if (command instanceof UpdateDisplayNameCommand) {
       UpdateDisplayNameRequestDTO req = ((UpdateDisplayNameCommand) command).getPayload();
       String newName = req.getNewDisplayName();
@@ -138,73 +236,140 @@ public class GameSessionManager {
   }
 
   public JoinGameResponseDTO joinPublicGame(ClientSession joiningClient, String sessionId) {
-    managerLock.lock();
-    try {
-      GameSession sessionToJoin = publicLobbiesById.get(sessionId);
-      if (sessionToJoin == null || sessionToJoin.getState() != GameSessionState.WAITING_FOR_PLAYERS) {
-        return new JoinGameResponseDTO(false, "Public game not available for joining.", null);
-      }
+    GameSession sessionToJoin = publicLobbiesById.get(sessionId);
+    if (sessionToJoin == null || !isJoinableState(sessionToJoin)) {
+      return new JoinGameResponseDTO(false, "Public game not available for joining.", null);
+    }
+    if (sessionToJoin.isFull()) {
+      return fullGameResponse(sessionToJoin);
+    }
+    // addPlayer() decides under the session's own lock, so racing joiners can't overfill it.
+    if (sessionToJoin.addPlayer(joiningClient)) {
       if (sessionToJoin.isFull()) {
-        return new JoinGameResponseDTO(false, "This game is already full. Only two players can participate in this case.", null);
-      }
-      if (sessionToJoin.addPlayer(joiningClient)) {
-        publicLobbiesById.remove(sessionId);
-        return new JoinGameResponseDTO(true, "Successfully joined game: " + sessionToJoin.getCaseTitle(), sessionId);
-      } else {
-        return new JoinGameResponseDTO(false, "Failed to join session.", null);
+        publicLobbiesById.remove(sessionId, sessionToJoin);
       }
-    } finally {
-      managerLock.unlock();
+      return new JoinGameResponseDTO(true, "Successfully joined game: " + sessionToJoin.getCaseTitle(), sessionId);
+    } else {
+      return new JoinGameResponseDTO(false, "Failed to join session.", null);
     }
   }
 
   public JoinGameResponseDTO joinPrivateGame(ClientSession joiningClient, String gameCode) {
-    managerLock.lock();
-    try {
-      String sessionId = privateGameCodeToSessionId.get(gameCode.toUpperCase());
-      if (sessionId == null) {
-        return new JoinGameResponseDTO(false, "Private game with code '" + gameCode + "' not found.", null);
-      }
-      GameSession sessionToJoin = activeSessionsById.get(sessionId);
-      if (sessionToJoin == null || sessionToJoin.getState() != GameSessionState.WAITING_FOR_PLAYERS) {
-        return new JoinGameResponseDTO(false, "Private game not available for joining.", null);
-      }
-      if (sessionToJoin.isFull()) {
-        return new JoinGameResponseDTO(false, "This game is already full. Only two players can participate in this case.", null);
-      }
-      if (sessionToJoin.addPlayer(joiningClient)) {
-        return new JoinGameResponseDTO(true, "Successfully joined private game: " + sessionToJoin.getCaseTitle(), sessionId);
-      } else {
-        return new JoinGameResponseDTO(false, "Failed to join private session.", null);
+    String sessionId = privateGameCodeToSessionId.get(gameCode.toUpperCase());
+    if (sessionId == null || sessionId.equals(RESERVED_CODE)) {
+      return new JoinGameResponseDTO(false, "Private game with code '" + gameCode + "' not found.", null);
+    }
+    GameSession sessionToJoin = activeSessionsById.get(sessionId);
+    if (sessionToJoin == null || !isJoinableState(sessionToJoin)) {
+      return new JoinGameResponseDTO(false, "Private game not available for joining.", null);
+    }
+    if (sessionToJoin.isFull()) {
+      return fullGameResponse(sessionToJoin);
+    }
+    if (sessionToJoin.addPlayer(joiningClient)) {
+      return new JoinGameResponseDTO(true, "Successfully joined private game: " + sessionToJoin.getCaseTitle(), sessionId);
+    } else {
+      return new JoinGameResponseDTO(false, "Failed to join private session.", null);
+    }
+  }
+
+  /**
+   * Starts {@code client} watching a game, found by private code or session ID. The session itself
+   * sends the response: whether it can take a spectator is decided on its own mailbox.
+   */
+  public void spectateGame(ClientSession client, String target) {
+    if (client.getAssociatedGameSession() != null) {
+      client.send(SpectateGameResponseDTO.failed("You are already in a game or lobby."));
+      return;
+    }
+    GameSession session = null;
+    if (target != null && !target.isBlank()) {
+      String sessionId = privateGameCodeToSessionId.get(target.trim().toUpperCase());
+      if (sessionId == null || sessionId.equals(RESERVED_CODE)) {
+        sessionId = target.trim();
       }
-    } finally {
-      managerLock.unlock();
+      session = activeSessionsById.get(sessionId);
+    }
+    if (session == null) {
+      client.send(SpectateGameResponseDTO.failed("No game found for '" + target + "'."));
+      return;
+    }
+    GameSession watched = session;
+    watched.getMailbox().execute(() -> watched.addSpectator(client));
+  }
+
+  /**
+   * Puts a new connection back in the seat its resume token belongs to. Like spectating, the session
+   * decides on its own mailbox and sends the response; anything that's plainly wrong is refused here.
+   */
+  public void resumeSession(ClientSession connection, ResumeSessionRequestDTO request) {
+    if (connection.getAssociatedGameSession() != null) {
+      connection.send(ResumeSessionResponseDTO.failed("You are already in a game or lobby."));
+      return;
+    }
+    ClientSession seat = seatsByResumeToken.get(request.getResumeToken());
+    GameSession session = seat != null ? seat.getAssociatedGameSession() : null;
+    if (seat == null || seat == connection || session == null || !activeSessionsById.containsKey(session.getSessionId())) {
+      connection.send(ResumeSessionResponseDTO.failed("There is no game to resume. It may have ended while you were away."));
+      return;
+    }
+    long giveUpAt = System.currentTimeMillis() + NetworkConstants.RESUME_EVICT_WAIT_MS;
+    session.getMailbox().execute(() -> session.resumePlayer(connection, seat, request.getFramesReceived(), giveUpAt));
+  }
+
+  void registerSeat(ClientSession player) {
+    if (player.getResumeToken() != null) {
+      seatsByResumeToken.put(player.getResumeToken(), player);
+    }
+  }
+
+  /** The seat now belongs to {@code to} (same token), as long as {@code from} still had it. */
+  void moveSeat(ClientSession from, ClientSession to) {
+    if (to.getResumeToken() != null) {
+      seatsByResumeToken.replace(to.getResumeToken(), from, to);
+    }
+  }
+
+  void releaseSeat(ClientSession player) {
+    if (player.getResumeToken() != null) {
+      seatsByResumeToken.remove(player.getResumeToken(), player);
     }
   }
 
+  /** Joins are possible until the case starts: while waiting, and in the lobby while there's room. */
+  private static boolean isJoinableState(GameSession session) {
+    return session.getState() == GameSessionState.WAITING_FOR_PLAYERS
+            || session.getState() == GameSessionState.IN_LOBBY_AWAITING_START;
+  }
+
+  private static JoinGameResponseDTO fullGameResponse(GameSession session) {
+    return new JoinGameResponseDTO(false, "This game is already full. Only " + session.getMaxPlayers()
+            + " players can participate in this case.", null);
+  }
+
   public void handleClientDisconnect(ClientSession client) {
     GameSession session = client.getAssociatedGameSession();
     if (session != null) {
       server.log("Notifying session " + session.getSessionId() + " about disconnect of " + client.getDisplayId());
-      session.handlePlayerDisconnect(client);
+      session.getMailbox().execute(() -> session.handlePlayerDisconnect(client));
     } else {
       server.log("Client " + client.getDisplayId() + " disconnected but was not in any game session.");
     }
   }
 
   public void endSession(String sessionId, String reason) {
-    managerLock.lock();
-    try {
-      GameSession session = activeSessionsById.remove(sessionId);
-      if (session != null) {
-        publicLobbiesById.remove(sessionId);
-        if (session.getGameCode() != null) {
-          privateGameCodeToSessionId.remove(session.getGameCode());
-        }
-        server.log("Session " + sessionId + " fully ended and removed from manager. Reason: " + reason);
+    // Whoever wins the remove does the rest, so ending twice is harmless.
+    GameSession session = activeSessionsById.remove(sessionId);
+    if (session != null) {
+      publicLobbiesById.remove(sessionId, session);
+      stopAdvertising(session);
+      session.stopNpcTicks();
+      session.releaseSeats();
+      session.discardCommandLog();
+      if (session.getGameCode() != null) {
+        privateGameCodeToSessionId.remove(session.getGameCode(), sessionId);
       }
-    } finally {
-      managerLock.unlock();
+      server.log("Session " + sessionId + " fully ended and removed from manager. Reason: " + reason);
     }
   }
 
@@ -226,55 +391,134 @@ public void relistPublicLobby(GameSession session) {
   if (session == null || session.getGameCode() != null) {
       return; // Not a public session.
   }
-  managerLock.lock();
-  try {
-      server.log("Re-listing public lobby for session " + session.getSessionId());
-      publicLobbiesById.put(session.getSessionId(), session);
-  } finally {
-      managerLock.unlock();
+  if (!activeSessionsById.containsKey(session.getSessionId())) {
+      return; // Ended meanwhile; don't resurrect it.
   }
+  server.log("Re-listing public lobby for session " + session.getSessionId());
+  publicLobbiesById.put(session.getSessionId(), session);
 }
 
   public HostGameResponseDTO createGame(ClientSession hostClient, String caseUniversalTitle, boolean isPublic, String languageCode) {
-    managerLock.lock();
-    try {
-      // Enforce single session per server instance
-      if (!activeSessionsById.isEmpty()) {
-        return new HostGameResponseDTO(false, "A multiplayer game is already being hosted on this server. End the current game before starting a new one.", null, null);
+    CaseFile multiLingualCase = caseLibrary.current().byTitle(caseUniversalTitle);
+    if (multiLingualCase == null) {
+      return new HostGameResponseDTO(false, "Case '" + caseUniversalTitle + "' not found on server.", null, null);
+    }
+    // No race with the same host: a client's commands run one at a time on its mailbox.
+    if (hostClient.getAssociatedGameSession() != null) {
+      return new HostGameResponseDTO(false, "You are already in a game or lobby.", null, hostClient.getAssociatedGameSession().getSessionId());
+    }
+
+    CaseWorld world = worldFor(multiLingualCase, languageCode);
+    if (world == null) {
+      return new HostGameResponseDTO(false, "Failed to initialize game session data for case: " + caseUniversalTitle, null, null);
+    }
+
+    String gameCodeForSession = isPublic ? null : reserveUniquePrivateGameCode();
+
+    GameSession newSession = new GameSession(world, hostClient, isPublic, gameCodeForSession, this, server);
+
+    if (newSession.getState() == GameSessionState.ERROR) {
+      if (gameCodeForSession != null) {
+        privateGameCodeToSessionId.remove(gameCodeForSession, RESERVED_CODE);
       }
+      return new HostGameResponseDTO(false, "Failed to initialize game session data for case: " + newSession.getCaseTitle(), null, null);
+    }
+
+    activeSessionsById.put(newSession.getSessionId(), newSession);
+    if (isPublic) {
+      publicLobbiesById.put(newSession.getSessionId(), newSession);
+    } else {
+      privateGameCodeToSessionId.put(gameCodeForSession, newSession.getSessionId());
+    }
 
-      CaseFile multiLingualCase = availableCases.get(caseUniversalTitle.toLowerCase());
-      if (multiLingualCase == null) {
-        return new HostGameResponseDTO(false, "Case '" + caseUniversalTitle + "' not found on server.", null, null);
+    server.log("New game session created: " + newSession.getSessionId() + (isPublic ? " (Public)" : " (Private Code: " + newSession.getGameCode() + ")") + " for case: " + newSession.getCaseTitle() + " by host: " + hostClient.getDisplayId() + ". Active sessions: " + activeSessionsById.size());
+    return new HostGameResponseDTO(true, "Game hosted successfully. Waiting for opponent...", newSession.getGameCode(), newSession.getSessionId());
+  }
+
+  /**
+   * Brings back the sessions the store found from the last run (called once, at startup). Each is
+   * rebuilt on the case files loaded now and waits, SUSPENDED, for its players: private codes are
+   * reserved again, nothing is listed or advertised. A session whose case is gone or that won't
+   * rebuild is dropped along with its files.
+   */
+  void restoreSessions(SessionStore store) {
+    List<SessionStore.Recovered> found = store.recover();
+    int restored = 0;
+    for (SessionStore.Recovered recovered : found) {
+      GameStateData snapshot = recovered.snapshot();
+      String sessionId = snapshot.getSessionId();
+      String caseTitle = snapshot.getCaseUniversalTitle();
+      CaseFile multiLingualCase = caseLibrary.current().byTitle(caseTitle);
+      CaseWorld world = multiLingualCase != null ? worldFor(multiLingualCase, snapshot.getLanguageCode()) : null;
+      if (world == null || sessionId == null) {
+        server.log("Dropping stored session " + sessionId + ": case '" + caseTitle + "' isn't available any more.");
+        if (sessionId != null) store.discardFiles(sessionId);
+        continue;
+      }
+      GameSession session;
+      try {
+        session = new GameSession(world, recovered, this, server);
+      } catch (RuntimeException e) {
+        server.logError("Couldn't restore stored session " + sessionId + "; dropping it.", e);
+        store.discardFiles(sessionId);
+        continue;
       }
-      if (hostClient.getAssociatedGameSession() != null) {
-        return new HostGameResponseDTO(false, "You are already in a game or lobby.", null, hostClient.getAssociatedGameSession().getSessionId());
+      String code = session.getGameCode();
+      if (session.getState() == GameSessionState.ERROR
+          || (code != null && privateGameCodeToSessionId.putIfAbsent(code, sessionId) != null)) {
+        server.log("Dropping stored session " + sessionId + ": it didn't rebuild cleanly.");
+        session.releaseSeats();
+        session.discardCommandLog();
+        continue;
       }
+      activeSessionsById.put(sessionId, session);
+      restored++;
+    }
+    if (!found.isEmpty()) {
+      server.log("Restored " + restored + " of " + found.size() + " stored session(s). They wait "
+          + NetworkConstants.RESTORED_SESSION_TTL_MS / 60_000 + " min for their players.");
+    }
+  }
 
-      // NEW: Create the single-language adapter.
-      LocalizedCaseFile localizedCase = new LocalizedCaseFile(multiLingualCase, languageCode);
+  /** Live sessions, lobbies included. */
+  public int getActiveSessionCount() {
+    return activeSessionsById.size();
+  }
 
-      String gameCodeForSession = isPublic ? null : generateUniquePrivateGameCode();
+  // --- LAN discovery ---
 
-      // MODIFIED: Pass the LocalizedCaseFile to the GameSession constructor.
-      GameSession newSession = new GameSession(localizedCase, hostClient, isPublic, gameCodeForSession, this, server);
+  /**
+   * Starts announcing a lobby on the LAN. All lobbies share one broadcaster thread, started the
+   * first time it's needed.
+   */
+  void startAdvertising(GameSession session) {
+    advertisedLobbies.add(session);
+    if (broadcasterStarted.compareAndSet(false, true)) {
+      Thread thread = new Thread(lanBroadcaster, "LanBroadcaster");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
 
-      if (newSession.getState() == GameSessionState.ERROR) {
-        return new HostGameResponseDTO(false, "Failed to initialize game session data for case: " + newSession.getCaseTitle(), null, null);
-      }
+  void stopAdvertising(GameSession session) {
+    advertisedLobbies.remove(session);
+  }
 
-      activeSessionsById.put(newSession.getSessionId(), newSession);
-      if (isPublic) {
-        publicLobbiesById.put(newSession.getSessionId(), newSession);
-      } else {
-        privateGameCodeToSessionId.put(gameCodeForSession, newSession.getSessionId());
-      }
+  /** Stops the shared broadcaster and the case watcher (server shutdown). */
+  public void shutdown() {
+    lanBroadcaster.stop();
+    caseLibrary.stopWatching();
+    advertisedLobbies.clear();
+  }
 
-      server.log("New game session created: " + newSession.getSessionId() + (isPublic ? " (Public)" : " (Private Code: " + newSession.getGameCode() + ")") + " for case: " + newSession.getCaseTitle() + " by host: " + hostClient.getDisplayId());
-      return new HostGameResponseDTO(true, "Game hosted successfully. Waiting for opponent...", newSession.getGameCode(), newSession.getSessionId());
-    } finally {
-      managerLock.unlock();
+  private List<LanDiscoveryPacket> collectLanPackets() {
+    List<LanDiscoveryPacket> packets = new ArrayList<>(advertisedLobbies.size());
+    for (GameSession session : advertisedLobbies) {
+      LanDiscoveryPacket packet = session.toLanDiscoveryPacket();
+      if (packet != null) {
+        packets.add(packet);
+      }
     }
+    return packets;
   }
-
 }
@@ -18,6 +18,9 @@ public enum GameSessionState {
   ACTIVE, // Game case has officially started (e.g., after 'start case' command).
   // Both players are actively playing. All game commands are valid.
 
+  SUSPENDED, // Rebuilt from the session store after a server restart. Nobody is connected yet;
+  // the session goes back to where it was as players return, or ends if none do in time.
+
 
   ENDED_NORMAL, // Game concluded as expected (e.g., case solved via final exam, or a win/loss
   // condition met).
@@ -0,0 +1,82 @@
+package server;
+
+import Core.Detective;
+import Core.Room;
+import Core.RoomGraph;
+import Core.RoomOccupancy;
+import Core.RoomOccupant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * InterestManager Works out who can observe something that happens in a room: the detectives in
+ * that room and the ones a single exit away. Moves, NPC wandering and anything else room-local
+ * goes to them only; journal, chat and exam traffic is session-wide and doesn't come through here.
+ *
+ * <p>Everything is read off the session's {@link RoomOccupancy}, so a query costs O(exits + people
+ * in those rooms) rather than O(players). Rooms are marked with a per-query stamp so a room reached
+ * twice (through two exits, or as both "from" and "to" of a move) is only looked at once, and the
+ * result goes into a scratch list that's reused by the next query. Not thread-safe; runs on the
+ * session's mailbox.
+ */
+final class InterestManager {
+
+  private final RoomGraph graph;
+  private final RoomOccupancy occupancy;
+  private final int[] visitedStamp; // Room id -> stamp of the last query that looked at it
+  private int stamp;
+  private final List<Detective> observers = new ArrayList<>();
+
+  InterestManager(RoomGraph graph, RoomOccupancy occupancy) {
+    this.graph = graph;
+    this.occupancy = occupancy;
+    this.visitedStamp = new int[graph.size()];
+  }
+
+  /**
+   * Detectives who can observe {@code room}. The list is reused by the next query, so use it (or
+   * copy it) before asking again.
+   */
+  List<Detective> observersOf(Room room) {
+    return observersOf(room, null);
+  }
+
+  /** Detectives who can observe either room, each listed once. Same reuse rule as above. */
+  List<Detective> observersOf(Room first, Room second) {
+    observers.clear();
+    if (++stamp == 0) { // Wrapped; forget every old mark.
+      Arrays.fill(visitedStamp, 0);
+      stamp = 1;
+    }
+    addArea(first);
+    addArea(second);
+    return observers;
+  }
+
+  private void addArea(Room room) {
+    if (!inGraph(room)) {
+      return;
+    }
+    addRoom(room);
+    for (int i = 0; i < room.getExitCount(); i++) {
+      addRoom(room.getExit(i));
+    }
+  }
+
+  private void addRoom(Room room) {
+    if (visitedStamp[room.getId()] == stamp) {
+      return;
+    }
+    visitedStamp[room.getId()] = stamp;
+    for (RoomOccupant occupant : occupancy.occupantsOf(room)) {
+      if (occupant instanceof Detective detective) {
+        observers.add(detective);
+      }
+    }
+  }
+
+  private boolean inGraph(Room room) {
+    return room != null && room.getId() >= 0 && room.getId() < graph.size() && graph.room(room.getId()) == room;
+  }
+}
@@ -3,20 +3,27 @@ package server;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import common.NetworkConstants;
 import common.dto.LanDiscoveryPacket;
+import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.util.List;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * LanGameBroadcaster Announces open lobbies on the LAN over UDP broadcast. One instance serves the
+ * whole server: every round it asks the supplier for the current lobbies and sends one packet per
+ * lobby, so a server hosting many games still runs a single broadcaster thread.
+ */
 public class LanGameBroadcaster implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(LanGameBroadcaster.class);
-    private final Supplier<LanDiscoveryPacket> packetSupplier;
+    private final Supplier<List<LanDiscoveryPacket>> packetSupplier;
     private volatile boolean running = true;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public LanGameBroadcaster(Supplier<LanDiscoveryPacket> packetSupplier) {
+    public LanGameBroadcaster(Supplier<List<LanDiscoveryPacket>> packetSupplier) {
         this.packetSupplier = packetSupplier;
     }
 
@@ -28,23 +35,25 @@ public class LanGameBroadcaster implements Runnable {
     public void run() {
         try (DatagramSocket socket = new DatagramSocket()) {
             socket.setBroadcast(true);
+            InetAddress broadcastAddress = InetAddress.getByName("255.255.255.255");
             logger.info("LAN Broadcaster started on port {}.", socket.getLocalPort());
             while (running) {
-                LanDiscoveryPacket packetInfo = packetSupplier.get();
-                if (packetInfo == null) {
-                    logger.warn("Packet supplier returned null, stopping broadcast.");
-                    break;
-                }
-
-                byte[] data = objectMapper.writeValueAsBytes(packetInfo);
+                for (LanDiscoveryPacket packetInfo : packetSupplier.get()) {
+                    byte[] data = objectMapper.writeValueAsBytes(packetInfo);
 
-                DatagramPacket packet = new DatagramPacket(
-                        data, data.length,
-                        InetAddress.getByName("255.255.255.255"),
-                        NetworkConstants.DISCOVERY_PORT
-                );
+                    DatagramPacket packet = new DatagramPacket(
+                            data, data.length,
+                            broadcastAddress,
+                            NetworkConstants.DISCOVERY_PORT
+                    );
 
-                socket.send(packet);
+                    try {
+                        socket.send(packet);
+                    } catch (IOException e) {
+                        // One bad send (network hiccup) shouldn't silence every lobby for good.
+                        logger.warn("LAN broadcast for session {} failed: {}", packetInfo.getSessionId(), e.getMessage());
+                    }
+                }
                 Thread.sleep(NetworkConstants.DISCOVERY_INTERVAL_MS);
             }
         } catch (InterruptedException e) {
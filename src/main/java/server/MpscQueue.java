@@ -0,0 +1,57 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * MpscQueue Unbounded lock-free queue for many producers and exactly one consumer (Vyukov's
+ * linked-list design). Offering is a single atomic swap on the tail, so game-logic threads sending
+ * to the same client never contend on a monitor; only the owning worker thread may poll.
+ *
+ * <p>{@link #poll()} can briefly return null while a producer is half way through an offer (tail
+ * swapped, link not yet written). That's fine for how we use it: every producer raises a "wakeup
+ * pending" flag after its offer completes, so the consumer always gets another go.
+ */
+final class MpscQueue<E> {
+
+  private static final class Node<E> {
+    E value;
+    volatile Node<E> next;
+
+    Node(E value) {
+      this.value = value;
+    }
+  }
+
+  private final AtomicReference<Node<E>> tail;
+  private Node<E> head; // Consumer only. Always a (consumed) stub node.
+
+  MpscQueue() {
+    Node<E> stub = new Node<>(null);
+    head = stub;
+    tail = new AtomicReference<>(stub);
+  }
+
+  /** Adds an element. Safe from any thread. */
+  void offer(E value) {
+    Node<E> node = new Node<>(value);
+    Node<E> previous = tail.getAndSet(node);
+    previous.next = node; // Publishes the node to the consumer.
+  }
+
+  /** Takes the oldest element, or null if none is (fully) there yet. Consumer thread only. */
+  E poll() {
+    Node<E> next = head.next;
+    if (next == null) {
+      return null;
+    }
+    E value = next.value;
+    next.value = null; // The node becomes the new stub; don't keep the element reachable.
+    head = next;
+    return value;
+  }
+
+  /** Consumer thread only. */
+  boolean isEmpty() {
+    return head.next == null;
+  }
+}
@@ -0,0 +1,171 @@
+package server;
+
+import Core.Direction;
+import Core.DoctorWatson;
+import Core.MovableCharacter;
+import Core.Room;
+import Core.RoomGraph;
+import Core.RoomOccupant;
+import Core.Suspect;
+import common.dto.NpcMovedDTO;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * NpcSimulation Moves one session's NPCs (suspects, then Watson) a step at a time, on the session's
+ * tick rather than on player moves.
+ *
+ * <p>State is kept in flat arrays against the session's {@link RoomGraph}: the room id of each NPC,
+ * a scratch "a player is here" flag per room, and the moves made in the current tick. A tick walks
+ * the adjacency array by id and allocates nothing until it has moves to report, so its cost is
+ * linear in the number of NPCs and doesn't touch room names at all.
+ *
+ * <p>Rules are the same as they always were: an NPC in a room with a player stays put, and NPCs
+ * never walk into a room a player is in. Not thread-safe; runs on the session's mailbox.
+ */
+final class NpcSimulation {
+
+  private final RoomGraph graph;
+  private final MovableCharacter[] npcs;
+  private final String[] names;
+  private final int[] roomIds; // NPC index -> room id, -1 if nowhere
+  private final boolean[] playerHere; // Room id -> a player is in it (set and cleared per tick)
+  private final int[] candidates = new int[Direction.COUNT];
+
+  // Moves of the current tick.
+  private final int[] movedNpc;
+  private final int[] movedFrom;
+  private final int[] movedTo;
+  private final NpcMovedDTO[] moveDtos; // Built on demand, shared by every player's batch.
+  private int moveCount;
+
+  private final Random random = new Random();
+  private long tick;
+
+  NpcSimulation(RoomGraph graph, List<Suspect> suspects, DoctorWatson watson) {
+    this.graph = graph;
+    int count = suspects.size() + (watson != null ? 1 : 0);
+    this.npcs = new MovableCharacter[count];
+    this.names = new String[count];
+    for (int i = 0; i < suspects.size(); i++) {
+      npcs[i] = suspects.get(i);
+      names[i] = suspects.get(i).getName();
+    }
+    if (watson != null) {
+      npcs[count - 1] = watson;
+      names[count - 1] = "Dr. Watson";
+    }
+    this.roomIds = new int[count];
+    this.playerHere = new boolean[graph.size()];
+    this.movedNpc = new int[count];
+    this.movedFrom = new int[count];
+    this.movedTo = new int[count];
+    this.moveDtos = new NpcMovedDTO[count];
+    for (int i = 0; i < count; i++) {
+      roomIds[i] = idOf(npcs[i].getCurrentRoom());
+    }
+  }
+
+  /**
+   * Advances every NPC one step.
+   *
+   * @param players Whoever the NPCs should keep out of the way of.
+   * @return How many NPCs moved.
+   */
+  int advance(Iterable<? extends RoomOccupant> players) {
+    tick++;
+    moveCount = 0;
+    for (RoomOccupant player : players) {
+      int id = idOf(player.getCurrentRoom());
+      if (id >= 0) playerHere[id] = true;
+    }
+    try {
+      for (int i = 0; i < npcs.length; i++) {
+        int from = roomIds[i];
+        if (npcs[i].getCurrentRoom() != (from >= 0 ? graph.room(from) : null)) {
+          from = roomIds[i] = idOf(npcs[i].getCurrentRoom()); // Someone else moved it; catch up.
+        }
+        if (from < 0 || playerHere[from]) {
+          continue;
+        }
+        int options = 0;
+        for (int d = 0; d < Direction.COUNT; d++) {
+          int next = graph.neighborId(from, Direction.byIndex(d));
+          if (next >= 0 && !playerHere[next]) candidates[options++] = next;
+        }
+        if (options == 0) {
+          continue;
+        }
+        int to = candidates[random.nextInt(options)];
+        roomIds[i] = to;
+        npcs[i].setCurrentRoom(graph.room(to)); // Keeps the occupancy index in step.
+        movedNpc[moveCount] = i;
+        movedFrom[moveCount] = from;
+        movedTo[moveCount] = to;
+        moveDtos[moveCount] = null;
+        moveCount++;
+      }
+    } finally {
+      for (RoomOccupant player : players) {
+        int id = idOf(player.getCurrentRoom());
+        if (id >= 0) playerHere[id] = false;
+      }
+    }
+    return moveCount;
+  }
+
+  /** How many NPCs moved in the last tick. */
+  int getMoveCount() {
+    return moveCount;
+  }
+
+  /** Where the {@code m}th move of the last tick started. */
+  Room getMoveFrom(int m) {
+    return graph.room(movedFrom[m]);
+  }
+
+  /** Where the {@code m}th move of the last tick ended. */
+  Room getMoveTo(int m) {
+    return graph.room(movedTo[m]);
+  }
+
+  /**
+   * The {@code m}th move of the last tick as a DTO. Built the first time it's asked for and shared
+   * by every batch it goes into; who gets it is the caller's business (see InterestManager).
+   */
+  NpcMovedDTO getMove(int m) {
+    if (moveDtos[m] == null) {
+      moveDtos[m] = new NpcMovedDTO(
+          names[movedNpc[m]], graph.room(movedFrom[m]).getName(), graph.room(movedTo[m]).getName());
+    }
+    return moveDtos[m];
+  }
+
+  /** Appends the last tick's moves to the session's command log, so a restore can redo them. */
+  void logMoves(CommandLog log) {
+    if (moveCount > 0) {
+      log.appendNpcMoves(movedNpc, movedTo, moveCount);
+    }
+  }
+
+  /** Puts NPC {@code npc} in room {@code roomId}, as a logged move says it went (log replay). */
+  void replayMove(int npc, int roomId) {
+    if (npc < 0 || npc >= npcs.length || roomId < 0 || roomId >= graph.size()) {
+      return;
+    }
+    roomIds[npc] = roomId;
+    npcs[npc].setCurrentRoom(graph.room(roomId));
+  }
+
+  long getTick() {
+    return tick;
+  }
+
+  int getNpcCount() {
+    return npcs.length;
+  }
+
+  private int idOf(Room room) {
+    return room != null ? room.getId() : -1;
+  }
+}
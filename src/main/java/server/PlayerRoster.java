@@ -0,0 +1,198 @@
+package server;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * PlayerRoster The players of one session, in join order, with a fixed capacity. Slot 0 is whoever
+ * joined first (the host), and the slots stay packed: when someone leaves, everyone after them moves
+ * up one.
+ *
+ * <p>Lookups by player ID go through a small open-addressed table (linear probing, sized to a power
+ * of two at least twice the capacity), so {@link #get(String)} is O(1) whatever the team size. The
+ * table is rebuilt on removal; that's O(capacity), but people leave a lot less often than they're
+ * looked up. Iterating is just walking the slot array, which is what broadcasts and per-tick work
+ * should do.
+ *
+ * <p>Not thread-safe. Each session only touches its rosters on its own mailbox (or under its lock).
+ *
+ * @param <T> What's kept per player: the connection in GameSession, the Detective in the context.
+ */
+public final class PlayerRoster<T> implements Iterable<T> {
+
+  private final String[] ids;
+  private final Object[] values;
+  private final int[] table; // Hash slot -> roster slot + 1, 0 meaning empty.
+  private final int mask;
+  private int size;
+
+  /** @param capacity Most players this roster will hold. Values below 1 are treated as 1. */
+  public PlayerRoster(int capacity) {
+    int slots = Math.max(1, capacity);
+    this.ids = new String[slots];
+    this.values = new Object[slots];
+    int tableSize = Integer.highestOneBit(slots * 2 - 1) << 1;
+    this.table = new int[Math.max(2, tableSize)];
+    this.mask = table.length - 1;
+  }
+
+  /**
+   * Adds a player at the end of the roster.
+   *
+   * @return False if the roster is full or the player is already in it.
+   */
+  public boolean add(String playerId, T value) {
+    if (playerId == null || size == ids.length || indexOf(playerId) >= 0) {
+      return false;
+    }
+    ids[size] = playerId;
+    values[size] = value;
+    insert(playerId, size);
+    size++;
+    return true;
+  }
+
+  /**
+   * Removes a player; the ones who joined after them move up a slot.
+   *
+   * @return What was kept for them, or null if they weren't in the roster.
+   */
+  public T remove(String playerId) {
+    int index = indexOf(playerId);
+    if (index < 0) {
+      return null;
+    }
+    T removed = at(index);
+    System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+    System.arraycopy(values, index + 1, values, index, size - index - 1);
+    size--;
+    ids[size] = null;
+    values[size] = null;
+    Arrays.fill(table, 0);
+    for (int i = 0; i < size; i++) {
+      insert(ids[i], i);
+    }
+    return removed;
+  }
+
+  /**
+   * Puts a new value in a player's slot, keeping their place (a player who resumed on a new
+   * connection).
+   *
+   * @return What was kept for them before, or null (and nothing changes) if they aren't in it.
+   */
+  public T replace(String playerId, T value) {
+    int index = indexOf(playerId);
+    if (index < 0) {
+      return null;
+    }
+    T previous = at(index);
+    values[index] = value;
+    return previous;
+  }
+
+  /** What's kept for {@code playerId}, or null if they aren't in the roster. */
+  public T get(String playerId) {
+    int index = indexOf(playerId);
+    return index >= 0 ? at(index) : null;
+  }
+
+  public boolean contains(String playerId) {
+    return indexOf(playerId) >= 0;
+  }
+
+  /** Roster slot of {@code playerId} (0 is the host), or -1 if they aren't in it. */
+  public int indexOf(String playerId) {
+    if (playerId == null) {
+      return -1;
+    }
+    for (int h = hash(playerId); ; h = (h + 1) & mask) {
+      int entry = table[h];
+      if (entry == 0) {
+        return -1;
+      }
+      if (ids[entry - 1].equals(playerId)) {
+        return entry - 1;
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public T at(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Roster slot " + index + " of " + size);
+    }
+    return (T) values[index];
+  }
+
+  public String idAt(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Roster slot " + index + " of " + size);
+    }
+    return ids[index];
+  }
+
+  /** The host's entry (slot 0), or null if the roster is empty. */
+  public T host() {
+    return size > 0 ? at(0) : null;
+  }
+
+  /** The host's player ID, or null if the roster is empty. */
+  public String hostId() {
+    return size > 0 ? ids[0] : null;
+  }
+
+  public boolean isHost(String playerId) {
+    return playerId != null && size > 0 && ids[0].equals(playerId);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int capacity() {
+    return ids.length;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean isFull() {
+    return size == ids.length;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<>() {
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public T next() {
+        if (next >= size) {
+          throw new NoSuchElementException();
+        }
+        return at(next++);
+      }
+    };
+  }
+
+  private void insert(String playerId, int index) {
+    int h = hash(playerId);
+    while (table[h] != 0) {
+      h = (h + 1) & mask;
+    }
+    table[h] = index + 1;
+  }
+
+  private int hash(String playerId) {
+    int h = playerId.hashCode();
+    return (h ^ (h >>> 16)) & mask;
+  }
+}
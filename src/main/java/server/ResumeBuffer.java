@@ -0,0 +1,182 @@
+package server;
+
+import common.NetworkConstants;
+import common.wire.EncodedFrame;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ResumeBuffer What a player might still need if their connection drops: the last frames written
+ * to them, and everything that was meant for them but never went out. A client that resumes says how
+ * many frames it had read; whatever came after that is replayed to its new connection as is, so a
+ * short drop costs neither a full state resend nor the game.
+ *
+ * <p>Frames are numbered by the order they were written in, starting over with each connection and
+ * carried on by the one that resumes it (see {@link #rebaseAt}). The client counts the frames it
+ * reads the same way. Frames that were coalesced away were never written and never counted, on
+ * either side, so the two counts agree.
+ *
+ * <p>Kept frames are the same shared, read-only frames that went into the queue; this only holds an
+ * extra reference. The ring is bounded by {@link NetworkConstants#RESUME_BUFFER_FRAMES} and
+ * {@link NetworkConstants#RESUME_BUFFER_BYTES}, the backlog of unsent frames by
+ * {@link NetworkConstants#RESUME_BACKLOG_BYTES}. Past those the replay can't be complete, and a
+ * resume resyncs the client instead.
+ *
+ * <p>Written to by the connection's worker and read by the session's mailbox, so every method is
+ * synchronized. Nothing is kept until {@link #start} (the player took a seat in a game).
+ */
+final class ResumeBuffer {
+
+  private final ArrayDeque<EncodedFrame> ring = new ArrayDeque<>();
+  private long ringBytes;
+  private long framesWritten; // Number of the last frame written, counted even while not keeping.
+
+  // Never written: what was still queued when the connection went (in queue order), then what was
+  // sent after that. Replayed in that order, after the ring.
+  private final List<EncodedFrame> unsent = new ArrayList<>();
+  private final List<EncodedFrame> late = new ArrayList<>();
+  private long backlogBytes;
+
+  private boolean keeping;
+  private boolean incomplete; // Something meant for the client was dropped; a replay would have a hole.
+  private boolean sealed; // The connection is gone and its queue has been handed over.
+
+  // The resume response on a new connection. The frames after it continue the old numbering.
+  private EncodedFrame rebaseMarker;
+  private long rebaseTo;
+
+  /** Starts keeping frames (the player took a seat). */
+  synchronized void start() {
+    keeping = true;
+    incomplete = false;
+  }
+
+  /** Stops keeping frames and lets go of the ones kept. The count goes on. */
+  synchronized void release() {
+    keeping = false;
+    for (EncodedFrame frame : ring) {
+      frame.release();
+    }
+    ring.clear();
+    ringBytes = 0;
+    releaseBacklog();
+  }
+
+  /** A frame went out in full. Worker thread, before the queue lets go of it. */
+  synchronized void written(EncodedFrame frame) {
+    if (frame == rebaseMarker) {
+      rebaseMarker = null;
+      framesWritten = rebaseTo;
+      for (EncodedFrame old : ring) {
+        old.release(); // Written on this connection before the resume; the client isn't counting those.
+      }
+      ring.clear();
+      ringBytes = 0;
+      return;
+    }
+    framesWritten++;
+    if (!keeping) {
+      return;
+    }
+    ring.addLast(frame.retain());
+    ringBytes += frame.getFrameLength();
+    while (ring.size() > NetworkConstants.RESUME_BUFFER_FRAMES || ringBytes > NetworkConstants.RESUME_BUFFER_BYTES) {
+      EncodedFrame oldest = ring.pollFirst();
+      ringBytes -= oldest.getFrameLength();
+      oldest.release();
+    }
+  }
+
+  /** A frame that was still queued when the connection went. Worker thread, in queue order. */
+  synchronized void unsent(EncodedFrame frame) {
+    hold(unsent, frame);
+  }
+
+  /** Frames sent after the connection went (or while it was being dropped). */
+  synchronized void late(List<EncodedFrame> frames) {
+    for (EncodedFrame frame : frames) {
+      hold(late, frame);
+    }
+  }
+
+  private void hold(List<EncodedFrame> list, EncodedFrame frame) {
+    if (!keeping || incomplete) {
+      return;
+    }
+    if (backlogBytes + frame.getFrameLength() > NetworkConstants.RESUME_BACKLOG_BYTES) {
+      incomplete = true; // Too much to replay; free what we have, a resume will resync.
+      releaseBacklog();
+      return;
+    }
+    list.add(frame.retain());
+    backlogBytes += frame.getFrameLength();
+  }
+
+  private void releaseBacklog() {
+    for (EncodedFrame frame : unsent) {
+      frame.release();
+    }
+    for (EncodedFrame frame : late) {
+      frame.release();
+    }
+    unsent.clear();
+    late.clear();
+    backlogBytes = 0;
+  }
+
+  /** The connection is gone and everything it had queued is in here. */
+  synchronized void seal() {
+    sealed = true;
+  }
+
+  synchronized boolean isSealed() {
+    return sealed;
+  }
+
+  /** True while frames are being kept, i.e. sends are worth encoding even with the connection gone. */
+  synchronized boolean isKeeping() {
+    return keeping;
+  }
+
+  synchronized long getFramesWritten() {
+    return framesWritten;
+  }
+
+  /**
+   * Everything the client hasn't seen if it read {@code framesReceived} frames: the rest of the ring,
+   * then the backlog. Each frame comes with a reference for the caller to release once it's queued.
+   *
+   * @return Null if that can't be complete: the frames right after {@code framesReceived} already
+   *     fell out of the ring, something was dropped, or the count makes no sense.
+   */
+  synchronized List<EncodedFrame> missedSince(long framesReceived) {
+    long firstKept = framesWritten - ring.size() + 1;
+    if (!keeping || incomplete || framesReceived > framesWritten || framesReceived + 1 < firstKept) {
+      return null;
+    }
+    List<EncodedFrame> missed = new ArrayList<>();
+    long number = firstKept;
+    for (EncodedFrame frame : ring) {
+      if (number++ > framesReceived) {
+        missed.add(frame.retain());
+      }
+    }
+    for (EncodedFrame frame : unsent) {
+      missed.add(frame.retain());
+    }
+    for (EncodedFrame frame : late) {
+      missed.add(frame.retain());
+    }
+    return missed;
+  }
+
+  /**
+   * Once {@code marker} has been written, numbering goes on from {@code framesReceived}: the marker
+   * itself and everything before it on this connection don't count. Set before the marker is queued.
+   */
+  synchronized void rebaseAt(EncodedFrame marker, long framesReceived) {
+    rebaseMarker = marker;
+    rebaseTo = framesReceived;
+  }
+}
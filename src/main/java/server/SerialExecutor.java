@@ -0,0 +1,81 @@
+package server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SerialExecutor A "mailbox" on top of a shared pool. Tasks submitted to one SerialExecutor run one
+ * at a time and in submission order, but different mailboxes run in parallel on the pool's threads.
+ *
+ * <p>I use one of these per GameSession (so a session's commands never race each other) and one per
+ * ClientSession (so a client's messages are routed in the order they came off the wire). The worker
+ * selectors only enqueue here and go straight back to I/O.
+ */
+public class SerialExecutor implements Executor {
+
+  private static final Logger logger = LoggerFactory.getLogger(SerialExecutor.class);
+
+  private final Executor pool;
+  private final String name;
+  private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  // True while a drain is scheduled or running on the pool. Only one drain per mailbox at a time.
+  private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+  public SerialExecutor(Executor pool, String name) {
+    this.pool = pool;
+    this.name = name;
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    tasks.offer(task);
+    scheduleDrain();
+  }
+
+  /** Number of tasks waiting in this mailbox (not counting one currently running). */
+  public int getPendingCount() {
+    return tasks.size();
+  }
+
+  private void scheduleDrain() {
+    if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+      try {
+        pool.execute(this::drain);
+      } catch (RejectedExecutionException e) {
+        // Pool is shutting down; nothing will run these anymore.
+        scheduled.set(false);
+        logger.warn("Mailbox {} rejected by pool (server shutting down?). Dropping {} task(s).",
+            name, tasks.size());
+        tasks.clear();
+      }
+    }
+  }
+
+  private void drain() {
+    try {
+      Runnable task;
+      while ((task = tasks.poll()) != null) {
+        try {
+          task.run();
+        } catch (Exception e) {
+          // One bad command must not kill the mailbox for everyone else in the session.
+          logger.error("Uncaught error in mailbox " + name, e);
+        }
+      }
+    } finally {
+      scheduled.set(false);
+      // A task may have been offered after the last poll() but before the flag was cleared.
+      scheduleDrain();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "SerialExecutor{" + name + ", pending=" + tasks.size() + '}';
+  }
+}
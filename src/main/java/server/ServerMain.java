@@ -2,6 +2,9 @@ package server;
 
 import common.NetworkConstants;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 
@@ -16,7 +19,40 @@ public class ServerMain {
       }
     }
 
-    GameServer server = new GameServer(port);
+    int workerCount = NetworkConstants.DEFAULT_WORKER_REACTORS;
+    if (args.length > 1) {
+      try {
+        workerCount = Integer.parseInt(args[1]);
+      } catch (NumberFormatException e) {
+        System.err.println("Invalid worker count provided. Using default: " + workerCount);
+      }
+    }
+
+    long npcTickMillis = NetworkConstants.DEFAULT_NPC_TICK_MS;
+    if (args.length > 2) {
+      try {
+        npcTickMillis = Long.parseLong(args[2]);
+      } catch (NumberFormatException e) {
+        System.err.println("Invalid NPC tick (ms) provided. Using default: " + npcTickMillis);
+      }
+    }
+
+    int maxPlayersPerGame = NetworkConstants.MAX_PLAYERS_PER_GAME;
+    if (args.length > 3) {
+      try {
+        maxPlayersPerGame = Integer.parseInt(args[3]);
+      } catch (NumberFormatException e) {
+        System.err.println("Invalid players per game provided. Using default: " + maxPlayersPerGame);
+      }
+    }
+
+    // Session store directory; "none" keeps sessions in memory only.
+    Path sessionStoreDir = Path.of(NetworkConstants.DEFAULT_SESSION_STORE_DIR);
+    if (args.length > 4) {
+      sessionStoreDir = args[4].equalsIgnoreCase("none") ? null : Path.of(args[4]);
+    }
+
+    GameServer server = new GameServer(port, workerCount, npcTickMillis, maxPlayersPerGame, sessionStoreDir);
     Thread serverThread = null;
     Scanner consoleScanner;
 
@@ -67,6 +103,34 @@ public class ServerMain {
               server.log("Session Manager not available to reload cases.");
             }
             break;
+          case "stats":
+            server.log(server.getStats().describe());
+            if (server.getSessionStore() != null) {
+              server.log(server.getSessionStore().describe());
+            }
+            break;
+          case "queues":
+            if (server.sessionManager == null) {
+              server.log("Session Manager not available.");
+              break;
+            }
+            List<GameSession> sessions = server.sessionManager.getActiveSessions();
+            server.log(sessions.size() + " active session(s), "
+                + server.sessionManager.getCachedWorldCount() + " cached case world(s).");
+            for (GameSession session : sessions) {
+              server.log(session.describeQueues());
+            }
+            break;
+          case "casememory":
+            if (server.sessionManager == null) {
+              server.log("Session Manager not available.");
+              break;
+            }
+            server.sessionManager.describeCaseMemory().forEach(server::log);
+            break;
+          case "workers":
+            server.log("Connections per worker: " + Arrays.toString(server.getWorkerConnectionCounts()));
+            break;
           default:
             server.log("Unknown server console command: " + input);
             break;
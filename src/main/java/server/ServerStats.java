@@ -0,0 +1,132 @@
+package server;
+
+import common.wire.BufferPool;
+import common.wire.EncodedFrame;
+import common.wire.WireFormat;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ServerStats Server-wide network counters, shown by the admin console's "stats" command. Updated
+ * from every worker thread, so everything here is a LongAdder/LongAccumulator rather than a lock.
+ */
+public class ServerStats {
+
+  // --- Inbound ---
+  private final LongAdder readEvents = new LongAdder(); // OP_READ events handled.
+  private final LongAdder framesDecoded = new LongAdder();
+  private final LongAccumulator maxFramesPerRead = new LongAccumulator(Long::max, 0);
+
+  // --- Encoding / compression ---
+  private final LongAdder framesEncoded = new LongAdder();
+  private final LongAdder chunkedStreams = new LongAdder(); // Messages split into chunk frames.
+  private final LongAdder compressionAttempts = new LongAdder(); // Frames over the threshold.
+  private final LongAdder compressedFrames = new LongAdder(); // ...that actually got smaller.
+  private final LongAdder bytesBeforeCompression = new LongAdder();
+  private final LongAdder bytesAfterCompression = new LongAdder();
+  private final LongAdder compressNanos = new LongAdder();
+
+  // --- Outbound ---
+  private final LongAdder writeCalls = new LongAdder(); // Gathering write() calls on sockets.
+  private final LongAdder zeroByteWrites = new LongAdder(); // write() returned 0 (socket full).
+  private final LongAdder bytesFlushed = new LongAdder();
+  private final LongAdder framesFlushed = new LongAdder();
+  private final LongAccumulator maxBytesPerWrite = new LongAccumulator(Long::max, 0);
+  private final LongAdder flushRequests = new LongAdder(); // Clients handed to a worker to flush.
+  private final LongAdder selectorWakeups = new LongAdder(); // ...of which needed a wakeup().
+
+  /**
+   * Records a freshly encoded outbound message (once per message, however many recipients share
+   * its frames).
+   */
+  public void recordEncoded(List<EncodedFrame> frames) {
+    framesEncoded.add(frames.size());
+    if (frames.size() > 1) {
+      chunkedStreams.increment();
+    }
+    WireFormat.Body body = frames.get(0).getMessageStats();
+    if (body.compressNanos() > 0) {
+      compressNanos.add(body.compressNanos());
+      compressionAttempts.increment();
+    }
+    if (body.isCompressed()) {
+      compressedFrames.increment();
+      bytesBeforeCompression.add(body.uncompressedLength());
+      bytesAfterCompression.add(body.payload().length);
+    }
+  }
+
+  /** Compressed size / original size over all compressed frames (1.0 if none yet). */
+  public double getCompressionRatio() {
+    long before = bytesBeforeCompression.sum();
+    return before == 0 ? 1.0 : (double) bytesAfterCompression.sum() / before;
+  }
+
+  /** Records one OP_READ event that decoded {@code frames} complete frames. */
+  public void recordRead(int frames) {
+    readEvents.increment();
+    framesDecoded.add(frames);
+    maxFramesPerRead.accumulate(frames);
+  }
+
+  /** Records one gathering write call that moved {@code bytes} bytes and completed {@code frames}. */
+  public void recordWrite(long bytes, int frames) {
+    writeCalls.increment();
+    if (bytes == 0) {
+      zeroByteWrites.increment();
+    } else {
+      bytesFlushed.add(bytes);
+      maxBytesPerWrite.accumulate(bytes);
+    }
+    framesFlushed.add(frames);
+  }
+
+  /** Records a client's flush request reaching its worker, and whether that took a wakeup. */
+  public void recordFlushRequest(boolean wokeSelector) {
+    flushRequests.increment();
+    if (wokeSelector) {
+      selectorWakeups.increment();
+    }
+  }
+
+  public long getWriteCalls() {
+    return writeCalls.sum();
+  }
+
+  public long getBytesFlushed() {
+    return bytesFlushed.sum();
+  }
+
+  public long getFramesFlushed() {
+    return framesFlushed.sum();
+  }
+
+  /** Average bytes moved by one write call (0 if nothing was written yet). */
+  public double getAverageBytesPerWrite() {
+    long calls = writeCalls.sum();
+    return calls == 0 ? 0 : (double) bytesFlushed.sum() / calls;
+  }
+
+  /** Multi-line human readable summary for the admin console. */
+  public String describe() {
+    StringBuilder sb = new StringBuilder("--- Server Stats ---\n");
+    sb.append(String.format(
+        "Reads: %d events, %d frames (max %d frames/event)%n",
+        readEvents.sum(), framesDecoded.sum(), maxFramesPerRead.get()));
+    sb.append(String.format(
+        "Writes: %d calls, %d zero-byte, %d frames, %d bytes (avg %.1f B/call, max %d B/call)%n",
+        writeCalls.sum(), zeroByteWrites.sum(), framesFlushed.sum(), bytesFlushed.sum(),
+        getAverageBytesPerWrite(), maxBytesPerWrite.get()));
+    sb.append(String.format(
+        "Flush requests: %d (%d needed a selector wakeup)%n", flushRequests.sum(), selectorWakeups.sum()));
+    long attempts = compressionAttempts.sum();
+    sb.append(String.format(
+        "Encoding: %d frames (%d chunked streams), %d compressed of %d attempted, %d -> %d bytes (ratio %.2f), avg %.1f us/compression%n",
+        framesEncoded.sum(), chunkedStreams.sum(), compressedFrames.sum(), attempts, bytesBeforeCompression.sum(),
+        bytesAfterCompression.sum(), getCompressionRatio(),
+        attempts == 0 ? 0.0 : compressNanos.sum() / 1000.0 / attempts));
+    sb.append("Frame buffers: ").append(BufferPool.DEFAULT);
+    return sb.toString();
+  }
+}
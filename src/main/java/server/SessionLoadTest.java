@@ -0,0 +1,163 @@
+package server;
+
+import common.NetworkConstants;
+import common.SerializationUtils;
+import common.commands.HostGameCommand;
+import common.commands.JoinPrivateGameCommand;
+import common.commands.RequestCaseListCommand;
+import common.dto.AvailableCasesDTO;
+import common.dto.HostGameRequestDTO;
+import common.dto.HostGameResponseDTO;
+import common.dto.JoinGameResponseDTO;
+import common.dto.JoinPrivateGameRequestDTO;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SessionLoadTest Creates private games and joins them over real connections, in batches, and
+ * prints create/join throughput as the number of live sessions grows. Every session stays open until
+ * the end, so later batches run against a fuller server. Run it directly:
+ *
+ * <pre>
+ *   java -cp target/classes:... server.SessionLoadTest [host|embedded] [port] [sessions] [threads] [batch]
+ * </pre>
+ *
+ * With "embedded" (the default) it starts its own GameServer on the port first. Each session needs
+ * two sockets, so mind the open-file limit for big runs. Not a rigorous benchmark, but if a lobby
+ * path ever serializes on a global lock again it shows up right away as flat throughput.
+ */
+public final class SessionLoadTest {
+
+  private SessionLoadTest() {}
+
+  public static void main(String[] args) throws Exception {
+    String host = args.length > 0 ? args[0] : "embedded";
+    int port = args.length > 1 ? Integer.parseInt(args[1]) : NetworkConstants.DEFAULT_PORT + 1;
+    int sessions = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+    int threads = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+    int batchSize = args.length > 4 ? Integer.parseInt(args[4]) : 250;
+
+    GameServer embedded = null;
+    if ("embedded".equals(host)) {
+      embedded = new GameServer(port);
+      embedded.startServer();
+      new Thread(embedded, "GameServerThread").start();
+      host = "localhost";
+    }
+
+    List<SocketChannel> openChannels = Collections.synchronizedList(new ArrayList<>());
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      String caseTitle = firstCaseTitle(host, port, openChannels);
+      System.out.printf("Hosting '%s' on %s:%d, %d threads%n", caseTitle, host, port, threads);
+      System.out.printf("%10s %12s %16s %16s %9s%n", "sessions", "sessions/s", "avg create ms", "avg join ms", "failures");
+
+      for (int live = 0; live < sessions; ) {
+        int batch = Math.min(batchSize, sessions - live);
+        LongAdder createNanos = new LongAdder();
+        LongAdder joinNanos = new LongAdder();
+        AtomicInteger failures = new AtomicInteger();
+        String targetHost = host;
+
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++) {
+          futures.add(pool.submit(() -> {
+            try {
+              createAndJoin(targetHost, port, caseTitle, openChannels, createNanos, joinNanos);
+            } catch (IOException | RuntimeException e) {
+              failures.incrementAndGet();
+            }
+          }));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        live += batch;
+
+        int succeeded = Math.max(1, batch - failures.get());
+        System.out.printf("%10d %12.0f %16.2f %16.2f %9d%n",
+            live, batch / seconds, createNanos.sum() / 1e6 / succeeded,
+            joinNanos.sum() / 1e6 / succeeded, failures.get());
+      }
+    } finally {
+      pool.shutdownNow();
+      synchronized (openChannels) {
+        for (SocketChannel channel : openChannels) {
+          try {
+            channel.close();
+          } catch (IOException ignored) {
+            // Closing down anyway.
+          }
+        }
+      }
+      if (embedded != null) {
+        embedded.stopServer();
+      }
+    }
+  }
+
+  /** One full session: a host creates a private game, a second connection joins it by code. */
+  private static void createAndJoin(String host, int port, String caseTitle, List<SocketChannel> openChannels,
+      LongAdder createNanos, LongAdder joinNanos) throws IOException {
+    SocketChannel hostChannel = connect(host, port, openChannels);
+    long start = System.nanoTime();
+    SerializationUtils.writeFramedObject(hostChannel,
+        new HostGameCommand(new HostGameRequestDTO(caseTitle, false, "en")));
+    HostGameResponseDTO hosted = readUntil(hostChannel, HostGameResponseDTO.class);
+    createNanos.add(System.nanoTime() - start);
+    if (!hosted.isSuccess()) {
+      throw new IOException("Host failed: " + hosted.getMessage());
+    }
+
+    SocketChannel guestChannel = connect(host, port, openChannels);
+    start = System.nanoTime();
+    SerializationUtils.writeFramedObject(guestChannel,
+        new JoinPrivateGameCommand(new JoinPrivateGameRequestDTO(hosted.getGameCode())));
+    JoinGameResponseDTO joined = readUntil(guestChannel, JoinGameResponseDTO.class);
+    joinNanos.add(System.nanoTime() - start);
+    if (!joined.isSuccess()) {
+      throw new IOException("Join failed: " + joined.getMessage());
+    }
+  }
+
+  private static String firstCaseTitle(String host, int port, List<SocketChannel> openChannels) throws IOException {
+    SocketChannel channel = connect(host, port, openChannels);
+    SerializationUtils.writeFramedObject(channel, new RequestCaseListCommand());
+    AvailableCasesDTO cases = readUntil(channel, AvailableCasesDTO.class);
+    if (cases.getCases() == null || cases.getCases().isEmpty()) {
+      throw new IOException("Server has no cases to host.");
+    }
+    return cases.getCases().get(0).getUniversalTitle();
+  }
+
+  private static SocketChannel connect(String host, int port, List<SocketChannel> openChannels) throws IOException {
+    SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+    openChannels.add(channel);
+    return channel;
+  }
+
+  /** Reads (and skips) messages until one of the wanted type arrives. */
+  private static <T> T readUntil(SocketChannel channel, Class<T> type) throws IOException {
+    while (true) {
+      Object message = SerializationUtils.readFramedObject(channel);
+      if (message == null) {
+        throw new EOFException("Server closed the connection while waiting for " + type.getSimpleName());
+      }
+      if (type.isInstance(message)) {
+        return type.cast(message);
+      }
+    }
+  }
+}
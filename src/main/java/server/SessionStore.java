@@ -0,0 +1,272 @@
+package server;
+
+import common.NetworkConstants;
+import common.dto.GameStateData;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SessionStore The on-disk home of every session's {@link CommandLog} and snapshot, one pair of
+ * files per session ({@code <sessionId>.wal}, {@code <sessionId>.snap}) in one directory.
+ *
+ * <p>One flusher thread does all the disk work for every session. It sleeps until some log has
+ * something new, waits out the group commit window so more records (from that session and others)
+ * can pile up, then writes and fsyncs each dirty log once. Under load that's one fsync per busy
+ * session per window, however many commands came in; the window stretches by itself when the disk
+ * is slow, since the next batch is whatever arrived during the last one.
+ *
+ * <p>On shutdown the store flushes everything and then leaves the files alone: sessions that are
+ * still running when the server stops come back on the next start, like after a crash.
+ */
+public final class SessionStore implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(SessionStore.class);
+
+  static final String LOG_SUFFIX = ".wal";
+  static final String SNAPSHOT_SUFFIX = ".snap";
+
+  private final Path directory;
+  private final long groupCommitMillis;
+  private final int snapshotEveryRecords;
+
+  private final ConcurrentLinkedQueue<CommandLog> dirty = new ConcurrentLinkedQueue<>();
+  private final Thread flusher;
+  private volatile boolean closing;
+
+  // Counters for the admin console and the benchmark.
+  private final LongAdder recordsAppended = new LongAdder();
+  private final LongAdder bytesAppended = new LongAdder();
+  private final LongAdder flushes = new LongAdder(); // Batches (one per commit window with work).
+  private final LongAdder fsyncs = new LongAdder(); // Logs written + fsynced.
+
+  /** A session found on disk at startup: its snapshot and the log records that came after it. */
+  record Recovered(GameStateData snapshot, List<CommandLog.Entry> tail, long lastSequence) {}
+
+  public SessionStore(Path directory) throws IOException {
+    this(directory, NetworkConstants.COMMAND_LOG_GROUP_COMMIT_MS, NetworkConstants.SNAPSHOT_EVERY_RECORDS);
+  }
+
+  /**
+   * @param directory Created if it doesn't exist.
+   * @param groupCommitMillis How long the flusher gathers records before writing them. 0 flushes as
+   *     soon as it wakes.
+   * @param snapshotEveryRecords Log records between snapshots.
+   */
+  public SessionStore(Path directory, long groupCommitMillis, int snapshotEveryRecords) throws IOException {
+    this.directory = Files.createDirectories(directory);
+    this.groupCommitMillis = Math.max(0, groupCommitMillis);
+    this.snapshotEveryRecords = Math.max(1, snapshotEveryRecords);
+    this.flusher = new Thread(this::runFlusher, "CommandLogFlusher");
+    flusher.setDaemon(true);
+    flusher.start();
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  int getSnapshotEveryRecords() {
+    return snapshotEveryRecords;
+  }
+
+  /**
+   * A log for a new (or just restored) session.
+   *
+   * @param lastSequence Sequence number of the last record already written for it; 0 for a new one.
+   */
+  CommandLog open(String sessionId, long lastSequence) {
+    return new CommandLog(this, sessionId, lastSequence);
+  }
+
+  Path logFileOf(String sessionId) {
+    return directory.resolve(sessionId + LOG_SUFFIX);
+  }
+
+  Path snapshotFileOf(String sessionId) {
+    return directory.resolve(sessionId + SNAPSHOT_SUFFIX);
+  }
+
+  void markDirty(CommandLog log) {
+    dirty.offer(log);
+    LockSupport.unpark(flusher);
+  }
+
+  void recordAppended(int bytes) {
+    recordsAppended.increment();
+    bytesAppended.add(bytes);
+  }
+
+  // --- Flusher ---
+
+  private void runFlusher() {
+    while (true) {
+      if (dirty.isEmpty()) {
+        if (closing) {
+          return;
+        }
+        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+        continue;
+      }
+      // The commit window. New appends unpark us too, so keep sleeping until it's really over.
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(groupCommitMillis);
+      for (long left = deadline - System.nanoTime(); left > 0 && !closing; left = deadline - System.nanoTime()) {
+        LockSupport.parkNanos(this, left);
+      }
+      flushDirty();
+    }
+  }
+
+  private void flushDirty() {
+    int batch = dirty.size(); // Only what's queued now; anything newer is the next batch.
+    if (batch == 0) {
+      return;
+    }
+    flushes.increment();
+    for (int i = 0; i < batch; i++) {
+      CommandLog log = dirty.poll();
+      if (log == null) {
+        break;
+      }
+      try {
+        log.flush(!closing);
+        fsyncs.increment();
+      } catch (IOException e) {
+        logger.error("Couldn't write the command log of session {}.", log.getSessionId(), e);
+      } catch (RuntimeException e) {
+        logger.error("Unexpected error flushing the command log of session {}.", log.getSessionId(), e);
+      }
+    }
+  }
+
+  /** fsync the directory so a snapshot's rename is durable too. Not every platform allows it. */
+  void syncDirectory() {
+    try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+      dir.force(true);
+    } catch (IOException | UnsupportedOperationException e) {
+      // Windows can't open a directory; the rename is as durable as the platform makes it.
+    }
+  }
+
+  /**
+   * Flushes what's still pending and stops the flusher. Logs of sessions that end from here on are
+   * kept, so they're restored on the next start.
+   */
+  @Override
+  public void close() {
+    if (closing) {
+      return;
+    }
+    closing = true;
+    LockSupport.unpark(flusher);
+    try {
+      flusher.join(5000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    logger.info("Session store closed. {}", describe());
+  }
+
+  public boolean isClosing() {
+    return closing;
+  }
+
+  // --- Recovery ---
+
+  /**
+   * Reads back every session left in the directory. A session without a readable snapshot can't be
+   * rebuilt (it died before its first one was written) and is deleted, as are leftover temp files.
+   * Records the snapshot already covers are left out of the tail.
+   */
+  List<Recovered> recover() {
+    List<Recovered> sessions = new ArrayList<>();
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> listing = Files.newDirectoryStream(directory)) {
+      for (Path file : listing) {
+        files.add(file);
+      }
+    } catch (IOException e) {
+      logger.error("Couldn't list session store {}; nothing restored.", directory, e);
+      return sessions;
+    }
+    for (Path file : files) {
+      String name = file.getFileName().toString();
+      try {
+        if (name.endsWith(".tmp")) {
+          Files.deleteIfExists(file);
+        } else if (name.endsWith(LOG_SUFFIX)) {
+          String sessionId = name.substring(0, name.length() - LOG_SUFFIX.length());
+          if (!Files.exists(snapshotFileOf(sessionId))) {
+            logger.warn("Command log {} has no snapshot to start from; deleting it.", name);
+            Files.deleteIfExists(file);
+          }
+        } else if (name.endsWith(SNAPSHOT_SUFFIX)) {
+          String sessionId = name.substring(0, name.length() - SNAPSHOT_SUFFIX.length());
+          Recovered recovered = recover(sessionId);
+          if (recovered != null) {
+            sessions.add(recovered);
+          }
+        }
+      } catch (IOException | RuntimeException e) {
+        logger.error("Couldn't recover {}; skipping it.", name, e);
+      }
+    }
+    return sessions;
+  }
+
+  private Recovered recover(String sessionId) throws IOException {
+    GameStateData snapshot = CommandLog.readSnapshot(snapshotFileOf(sessionId));
+    if (snapshot == null) {
+      logger.warn("Snapshot of session {} is unreadable; discarding the session.", sessionId);
+      discardFiles(sessionId);
+      return null;
+    }
+    List<CommandLog.Entry> tail = new ArrayList<>();
+    long last = snapshot.getLogSequence();
+    for (CommandLog.Entry entry : CommandLog.read(logFileOf(sessionId))) {
+      if (entry.sequence() > snapshot.getLogSequence()) {
+        tail.add(entry);
+        last = entry.sequence();
+      }
+    }
+    return new Recovered(snapshot, tail, last);
+  }
+
+  /** Deletes a session's files straight away (recovery gave up on it). */
+  void discardFiles(String sessionId) {
+    try {
+      Files.deleteIfExists(logFileOf(sessionId));
+      Files.deleteIfExists(snapshotFileOf(sessionId));
+    } catch (IOException e) {
+      logger.warn("Couldn't delete the files of session {}.", sessionId, e);
+    }
+  }
+
+  // --- Stats ---
+
+  public long getRecordsAppended() {
+    return recordsAppended.sum();
+  }
+
+  public long getFsyncs() {
+    return fsyncs.sum();
+  }
+
+  public String describe() {
+    long records = recordsAppended.sum();
+    long syncs = fsyncs.sum();
+    return String.format("Command log: %d records (%d bytes) appended, %d batches, %d log fsyncs (%.1f records/fsync).",
+        records, bytesAppended.sum(), flushes.sum(), syncs, syncs > 0 ? (double) records / syncs : 0.0);
+  }
+}
@@ -0,0 +1,333 @@
+package server;
+
+import common.NetworkConstants;
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * WorkerReactor One of the N I/O worker threads behind the GameServer acceptor. Each worker owns its
+ * own Selector and drives OP_READ / OP_WRITE for the connections handed to it, so a slow client or
+ * an expensive read on one worker no longer stalls the players served by the others.
+ *
+ * <p>Channels are handed over by the acceptor thread through {@link #adopt(SocketChannel)}. The
+ * actual {@code register()} call has to happen on this worker's thread (registering with a selector
+ * that is blocked in select() would block the acceptor), so adopt() just queues the channel and
+ * wakes the selector up.
+ */
+public class WorkerReactor implements Runnable {
+
+  private static final Logger logger = LoggerFactory.getLogger(WorkerReactor.class);
+
+  private final int workerIndex;
+  private final GameServer server;
+  private final Selector selector;
+  private volatile boolean running = true;
+  private Thread thread;
+
+  // Channels accepted by the acceptor but not yet registered with this worker's selector.
+  private final Queue<SocketChannel> pendingRegistrations = new ConcurrentLinkedQueue<>();
+  // Clients that have new outbound frames (see requestWrite). Many producers, this thread consumes.
+  private final MpscQueue<ClientSession> pendingWrites = new MpscQueue<>();
+  // True while a selector wakeup is already on its way, so a burst of requests costs one wakeup().
+  private final AtomicBoolean wakeupPending = new AtomicBoolean();
+  // Live connections on this worker, used by the acceptor for least-loaded assignment.
+  private final AtomicInteger connectionCount = new AtomicInteger();
+  // When the slow-consumer sweep last ran (worker thread only).
+  private long lastSweepMillis;
+  private volatile boolean evictionPending;
+
+  public WorkerReactor(int workerIndex, GameServer server) throws IOException {
+    this.workerIndex = workerIndex;
+    this.server = server;
+    this.selector = Selector.open();
+  }
+
+  /** Starts this worker's selector loop on its own daemon thread. */
+  public void start() {
+    this.thread = new Thread(this, "GameServer-Worker-" + workerIndex);
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Hands a freshly accepted (already non-blocking) channel to this worker. Called from the
+   * acceptor thread.
+   */
+  public void adopt(SocketChannel channel) {
+    connectionCount.incrementAndGet();
+    pendingRegistrations.offer(channel);
+    selector.wakeup();
+  }
+
+  public int getConnectionCount() {
+    return connectionCount.get();
+  }
+
+  public int getWorkerIndex() {
+    return workerIndex;
+  }
+
+  /** Called by GameServer.cleanupClient once a connection owned by this worker is gone. */
+  void connectionClosed() {
+    connectionCount.decrementAndGet();
+  }
+
+  /** Signals the loop to stop and wakes the selector so it notices promptly. */
+  public void stop() {
+    running = false;
+    if (selector.isOpen()) {
+      selector.wakeup();
+    }
+  }
+
+  /** Waits (bounded) for the worker thread to finish its shutdown. */
+  public void join(long millis) throws InterruptedException {
+    if (thread != null) {
+      thread.join(millis);
+    }
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (running) {
+        selector.select(NetworkConstants.SELECTOR_TIMEOUT);
+        if (!running) {
+          break;
+        }
+        registerPendingChannels();
+        flushPendingWrites();
+        sweepSlowConsumers();
+
+        Set<SelectionKey> selectedKeys = selector.selectedKeys();
+        Iterator<SelectionKey> keyIterator = selectedKeys.iterator();
+        while (keyIterator.hasNext()) {
+          SelectionKey key = keyIterator.next();
+          keyIterator.remove();
+          if (!key.isValid()) {
+            continue;
+          }
+          processKey(key);
+        }
+      }
+    } catch (ClosedSelectorException cse) {
+      logger.info("Worker {} selector closed, thread shutting down as expected.", workerIndex);
+    } catch (IOException e) {
+      logger.error("Worker {} select() I/O error: {}", workerIndex, e.getMessage(), e);
+    } finally {
+      shutdownInternals();
+    }
+  }
+
+  private void registerPendingChannels() {
+    SocketChannel channel;
+    while ((channel = pendingRegistrations.poll()) != null) {
+      ClientSession clientSession = null;
+      try {
+        SelectionKey clientKey = channel.register(selector, SelectionKey.OP_READ);
+        clientSession = new ClientSession(channel, server, this);
+        clientKey.attach(clientSession);
+        server.clientRegistered(clientSession);
+      } catch (IOException e) {
+        logger.error("Worker {} failed to register accepted channel: {}", workerIndex, e.getMessage());
+        connectionCount.decrementAndGet();
+        if (clientSession != null) {
+          server.clientRegistrationFailed(clientSession);
+          clientSession.releaseQueuedFrames(); // Anything clientRegistered had already queued.
+        }
+        try {
+          channel.close();
+        } catch (IOException ignored) {
+          // Nothing more we can do for this channel.
+        }
+      }
+    }
+  }
+
+  /**
+   * Disconnects clients that can't keep up with what we send them (see
+   * ClientSession.shouldEvict), and ones a resumed connection has replaced. Runs at most once per
+   * selector timeout, or sooner when a client hits its hard limit (or is replaced) and wakes us.
+   */
+  private void sweepSlowConsumers() {
+    long now = System.currentTimeMillis();
+    if (now - lastSweepMillis < NetworkConstants.SELECTOR_TIMEOUT && !evictionPending) {
+      return;
+    }
+    lastSweepMillis = now;
+    evictionPending = false;
+    for (SelectionKey key : selector.keys()) {
+      if (key.isValid() && key.attachment() instanceof ClientSession client && client.shouldEvict(now)) {
+        if (client.isSuperseded()) {
+          server.cleanupClient(key, "Replaced by a resumed connection");
+          continue;
+        }
+        logger.info("Worker {}: disconnecting slow consumer {} ({} bytes queued).",
+            workerIndex, client.getPlayerId(), client.getQueuedBytes());
+        server.cleanupClient(key, "Slow consumer: outbound queue over its limit");
+      }
+    }
+  }
+
+  /** Asks for a slow-consumer sweep right away. Safe to call from any thread. */
+  public void wakeup() {
+    evictionPending = true;
+    selector.wakeup();
+  }
+
+  private void processKey(SelectionKey key) {
+    ClientSession client = (ClientSession) key.attachment();
+    String clientId = (client != null) ? client.getPlayerId() : "Unknown";
+    try {
+      if (client == null) {
+        logger.warn("Worker {}: event for key with no ClientSession attachment.", workerIndex);
+        key.channel().close();
+        key.cancel();
+        return;
+      }
+      if (key.isReadable()) {
+        client.handleRead();
+      }
+      if (key.isValid() && key.isWritable()) {
+        client.handleWrite();
+      }
+    } catch (CancelledKeyException cke) {
+      logger.info("Key cancelled for client {} during event processing. Cleaning up.", clientId);
+      server.cleanupClient(key, "Key was cancelled during op");
+    } catch (IOException e) {
+      logger.info("I/O Error for client {}: {}. Closing connection.", clientId, e.getMessage());
+      server.cleanupClient(key, "I/O Error: " + e.getMessage());
+    } catch (Exception e) {
+      logger.error("Unexpected error processing key for client " + clientId, e);
+      server.cleanupClient(key, "Unexpected error: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Asks this worker to flush a client that has new outbound frames. Safe to call from any thread
+   * and lock-free: the client goes on a queue, and the selector is only woken if no wakeup is
+   * already pending. ClientSession makes sure it's queued at most once per burst of sends.
+   */
+  public void requestWrite(ClientSession client) {
+    pendingWrites.offer(client);
+    boolean wake = wakeupPending.compareAndSet(false, true);
+    if (wake) {
+      selector.wakeup();
+    }
+    server.getStats().recordFlushRequest(wake);
+  }
+
+  /** Flushes every client that asked since the last round. Worker thread only. */
+  private void flushPendingWrites() {
+    // Cleared first: a request that lands after this point wakes the next select() again.
+    wakeupPending.set(false);
+    ClientSession client;
+    while ((client = pendingWrites.poll()) != null) {
+      SelectionKey key = keyFor(client);
+      try {
+        client.handleWrite(); // Releases the frames instead if the client is already gone.
+      } catch (IOException e) {
+        logger.info("I/O Error writing to client {}: {}. Closing connection.",
+            client.getPlayerId(), e.getMessage());
+        if (key != null) {
+          server.cleanupClient(key, "I/O Error: " + e.getMessage());
+        }
+      } catch (Exception e) {
+        // Same as processKey: one bad client is dropped, the worker and its other clients carry on.
+        logger.error("Unexpected error writing to client " + client.getPlayerId(), e);
+        if (key != null) {
+          server.cleanupClient(key, "Unexpected error: " + e.getMessage());
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds OP_WRITE interest for a client whose socket buffer filled up. Worker thread only (from
+   * ClientSession.handleWrite()), so no wakeup is needed.
+   */
+  public void registerForWrite(ClientSession client) {
+    SelectionKey key = keyFor(client);
+    if (key == null) {
+      return;
+    }
+    try {
+      if ((key.interestOps() & SelectionKey.OP_WRITE) == 0) {
+        key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+      }
+    } catch (CancelledKeyException e) {
+      logger.debug("Could not register for write, key cancelled for {}", client.getPlayerId());
+    }
+  }
+
+  /**
+   * Drops OP_WRITE interest once a client's write queue is empty. Called on this worker's own
+   * thread from ClientSession.handleWrite(), so no wakeup is needed.
+   */
+  public void unregisterForWrite(ClientSession client) {
+    SelectionKey key = keyFor(client);
+    if (key == null) {
+      return;
+    }
+    try {
+      if ((key.interestOps() & SelectionKey.OP_WRITE) != 0) {
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+      }
+    } catch (CancelledKeyException e) {
+      logger.debug("Could not unregister for write, key cancelled for {}", client.getPlayerId());
+    }
+  }
+
+  private SelectionKey keyFor(ClientSession client) {
+    if (client == null
+        || client.getChannel() == null
+        || !client.getChannel().isOpen()
+        || !selector.isOpen()) {
+      return null;
+    }
+    SelectionKey key = client.getChannel().keyFor(selector);
+    return (key != null && key.isValid()) ? key : null;
+  }
+
+  private void shutdownInternals() {
+    // Channels that were handed over but never registered still need closing.
+    SocketChannel pending;
+    while ((pending = pendingRegistrations.poll()) != null) {
+      try {
+        pending.close();
+      } catch (IOException ignored) {
+        // Shutting down anyway.
+      }
+    }
+    if (selector.isOpen()) {
+      for (SelectionKey key : selector.keys()) {
+        try {
+          if (key.channel() != null && key.channel().isOpen()) {
+            key.channel().close();
+          }
+          key.cancel();
+        } catch (IOException e) {
+          logger.error("Error closing channel during worker shutdown: " + key.channel(), e);
+        }
+      }
+      try {
+        selector.close();
+      } catch (IOException e) {
+        logger.error("Error closing worker selector: " + e.getMessage(), e);
+      }
+    }
+    logger.info("Worker {} has shut down.", workerIndex);
+  }
+}
@@ -218,14 +218,7 @@ public void handlePlayerCancelLobby(String playerId) {
   public RoomDescriptionDTO createRoomDescriptionDTO(Room room, String playerId) {
     if (room == null) return null;
     List<String> objectNames = room.getObjects().values().stream().map(GameObject::getName).collect(Collectors.toList());
-    String occupantsStr = getOccupantsDescriptionInRoom(room, playerId);
-    List<String> occupantNamesList = new ArrayList<>();
-    if (occupantsStr != null && !occupantsStr.equalsIgnoreCase("Occupants: None") && occupantsStr.startsWith("Occupants: ")) {
-      String[] names = occupantsStr.substring("Occupants: ".length()).split(",\\s*");
-      for (String name : names) {
-        if (!name.trim().isEmpty()) occupantNamesList.add(name.trim());
-      }
-    }
+    List<String> occupantNamesList = getOccupantNamesInRoom(room, playerId);
     Map<String, String> exits = room.getNeighbors().entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getName()));
     return new RoomDescriptionDTO(room.getName(), room.getDescription(), objectNames, occupantNamesList, exits);
   }
@@ -316,16 +309,35 @@ public void handlePlayerCancelLobby(String playerId) {
       logContextMessage("Error: getOccupantsDescriptionInRoom called with null room.");
       return "Occupants: Error";
     }
+    List<String> occupantNames = getOccupantNamesInRoom(room, askingPlayerId);
+    return occupantNames.isEmpty() ? "Occupants: None" : "Occupants: " + String.join(", ", occupantNames);
+  }
+
+  // Single player has one detective and a handful of NPCs, so a plain scan is fine here.
+  @Override
+  public List<String> getOccupantNamesInRoom(Room room, String askingPlayerId) {
     List<String> occupantNames = new ArrayList<>();
+    if (room == null) return occupantNames;
     for (Suspect suspect : this.suspects) {
-      if (suspect.getCurrentRoom() != null && suspect.getCurrentRoom().getName().equalsIgnoreCase(room.getName())) {
+      if (suspect.getCurrentRoom() == room) {
         occupantNames.add(suspect.getName());
       }
     }
-    if (this.watson != null && this.watson.getCurrentRoom() != null && this.watson.getCurrentRoom().getName().equalsIgnoreCase(room.getName())) {
+    if (this.watson != null && this.watson.getCurrentRoom() == room) {
       occupantNames.add("Dr. Watson");
     }
-    return occupantNames.isEmpty() ? "Occupants: None" : "Occupants: " + String.join(", ", occupantNames);
+    return occupantNames;
+  }
+
+  @Override
+  public Suspect findSuspectInRoom(Room room, String suspectName) {
+    if (room == null || suspectName == null) return null;
+    for (Suspect suspect : this.suspects) {
+      if (suspect.getCurrentRoom() == room && suspect.getName().equalsIgnoreCase(suspectName.trim())) {
+        return suspect;
+      }
+    }
+    return null;
   }
 
   @Override
@@ -440,6 +452,11 @@ public void handlePlayerCancelLobby(String playerId) {
     sendResponseToPlayer(null, dto);
   }
 
+  @Override
+  public void broadcastToArea(Room room, Serializable dto, String excludePlayerId) {
+    sendResponseToPlayer(null, dto); // One player, and they're wherever it happened.
+  }
+
   @Override
   public void notifyPlayerMove(String movingPlayerId, Room newRoom, Room oldRoom) {
     // No action needed in SP.
@@ -1551,7 +1551,7 @@ public class MainController implements GameClientStateListener, FinalExamListene
     }
 
     @Override
-    public void onCaseSelection(List<JsonDTO.CaseFile> cases) {
+    public void onCaseSelection(List<common.dto.CaseSummaryDTO> cases) {
         currentMultiplayerSubState = UIMultiplayerSubState.CASE_SELECTION;
         currentState = UIState.MULTIPLAYER_MENU;
         updateUIVisibility();
@@ -1579,21 +1579,20 @@ public class MainController implements GameClientStateListener, FinalExamListene
     }
 
     @Override
-    public void onLanguageSelection(JsonDTO.CaseFile caseFile) {
+    public void onLanguageSelection(common.dto.CaseSummaryDTO caseSummary) {
         currentMultiplayerSubState = UIMultiplayerSubState.LANGUAGE_SELECTION;
         currentState = UIState.MULTIPLAYER_MENU;
         updateUIVisibility();
         Platform.runLater(() -> {
             terminalTextArea.clear();
-            terminalTextArea.appendText("--- Select a Language for " + caseFile.getUniversalTitle() + " ---\n");
+            terminalTextArea.appendText("--- Select a Language for " + caseSummary.getUniversalTitle() + " ---\n");
             VBox langSelectionBox = new VBox(15);
             langSelectionBox.setAlignment(Pos.CENTER);
-            List<String> langCodes = new java.util.ArrayList<>(caseFile.getLocalizations().keySet());
-            java.util.Collections.sort(langCodes);
+            List<String> langCodes = new java.util.ArrayList<>(caseSummary.getLanguages().keySet()); // Sorted by code.
             for (int i = 0; i < langCodes.size(); i++) {
                 final int langNum = i + 1;
                 String langCode = langCodes.get(i);
-                String langName = caseFile.getLocalizations().get(langCode).getLanguageName();
+                String langName = caseSummary.getLanguages().get(langCode);
                 terminalTextArea.appendText(langNum + ". " + langName + "\n");
                 Button langButton = new Button(langName);
                 langButton.setOnAction(event -> sendCommand(String.valueOf(langNum)));
@@ -1646,7 +1645,8 @@ public class MainController implements GameClientStateListener, FinalExamListene
             terminalTextArea.appendText("--- Join Game Options ---\n");
             terminalTextArea.appendText("1. Join Public Game\n");
             terminalTextArea.appendText("2. Join Private Game\n");
-            terminalTextArea.appendText("3. Back\n");
+            terminalTextArea.appendText("3. Spectate a Game\n");
+            terminalTextArea.appendText("4. Back\n");
             terminalTextArea.appendText("-----------------------\n");
         });
     }
@@ -0,0 +1,145 @@
+package common.wire;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+public class ChunkReassemblerTest {
+
+  private final ChunkReassembler reassembler = new ChunkReassembler(2, 256, 32);
+
+  @Test
+  public void reassemblesAStreamInMemory() throws IOException {
+    byte[] body = bytes(30);
+
+    assertNull(reassembler.accept(chunk(1, 0, false, Arrays.copyOfRange(body, 0, 10))));
+    assertNull(reassembler.accept(chunk(1, 1, false, Arrays.copyOfRange(body, 10, 20))));
+    try (ChunkReassembler.CompletedStream stream = reassembler.accept(chunk(1, 2, true, Arrays.copyOfRange(body, 20, 30)))) {
+      assertFalse(stream.wasSpooled());
+      assertArrayEquals(body, remaining(stream.body()));
+    }
+    assertEquals(0, reassembler.getOpenStreamCount());
+  }
+
+  @Test
+  public void spoolsPastTheThresholdAndRemovesTheFileOnClose() throws IOException {
+    long spoolFilesBefore = spoolFiles();
+    byte[] body = bytes(100);
+
+    assertNull(reassembler.accept(chunk(1, 0, false, Arrays.copyOfRange(body, 0, 20))));
+    assertNull(reassembler.accept(chunk(1, 1, false, Arrays.copyOfRange(body, 20, 60))));
+    try (ChunkReassembler.CompletedStream stream = reassembler.accept(chunk(1, 2, true, Arrays.copyOfRange(body, 60, 100)))) {
+      assertTrue(stream.wasSpooled());
+      assertArrayEquals(body, remaining(stream.body()));
+    }
+    assertEquals(spoolFilesBefore, spoolFiles());
+  }
+
+  @Test
+  public void keepsInterleavedStreamsApart() throws IOException {
+    assertNull(reassembler.accept(chunk(1, 0, false, new byte[] {1, 2})));
+    assertNull(reassembler.accept(chunk(2, 0, false, new byte[] {9})));
+    assertEquals(2, reassembler.getOpenStreamCount());
+    try (ChunkReassembler.CompletedStream second = reassembler.accept(chunk(2, 1, true, new byte[] {8}))) {
+      assertArrayEquals(new byte[] {9, 8}, remaining(second.body()));
+    }
+    try (ChunkReassembler.CompletedStream first = reassembler.accept(chunk(1, 1, true, new byte[] {3}))) {
+      assertArrayEquals(new byte[] {1, 2, 3}, remaining(first.body()));
+    }
+  }
+
+  @Test
+  public void chunkOutOfSequenceDropsTheStream() throws IOException {
+    reassembler.accept(chunk(1, 0, false, new byte[] {1}));
+    expectFailure(chunk(1, 2, true, new byte[] {3}), "expected chunk 1");
+    assertEquals(0, reassembler.getOpenStreamCount());
+  }
+
+  @Test
+  public void laterChunkOfAnUnknownStreamIsRejected() {
+    expectFailure(chunk(5, 1, false, new byte[] {1}), "unknown stream");
+  }
+
+  @Test
+  public void tooManyConcurrentStreamsIsRejected() throws IOException {
+    reassembler.accept(chunk(1, 0, false, new byte[] {1}));
+    reassembler.accept(chunk(2, 0, false, new byte[] {1}));
+    expectFailure(chunk(3, 0, false, new byte[] {1}), "Too many concurrent streams");
+  }
+
+  @Test
+  public void streamOverTheSizeLimitIsRejectedAndDropped() throws IOException {
+    reassembler.accept(chunk(1, 0, false, bytes(200)));
+    expectFailure(chunk(1, 1, true, bytes(57)), "exceeds 256 bytes");
+    assertEquals(0, reassembler.getOpenStreamCount());
+  }
+
+  @Test
+  public void emptyStreamIsRejected() {
+    expectFailure(chunk(1, 0, true, new byte[0]), "completed empty");
+  }
+
+  @Test
+  public void chunkShorterThanItsHeaderIsRejected() {
+    expectFailure(ByteBuffer.wrap(new byte[WireCodecs.CHUNK_HEADER_BYTES - 1]), "too short");
+  }
+
+  @Test
+  public void closeDropsPartialStreams() throws IOException {
+    long spoolFilesBefore = spoolFiles();
+    reassembler.accept(chunk(1, 0, false, bytes(64))); // Spooled.
+    reassembler.accept(chunk(2, 0, false, bytes(4)));
+
+    reassembler.close();
+
+    assertEquals(0, reassembler.getOpenStreamCount());
+    assertEquals(spoolFilesBefore, spoolFiles());
+  }
+
+  private void expectFailure(ByteBuffer chunk, String message) {
+    try {
+      reassembler.accept(chunk);
+      fail("Expected an IOException containing '" + message + "'");
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains(message));
+    }
+  }
+
+  /** A chunk frame's payload, as {@link ChunkReassembler#accept} gets it (flags byte already read). */
+  private static ByteBuffer chunk(int streamId, int sequence, boolean last, byte[] data) {
+    ByteBuffer chunk = ByteBuffer.allocate(WireCodecs.CHUNK_HEADER_BYTES + data.length);
+    chunk.putInt(streamId).putInt(sequence).put((byte) (last ? 1 : 0)).put(data).flip();
+    return chunk;
+  }
+
+  private static byte[] bytes(int count) {
+    byte[] bytes = new byte[count];
+    for (int i = 0; i < count; i++) {
+      bytes[i] = (byte) i;
+    }
+    return bytes;
+  }
+
+  private static byte[] remaining(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+
+  private static long spoolFiles() throws IOException {
+    try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+      return files.filter(file -> file.getFileName().toString().startsWith("sherlock-stream-")).count();
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package common.wire;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class FrameDecoderTest {
+
+  private final BufferPool pool = new BufferPool(64, 3, 4); // 64, 256 and 1024 byte classes.
+  private final List<String> received = new ArrayList<>();
+  private final FrameDecoder.FrameHandler collect =
+      payload -> {
+        payload.get(); // Flags byte.
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        received.add(new String(bytes, StandardCharsets.UTF_8));
+      };
+
+  @Test
+  public void decodesEveryFrameOfOneRead() throws IOException {
+    FrameDecoder decoder = new FrameDecoder(pool, 64, 1024);
+    ScriptedChannel channel = new ScriptedChannel(concat(frame("one"), frame("two"), frame("three")));
+
+    assertEquals(3, decoder.readFrom(channel, collect, 8));
+    assertEquals(List.of("one", "two", "three"), received);
+    assertEquals(0, decoder.getPendingBytes());
+  }
+
+  @Test
+  public void frameSplitAcrossReadsIsDeliveredOnceComplete() throws IOException {
+    FrameDecoder decoder = new FrameDecoder(pool, 64, 1024);
+    byte[] whole = frame("split me");
+    // Cut inside the length prefix, then inside the payload.
+    ScriptedChannel channel = new ScriptedChannel(
+        Arrays.copyOfRange(whole, 0, 2), Arrays.copyOfRange(whole, 2, 7), Arrays.copyOfRange(whole, 7, whole.length));
+
+    assertEquals(0, decoder.readFrom(channel, collect, 8));
+    assertEquals(2, decoder.getPendingBytes());
+    channel.arrive();
+    assertEquals(0, decoder.readFrom(channel, collect, 8));
+    assertEquals(7, decoder.getPendingBytes());
+    channel.arrive();
+    assertEquals(1, decoder.readFrom(channel, collect, 8));
+    assertEquals(List.of("split me"), received);
+    assertEquals(0, decoder.getPendingBytes());
+  }
+
+  @Test
+  public void partialFrameAfterCompleteOnesIsKept() throws IOException {
+    FrameDecoder decoder = new FrameDecoder(pool, 64, 1024);
+    byte[] second = frame("second");
+    ScriptedChannel channel = new ScriptedChannel(
+        concat(frame("first"), Arrays.copyOfRange(second, 0, 6)), Arrays.copyOfRange(second, 6, second.length));
+
+    assertEquals(1, decoder.readFrom(channel, collect, 8));
+    assertEquals(6, decoder.getPendingBytes());
+    channel.arrive();
+    assertEquals(1, decoder.readFrom(channel, collect, 8));
+    assertEquals(List.of("first", "second"), received);
+  }
+
+  @Test
+  public void growsTheBufferForAFrameBiggerThanItsStartingSize() throws IOException {
+    FrameDecoder decoder = new FrameDecoder(pool, 64, 1024);
+    String big = "x".repeat(500);
+    byte[] whole = frame(big);
+    ScriptedChannel channel = new ScriptedChannel(
+        Arrays.copyOfRange(whole, 0, 64), Arrays.copyOfRange(whole, 64, whole.length));
+
+    assertEquals(0, decoder.readFrom(channel, collect, 8));
+    assertEquals(64, decoder.getPendingBytes());
+    channel.arrive();
+    assertEquals(1, decoder.readFrom(channel, collect, 8));
+    assertEquals(List.of(big), received);
+  }
+
+  @Test
+  public void oversizedLengthPrefixIsAProtocolError() {
+    FrameDecoder decoder = new FrameDecoder(pool, 64, 1024);
+    ScriptedChannel channel = new ScriptedChannel(ByteBuffer.allocate(8).putInt(1025).putInt(0).array());
+    try {
+      decoder.readFrom(channel, collect, 8);
+      fail("Expected an IOException for a length over the limit");
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("1025"));
+    }
+    assertTrue(received.isEmpty());
+  }
+
+  @Test
+  public void lengthWithoutRoomForTheFlagsByteIsAProtocolError() {
+    FrameDecoder decoder = new FrameDecoder(pool, 64, 1024);
+    ScriptedChannel channel = new ScriptedChannel(ByteBuffer.allocate(5).putInt(WireCodecs.HEADER_BYTES).array());
+    try {
+      decoder.readFrom(channel, collect, 8);
+      fail("Expected an IOException for a frame with no payload");
+    } catch (IOException expected) {
+      // Expected.
+    }
+  }
+
+  @Test(expected = EOFException.class)
+  public void endOfStreamIsReported() throws IOException {
+    FrameDecoder decoder = new FrameDecoder(pool, 64, 1024);
+    ScriptedChannel channel = new ScriptedChannel();
+    channel.eof = true;
+    decoder.readFrom(channel, collect, 8);
+  }
+
+  /** Length prefix, a zero flags byte, then {@code text} as UTF-8. */
+  private static byte[] frame(String text) {
+    byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+    return ByteBuffer.allocate(WireCodecs.LENGTH_PREFIX_BYTES + WireCodecs.HEADER_BYTES + payload.length)
+        .putInt(WireCodecs.HEADER_BYTES + payload.length)
+        .put((byte) 0)
+        .put(payload)
+        .array();
+  }
+
+  private static byte[] concat(byte[]... parts) {
+    ByteBuffer all = ByteBuffer.allocate(Arrays.stream(parts).mapToInt(p -> p.length).sum());
+    for (byte[] part : parts) {
+      all.put(part);
+    }
+    return all.array();
+  }
+
+  /** A non-blocking channel whose bytes arrive when the test says so; reads return 0 once drained. */
+  private static final class ScriptedChannel implements ReadableByteChannel {
+    private final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+    private final ArrayDeque<byte[]> later = new ArrayDeque<>();
+    private boolean eof;
+
+    /** The first chunk is available right away, each later one after {@link #arrive()}. */
+    ScriptedChannel(byte[]... chunks) {
+      later.addAll(Arrays.asList(chunks));
+      arrive();
+    }
+
+    void arrive() {
+      if (!later.isEmpty()) {
+        pending.add(ByteBuffer.wrap(later.poll()));
+      }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) {
+      ByteBuffer current = pending.peek();
+      if (current == null) {
+        return eof ? -1 : 0;
+      }
+      int n = Math.min(dst.remaining(), current.remaining());
+      ByteBuffer slice = current.slice();
+      slice.limit(n);
+      dst.put(slice);
+      current.position(current.position() + n);
+      if (!current.hasRemaining()) {
+        pending.poll();
+      }
+      return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,207 @@
+package server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import common.commands.ExitCommand;
+import common.dto.GameStateData;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CommandLogTest {
+
+  private static final String SESSION = "0123456789abcdef";
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void recordsReadBackInOrderWithTheirPayloads() throws IOException {
+    Path dir = folder.newFolder().toPath();
+    SessionStore store = store(dir);
+    CommandLog log = store.open(SESSION, 0);
+    log.appendJoin("p1", "Holmes", "token");
+    log.appendCommand("p1", new ExitCommand());
+    log.appendNpcMoves(new int[] {0, 3}, new int[] {7, 11}, 2);
+    log.appendLeave("p1");
+    store.close();
+
+    List<CommandLog.Entry> entries = CommandLog.read(dir.resolve(SESSION + SessionStore.LOG_SUFFIX));
+
+    assertEquals(4, entries.size());
+    for (int i = 0; i < entries.size(); i++) {
+      assertEquals(i + 1, entries.get(i).sequence());
+    }
+    assertEquals(CommandLog.JOIN, entries.get(0).type());
+    assertArrayEquals(new String[] {"p1", "Holmes", "token"}, entries.get(0).strings());
+    assertEquals(CommandLog.COMMAND, entries.get(1).type());
+    assertEquals("p1", entries.get(1).playerId());
+    assertTrue(entries.get(1).command() instanceof ExitCommand);
+    assertEquals(CommandLog.NPC_MOVES, entries.get(2).type());
+    assertArrayEquals(new int[] {0, 7, 3, 11}, entries.get(2).npcMoves());
+    assertEquals(CommandLog.LEAVE, entries.get(3).type());
+    assertArrayEquals(new String[] {"p1"}, entries.get(3).strings());
+  }
+
+  @Test
+  public void tornTailIsCutOff() throws IOException {
+    Path file = logWithLeaves(3);
+    long intact = Files.size(file);
+    // Half a header, as if the crash hit while the next record was being written.
+    Files.write(file, new byte[] {0, 0, 0, 9, 1, 2}, StandardOpenOption.APPEND);
+
+    List<CommandLog.Entry> entries = CommandLog.read(file);
+
+    assertEquals(3, entries.size());
+    assertEquals(intact, Files.size(file));
+  }
+
+  @Test
+  public void recordWhosePayloadRunsPastTheEndIsCutOff() throws IOException {
+    Path file = logWithLeaves(2);
+    byte[] data = Files.readAllBytes(file);
+    int last = data.length - recordLength(data);
+    Files.write(file, Arrays.copyOf(data, data.length - 1)); // Last record loses its final byte.
+
+    List<CommandLog.Entry> entries = CommandLog.read(file);
+
+    assertEquals(1, entries.size());
+    assertEquals(last, Files.size(file));
+  }
+
+  @Test
+  public void corruptFinalRecordFailsItsCrcAndIsCutOff() throws IOException {
+    Path file = logWithLeaves(3);
+    byte[] data = Files.readAllBytes(file);
+    int lastRecordStart = data.length - recordLength(data);
+    data[data.length - 1] ^= 0x5A; // Flip bits in the last record's payload.
+    Files.write(file, data);
+
+    List<CommandLog.Entry> entries = CommandLog.read(file);
+
+    assertEquals(2, entries.size());
+    assertEquals(2, entries.get(1).sequence());
+    assertEquals(lastRecordStart, Files.size(file));
+  }
+
+  @Test
+  public void snapshotTruncatesTheLogAndRecoveryReplaysOnlyWhatCameAfter() throws IOException {
+    Path dir = folder.newFolder().toPath();
+    SessionStore store = store(dir);
+    CommandLog log = store.open(SESSION, 0);
+    log.appendLeave("a");
+    log.appendLeave("b");
+    log.snapshot(new GameStateData());
+    log.appendLeave("c");
+    store.close();
+
+    assertEquals(1, CommandLog.read(dir.resolve(SESSION + SessionStore.LOG_SUFFIX)).size());
+    GameStateData snapshot = CommandLog.readSnapshot(dir.resolve(SESSION + SessionStore.SNAPSHOT_SUFFIX));
+    assertNotNull(snapshot);
+    assertEquals(2, snapshot.getLogSequence());
+
+    SessionStore.Recovered recovered = recoverOnly(dir);
+    assertEquals(2, recovered.snapshot().getLogSequence());
+    assertEquals(1, recovered.tail().size());
+    assertEquals(3, recovered.tail().get(0).sequence());
+    assertArrayEquals(new String[] {"c"}, recovered.tail().get(0).strings());
+    assertEquals(3, recovered.lastSequence());
+  }
+
+  @Test
+  public void recoverySkipsRecordsTheSnapshotCoversWhenTheLogWasNotTruncated() throws IOException {
+    Path dir = folder.newFolder().toPath();
+    SessionStore store = store(dir);
+    CommandLog log = store.open(SESSION, 0);
+    log.appendLeave("a");
+    log.appendLeave("b");
+    log.snapshot(new GameStateData());
+    store.close();
+    // The server died between writing the snapshot and truncating the log: records 1..3 are still there.
+    Path untruncated = logWithLeaves(3);
+    Files.copy(untruncated, dir.resolve(SESSION + SessionStore.LOG_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+
+    SessionStore.Recovered recovered = recoverOnly(dir);
+
+    assertEquals(1, recovered.tail().size());
+    assertEquals(3, recovered.tail().get(0).sequence());
+  }
+
+  @Test
+  public void damagedSnapshotDiscardsTheSession() throws IOException {
+    Path dir = folder.newFolder().toPath();
+    SessionStore store = store(dir);
+    CommandLog log = store.open(SESSION, 0);
+    log.snapshot(new GameStateData());
+    log.appendLeave("a");
+    store.close();
+    Path snapshotFile = dir.resolve(SESSION + SessionStore.SNAPSHOT_SUFFIX);
+    byte[] snapshot = Files.readAllBytes(snapshotFile);
+    snapshot[snapshot.length - 1] ^= 0x5A;
+    Files.write(snapshotFile, snapshot);
+
+    assertNull(CommandLog.readSnapshot(snapshotFile));
+    SessionStore reopened = store(dir);
+    assertTrue(reopened.recover().isEmpty());
+    reopened.close();
+    assertFalse(Files.exists(snapshotFile));
+    assertFalse(Files.exists(dir.resolve(SESSION + SessionStore.LOG_SUFFIX)));
+  }
+
+  @Test
+  public void logWithoutASnapshotIsDeleted() throws IOException {
+    Path dir = folder.newFolder().toPath();
+    SessionStore store = store(dir);
+    store.open(SESSION, 0).appendLeave("a");
+    store.close();
+
+    SessionStore reopened = store(dir);
+    assertTrue(reopened.recover().isEmpty());
+    reopened.close();
+    assertFalse(Files.exists(dir.resolve(SESSION + SessionStore.LOG_SUFFIX)));
+  }
+
+  private static SessionStore store(Path dir) throws IOException {
+    return new SessionStore(dir, 0, 1000);
+  }
+
+  /** A log file (and nothing else) holding {@code count} LEAVE records, sequence 1..count. */
+  private Path logWithLeaves(int count) throws IOException {
+    Path dir = folder.newFolder().toPath();
+    SessionStore store = store(dir);
+    CommandLog log = store.open(SESSION, 0);
+    for (int i = 0; i < count; i++) {
+      log.appendLeave("p" + i);
+    }
+    store.close(); // Flushes what's pending.
+    return dir.resolve(SESSION + SessionStore.LOG_SUFFIX);
+  }
+
+  /** Length of one record, header included; every record in these logs has the same size. */
+  private static int recordLength(byte[] data) {
+    return CommandLog.RECORD_HEADER_BYTES + ByteBuffer.wrap(data).getInt(0);
+  }
+
+  private static SessionStore.Recovered recoverOnly(Path dir) throws IOException {
+    SessionStore store = store(dir);
+    try {
+      List<SessionStore.Recovered> recovered = store.recover();
+      assertEquals(1, recovered.size());
+      return recovered.get(0);
+    } finally {
+      store.close();
+    }
+  }
+}
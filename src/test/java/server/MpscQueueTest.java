@@ -0,0 +1,78 @@
+package server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class MpscQueueTest {
+
+  @Test
+  public void emptyQueuePollsNull() {
+    MpscQueue<String> queue = new MpscQueue<>();
+    assertTrue(queue.isEmpty());
+    assertNull(queue.poll());
+  }
+
+  @Test
+  public void pollsInOfferOrder() {
+    MpscQueue<String> queue = new MpscQueue<>();
+    queue.offer("a");
+    queue.offer("b");
+    assertFalse(queue.isEmpty());
+    assertEquals("a", queue.poll());
+    queue.offer("c");
+    assertEquals("b", queue.poll());
+    assertEquals("c", queue.poll());
+    assertNull(queue.poll());
+    assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void manyProducersLoseNothingAndKeepEachProducersOrder() throws InterruptedException {
+    int producers = 4;
+    int perProducer = 50_000;
+    MpscQueue<long[]> queue = new MpscQueue<>();
+    CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[producers];
+    for (int p = 0; p < producers; p++) {
+      long producer = p;
+      threads[p] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (long i = 0; i < perProducer; i++) {
+          queue.offer(new long[] {producer, i});
+        }
+      });
+      threads[p].start();
+    }
+    start.countDown();
+
+    long[] nextExpected = new long[producers];
+    int received = 0;
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (received < producers * perProducer && System.nanoTime() < deadline) {
+      long[] element = queue.poll();
+      if (element == null) {
+        Thread.onSpinWait(); // A producer may be half way through an offer.
+        continue;
+      }
+      int producer = (int) element[0];
+      assertEquals("producer " + producer, nextExpected[producer], element[1]);
+      nextExpected[producer]++;
+      received++;
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(producers * perProducer, received);
+    assertNull(queue.poll());
+  }
+}
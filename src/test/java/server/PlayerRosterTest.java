@@ -0,0 +1,161 @@
+package server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class PlayerRosterTest {
+
+  @Test
+  public void keepsJoinOrderAndFindsPlayersById() {
+    PlayerRoster<String> roster = new PlayerRoster<>(4);
+    assertTrue(roster.add("host", "H"));
+    assertTrue(roster.add("guest", "G"));
+
+    assertEquals(2, roster.size());
+    assertEquals("H", roster.host());
+    assertEquals("host", roster.hostId());
+    assertTrue(roster.isHost("host"));
+    assertEquals(1, roster.indexOf("guest"));
+    assertEquals("G", roster.get("guest"));
+    assertNull(roster.get("stranger"));
+    assertEquals(-1, roster.indexOf(null));
+  }
+
+  @Test
+  public void refusesDuplicatesAndPlayersPastCapacity() {
+    PlayerRoster<String> roster = new PlayerRoster<>(2);
+    assertTrue(roster.add("a", "A"));
+    assertFalse(roster.add("a", "again"));
+    assertTrue(roster.add("b", "B"));
+    assertTrue(roster.isFull());
+    assertFalse(roster.add("c", "C"));
+    assertEquals("A", roster.get("a"));
+    assertFalse(new PlayerRoster<String>(4).add(null, "nobody"));
+  }
+
+  @Test
+  public void capacityBelowOneHoldsOnePlayer() {
+    PlayerRoster<String> roster = new PlayerRoster<>(0);
+    assertEquals(1, roster.capacity());
+    assertTrue(roster.add("a", "A"));
+    assertFalse(roster.add("b", "B"));
+  }
+
+  @Test
+  public void removingMovesLaterPlayersUpASlot() {
+    PlayerRoster<String> roster = new PlayerRoster<>(4);
+    roster.add("a", "A");
+    roster.add("b", "B");
+    roster.add("c", "C");
+
+    assertEquals("A", roster.remove("a"));
+
+    assertEquals(2, roster.size());
+    assertEquals("b", roster.hostId());
+    assertEquals(0, roster.indexOf("b"));
+    assertEquals(1, roster.indexOf("c"));
+    assertEquals(-1, roster.indexOf("a"));
+    assertNull(roster.remove("a"));
+    assertEquals(List.of("B", "C"), toList(roster));
+  }
+
+  @Test
+  public void removingTheEndOfAProbeChainKeepsTheRestFindable() {
+    PlayerRoster<String> roster = new PlayerRoster<>(4);
+    List<String> ids = collidingIds(3, 4);
+    for (String id : ids) {
+      assertTrue(roster.add(id, id.toUpperCase()));
+    }
+
+    assertEquals(ids.get(2).toUpperCase(), roster.remove(ids.get(2)));
+
+    assertEquals(-1, roster.indexOf(ids.get(2)));
+    assertEquals(0, roster.indexOf(ids.get(0)));
+    assertEquals(1, roster.indexOf(ids.get(1)));
+    assertTrue(roster.add(ids.get(2), "back"));
+    assertEquals("back", roster.get(ids.get(2)));
+  }
+
+  @Test
+  public void removingTheStartOfAProbeChainKeepsTheRestFindable() {
+    PlayerRoster<String> roster = new PlayerRoster<>(4);
+    List<String> ids = collidingIds(3, 4);
+    for (String id : ids) {
+      roster.add(id, id);
+    }
+
+    roster.remove(ids.get(0));
+
+    assertEquals(-1, roster.indexOf(ids.get(0)));
+    assertEquals(0, roster.indexOf(ids.get(1)));
+    assertEquals(1, roster.indexOf(ids.get(2)));
+  }
+
+  @Test
+  public void missingIdInAFullChainIsNotFound() {
+    PlayerRoster<String> roster = new PlayerRoster<>(4);
+    List<String> ids = collidingIds(5, 4);
+    for (String id : ids.subList(0, 4)) {
+      roster.add(id, id);
+    }
+    assertEquals(-1, roster.indexOf(ids.get(4)));
+    assertFalse(roster.contains(ids.get(4)));
+  }
+
+  @Test
+  public void replaceKeepsThePlayersSlot() {
+    PlayerRoster<String> roster = new PlayerRoster<>(4);
+    roster.add("a", "old A");
+    roster.add("b", "B");
+
+    assertEquals("old A", roster.replace("a", "new A"));
+
+    assertEquals(0, roster.indexOf("a"));
+    assertEquals("new A", roster.host());
+    assertNull(roster.replace("stranger", "X"));
+    assertEquals(2, roster.size());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void slotPastTheEndIsOutOfBounds() {
+    PlayerRoster<String> roster = new PlayerRoster<>(4);
+    roster.add("a", "A");
+    roster.at(1);
+  }
+
+  private static List<String> toList(PlayerRoster<String> roster) {
+    List<String> values = new ArrayList<>();
+    for (String value : roster) {
+      values.add(value);
+    }
+    return values;
+  }
+
+  /**
+   * {@code count} IDs that all land in the same hash slot of a roster with {@code capacity}, found
+   * with the roster's own slot function (spread the String hash, mask to the table size).
+   */
+  private static List<String> collidingIds(int count, int capacity) {
+    int mask = (Integer.highestOneBit(capacity * 2 - 1) << 1) - 1;
+    List<String> ids = new ArrayList<>();
+    int target = -1;
+    for (int i = 0; ids.size() < count; i++) {
+      String id = "player-" + i;
+      int h = id.hashCode();
+      int slot = (h ^ (h >>> 16)) & mask;
+      if (target < 0) {
+        target = slot;
+      }
+      if (slot == target) {
+        ids.add(id);
+      }
+    }
+    return ids;
+  }
+}
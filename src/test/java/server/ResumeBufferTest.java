@@ -0,0 +1,175 @@
+package server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import common.NetworkConstants;
+import common.dto.TextMessage;
+import common.wire.EncodedFrame;
+import common.wire.WireFormat;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+
+public class ResumeBufferTest {
+
+  private final ResumeBuffer buffer = new ResumeBuffer();
+  private final List<EncodedFrame> ours = new ArrayList<>(); // The test's own reference to each frame.
+
+  @After
+  public void releaseFrames() {
+    buffer.release();
+    for (EncodedFrame frame : ours) {
+      frame.release();
+    }
+  }
+
+  @Test
+  public void keepsNothingBeforeThePlayerTakesASeat() throws IOException {
+    buffer.written(frame("before"));
+    assertNull(buffer.missedSince(0));
+    assertEquals(1, buffer.getFramesWritten());
+  }
+
+  @Test
+  public void replaysTheFramesAfterTheClientsCount() throws IOException {
+    buffer.start();
+    List<EncodedFrame> written = writeFrames(5);
+
+    List<EncodedFrame> missed = buffer.missedSince(3);
+
+    assertEquals(List.of(written.get(3), written.get(4)), missed);
+    releaseAll(missed);
+    List<EncodedFrame> none = buffer.missedSince(5);
+    assertTrue(none.isEmpty());
+  }
+
+  @Test
+  public void countAheadOfWhatWasWrittenCannotBeReplayed() throws IOException {
+    buffer.start();
+    writeFrames(2);
+    assertNull(buffer.missedSince(3));
+  }
+
+  @Test
+  public void ringOverrunCannotBeReplayedFromBeforeTheOldestKeptFrame() throws IOException {
+    buffer.start();
+    int total = NetworkConstants.RESUME_BUFFER_FRAMES + 10;
+    List<EncodedFrame> written = writeFrames(total);
+
+    // The first ten fell out of the ring, so a client that only read five has a hole.
+    assertNull(buffer.missedSince(5));
+    List<EncodedFrame> oldestKept = buffer.missedSince(10);
+    assertNotNull(oldestKept);
+    assertEquals(NetworkConstants.RESUME_BUFFER_FRAMES, oldestKept.size());
+    assertSame(written.get(10), oldestKept.get(0));
+    releaseAll(oldestKept);
+    List<EncodedFrame> tail = buffer.missedSince(total - 3);
+    assertEquals(written.subList(total - 3, total), tail);
+    releaseAll(tail);
+  }
+
+  @Test
+  public void replaysTheRingThenUnsentThenLateFrames() throws IOException {
+    buffer.start();
+    List<EncodedFrame> written = writeFrames(2);
+    EncodedFrame unsent1 = frame("unsent 1");
+    EncodedFrame unsent2 = frame("unsent 2");
+    EncodedFrame late = frame("late");
+    buffer.late(List.of(late)); // Order of arrival doesn't matter; unsent always goes first.
+    buffer.unsent(unsent1);
+    buffer.unsent(unsent2);
+    buffer.seal();
+
+    List<EncodedFrame> missed = buffer.missedSince(1);
+
+    assertTrue(buffer.isSealed());
+    assertEquals(List.of(written.get(1), unsent1, unsent2, late), missed);
+    releaseAll(missed);
+  }
+
+  @Test
+  public void backlogOverItsLimitMakesTheReplayIncomplete() throws IOException {
+    buffer.start();
+    writeFrames(1);
+    String text = "x".repeat((int) NetworkConstants.RESUME_BACKLOG_BYTES);
+    List<EncodedFrame> huge = EncodedFrame.encode(new TextMessage(text, false), WireFormat.JSON, Integer.MAX_VALUE, 1024);
+    ours.addAll(huge);
+
+    buffer.late(huge);
+
+    assertNull(buffer.missedSince(1));
+  }
+
+  @Test
+  public void numberingCarriesOnFromTheResumeMarker() throws IOException {
+    buffer.start();
+    writeFrames(3); // Written on this connection before the resume response.
+    EncodedFrame marker = frame("resume response");
+    buffer.rebaseAt(marker, 10);
+    buffer.written(marker);
+    List<EncodedFrame> after = writeFrames(2);
+
+    assertEquals(12, buffer.getFramesWritten());
+    List<EncodedFrame> missed = buffer.missedSince(10);
+    assertEquals(after, missed);
+    releaseAll(missed);
+    assertNull(buffer.missedSince(9)); // Frames before the marker don't count any more.
+  }
+
+  @Test
+  public void releaseLetsGoOfEveryKeptFrame() throws IOException {
+    buffer.start();
+    EncodedFrame kept = frame("kept");
+    buffer.written(kept);
+    EncodedFrame unsent = frame("unsent");
+    buffer.unsent(unsent);
+
+    buffer.release();
+    ours.remove(kept);
+    ours.remove(unsent);
+    kept.release();
+    unsent.release();
+
+    assertReleased(kept);
+    assertReleased(unsent);
+    assertNull(buffer.missedSince(0));
+  }
+
+  private EncodedFrame frame(String text) throws IOException {
+    EncodedFrame frame = EncodedFrame.encode(new TextMessage(text, false), WireFormat.JSON).get(0);
+    ours.add(frame);
+    return frame;
+  }
+
+  private List<EncodedFrame> writeFrames(int count) throws IOException {
+    List<EncodedFrame> written = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      EncodedFrame frame = frame("frame " + i);
+      buffer.written(frame);
+      written.add(frame);
+    }
+    return written;
+  }
+
+  private static void releaseAll(List<EncodedFrame> frames) {
+    for (EncodedFrame frame : frames) {
+      frame.release();
+    }
+  }
+
+  private static void assertReleased(EncodedFrame frame) {
+    try {
+      frame.retain();
+      fail("Frame still referenced: " + frame);
+    } catch (IllegalStateException expected) {
+      // Expected: the last reference is gone.
+    }
+  }
+}